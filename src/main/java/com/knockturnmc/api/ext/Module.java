@@ -66,9 +66,16 @@ public @interface Module {
     String version() default "";
 
     /**
-     * Returns the dependencies for the given module
+     * Returns the dependencies for the given module, as {@code name} or {@code name@range} like {@code economy@^2.1}
      *
      * @return the dependencie ids
      */
     String[] dependencies() default {};
+
+    /**
+     * Returns the optional dependencies for the given module, which are loaded before it if they are present
+     *
+     * @return the optional dependency ids
+     */
+    String[] softDependencies() default {};
 }
\ No newline at end of file
@@ -0,0 +1,339 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.ext.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Delivers events between modules. Listener methods are annotated with {@link Subscribe} and called through an
+ * {@link EventExecutor} that is generated once per listener method: with {@link LambdaMetafactory} if the listener
+ * provides its {@link MethodHandles.Lookup}, otherwise through a {@link MethodHandle}. The ordered listeners of an event
+ * type, including those of its supertypes, are cached until the next registration change.
+ * <p>
+ * Every listener is owned by the class loader of its class, so the {@link com.knockturnmc.api.ext.loader.ModuleLoader}
+ * removes the listeners of a module through {@link #unregisterAll(ClassLoader)} when the module is disabled or unloaded.
+ * Exceptions thrown by listeners are logged and do not stop the delivery to the remaining listeners.
+ */
+public class EventBus {
+
+    private static final MethodType EXECUTOR_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+    /**
+     * The executors per listener method, shared by all instances of a listener class so their call sites stay monomorphic
+     */
+    private static final ClassValue<Map<Method, EventExecutor>> EXECUTORS = new ClassValue<Map<Method, EventExecutor>>() {
+        @Override
+        protected Map<Method, EventExecutor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final Executor executor;
+
+    private volatile List<Subscriber> subscribers = new ArrayList<>();
+    private volatile Map<Class<?>, Subscriber[]> chains = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an event bus that delivers asynchronous events on the common pool
+     */
+    public EventBus() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an event bus
+     *
+     * @param executor the executor of asynchronous deliveries
+     */
+    public EventBus(Executor executor) {
+        if (executor == null) throw new IllegalArgumentException("executor can not be null");
+        this.executor = executor;
+    }
+
+    /**
+     * Registers the {@link Subscribe} methods of a listener, which have to be public and declared in a public class
+     *
+     * @param listener the listener
+     * @throws IllegalArgumentException if a listener method is invalid or inaccessible
+     */
+    public void register(Object listener) {
+        register(listener, null);
+    }
+
+    /**
+     * Registers the {@link Subscribe} methods of a listener. Given the lookup of the listener class, called as
+     * {@code register(this, MethodHandles.lookup())}, the methods may be private and are called through generated classes.
+     * A method overridden by a {@link Subscribe} method of a subclass is only registered through the override.
+     *
+     * @param listener the listener
+     * @param lookup   the lookup of the listener class or {@code null}
+     * @throws IllegalArgumentException if a listener method is invalid or inaccessible
+     */
+    public void register(Object listener, MethodHandles.Lookup lookup) {
+        if (listener == null) throw new IllegalArgumentException("listener can not be null");
+        List<Subscriber> found = new ArrayList<>();
+        List<Method> registered = new ArrayList<>();
+        for (Class<?> type = listener.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                Subscribe subscribe = method.getAnnotation(Subscribe.class);
+                if (subscribe == null || method.isBridge()) continue;
+                //The handle of an overridden method dispatches to the registered override, which would run twice
+                if (registered.stream().anyMatch(m -> overrides(m, method))) continue;
+                registered.add(method);
+                if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1) {
+                    throw new IllegalArgumentException("Listener method " + method + " has to be an instance method with a single parameter");
+                }
+                Class<?> eventType = method.getParameterTypes()[0];
+                EventExecutor executor = isAccessible(method, lookup)
+                        ? EXECUTORS.get(type).computeIfAbsent(method, m -> createExecutor(m, lookup))
+                        : createExecutor(method, lookup); //Access is checked by the lookup
+                found.add(new Subscriber(listener, eventType, subscribe.priority(), executor, listener.getClass().getClassLoader()));
+            }
+        }
+        if (found.isEmpty()) throw new IllegalArgumentException("Listener " + listener.getClass().getName() + " has no @Subscribe methods");
+        add(found);
+    }
+
+    /**
+     * Returns if a method overrides a method of a superclass
+     *
+     * @param method     the method
+     * @param overridden the method of the superclass
+     * @return true if the method overrides it
+     */
+    private static boolean overrides(Method method, Method overridden) {
+        if (!method.getName().equals(overridden.getName()) || !Arrays.equals(method.getParameterTypes(), overridden.getParameterTypes())) return false;
+        int modifiers = overridden.getModifiers();
+        if (Modifier.isPrivate(modifiers)) return false;
+        if (Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers)) return true;
+        //Package-private methods are only overridden within the same runtime package
+        Class<?> type = method.getDeclaringClass();
+        Class<?> overriddenType = overridden.getDeclaringClass();
+        return type.getClassLoader() == overriddenType.getClassLoader() && getPackageName(type).equals(getPackageName(overriddenType));
+    }
+
+    private static String getPackageName(Class<?> type) {
+        int end = type.getName().lastIndexOf('.');
+        return end < 0 ? "" : type.getName().substring(0, end);
+    }
+
+    /**
+     * Registers a single listener function
+     *
+     * @param eventType the type of the events
+     * @param priority  the priority
+     * @param listener  the function, also used to unregister it
+     * @param <E>       the event type
+     */
+    @SuppressWarnings("unchecked")
+    public <E> void subscribe(Class<E> eventType, EventPriority priority, Consumer<? super E> listener) {
+        if (eventType == null) throw new IllegalArgumentException("eventType can not be null");
+        if (priority == null) throw new IllegalArgumentException("priority can not be null");
+        if (listener == null) throw new IllegalArgumentException("listener can not be null");
+        EventExecutor executor = (l, e) -> ((Consumer<Object>) l).accept(e);
+        List<Subscriber> found = new ArrayList<>();
+        found.add(new Subscriber(listener, eventType, priority, executor, listener.getClass().getClassLoader()));
+        add(found);
+    }
+
+    /**
+     * Unregisters all methods of a listener or a listener function
+     *
+     * @param listener the listener
+     */
+    public synchronized void unregister(Object listener) {
+        List<Subscriber> remaining = new ArrayList<>(subscribers);
+        if (remaining.removeIf(s -> s.listener == listener)) update(remaining);
+    }
+
+    /**
+     * Unregisters all listeners whose class was loaded by the class loader, which is how the listeners of a module are removed
+     *
+     * @param classLoader the class loader
+     */
+    public synchronized void unregisterAll(ClassLoader classLoader) {
+        List<Subscriber> remaining = new ArrayList<>(subscribers);
+        remaining.removeIf(s -> s.owner == classLoader);
+        //Always reset the cached chains, they may reference event types of the class loader
+        update(remaining);
+    }
+
+    /**
+     * Returns the number of registered listener methods and functions
+     *
+     * @return the count
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Delivers an event to its listeners on the current thread
+     *
+     * @param event the event
+     * @param <E>   the event type
+     * @return the event
+     */
+    public <E> E post(E event) {
+        if (event == null) throw new IllegalArgumentException("event can not be null");
+        for (Subscriber subscriber : getChain(event.getClass())) {
+            try {
+                subscriber.executor.execute(subscriber.listener, event);
+            } catch (VirtualMachineError e) {
+                throw e;
+            } catch (Throwable t) {
+                logger.error("Could not pass " + event.getClass().getName() + " to " + subscriber.listener.getClass().getName(), t);
+            }
+        }
+        return event;
+    }
+
+    /**
+     * Delivers an event to its listeners on the executor of this bus, in the same order as {@link #post(Object)}
+     *
+     * @param event the event
+     * @param <E>   the event type
+     * @return the future completed with the event after all listeners were called
+     */
+    public <E> CompletableFuture<E> postAsync(E event) {
+        if (event == null) throw new IllegalArgumentException("event can not be null");
+        return CompletableFuture.supplyAsync(() -> post(event), executor);
+    }
+
+    /**
+     * Checks if an event type has listeners, so creating the event can be skipped
+     *
+     * @param eventType the event type
+     * @return true if at least one listener receives events of the type
+     */
+    public boolean hasSubscribers(Class<?> eventType) {
+        return getChain(eventType).length > 0;
+    }
+
+    private Subscriber[] getChain(Class<?> eventType) {
+        Map<Class<?>, Subscriber[]> chains = this.chains; //Read before the subscribers, see update
+        Subscriber[] chain = chains.get(eventType);
+        if (chain == null) {
+            List<Subscriber> matching = new ArrayList<>();
+            for (Subscriber subscriber : this.subscribers) {
+                if (subscriber.eventType.isAssignableFrom(eventType)) matching.add(subscriber);
+            }
+            matching.sort(Comparator.comparing(s -> s.priority)); //Stable, keeps the registration order
+            chain = matching.isEmpty() ? NO_SUBSCRIBERS : matching.toArray(NO_SUBSCRIBERS);
+            chains.put(eventType, chain);
+        }
+        return chain;
+    }
+
+    private synchronized void add(List<Subscriber> added) {
+        List<Subscriber> updated = new ArrayList<>(subscribers);
+        updated.addAll(added);
+        update(updated);
+    }
+
+    /**
+     * Publishes new subscribers before a new empty chain cache, so a chain cached in the new cache never misses them
+     */
+    private void update(List<Subscriber> updated) {
+        this.subscribers = updated;
+        this.chains = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Checks if a cached executor of the method may be handed out, as the method is accessible without or with the lookup
+     */
+    private static boolean isAccessible(Method method, MethodHandles.Lookup lookup) {
+        if (Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers())) return true;
+        return lookup != null && lookup.lookupClass() == method.getDeclaringClass() && (lookup.lookupModes() & MethodHandles.Lookup.PRIVATE) != 0;
+    }
+
+    private static EventExecutor createExecutor(Method method, MethodHandles.Lookup lookup) {
+        try {
+            MethodHandle handle;
+            if (lookup != null) {
+                handle = lookup.unreflect(method);
+                if ((lookup.lookupModes() & MethodHandles.Lookup.PRIVATE) != 0) {
+                    try {
+                        CallSite site = LambdaMetafactory.metafactory(lookup, "execute", MethodType.methodType(EventExecutor.class),
+                                EXECUTOR_TYPE, handle, MethodType.methodType(void.class, method.getDeclaringClass(), method.getParameterTypes()[0]));
+                        return (EventExecutor) site.getTarget().invokeExact();
+                    } catch (LambdaConversionException e) {
+                        //Falls back to the method handle
+                    }
+                }
+            } else {
+                if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                    throw new IllegalArgumentException("Listener method " + method + " has to be public or registered with a lookup");
+                }
+                handle = MethodHandles.publicLookup().unreflect(method);
+            }
+
+            MethodHandle generic = handle.asType(EXECUTOR_TYPE);
+            return generic::invokeExact;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalArgumentException("Could not access listener method " + method, t);
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final Object listener;
+        private final Class<?> eventType;
+        private final EventPriority priority;
+        private final EventExecutor executor;
+        private final ClassLoader owner;
+
+        private Subscriber(Object listener, Class<?> eventType, EventPriority priority, EventExecutor executor, ClassLoader owner) {
+            this.listener = listener;
+            this.eventType = eventType;
+            this.priority = priority;
+            this.executor = executor;
+            this.owner = owner;
+        }
+    }
+}
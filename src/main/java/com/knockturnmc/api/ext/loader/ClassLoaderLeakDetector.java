@@ -0,0 +1,271 @@
+package com.knockturnmc.api.ext.loader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Detects class loaders of unloaded modules that are not garbage collected. Every unloaded class loader is tracked through a
+ * {@link PhantomReference}; a loader that was not collected once the grace period passed is reported as leak by {@link #check()}.
+ * <p>
+ * The reported hints are best effort: live threads that use the loader as context class loader or are instances of its classes,
+ * and static fields of the root classes (by default the classes of the still loaded modules) holding objects of the loader.
+ * References from other places, like the parent application, are not found and need a heap dump to be located.
+ */
+public class ClassLoaderLeakDetector {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final ReferenceQueue<ClassLoader> queue = new ReferenceQueue<>();
+    private final Set<TrackedLoader> tracked = ConcurrentHashMap.newKeySet();
+    private final Supplier<? extends Collection<Class<?>>> rootClasses;
+    private final long gracePeriod;
+
+    /**
+     * Creates a new detector that only reports thread hints
+     *
+     * @param gracePeriod the time an unloaded class loader has to be collected
+     * @param unit        the unit of the grace period
+     */
+    public ClassLoaderLeakDetector(long gracePeriod, TimeUnit unit) {
+        this(gracePeriod, unit, Collections::emptyList);
+    }
+
+    /**
+     * Creates a new detector
+     *
+     * @param gracePeriod the time an unloaded class loader has to be collected
+     * @param unit        the unit of the grace period
+     * @param rootClasses the classes whose static fields are searched for references to leaked class loaders
+     */
+    public ClassLoaderLeakDetector(long gracePeriod, TimeUnit unit, Supplier<? extends Collection<Class<?>>> rootClasses) {
+        if (gracePeriod < 0) throw new IllegalArgumentException("gracePeriod can not be negative");
+        if (unit == null) throw new IllegalArgumentException("unit can not be null");
+        if (rootClasses == null) throw new IllegalArgumentException("rootClasses can not be null");
+        this.gracePeriod = unit.toNanos(gracePeriod);
+        this.rootClasses = rootClasses;
+    }
+
+    /**
+     * Tracks the class loader of an unloaded module
+     *
+     * @param module      the module name
+     * @param classLoader the class loader, which is not referenced strongly
+     */
+    public void track(String module, ClassLoader classLoader) {
+        int classCount = classLoader instanceof ModuleClassLoader ? ((ModuleClassLoader) classLoader).getDefinedClassCount() : -1;
+        tracked.add(new TrackedLoader(module, classCount, classLoader, queue));
+    }
+
+    /**
+     * Returns the number of tracked class loaders that were not collected yet
+     *
+     * @return the count
+     */
+    public int getTrackedCount() {
+        expunge();
+        return tracked.size();
+    }
+
+    /**
+     * Forgets all tracked class loaders
+     */
+    public void clear() {
+        tracked.clear();
+    }
+
+    /**
+     * Reports the tracked class loaders that were not collected within the grace period. Every leak is reported once.
+     *
+     * @return the newly found leaks
+     */
+    public synchronized List<Leak> check() {
+        expunge();
+        long now = System.nanoTime();
+        List<Leak> leaks = new ArrayList<>();
+        for (TrackedLoader loader : tracked) {
+            if (loader.reported || now - loader.unloadedAt < gracePeriod) continue;
+            ClassLoader classLoader = loader.weak.get();
+            if (classLoader == null) continue; //Only awaiting finalization
+
+            loader.reported = true;
+            Leak leak = new Leak(loader.module, loader.classCount, TimeUnit.NANOSECONDS.toMillis(now - loader.unloadedAt), findHints(classLoader));
+            logger.warn(leak.toString());
+            leaks.add(leak);
+        }
+        return leaks;
+    }
+
+    /**
+     * Runs {@link #check()} on the given executor with the grace period as delay, at least once per second
+     *
+     * @param executor the executor
+     * @return the future of the scheduled checks
+     */
+    public ScheduledFuture<?> schedule(ScheduledExecutorService executor) {
+        long delay = Math.max(gracePeriod, TimeUnit.SECONDS.toNanos(1));
+        return executor.scheduleWithFixedDelay(this::check, delay, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void expunge() {
+        Reference<? extends ClassLoader> reference;
+        while ((reference = queue.poll()) != null) {
+            tracked.remove(reference);
+        }
+    }
+
+    private List<String> findHints(ClassLoader classLoader) {
+        List<String> hints = new ArrayList<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getContextClassLoader() == classLoader) {
+                hints.add("thread '" + thread.getName() + "' uses it as context class loader");
+            }
+            if (thread.getClass().getClassLoader() == classLoader) {
+                hints.add("thread '" + thread.getName() + "' of class " + thread.getClass().getName() + " is still alive");
+            }
+        }
+
+        for (Class<?> root : rootClasses.get()) {
+            if (root.getClassLoader() == classLoader) continue;
+            Field[] fields;
+            try {
+                fields = root.getDeclaredFields();
+            } catch (LinkageError e) {
+                continue;
+            }
+            for (Field field : fields) {
+                if (!Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) continue;
+                try {
+                    field.setAccessible(true);
+                    Object value = field.get(null);
+                    if (retains(value, classLoader)) {
+                        hints.add("static field " + root.getName() + "#" + field.getName() + " references " + value.getClass().getName());
+                    }
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    //Inaccessible fields are skipped
+                }
+            }
+        }
+        return hints;
+    }
+
+    /**
+     * Checks if a value or, for collections and maps, one of its direct elements belongs to the class loader
+     */
+    private static boolean retains(Object value, ClassLoader classLoader) {
+        if (belongs(value, classLoader)) return true;
+        try {
+            if (value instanceof Collection) {
+                for (Object element : (Collection<?>) value) {
+                    if (belongs(element, classLoader)) return true;
+                }
+            } else if (value instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    if (belongs(entry.getKey(), classLoader) || belongs(entry.getValue(), classLoader)) return true;
+                }
+            }
+        } catch (RuntimeException e) {
+            //Concurrently modified, treated as not retaining
+        }
+        return false;
+    }
+
+    private static boolean belongs(Object value, ClassLoader classLoader) {
+        if (value == null) return false;
+        if (value == classLoader) return true;
+        if (value instanceof Class) return ((Class<?>) value).getClassLoader() == classLoader;
+        return value.getClass().getClassLoader() == classLoader;
+    }
+
+    /**
+     * A class loader of an unloaded module that was not collected within the grace period
+     */
+    public static final class Leak {
+
+        private final String module;
+        private final int classCount;
+        private final long ageMillis;
+        private final List<String> hints;
+
+        private Leak(String module, int classCount, long ageMillis, List<String> hints) {
+            this.module = module;
+            this.classCount = classCount;
+            this.ageMillis = ageMillis;
+            this.hints = Collections.unmodifiableList(hints);
+        }
+
+        /**
+         * Returns the name of the unloaded module
+         *
+         * @return the module name
+         */
+        public String getModule() {
+            return module;
+        }
+
+        /**
+         * Returns the number of classes the class loader defined
+         *
+         * @return the class count or -1 if it is not a {@link ModuleClassLoader}
+         */
+        public int getClassCount() {
+            return classCount;
+        }
+
+        /**
+         * Returns the time since the module was unloaded
+         *
+         * @return the time in milliseconds
+         */
+        public long getAgeMillis() {
+            return ageMillis;
+        }
+
+        /**
+         * Returns the possible reasons the class loader is still reachable
+         *
+         * @return the hints, empty if none were found
+         */
+        public List<String> getHints() {
+            return hints;
+        }
+
+        @Override
+        public String toString() {
+            return "Class loader of unloaded module " + module + " with " + classCount + " classes was not collected after "
+                    + ageMillis + "ms" + (hints.isEmpty() ? "" : ", possibly retained by: " + String.join("; ", hints));
+        }
+    }
+
+    private static final class TrackedLoader extends PhantomReference<ClassLoader> {
+
+        private final String module;
+        private final int classCount;
+        private final long unloadedAt = System.nanoTime();
+        private final WeakReference<ClassLoader> weak;
+        private boolean reported;
+
+        private TrackedLoader(String module, int classCount, ClassLoader classLoader, ReferenceQueue<ClassLoader> queue) {
+            super(classLoader, queue);
+            this.module = module;
+            this.classCount = classCount;
+            this.weak = new WeakReference<>(classLoader);
+        }
+    }
+}
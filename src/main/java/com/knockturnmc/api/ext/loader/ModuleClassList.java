@@ -0,0 +1,195 @@
+package com.knockturnmc.api.ext.loader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the classes every module defines during a training boot, see {@link ModuleLoader#setTrainingClassList(ModuleClassList)}.
+ * The recording is written as class list for class data sharing (CDS), from which a shared archive is dumped.
+ * Later boots started with {@link #getArchiveArguments(File)} map the archived module classes instead of parsing and verifying them.
+ * <p>
+ * Module classes are listed as classes of unregistered loaders with their jar as source, which the JVM supports from Java 11.
+ * On older runtimes the class list can still be written, but no archive is dumped and no arguments are returned.
+ * The JVM only dumps archives for class paths consisting of jars, so the dump fails when started from a build directory.
+ * The recorded classes are held strongly, so their modules can not be unloaded until {@link #clear()} is called.
+ */
+public class ModuleClassList {
+
+    private static final int MINIMUM_JAVA_VERSION = 11;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final Map<String, Set<Class<?>>> classes = new LinkedHashMap<>();
+
+    /**
+     * Records a class defined by a module
+     *
+     * @param module the module name
+     * @param type   the class
+     */
+    public synchronized void record(String module, Class<?> type) {
+        classes.computeIfAbsent(module, m -> new LinkedHashSet<>()).add(type);
+    }
+
+    /**
+     * Returns the classes a module defined so far
+     *
+     * @param module the module name
+     * @return the classes in definition order
+     */
+    public synchronized List<Class<?>> getClasses(String module) {
+        Set<Class<?>> moduleClasses = classes.get(module);
+        return moduleClasses == null ? Collections.emptyList() : new ArrayList<>(moduleClasses);
+    }
+
+    /**
+     * Returns the names of the modules that defined classes
+     *
+     * @return the module names
+     */
+    public synchronized Set<String> getModules() {
+        return new LinkedHashSet<>(classes.keySet());
+    }
+
+    /**
+     * Removes all recorded classes
+     */
+    public synchronized void clear() {
+        classes.clear();
+    }
+
+    /**
+     * Writes the recorded classes as CDS class list. Every module class is preceded by its superclass and interfaces.
+     *
+     * @param file the class list file
+     * @throws IOException if the file can not be written
+     */
+    public synchronized void write(File file) throws IOException {
+        Map<Class<?>, Integer> ids = new IdentityHashMap<>();
+        List<String> lines = new ArrayList<>();
+        lines.add("# Module classes recorded by " + getClass().getName());
+        for (Set<Class<?>> moduleClasses : classes.values()) {
+            for (Class<?> type : moduleClasses) {
+                write(type, ids, lines);
+            }
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Writes the class list and dumps a static shared archive from it in a child JVM with the current class path
+     *
+     * @param classList the class list file to write
+     * @param archive   the archive file to create
+     * @param timeout   the maximum time to wait for the dump in milliseconds
+     * @return true if the archive was created, false if the runtime does not support it or the dump failed
+     * @throws IOException if the class list can not be written
+     */
+    public boolean dumpArchive(File classList, File archive, long timeout) throws IOException {
+        write(classList);
+        if (!isArchivingSupported()) {
+            logger.info("Class data sharing of module classes requires Java " + MINIMUM_JAVA_VERSION + ", no archive was created");
+            return false;
+        }
+
+        File log = new File(archive.getPath() + ".log");
+        Process process = new ProcessBuilder(
+                new File(System.getProperty("java.home"), "bin/java").getPath(),
+                "-Xshare:dump",
+                "-XX:SharedClassListFile=" + classList.getAbsolutePath(),
+                "-XX:SharedArchiveFile=" + archive.getAbsolutePath(),
+                "-cp", System.getProperty("java.class.path"))
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+        try {
+            if (!process.waitFor(timeout, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                logger.warn("Dumping the class data sharing archive timed out, see " + log);
+                return false;
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (process.exitValue() != 0 || !archive.isFile()) {
+            logger.warn("Dumping the class data sharing archive failed, see " + log);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the JVM arguments that make a boot use an archive created by {@link #dumpArchive(File, File, long)}
+     *
+     * @param archive the archive file
+     * @return the arguments, empty if the runtime does not support archiving module classes
+     */
+    public static List<String> getArchiveArguments(File archive) {
+        if (!isArchivingSupported()) return Collections.emptyList();
+        return Collections.singletonList("-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+    }
+
+    /**
+     * Returns if the running JVM can archive classes of module class loaders
+     *
+     * @return true if archiving is supported
+     */
+    public static boolean isArchivingSupported() {
+        String version = System.getProperty("java.specification.version", "1.8");
+        try {
+            return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version) >= MINIMUM_JAVA_VERSION;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static int write(Class<?> type, Map<Class<?>, Integer> ids, List<String> lines) {
+        Integer id = ids.get(type);
+        if (id != null) return id;
+
+        StringBuilder line = new StringBuilder(type.getName().replace('.', '/'));
+        if (type.getClassLoader() instanceof ModuleClassLoader) {
+            Class<?> superclass = type.getSuperclass() != null ? type.getSuperclass() : Object.class;
+            int superId = write(superclass, ids, lines);
+            List<Integer> interfaces = new ArrayList<>();
+            for (Class<?> implemented : type.getInterfaces()) {
+                interfaces.add(write(implemented, ids, lines));
+            }
+
+            id = ids.size();
+            line.append(" id: ").append(id).append(" super: ").append(superId);
+            if (!interfaces.isEmpty()) {
+                line.append(" interfaces:");
+                interfaces.forEach(i -> line.append(' ').append(i));
+            }
+            line.append(" source: ").append(((ModuleClassLoader) type.getClassLoader()).getJar().getFile().getPath());
+        } else {
+            id = ids.size();
+            line.append(" id: ").append(id);
+        }
+        ids.put(type, id);
+        lines.add(line.toString());
+        return id;
+    }
+}
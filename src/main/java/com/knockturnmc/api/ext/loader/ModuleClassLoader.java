@@ -0,0 +1,163 @@
+package com.knockturnmc.api.ext.loader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.security.CodeSigner;
+import java.security.CodeSource;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.function.Consumer;
+
+/**
+ * The class loader of a module. Classes are defined directly from the shared {@link ModuleJar} mapping
+ * instead of opening the jar again, and resources missing from the jar are rejected through its entry index
+ * without touching the file.
+ * <p>
+ * Extends {@link URLClassLoader} so the jar URL is still reported and resource URLs keep working.
+ */
+public class ModuleClassLoader extends URLClassLoader {
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private final ModuleJar jar;
+    private final CodeSource codeSource;
+    private final Consumer<Class<?>> classObserver;
+    private final Set<String> definedClassNames = ConcurrentHashMap.newKeySet();
+    private final Set<String> definedPackages = new HashSet<>();
+    private boolean closed;
+
+    /**
+     * Creates a class loader for the given module jar
+     *
+     * @param file   the module jar
+     * @param parent the parent class loader
+     * @throws IOException if the jar can not be opened
+     */
+    public ModuleClassLoader(File file, ClassLoader parent) throws IOException {
+        this(file, parent, c -> {
+        });
+    }
+
+    /**
+     * Creates a class loader for the given module jar
+     *
+     * @param file          the module jar
+     * @param parent        the parent class loader
+     * @param classObserver receives every class this class loader defines
+     * @throws IOException if the jar can not be opened
+     */
+    public ModuleClassLoader(File file, ClassLoader parent, Consumer<Class<?>> classObserver) throws IOException {
+        this(ModuleJar.open(file), parent, classObserver);
+    }
+
+    private ModuleClassLoader(ModuleJar jar, ClassLoader parent, Consumer<Class<?>> classObserver) {
+        super(new URL[]{jar.getURL()}, parent);
+        this.jar = jar;
+        this.codeSource = new CodeSource(jar.getURL(), (CodeSigner[]) null);
+        this.classObserver = classObserver;
+    }
+
+    /**
+     * Returns the jar this class loader reads from
+     *
+     * @return the jar
+     */
+    public ModuleJar getJar() {
+        return jar;
+    }
+
+    /**
+     * Returns the number of classes this class loader has defined
+     *
+     * @return the class count
+     */
+    public int getDefinedClassCount() {
+        return definedClassNames.size();
+    }
+
+    /**
+     * Returns the classes this class loader has defined
+     *
+     * @return the classes
+     */
+    public List<Class<?>> getDefinedClasses() {
+        return definedClassNames.stream().map(this::findLoadedClass).filter(c -> c != null).collect(Collectors.toList());
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        ByteBuffer bytes;
+        try {
+            bytes = jar.getBytes(name.replace('.', '/').concat(".class"));
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+        if (bytes == null) throw new ClassNotFoundException(name);
+
+        int packageEnd = name.lastIndexOf('.');
+        if (packageEnd > 0) {
+            String packageName = name.substring(0, packageEnd);
+            synchronized (definedPackages) {
+                if (definedPackages.add(packageName)) {
+                    try {
+                        definePackage(packageName, null, null, null, null, null, null, null);
+                    } catch (IllegalArgumentException e) {
+                        //Already defined by a parent class loader on Java 8
+                    }
+                }
+            }
+        }
+        Class<?> defined = defineClass(name, bytes, codeSource);
+        definedClassNames.add(name);
+        classObserver.accept(defined);
+        return defined;
+    }
+
+    @Override
+    public URL findResource(String name) {
+        return jar.contains(name) ? super.findResource(name) : null;
+    }
+
+    @Override
+    public Enumeration<URL> findResources(String name) throws IOException {
+        return jar.contains(name) ? super.findResources(name) : Collections.emptyEnumeration();
+    }
+
+    @Override
+    public InputStream getResourceAsStream(String name) {
+        //Served from the mapping unless the parent, which is asked first, provides the resource
+        if (jar.contains(name) && (getParent() == null ? getSystemResource(name) : getParent().getResource(name)) == null) {
+            try {
+                return jar.getInputStream(name);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return super.getResourceAsStream(name);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            synchronized (this) {
+                if (!closed) {
+                    closed = true;
+                    jar.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.knockturnmc.api.ext.loader;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A read-only, memory-mapped view of a module jar with an index of its entries.
+ * The view is shared: every {@link #open(File)} of the same file returns the same instance until all of them are closed,
+ * so the descriptor scan and the {@link ModuleClassLoader} read the jar through a single mapping.
+ * <p>
+ * Stored entries are returned as slices of the mapping without copying, deflated entries are inflated on every read.
+ * Zip64 and encrypted jars are not supported.
+ * <p>
+ * The mapping can not be released safely while slices of it may still be read, so it is only unmapped by the garbage
+ * collector after the last close. A mapped jar must not be rewritten in place, replace it by moving a new file over it
+ * instead. On Windows the file stays locked until the mapping was collected, so it can not be replaced or deleted before.
+ * A view is not shared any more once the size or modification time of its file changed, the next {@link #open(File)}
+ * maps the new file.
+ */
+public final class ModuleJar implements Closeable {
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private static final Map<File, ModuleJar> OPEN_JARS = new HashMap<>();
+
+    private final File file;
+    private final URL url;
+    private final ByteBuffer mapping;
+    private final Map<String, Entry> entries;
+    private final long length;
+    private final long lastModified;
+    private int references;
+
+    private ModuleJar(File file) throws IOException {
+        this.file = file;
+        this.url = file.toURI().toURL();
+        this.lastModified = file.lastModified();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Module jar " + file.getName() + " is too large");
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            this.mapping = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            this.length = channel.size();
+        }
+        this.entries = readIndex();
+    }
+
+    /**
+     * Opens the jar or shares the already open view of it
+     *
+     * @param file the jar file
+     * @return the jar, which has to be closed by the caller
+     * @throws IOException if the file can not be read or is no zip file
+     */
+    public static ModuleJar open(File file) throws IOException {
+        File key = file.getCanonicalFile();
+        synchronized (OPEN_JARS) {
+            ModuleJar jar = OPEN_JARS.get(key);
+            if (jar == null || jar.isModified()) {
+                jar = new ModuleJar(key);
+                OPEN_JARS.put(key, jar);
+            }
+            jar.references++;
+            return jar;
+        }
+    }
+
+    /**
+     * Returns the jar file
+     *
+     * @return the file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the URL of the jar file
+     *
+     * @return the url
+     */
+    public URL getURL() {
+        return url;
+    }
+
+    /**
+     * Returns if the jar contains an entry
+     *
+     * @param name the entry name, e.g. {@code com/example/Module.class}
+     * @return true if the entry exists
+     */
+    public boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * Returns the names of all entries, including directories
+     *
+     * @return the names
+     */
+    public Collection<String> getEntryNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Reads an entry
+     *
+     * @param name the entry name
+     * @return the read-only content or {@code null} if the entry does not exist
+     * @throws IOException if the entry is corrupt or uses an unsupported compression
+     */
+    public ByteBuffer getBytes(String name) throws IOException {
+        Entry entry = entries.get(name);
+        if (entry == null) return null;
+
+        if (mapping.getInt(entry.headerOffset) != LOCAL_HEADER) throw new IOException("Corrupt local header of " + name + " in " + file.getName());
+        int dataOffset = entry.headerOffset + 30 + (mapping.getShort(entry.headerOffset + 26) & 0xFFFF) + (mapping.getShort(entry.headerOffset + 28) & 0xFFFF);
+        ByteBuffer data = slice(dataOffset, entry.compressedSize);
+
+        if (entry.method == STORED) return data;
+        if (entry.method != DEFLATED) throw new IOException("Unsupported compression method " + entry.method + " of " + name + " in " + file.getName());
+
+        byte[] input = new byte[entry.compressedSize];
+        data.get(input);
+        byte[] output = new byte[entry.size];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(input);
+            int inflated = 0;
+            while (inflated < output.length) {
+                int read = inflater.inflate(output, inflated, output.length - inflated);
+                if (read == 0 && (inflater.finished() || inflater.needsInput())) break;
+                inflated += read;
+            }
+            if (inflated != output.length) throw new IOException("Truncated entry " + name + " in " + file.getName());
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt entry " + name + " in " + file.getName(), e);
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(output).asReadOnlyBuffer();
+    }
+
+    /**
+     * Opens an entry as stream
+     *
+     * @param name the entry name
+     * @return the stream or {@code null} if the entry does not exist
+     * @throws IOException if the entry is corrupt or uses an unsupported compression
+     */
+    public InputStream getInputStream(String name) throws IOException {
+        ByteBuffer bytes = getBytes(name);
+        if (bytes == null) return null;
+        byte[] content = new byte[bytes.remaining()];
+        bytes.get(content);
+        return new ByteArrayInputStream(content);
+    }
+
+    /**
+     * Releases this view, the jar is unshared once every opener closed it
+     */
+    @Override
+    public void close() {
+        synchronized (OPEN_JARS) {
+            if (references == 0) return;
+            if (--references == 0) OPEN_JARS.remove(file, this);
+        }
+    }
+
+    /**
+     * Returns if the file was changed since it was mapped
+     */
+    private boolean isModified() {
+        return file.length() != length || file.lastModified() != lastModified;
+    }
+
+    private ByteBuffer slice(int offset, int length) throws IOException {
+        if (offset < 0 || length < 0 || offset > mapping.capacity() - length) throw new IOException("Entry exceeds the bounds of " + file.getName());
+        ByteBuffer duplicate = mapping.duplicate();
+        duplicate.position(offset).limit(offset + length);
+        return duplicate.slice().asReadOnlyBuffer();
+    }
+
+    private Map<String, Entry> readIndex() throws IOException {
+        int end = findEndOfCentralDirectory();
+        int count = mapping.getShort(end + 10) & 0xFFFF;
+        int directorySize = mapping.getInt(end + 12);
+        int position = mapping.getInt(end + 16);
+        if (count == 0xFFFF || directorySize == -1 || position == -1) throw new IOException("Zip64 module jar " + file.getName() + " is not supported");
+
+        Map<String, Entry> entries = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (position < 0 || position > mapping.capacity() - 46 || mapping.getInt(position) != CENTRAL_HEADER) {
+                throw new IOException("Corrupt central directory in " + file.getName());
+            }
+            int flags = mapping.getShort(position + 8) & 0xFFFF;
+            int method = mapping.getShort(position + 10) & 0xFFFF;
+            int compressedSize = mapping.getInt(position + 20);
+            int size = mapping.getInt(position + 24);
+            int nameLength = mapping.getShort(position + 28) & 0xFFFF;
+            int extraLength = mapping.getShort(position + 30) & 0xFFFF;
+            int commentLength = mapping.getShort(position + 32) & 0xFFFF;
+            int headerOffset = mapping.getInt(position + 42);
+            if ((flags & 1) != 0) throw new IOException("Encrypted module jar " + file.getName() + " is not supported");
+            if (compressedSize < 0 || size < 0 || headerOffset < 0) throw new IOException("Zip64 module jar " + file.getName() + " is not supported");
+
+            byte[] name = new byte[nameLength];
+            ByteBuffer nameBuffer = slice(position + 46, nameLength);
+            nameBuffer.get(name);
+            entries.put(new String(name, StandardCharsets.UTF_8), new Entry(method, compressedSize, size, headerOffset));
+            position += 46 + nameLength + extraLength + commentLength;
+        }
+        return entries;
+    }
+
+    private int findEndOfCentralDirectory() throws IOException {
+        //The record is followed by a comment of up to 65535 bytes
+        int lowest = Math.max(0, mapping.capacity() - 22 - 0xFFFF);
+        for (int position = mapping.capacity() - 22; position >= lowest; position--) {
+            if (mapping.getInt(position) == END_OF_CENTRAL_DIRECTORY) return position;
+        }
+        throw new IOException(file.getName() + " is not a zip file");
+    }
+
+    /**
+     * The location of an entry in the mapping
+     */
+    private static final class Entry {
+        private final int method;
+        private final int compressedSize;
+        private final int size;
+        private final int headerOffset;
+
+        private Entry(int method, int compressedSize, int size, int headerOffset) {
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.headerOffset = headerOffset;
+        }
+    }
+}
@@ -1,31 +1,44 @@
 package com.knockturnmc.api.ext.loader;
 
 import com.knockturnmc.api.ext.Loadable;
+import com.knockturnmc.api.ext.event.EventBus;
+import com.knockturnmc.api.ext.loader.ModuleTimings.Phase;
+import com.knockturnmc.api.ext.loader.dependency.ModuleDependency;
 import com.knockturnmc.api.ext.loader.dependency.ModuleDependenySorter;
 import com.knockturnmc.api.ext.loader.descriptors.ModuleAnnotationDescriptor;
 import com.knockturnmc.api.ext.loader.descriptors.ModuleDescriptor;
 import com.knockturnmc.api.ext.loader.provider.InstanceProvider;
 import com.knockturnmc.api.ext.loader.provider.ReflectiveInstanceProvider;
+import com.knockturnmc.api.ext.loader.scheduler.ModuleScheduler;
+import com.knockturnmc.api.ext.loader.scheduler.SchedulerAware;
+import com.knockturnmc.api.ext.loader.scheduler.TaskScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
- * A module loader that can load modules from the system into the runtime
+ * A module loader that can load modules from the system into the runtime.
+ * <p>
+ * Modules can be requested through {@link #getModule(String)} from any thread. A lazily registered module is activated
+ * by the first thread requesting it while other threads requesting it wait, {@link Loadable#onEnable} is called without
+ * holding the lock of the loader. Loading, enabling, disabling and unloading all modules is meant to be done by one thread.
  *
  * @param <T> the instance that will be used to enable the modules
  */
 public class ModuleLoader<T> {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
-    private final Collection<ModuleWrapper<T>> loadedModules = new ArrayList<>();
+    private final Collection<ModuleWrapper<T>> loadedModules = new CopyOnWriteArrayList<>();
     private final File moduleDirectory;
     private final String fileEnding;
 
@@ -34,6 +47,18 @@ public class ModuleLoader<T> {
 
     private Class<? extends Loadable<T>> customModuleType;
 
+    private final Map<String, ModuleWrapper<T>> modulesById = new ConcurrentHashMap<>();
+    private final ThreadLocal<Set<String>> activating = ThreadLocal.withInitial(HashSet::new);
+    private final ModuleTimings timings = new ModuleTimings();
+    private ModuleResourceAccounting resourceAccounting;
+    private TaskScheduler taskScheduler;
+    private EventBus eventBus;
+    private ClassLoaderLeakDetector leakDetector = new ClassLoaderLeakDetector(1, TimeUnit.MINUTES, this::getModuleClasses);
+    private boolean lazyActivation;
+    private ModuleClassList trainingClassList;
+    private boolean enabled;
+    private T parent;
+
     /**
      * Creates a new module loader for jars in the given module directory
      *
@@ -94,21 +119,265 @@ public class ModuleLoader<T> {
         File[] files = moduleDirectory.listFiles(f -> !f.isDirectory() && f.getName().endsWith(fileEnding));
         if (files == null) return;
 
-        Set<ModuleDescriptor> descriptors = Arrays.stream(files) //Load descriptors
-                .map(descriptorProvider::newInstance)
-                .filter(d -> d.loadSilently(logger))
-                .collect(Collectors.toSet());
+        //Keeps every jar mapped while it is scanned and loaded, so it is opened only once
+        List<ModuleJar> jars = new ArrayList<>();
+        for (File file : files) {
+            try {
+                jars.add(ModuleJar.open(file));
+            } catch (IOException e) {
+                logger.debug("Could not open module jar " + file.getName(), e); //Reported by its descriptor
+            }
+        }
+
+        try {
+            Set<ModuleDescriptor> descriptors = new HashSet<>();
+            for (File file : files) { //Load descriptors
+                long start = timings.start();
+                ModuleDescriptor descriptor = descriptorProvider.newInstance(file);
+                boolean loaded = descriptor.loadSilently(logger);
+                timings.record(loaded ? descriptor.getName() : file.getName(), Phase.DESCRIPTOR, start);
+                if (loaded) descriptors.add(descriptor);
+            }
+
+            long start = timings.start();
+            ModuleDependenySorter sorter = new ModuleDependenySorter(descriptors);
+            List<ModuleDescriptor> sortedDescriptors = sorter.sort();
+            timings.record(null, Phase.SORT, start);
+            sorter.getUnselected().forEach(d -> logger.info("Skipped " + d.getFile().getName() + " with version " + d.getVersion() + " of module " + d.getName() + " in favour of a better matching version"));
+            if (lazyActivation) {
+                sortedDescriptors.forEach(this::registerModule);
+                logger.info("Registered " + sortedDescriptors.size() + " modules for lazy activation");
+                return;
+            }
+
+            sortedDescriptors.forEach(descriptor -> {
+                try {
+                    loadModule(descriptor);
+                } catch (ModuleLoaderException e) {
+                    logger.error("Could not load module " + descriptor.getName(), e);
+                }
+            });
+
+            logger.info("Loaded " + getLoadedModules().size() + " modules");
+        } finally {
+            jars.forEach(ModuleJar::close);
+        }
+    }
+
+    /**
+     * Sets if modules are activated lazily. In lazy mode {@link #loadModules()} only reads the descriptors,
+     * loading the main class, instantiating it and enabling it is deferred until the module is first requested
+     * through {@link #getModule(String)}. The dependencies of a module are activated before it.
+     * Has to be set before the modules are loaded.
+     *
+     * @param lazyActivation true to activate modules on first use
+     */
+    public void setLazyActivation(boolean lazyActivation) {
+        this.lazyActivation = lazyActivation;
+    }
+
+    /**
+     * Enables the training mode, in which every class a module defines is recorded in the given class list.
+     * The class list can then dump a class data sharing archive for later boots. Has to be set before the modules are loaded.
+     *
+     * @param trainingClassList the class list to record into or {@code null} to disable the training mode
+     */
+    public void setTrainingClassList(ModuleClassList trainingClassList) {
+        this.trainingClassList = trainingClassList;
+    }
+
+    /**
+     * Returns the class list of the training mode
+     *
+     * @return the class list or {@code null} if the training mode is disabled
+     */
+    public ModuleClassList getTrainingClassList() {
+        return trainingClassList;
+    }
+
+    /**
+     * Returns the lifecycle timings recorded for the modules of this loader
+     *
+     * @return the timings
+     */
+    public ModuleTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * Enables the resource accounting, which charges the CPU time and allocations of the module callbacks to their modules
+     *
+     * @param resourceAccounting the accounting or {@code null} to disable it
+     */
+    public void setResourceAccounting(ModuleResourceAccounting resourceAccounting) {
+        this.resourceAccounting = resourceAccounting;
+    }
+
+    /**
+     * Returns the resource accounting
+     *
+     * @return the accounting or {@code null} if it is disabled
+     */
+    public ModuleResourceAccounting getResourceAccounting() {
+        return resourceAccounting;
+    }
+
+    /**
+     * Sets the scheduler shared by the modules. Every enabled module owns a {@link ModuleScheduler} of it, which is handed to
+     * {@link SchedulerAware} modules and cancelled with all its tasks when the module is disabled or unloaded.
+     * Tasks are charged to the resource accounting of this loader, if enabled.
+     *
+     * @param taskScheduler the scheduler or {@code null} to not provide schedulers
+     */
+    public void setTaskScheduler(TaskScheduler taskScheduler) {
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Returns the scheduler shared by the modules
+     *
+     * @return the scheduler or {@code null} if modules are not provided schedulers
+     */
+    public TaskScheduler getTaskScheduler() {
+        return taskScheduler;
+    }
+
+    /**
+     * Sets the event bus the modules communicate through. The listeners whose classes were loaded by a module are
+     * unregistered when the module is disabled or unloaded.
+     *
+     * @param eventBus the event bus or {@code null}
+     */
+    public void setEventBus(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Returns the event bus the modules communicate through
+     *
+     * @return the event bus or {@code null} if none was set
+     */
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+
+    /**
+     * Sets the detector that tracks the class loaders of unloaded modules
+     *
+     * @param leakDetector the detector or {@code null} to disable leak detection
+     */
+    public void setLeakDetector(ClassLoaderLeakDetector leakDetector) {
+        this.leakDetector = leakDetector;
+    }
+
+    /**
+     * Returns the detector that tracks the class loaders of unloaded modules. By default leaks are reported after a minute,
+     * when {@link ClassLoaderLeakDetector#check()} is called or the loader unloads a module.
+     *
+     * @return the detector or {@code null} if leak detection is disabled
+     */
+    public ClassLoaderLeakDetector getLeakDetector() {
+        return leakDetector;
+    }
+
+    /**
+     * Returns if modules are activated lazily
+     *
+     * @return true if modules are activated on first use
+     */
+    public boolean isLazyActivation() {
+        return lazyActivation;
+    }
+
+    /**
+     * Gets a module by its name, activating it and its dependencies first if it was not used yet.
+     * A module activated after {@link #enableModules} is enabled with the same parent.
+     *
+     * @param name the module name
+     * @return the module or empty if no module with this name was loaded
+     * @throws ModuleLoaderException if the module or one of its dependencies can not be activated
+     */
+    public Optional<Loadable<T>> getModule(String name) {
+        ModuleWrapper<T> wrapper = modulesById.get(toID(name));
+        if (wrapper == null) return Optional.empty();
+
+        activate(wrapper);
+        return Optional.ofNullable(wrapper.getModule()); //Empty if the module was unloaded meanwhile
+    }
 
-        List<ModuleDescriptor> sortedDescriptors = new ModuleDependenySorter(descriptors).sort();
-        sortedDescriptors.forEach(descriptor -> {
+    /**
+     * Activates a lazily registered module after its dependencies, or waits for its activation by another thread
+     *
+     * @param wrapper the module wrapper
+     */
+    private void activate(ModuleWrapper<T> wrapper) {
+        ModuleDescriptor descriptor = wrapper.getDescriptor();
+        String id = toID(descriptor.getName());
+        Set<String> activating = this.activating.get();
+        if (activating.contains(id)) {
+            //Requested again by its own activation, e.g. from onEnable, which can not wait for itself
+            if (wrapper.isLoaded()) return;
+            throw new ModuleLoaderException("Circular dependency while activating module " + descriptor.getName());
+        }
+
+        CompletableFuture<Void> activation = new CompletableFuture<>();
+        CompletableFuture<Void> running = wrapper.startActivation(activation);
+        if (running != null) {
             try {
-                loadModule(descriptor);
-            } catch (ModuleLoaderException e) {
-                logger.error("Could not load module " + descriptor.getName(), e);
+                running.join();
+            } catch (CompletionException e) {
+                throw new ModuleLoaderException("Could not activate module " + descriptor.getName(), e.getCause());
             }
-        });
+            return;
+        }
 
-        logger.info("Loaded " + getLoadedModules().size() + " modules");
+        activating.add(id);
+        try {
+            for (String dependency : descriptor.getDependencies()) {
+                String dependencyID = ModuleDependency.parse(dependency, false).getID();
+                ModuleWrapper<T> dependencyWrapper = modulesById.get(dependencyID);
+                if (dependencyWrapper == null) throw new ModuleLoaderException("Could not find dependency " + dependencyID + " for module " + descriptor.getName());
+                activate(dependencyWrapper);
+            }
+            for (String dependency : descriptor.getSoftDependencies()) {
+                String dependencyID = ModuleDependency.parse(dependency, true).getID();
+                ModuleWrapper<T> dependencyWrapper = modulesById.get(dependencyID);
+                //Soft dependencies may be circular, waiting for one activated by another thread could deadlock
+                if (dependencyWrapper != null && !activating.contains(dependencyID) && !dependencyWrapper.isActivating()) {
+                    activate(dependencyWrapper);
+                }
+            }
+
+            Loadable<T> module = instantiate(descriptor);
+            boolean enable;
+            T enableParent;
+            synchronized (this) {
+                wrapper.setModule(module);
+                enable = enabled; //Otherwise it is enabled by enableModules later
+                enableParent = parent;
+            }
+            this.logger.info("Activated module " + descriptor.getName() + " by " + descriptor.getAuthor());
+            if (enable) enableModule(enableParent, wrapper);
+            activation.complete(null);
+        } catch (RuntimeException | Error e) {
+            //A module that failed to enable stays loaded, as with eager loading, otherwise it is activated again on the next request
+            if (!wrapper.isLoaded()) wrapper.resetActivation(activation);
+            activation.completeExceptionally(e);
+            throw e;
+        } finally {
+            activating.remove(id);
+        }
+    }
+
+    /**
+     * Registers a module for lazy activation without loading its classes
+     *
+     * @param descriptor the descriptor
+     */
+    private void registerModule(ModuleDescriptor descriptor) {
+        ModuleWrapper<T> wrapper = new ModuleWrapper<>(descriptor, null);
+        this.loadedModules.add(wrapper);
+        this.modulesById.put(toID(descriptor.getName()), wrapper);
     }
 
     /**
@@ -117,13 +386,40 @@ public class ModuleLoader<T> {
      * @param descriptor the descriptor
      */
     public void loadModule(ModuleDescriptor descriptor) {
+        ModuleWrapper<T> wrapper = new ModuleWrapper<>(descriptor, instantiate(descriptor));
+        this.loadedModules.add(wrapper);
+        this.modulesById.put(toID(descriptor.getName()), wrapper);
+        Map<Phase, Long> durations = timings.getDurations(descriptor.getName());
+        long nanos = durations.getOrDefault(Phase.CLASS_LOADING, 0L) + durations.getOrDefault(Phase.INSTANTIATION, 0L);
+        this.logger.info("Loaded module " + descriptor.getName() + " by " + descriptor.getAuthor() + " in " + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms");
+    }
+
+    /**
+     * Loads the main class of a module and instantiates it
+     *
+     * @param descriptor the descriptor
+     * @return the module instance
+     */
+    private Loadable<T> instantiate(ModuleDescriptor descriptor) {
         String mainClassPath = descriptor.getModuleClassName()
                 .orElseThrow(() -> new ModuleLoaderException("Could not load the descriptor as it did not locate a main class"));
 
+        ModuleClassList classList = this.trainingClassList;
+        ModuleClassLoader urlClassLoader;
         try {
-            URLClassLoader urlClassLoader = new URLClassLoader(new URL[]{descriptor.getFile().toURI().toURL()}, getClass().getClassLoader());
+            urlClassLoader = classList == null
+                    ? new ModuleClassLoader(descriptor.getFile(), getClass().getClassLoader())
+                    : new ModuleClassLoader(descriptor.getFile(), getClass().getClassLoader(), c -> classList.record(descriptor.getName(), c));
+        } catch (IOException e) {
+            throw new ModuleLoaderException("Could not open module " + descriptor.getName(), e);
+        }
 
+        boolean instantiated = false;
+        ModuleResourceAccounting.Scope accounting = enterAccounting(descriptor.getName());
+        try {
+            long start = timings.start();
             Class<?> mainClass = Class.forName(mainClassPath, true, urlClassLoader);
+            timings.record(descriptor.getName(), Phase.CLASS_LOADING, start);
             Class<?> moduleType = this.customModuleType != null ? this.customModuleType : Loadable.class;
 
             if (!moduleType.isAssignableFrom(mainClass)) {
@@ -132,17 +428,27 @@ public class ModuleLoader<T> {
 
             try {
                 Class<? extends Loadable<T>> genericModuleMainClass = (Class<? extends Loadable<T>>) mainClass.asSubclass(moduleType);
-                Loadable<T> moduleInstance = this.instanceProvider.getInstance(genericModuleMainClass);
-
-                this.loadedModules.add(new ModuleWrapper<>(descriptor, moduleInstance));
-                this.logger.info("Loaded module " + descriptor.getName() + " by " + descriptor.getAuthor());
+                start = timings.start();
+                Loadable<T> module = this.instanceProvider.getInstance(genericModuleMainClass);
+                timings.record(descriptor.getName(), Phase.INSTANTIATION, start);
+                timings.setClassCount(descriptor.getName(), urlClassLoader.getDefinedClassCount());
+                instantiated = true;
+                return module;
             } catch (ClassCastException e) {
                 throw new ModuleLoaderException("Could not load descriptor as main class is not assignable", e);
             }
-        } catch (MalformedURLException e) {
-            throw new ModuleLoaderException("Could not load descriptor " + descriptor.getName() + " as it cannot be converted to an URL", e);
         } catch (ClassNotFoundException e) {
             throw new ModuleLoaderException("Could not find main class" + mainClassPath + " in module " + descriptor.getName(), e);
+        } finally {
+            exitAccounting(accounting);
+            //The class loader holds the shared jar view, which would otherwise stay open
+            if (!instantiated) {
+                try {
+                    urlClassLoader.close();
+                } catch (IOException e) {
+                    logger.warn("Could not close class loader of module " + descriptor.getName(), e);
+                }
+            }
         }
     }
 
@@ -150,7 +456,8 @@ public class ModuleLoader<T> {
      * Unloads the modules loaded by this loader
      */
     public void unloadModules() {
-        this.loadedModules.stream().filter(m -> m.getDescriptor().isReloadable()).forEach(wrapper -> {
+        List<ModuleWrapper<T>> unloadable = this.loadedModules.stream().filter(ModuleWrapper::isLoaded).filter(m -> m.getDescriptor().isReloadable()).collect(Collectors.toList());
+        unloadable.forEach(wrapper -> {
             try {
                 unloadModule(wrapper);
             } catch (ModuleLoaderException e) {
@@ -160,7 +467,7 @@ public class ModuleLoader<T> {
     }
 
     /**
-     * Unloads the given module
+     * Unloads the given module and removes it from this loader. Its class loader is then tracked by the leak detector.
      *
      * @param wrapper the module wrapper
      */
@@ -168,11 +475,26 @@ public class ModuleLoader<T> {
         ClassLoader classLoader = wrapper.getModule().getClass().getClassLoader();
         if (!(classLoader instanceof URLClassLoader)) throw new ModuleLoaderException("Could not unload module " + wrapper.getDescriptor().getName() + " as it does not use an URLClassLoader");
 
+        stopScheduler(wrapper);
+        unregisterListeners(classLoader);
         try {
             ((URLClassLoader) classLoader).close();
         } catch (IOException e) {
             throw new ModuleLoaderException("Could not close URLClassLoader of " + wrapper.getDescriptor().getName(), e);
         }
+
+        //The loader must not keep the module reachable itself
+        synchronized (this) {
+            this.loadedModules.remove(wrapper);
+            this.modulesById.remove(toID(wrapper.getDescriptor().getName()), wrapper);
+            wrapper.setModule(null);
+        }
+
+        ClassLoaderLeakDetector detector = this.leakDetector;
+        if (detector != null) {
+            detector.track(wrapper.getDescriptor().getName(), classLoader);
+            detector.check();
+        }
     }
 
     /**
@@ -180,8 +502,10 @@ public class ModuleLoader<T> {
      *
      * @param parent the parent to enable the modules with
      */
-    public void enableModules(T parent) {
-        this.loadedModules.forEach(w -> this.enableModule(parent, w));
+    public synchronized void enableModules(T parent) {
+        this.parent = parent;
+        this.enabled = true;
+        this.loadedModules.stream().filter(ModuleWrapper::isLoaded).forEach(w -> this.enableModule(parent, w));
     }
 
     /**
@@ -191,7 +515,25 @@ public class ModuleLoader<T> {
      * @param wrapper the module warpper
      */
     public void enableModule(T parent, ModuleWrapper<T> wrapper) {
-        wrapper.getModule().onEnable(parent);
+        TaskScheduler taskScheduler = this.taskScheduler;
+        if (taskScheduler != null && wrapper.getScheduler() == null) {
+            ModuleScheduler scheduler = taskScheduler.forModule(wrapper.getDescriptor().getName(), resourceAccounting);
+            wrapper.setScheduler(scheduler);
+            if (wrapper.getModule() instanceof SchedulerAware) ((SchedulerAware) wrapper.getModule()).setScheduler(scheduler);
+        }
+
+        long start = timings.start();
+        ModuleResourceAccounting.Scope accounting = enterAccounting(wrapper.getDescriptor().getName());
+        try {
+            wrapper.getModule().onEnable(parent);
+        } catch (RuntimeException | Error e) {
+            stopScheduler(wrapper); //A module that failed to enable is never disabled, its tasks must not outlive it
+            throw e;
+        } finally {
+            exitAccounting(accounting);
+        }
+        wrapper.setEnabled(true);
+        record(wrapper, Phase.ENABLE, start);
     }
 
     /**
@@ -199,8 +541,10 @@ public class ModuleLoader<T> {
      *
      * @param parent the parent to disable the modules with
      */
-    public void disableModules(T parent) {
-        this.loadedModules.forEach(w -> this.disableModule(parent, w));
+    public synchronized void disableModules(T parent) {
+        this.enabled = false;
+        this.parent = null;
+        this.loadedModules.stream().filter(ModuleWrapper::isLoaded).forEach(w -> this.disableModule(parent, w));
     }
 
     /**
@@ -210,15 +554,112 @@ public class ModuleLoader<T> {
      * @param wrapper the module warpper
      */
     public void disableModule(T parent, ModuleWrapper<T> wrapper) {
-        wrapper.getModule().onDisable(parent);
+        long start = timings.start();
+        ModuleResourceAccounting.Scope accounting = enterAccounting(wrapper.getDescriptor().getName());
+        try {
+            wrapper.getModule().onDisable(parent);
+        } finally {
+            exitAccounting(accounting);
+            stopScheduler(wrapper);
+            unregisterListeners(wrapper.getModule().getClass().getClassLoader());
+        }
+        wrapper.setEnabled(false);
+        record(wrapper, Phase.DISABLE, start);
     }
 
     /**
-     * Returns the list of loaded module
+     * Cancels all tasks of a module and takes its scheduler away
+     *
+     * @param wrapper the module wrapper
+     */
+    private void stopScheduler(ModuleWrapper<T> wrapper) {
+        ModuleScheduler scheduler = wrapper.getScheduler();
+        if (scheduler == null) return;
+
+        scheduler.cancelAll();
+        wrapper.setScheduler(null);
+        if (wrapper.getModule() instanceof SchedulerAware) ((SchedulerAware) wrapper.getModule()).setScheduler(null);
+    }
+
+    /**
+     * Removes the event listeners loaded by the class loader of a module
+     *
+     * @param classLoader the class loader of the module class
+     */
+    private void unregisterListeners(ClassLoader classLoader) {
+        EventBus eventBus = this.eventBus;
+        //A module class resolved from the host class path must not remove the listeners of the host
+        if (eventBus != null && classLoader instanceof ModuleClassLoader) eventBus.unregisterAll(classLoader);
+    }
+
+    /**
+     * Records a lifecycle phase of a loaded module along with its current class count
+     *
+     * @param wrapper the module wrapper
+     * @param phase   the phase
+     * @param start   the start timestamp
+     */
+    private void record(ModuleWrapper<T> wrapper, Phase phase, long start) {
+        String name = wrapper.getDescriptor().getName();
+        long duration = timings.record(name, phase, start);
+        ClassLoader classLoader = wrapper.getModule().getClass().getClassLoader();
+        if (classLoader instanceof ModuleClassLoader) {
+            timings.setClassCount(name, ((ModuleClassLoader) classLoader).getDefinedClassCount());
+        }
+        logger.debug(phase + " of module " + name + " took " + TimeUnit.NANOSECONDS.toMillis(duration) + "ms");
+    }
+
+    /**
+     * Returns the list of loaded module, lazily activated modules are only contained once they were activated
      *
      * @return the list
      */
     public Collection<Loadable<T>> getLoadedModules() {
-        return loadedModules.stream().map(ModuleWrapper::getModule).collect(Collectors.toCollection(ArrayList::new));
+        return loadedModules.stream().filter(ModuleWrapper::isLoaded).map(ModuleWrapper::getModule).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Starts charging the current thread to the module if resource accounting is enabled
+     *
+     * @param module the module name
+     * @return the scope to close or {@code null} if resource accounting is disabled
+     */
+    private ModuleResourceAccounting.Scope enterAccounting(String module) {
+        ModuleResourceAccounting accounting = this.resourceAccounting;
+        return accounting == null ? null : accounting.enter(module);
+    }
+
+    /**
+     * Stops charging the current thread to the module
+     *
+     * @param scope the scope returned by {@link #enterAccounting(String)}
+     */
+    private static void exitAccounting(ModuleResourceAccounting.Scope scope) {
+        if (scope != null) scope.close();
+    }
+
+    /**
+     * Returns the classes defined by the loaded modules, the roots searched for static references by the leak detector
+     *
+     * @return the classes
+     */
+    private synchronized Collection<Class<?>> getModuleClasses() {
+        List<Class<?>> classes = new ArrayList<>();
+        for (ModuleWrapper<T> wrapper : loadedModules) {
+            if (!wrapper.isLoaded()) continue;
+            ClassLoader classLoader = wrapper.getModule().getClass().getClassLoader();
+            if (classLoader instanceof ModuleClassLoader) classes.addAll(((ModuleClassLoader) classLoader).getDefinedClasses());
+        }
+        return classes;
+    }
+
+    /**
+     * Transforms a module name into the id used to resolve dependencies
+     *
+     * @param name the name
+     * @return the id
+     */
+    private static String toID(String name) {
+        return ModuleDependency.toID(name);
     }
 }
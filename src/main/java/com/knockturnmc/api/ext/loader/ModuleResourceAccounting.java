@@ -0,0 +1,479 @@
+package com.knockturnmc.api.ext.loader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Charges the CPU time and the allocated bytes of the running thread to the module whose code it runs, see
+ * {@link ModuleLoader#setResourceAccounting(ModuleResourceAccounting)}. Both are read from the {@link ThreadMXBean}, so the
+ * overhead is a few of its calls per {@link #enter(String)}; resources the JVM can not measure are reported as 0.
+ * <p>
+ * Scopes nest: entering a module from the code of another module pauses the outer account until the inner scope is closed.
+ * Rates are computed by {@link #sample()}, which also fires the threshold alerts.
+ */
+public class ModuleResourceAccounting {
+
+    /**
+     * The accounted resources
+     */
+    public enum Resource {
+        /**
+         * CPU time, its rate is the number of cores used
+         */
+        CPU,
+        /**
+         * Allocated heap memory, its rate is in bytes per second
+         */
+        ALLOCATION
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final com.sun.management.ThreadMXBean allocations;
+    private final boolean cpuSupported;
+
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+    private final List<Consumer<Alert>> alertListeners = new CopyOnWriteArrayList<>();
+    private volatile double cpuThreshold;
+    private volatile double allocationThreshold;
+    private long lastSample = System.nanoTime();
+
+    /**
+     * Creates a new accounting and enables the thread CPU time and allocation measurement of the JVM where supported
+     */
+    public ModuleResourceAccounting() {
+        boolean cpu = threads.isCurrentThreadCpuTimeSupported();
+        if (cpu && !threads.isThreadCpuTimeEnabled()) threads.setThreadCpuTimeEnabled(true);
+        this.cpuSupported = cpu;
+
+        com.sun.management.ThreadMXBean allocationBean = null;
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            allocationBean = (com.sun.management.ThreadMXBean) threads;
+            if (!allocationBean.isThreadAllocatedMemorySupported()) {
+                allocationBean = null;
+            } else if (!allocationBean.isThreadAllocatedMemoryEnabled()) {
+                allocationBean.setThreadAllocatedMemoryEnabled(true);
+            }
+        }
+        this.allocations = allocationBean;
+    }
+
+    /**
+     * Starts charging the current thread to the module until the returned scope is closed
+     *
+     * @param module the module name
+     * @return the scope to close
+     */
+    public Scope enter(String module) {
+        Account account = accounts.computeIfAbsent(module, Account::new);
+        long cpu = cpuTime();
+        long allocated = allocatedBytes();
+        Scope outer = current.get();
+        if (outer != null) outer.charge(cpu, allocated);
+
+        Scope scope = new Scope(account, outer, cpu, allocated);
+        current.set(scope);
+        return scope;
+    }
+
+    /**
+     * Runs a task charged to the module
+     *
+     * @param module the module name
+     * @param task   the task
+     */
+    public void run(String module, Runnable task) {
+        Scope scope = enter(module);
+        try {
+            task.run();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Calls a task charged to the module
+     *
+     * @param module the module name
+     * @param task   the task
+     * @param <V>    the result type
+     * @return the result of the task
+     * @throws Exception if the task failed
+     */
+    public <V> V call(String module, Callable<V> task) throws Exception {
+        Scope scope = enter(module);
+        try {
+            return task.call();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Returns the usage of a module, with the rates of the last {@link #sample()}
+     *
+     * @param module the module name
+     * @return the usage, all zero if nothing was charged to the module
+     */
+    public Usage getUsage(String module) {
+        Account account = accounts.get(module);
+        return account == null ? new Usage(module, 0, 0, 0, 0, 0) : account.usage();
+    }
+
+    /**
+     * Returns the usage of all modules, with the rates of the last {@link #sample()}
+     *
+     * @return the usages by module name
+     */
+    public Map<String, Usage> getUsages() {
+        Map<String, Usage> usages = new LinkedHashMap<>();
+        accounts.forEach((module, account) -> usages.put(module, account.usage()));
+        return usages;
+    }
+
+    /**
+     * Computes the rates of all modules since the last sample and fires alerts for exceeded thresholds
+     *
+     * @return the usages by module name
+     */
+    public synchronized Map<String, Usage> sample() {
+        long now = System.nanoTime();
+        double seconds = Math.max(now - lastSample, 1) / 1e9;
+        lastSample = now;
+
+        for (Account account : accounts.values()) {
+            long cpu = account.cpuNanos.sum();
+            long allocated = account.allocatedBytes.sum();
+            account.cpuRate = (cpu - account.sampledCpuNanos) / 1e9 / seconds;
+            account.allocationRate = (allocated - account.sampledAllocatedBytes) / seconds;
+            account.sampledCpuNanos = cpu;
+            account.sampledAllocatedBytes = allocated;
+
+            double cpuThreshold = this.cpuThreshold;
+            double allocationThreshold = this.allocationThreshold;
+            if (cpuThreshold > 0 && account.cpuRate > cpuThreshold) {
+                alert(new Alert(account.module, Resource.CPU, account.cpuRate, cpuThreshold));
+            }
+            if (allocationThreshold > 0 && account.allocationRate > allocationThreshold) {
+                alert(new Alert(account.module, Resource.ALLOCATION, account.allocationRate, allocationThreshold));
+            }
+        }
+        return getUsages();
+    }
+
+    /**
+     * Runs {@link #sample()} periodically on the given executor
+     *
+     * @param executor the executor
+     * @param period   the sampling period
+     * @param unit     the unit of the period
+     * @return the future of the scheduled samples
+     */
+    public ScheduledFuture<?> schedule(ScheduledExecutorService executor, long period, TimeUnit unit) {
+        return executor.scheduleAtFixedRate(this::sample, period, period, unit);
+    }
+
+    /**
+     * Sets the CPU rate above which a module causes an alert on {@link #sample()}
+     *
+     * @param cores the number of cores a module may use, 0 to disable the alert
+     */
+    public void setCpuThreshold(double cores) {
+        this.cpuThreshold = cores;
+    }
+
+    /**
+     * Sets the allocation rate above which a module causes an alert on {@link #sample()}
+     *
+     * @param bytesPerSecond the bytes a module may allocate per second, 0 to disable the alert
+     */
+    public void setAllocationThreshold(double bytesPerSecond) {
+        this.allocationThreshold = bytesPerSecond;
+    }
+
+    /**
+     * Adds a listener for exceeded thresholds, which is called on the thread running {@link #sample()}
+     *
+     * @param listener the listener
+     */
+    public void addAlertListener(Consumer<Alert> listener) {
+        if (listener == null) throw new IllegalArgumentException("listener can not be null");
+        alertListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener for exceeded thresholds
+     *
+     * @param listener the listener
+     */
+    public void removeAlertListener(Consumer<Alert> listener) {
+        alertListeners.remove(listener);
+    }
+
+    /**
+     * Removes the account of a module
+     *
+     * @param module the module name
+     */
+    public void remove(String module) {
+        accounts.remove(module);
+    }
+
+    /**
+     * Returns if the JVM measures the CPU time of threads
+     *
+     * @return true if CPU time is accounted
+     */
+    public boolean isCpuTimeSupported() {
+        return cpuSupported;
+    }
+
+    /**
+     * Returns if the JVM measures the allocated bytes of threads
+     *
+     * @return true if allocations are accounted
+     */
+    public boolean isAllocationSupported() {
+        return allocations != null;
+    }
+
+    private void alert(Alert alert) {
+        logger.warn(alert.toString());
+        for (Consumer<Alert> listener : alertListeners) {
+            try {
+                listener.accept(alert);
+            } catch (RuntimeException e) {
+                logger.error("Alert listener failed", e);
+            }
+        }
+    }
+
+    private long cpuTime() {
+        return cpuSupported ? threads.getCurrentThreadCpuTime() : 0;
+    }
+
+    private long allocatedBytes() {
+        return allocations != null ? allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    /**
+     * The code of a module running on the current thread, charged to the module when closed
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final Account account;
+        private final Scope outer;
+        private long cpuStart;
+        private long allocationStart;
+        private boolean closed;
+
+        private Scope(Account account, Scope outer, long cpuStart, long allocationStart) {
+            this.account = account;
+            this.outer = outer;
+            this.cpuStart = cpuStart;
+            this.allocationStart = allocationStart;
+            account.invocations.increment();
+        }
+
+        private void charge(long cpu, long allocated) {
+            account.cpuNanos.add(cpu - cpuStart);
+            account.allocatedBytes.add(allocated - allocationStart);
+            cpuStart = cpu;
+            allocationStart = allocated;
+        }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            if (current.get() != this) throw new IllegalStateException("Scopes have to be closed in reverse order on the thread that entered them");
+            closed = true;
+
+            long cpu = cpuTime();
+            long allocated = allocatedBytes();
+            charge(cpu, allocated);
+            if (outer == null) {
+                current.remove();
+            } else {
+                outer.cpuStart = cpu;
+                outer.allocationStart = allocated;
+                current.set(outer);
+            }
+        }
+    }
+
+    /**
+     * A snapshot of the resources charged to a module
+     */
+    public static final class Usage {
+
+        private final String module;
+        private final long cpuNanos;
+        private final long allocatedBytes;
+        private final long invocations;
+        private final double cpuRate;
+        private final double allocationRate;
+
+        private Usage(String module, long cpuNanos, long allocatedBytes, long invocations, double cpuRate, double allocationRate) {
+            this.module = module;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.invocations = invocations;
+            this.cpuRate = cpuRate;
+            this.allocationRate = allocationRate;
+        }
+
+        /**
+         * Returns the module name
+         *
+         * @return the name
+         */
+        public String getModule() {
+            return module;
+        }
+
+        /**
+         * Returns the total CPU time charged to the module
+         *
+         * @return the CPU time in nanoseconds
+         */
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+
+        /**
+         * Returns the total bytes allocated by the module
+         *
+         * @return the allocated bytes
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * Returns how often the module was entered
+         *
+         * @return the number of scopes
+         */
+        public long getInvocations() {
+            return invocations;
+        }
+
+        /**
+         * Returns the CPU rate between the last two samples
+         *
+         * @return the number of cores used
+         */
+        public double getCpuRate() {
+            return cpuRate;
+        }
+
+        /**
+         * Returns the allocation rate between the last two samples
+         *
+         * @return the allocated bytes per second
+         */
+        public double getAllocationRate() {
+            return allocationRate;
+        }
+
+        @Override
+        public String toString() {
+            return module + "[cpu=" + TimeUnit.NANOSECONDS.toMillis(cpuNanos) + "ms, allocated=" + allocatedBytes + "B, invocations=" + invocations
+                    + ", cpuRate=" + String.format("%.3f", cpuRate) + ", allocationRate=" + String.format("%.0f", allocationRate) + "B/s]";
+        }
+    }
+
+    /**
+     * A module exceeding a threshold
+     */
+    public static final class Alert {
+
+        private final String module;
+        private final Resource resource;
+        private final double rate;
+        private final double threshold;
+
+        private Alert(String module, Resource resource, double rate, double threshold) {
+            this.module = module;
+            this.resource = resource;
+            this.rate = rate;
+            this.threshold = threshold;
+        }
+
+        /**
+         * Returns the module name
+         *
+         * @return the name
+         */
+        public String getModule() {
+            return module;
+        }
+
+        /**
+         * Returns the exceeded resource
+         *
+         * @return the resource
+         */
+        public Resource getResource() {
+            return resource;
+        }
+
+        /**
+         * Returns the sampled rate, see {@link Resource}
+         *
+         * @return the rate
+         */
+        public double getRate() {
+            return rate;
+        }
+
+        /**
+         * Returns the exceeded threshold
+         *
+         * @return the threshold
+         */
+        public double getThreshold() {
+            return threshold;
+        }
+
+        @Override
+        public String toString() {
+            return "Module " + module + " exceeded its " + resource + " threshold: " + String.format("%.3f", rate) + " > " + threshold;
+        }
+    }
+
+    private static final class Account {
+
+        private final String module;
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder invocations = new LongAdder();
+        private long sampledCpuNanos;
+        private long sampledAllocatedBytes;
+        private volatile double cpuRate;
+        private volatile double allocationRate;
+
+        private Account(String module) {
+            this.module = module;
+        }
+
+        private Usage usage() {
+            return new Usage(module, cpuNanos.sum(), allocatedBytes.sum(), invocations.sum(), cpuRate, allocationRate);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.knockturnmc.api.ext.loader;
+
+import com.knockturnmc.api.util.rest.json.JsonWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The lifecycle timings a {@link ModuleLoader} records for its modules, see {@link ModuleLoader#getTimings()}.
+ * Every measured phase is kept as {@link Span}, which can be summed up per module or exported as startup timeline
+ * in the Chrome trace event format for chrome://tracing or Perfetto.
+ */
+public class ModuleTimings {
+
+    /**
+     * The measured lifecycle phases
+     */
+    public enum Phase {
+        /**
+         * Reading the descriptor of a module file
+         */
+        DESCRIPTOR,
+        /**
+         * Sorting all descriptors by their dependencies, recorded without module
+         */
+        SORT,
+        /**
+         * Loading and initializing the main class of a module
+         */
+        CLASS_LOADING,
+        /**
+         * Creating the module instance through the instance provider
+         */
+        INSTANTIATION,
+        /**
+         * Calling {@link com.knockturnmc.api.ext.Loadable#onEnable}
+         */
+        ENABLE,
+        /**
+         * Calling {@link com.knockturnmc.api.ext.Loadable#onDisable}
+         */
+        DISABLE
+    }
+
+    /**
+     * A single measured phase
+     */
+    public static final class Span {
+
+        private final String module;
+        private final Phase phase;
+        private final long startNanos;
+        private final long durationNanos;
+        private final long threadId;
+
+        private Span(String module, Phase phase, long startNanos, long durationNanos, long threadId) {
+            this.module = module;
+            this.phase = phase;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.threadId = threadId;
+        }
+
+        /**
+         * Returns the module name
+         *
+         * @return the name or {@code null} for phases covering all modules
+         */
+        public String getModule() {
+            return module;
+        }
+
+        /**
+         * Returns the phase
+         *
+         * @return the phase
+         */
+        public Phase getPhase() {
+            return phase;
+        }
+
+        /**
+         * Returns the start of the phase relative to the creation of the timings
+         *
+         * @return the start in nanoseconds
+         */
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        /**
+         * Returns the duration of the phase
+         *
+         * @return the duration in nanoseconds
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * Returns the id of the thread that ran the phase
+         *
+         * @return the thread id
+         */
+        public long getThreadId() {
+            return threadId;
+        }
+
+        @Override
+        public String toString() {
+            return (module == null ? "" : module + " ") + phase + " " + TimeUnit.NANOSECONDS.toMicros(durationNanos) + "us";
+        }
+    }
+
+    private final long origin = System.nanoTime();
+    private final List<Span> spans = new ArrayList<>();
+    private final Map<String, Integer> classCounts = new HashMap<>();
+
+    /**
+     * Returns a timestamp for {@link #record(String, Phase, long)}
+     *
+     * @return the current time in nanoseconds
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a phase that started at the given timestamp and ends now
+     *
+     * @param module the module name or {@code null} for phases covering all modules
+     * @param phase  the phase
+     * @param start  the timestamp returned by {@link #start()}
+     * @return the duration in nanoseconds
+     */
+    public long record(String module, Phase phase, long start) {
+        long duration = System.nanoTime() - start;
+        Span span = new Span(module, phase, start - origin, duration, Thread.currentThread().getId());
+        synchronized (this) {
+            spans.add(span);
+        }
+        return duration;
+    }
+
+    /**
+     * Sets the number of classes a module has defined
+     *
+     * @param module the module name
+     * @param count  the class count
+     */
+    public synchronized void setClassCount(String module, int count) {
+        classCounts.put(module, count);
+    }
+
+    /**
+     * Returns the number of classes a module has defined, as of its last loading, enabling or disabling
+     *
+     * @param module the module name
+     * @return the class count, 0 if the module did not load classes
+     */
+    public synchronized int getClassCount(String module) {
+        return classCounts.getOrDefault(module, 0);
+    }
+
+    /**
+     * Returns all recorded phases in recording order
+     *
+     * @return the spans
+     */
+    public synchronized List<Span> getSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    /**
+     * Returns the names of all modules with recorded phases
+     *
+     * @return the module names in recording order
+     */
+    public synchronized Set<String> getModules() {
+        Set<String> modules = new LinkedHashSet<>();
+        spans.stream().filter(s -> s.module != null).forEach(s -> modules.add(s.module));
+        return modules;
+    }
+
+    /**
+     * Returns the total duration per phase of a module
+     *
+     * @param module the module name or {@code null} for phases covering all modules
+     * @return the durations in nanoseconds, phases that were not recorded are missing
+     */
+    public synchronized Map<Phase, Long> getDurations(String module) {
+        Map<Phase, Long> durations = new EnumMap<>(Phase.class);
+        for (Span span : spans) {
+            if (module == null ? span.module == null : module.equals(span.module)) {
+                durations.merge(span.phase, span.durationNanos, Long::sum);
+            }
+        }
+        return durations;
+    }
+
+    /**
+     * Returns the total duration of a phase of a module
+     *
+     * @param module the module name or {@code null} for phases covering all modules
+     * @param phase  the phase
+     * @return the duration in nanoseconds
+     */
+    public long getDuration(String module, Phase phase) {
+        return getDurations(module).getOrDefault(phase, 0L);
+    }
+
+    /**
+     * Removes all recorded phases and class counts
+     */
+    public synchronized void clear() {
+        spans.clear();
+        classCounts.clear();
+    }
+
+    /**
+     * Writes the recorded phases as Chrome trace event JSON
+     *
+     * @param file the file to write to
+     * @throws IOException if the file can not be written
+     */
+    public void writeTrace(File file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writeTrace(writer);
+        }
+    }
+
+    /**
+     * Writes the recorded phases as Chrome trace event JSON, one complete event per phase
+     *
+     * @param out the target of the document, which is not closed
+     * @throws IOException if the document could not be written
+     */
+    public void writeTrace(Writer out) throws IOException {
+        List<Span> spans = getSpans();
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginObject().name("displayTimeUnit").value("ms").name("traceEvents").beginArray();
+        for (Span span : spans) {
+            writer.beginObject()
+                    .name("name").value(span.module == null ? span.phase.name() : span.module + " " + span.phase)
+                    .name("cat").value(span.phase.name())
+                    .name("ph").value("X")
+                    .name("ts").value(span.startNanos / 1000.0)
+                    .name("dur").value(span.durationNanos / 1000.0)
+                    .name("pid").value(1)
+                    .name("tid").value(span.threadId)
+                    .name("args").beginObject();
+            if (span.module != null) {
+                writer.name("module").value(span.module).name("classes").value(getClassCount(span.module));
+            }
+            writer.endObject().endObject();
+        }
+        writer.endArray().endObject().flush();
+    }
+}
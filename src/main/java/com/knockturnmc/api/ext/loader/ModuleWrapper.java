@@ -2,14 +2,84 @@ package com.knockturnmc.api.ext.loader;
 
 import com.knockturnmc.api.ext.Loadable;
 import com.knockturnmc.api.ext.loader.descriptors.ModuleDescriptor;
-import lombok.AllArgsConstructor;
+import com.knockturnmc.api.ext.loader.scheduler.ModuleScheduler;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Getter
-@AllArgsConstructor
 public class ModuleWrapper<T> {
 
     private ModuleDescriptor descriptor;
-    private Loadable<T> module;
 
+    /**
+     * The module instance, {@code null} until a lazily activated module is first used
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private volatile Loadable<T> module;
+
+    /**
+     * Whether {@link Loadable#onEnable} was called and {@link Loadable#onDisable} was not called since
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private volatile boolean enabled;
+
+    /**
+     * The scheduler owned by the module while it is enabled, {@code null} if the loader has no task scheduler
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private volatile ModuleScheduler scheduler;
+
+    /**
+     * The activation of the module, completed once the module was loaded and, if the loader is enabled, enabled
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<CompletableFuture<Void>> activation = new AtomicReference<>();
+
+    public ModuleWrapper(ModuleDescriptor descriptor, Loadable<T> module) {
+        this.descriptor = descriptor;
+        this.module = module;
+        if (module != null) activation.set(CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * Claims the activation of the module for the caller
+     *
+     * @param activation the activation the caller will complete
+     * @return {@code null} if the caller claimed the activation, otherwise the activation that is running or finished
+     */
+    CompletableFuture<Void> startActivation(CompletableFuture<Void> activation) {
+        return this.activation.compareAndSet(null, activation) ? null : this.activation.get();
+    }
+
+    /**
+     * Releases a failed activation so the module can be activated again
+     *
+     * @param activation the failed activation
+     */
+    void resetActivation(CompletableFuture<Void> activation) {
+        this.activation.compareAndSet(activation, null);
+    }
+
+    /**
+     * Returns if the module is being activated
+     *
+     * @return true if an activation was started and did not finish yet
+     */
+    boolean isActivating() {
+        CompletableFuture<Void> activation = this.activation.get();
+        return activation != null && !activation.isDone();
+    }
+
+    /**
+     * Returns if the module class was loaded and instantiated
+     *
+     * @return true if the module is loaded
+     */
+    public boolean isLoaded() {
+        return module != null;
+    }
 }
@@ -0,0 +1,98 @@
+package com.knockturnmc.api.ext.loader.dependency;
+
+/**
+ * A dependency declared by a module as {@code name} or {@code name@range}, see {@link VersionRange} for the range syntax.
+ * Optional (soft) dependencies only order the modules and never prevent the dependent module from loading.
+ */
+public final class ModuleDependency {
+
+    private final String name;
+    private final String id;
+    private final VersionRange range;
+    private final boolean optional;
+
+    private ModuleDependency(String name, VersionRange range, boolean optional) {
+        this.name = name;
+        this.id = toID(name);
+        this.range = range;
+        this.optional = optional;
+    }
+
+    /**
+     * Parses a dependency declaration
+     *
+     * @param declaration the declaration, {@code name} or {@code name@range}
+     * @param optional    if the dependency is optional
+     * @return the dependency
+     * @throws IllegalArgumentException if the declaration is invalid
+     */
+    public static ModuleDependency parse(String declaration, boolean optional) {
+        if (declaration == null) throw new IllegalArgumentException("declaration can not be null");
+        int separator = declaration.indexOf('@');
+        String name = (separator < 0 ? declaration : declaration.substring(0, separator)).trim();
+        if (name.isEmpty()) throw new IllegalArgumentException("Dependency " + declaration + " has no module name");
+        VersionRange range = separator < 0 ? VersionRange.ANY : VersionRange.parse(declaration.substring(separator + 1));
+        return new ModuleDependency(name, range, optional);
+    }
+
+    /**
+     * Transforms a module name into the id used to resolve dependencies
+     *
+     * @param name the name
+     * @return the id
+     */
+    public static String toID(String name) {
+        return name.trim().toLowerCase().replaceAll(" ", "_");
+    }
+
+    /**
+     * Returns the name of the required module
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the id of the required module
+     *
+     * @return the id
+     */
+    public String getID() {
+        return id;
+    }
+
+    /**
+     * Returns the accepted versions
+     *
+     * @return the range, {@link VersionRange#ANY} if no range was declared
+     */
+    public VersionRange getRange() {
+        return range;
+    }
+
+    /**
+     * Returns if the dependency is optional
+     *
+     * @return true if the module also loads without the dependency
+     */
+    public boolean isOptional() {
+        return optional;
+    }
+
+    /**
+     * Checks if a version satisfies this dependency. Modules without valid version only satisfy dependencies without range.
+     *
+     * @param version the version or {@code null}
+     * @return true if the version is accepted
+     */
+    public boolean accepts(Version version) {
+        return version == null ? range == VersionRange.ANY : range.contains(version);
+    }
+
+    @Override
+    public String toString() {
+        return (optional ? "optional " : "") + name + (range == VersionRange.ANY ? "" : "@" + range);
+    }
+}
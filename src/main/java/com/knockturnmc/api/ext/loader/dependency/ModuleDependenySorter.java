@@ -6,10 +6,19 @@ import com.knockturnmc.api.ext.loader.descriptors.ModuleDescriptor;
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * Resolves the modules to load and their order. When several jars declare the same module, the newest jar that satisfies
+ * the version ranges of the modules depending on it is selected.
+ * <p>
+ * A depth-first pass over the dependencies of all jars yields an order in which every module comes after the modules it may
+ * depend on. The versions are selected along this order in reverse, so all dependents of a module are usually selected and
+ * their ranges are known before the module itself is. Only the dependencies of the selected jars are then sorted into the
+ * load order, so a jar that was not selected can not cause a missing or circular dependency.
+ */
 public class ModuleDependenySorter {
 
-    private Map<String, IDModuleDescriptor> descriptorMap;
-    private List<IDModuleDescriptor> result = new LinkedList<>();
+    private final Map<String, List<Candidate>> candidates = new LinkedHashMap<>();
+    private final List<ModuleDescriptor> unselected = new ArrayList<>();
 
     /**
      * Creates a new dependency sorter that will sort the given modules descriptors based of their dependencies
@@ -17,129 +26,167 @@ public class ModuleDependenySorter {
      * @param descriptors the descriptors
      */
     public ModuleDependenySorter(Collection<ModuleDescriptor> descriptors) {
-        this.descriptorMap = descriptors.stream()
-                .map(IDModuleDescriptor::new)
-                .collect(Collectors.toMap(IDModuleDescriptor::getID, d -> d));
+        descriptors.stream()
+                .map(Candidate::new)
+                .sorted(Comparator.comparing((Candidate c) -> c.id)
+                        .thenComparing(c -> c.version, Comparator.nullsLast(Comparator.reverseOrder()))
+                        .thenComparing(c -> c.descriptor.getFile().getName()))
+                .forEach(c -> candidates.computeIfAbsent(c.id, id -> new ArrayList<>()).add(c));
     }
 
     /**
-     * Sorts the module descriptors
+     * Selects a jar per module and sorts them so every module comes after its dependencies
      *
      * @return the module descriptors
+     * @throws ModuleLoaderException if a required dependency is missing, has no matching version or is circular
      */
     public List<ModuleDescriptor> sort() {
-        this.descriptorMap.values().forEach(d -> d.findDependencies(descriptorMap));
-        this.descriptorMap.values().forEach(this::sort);
+        //Depth first over the ids, every id is added after the ids it may depend on
+        List<String> order = new ArrayList<>();
+        Map<String, Boolean> visited = new HashMap<>(); //False while the id is on the stack
+        candidates.keySet().forEach(id -> visit(id, visited, order));
+
+        //Dependents are selected before their dependencies, so all ranges on a module are known when it is selected
+        Map<String, Candidate> selected = new HashMap<>();
+        Map<String, List<Requirement>> requirements = new HashMap<>();
+        for (int i = order.size() - 1; i >= 0; i--) {
+            String id = order.get(i);
+            Candidate candidate = select(id, requirements.getOrDefault(id, Collections.emptyList()));
+            selected.put(id, candidate);
+            for (ModuleDependency dependency : candidate.dependencies) {
+                requirements.computeIfAbsent(dependency.getID(), d -> new ArrayList<>()).add(new Requirement(candidate, dependency));
+            }
+        }
 
-        return result.stream().map(IDModuleDescriptor::getDescriptor).collect(Collectors.toCollection(LinkedList::new));
+        List<ModuleDescriptor> result = new ArrayList<>();
+        Map<String, Boolean> loaded = new HashMap<>(); //False while the module is on the stack
+        for (String id : order) {
+            if (!loaded.containsKey(id)) load(selected.get(id), selected, loaded, result);
+        }
+        candidates.values().forEach(available -> available.stream()
+                .filter(c -> c != selected.get(c.id))
+                .forEach(c -> unselected.add(c.descriptor)));
+        return result;
     }
 
     /**
-     * Sorts a single module descriptor
+     * Returns the descriptors of the jars that were not selected by {@link #sort()}, as another jar of their module was
      *
-     * @param descriptor the descriptor
+     * @return the descriptors
      */
-    private void sort(IDModuleDescriptor descriptor) {
-        if (descriptor.isSorted()) return;
-
-        descriptor.getDependencies().forEach(this::sort); //Load all dependencies
+    public List<ModuleDescriptor> getUnselected() {
+        return unselected;
+    }
 
-        result.add(descriptor);
-        descriptor.setSorted(true);
+    private void visit(String id, Map<String, Boolean> visited, List<String> order) {
+        if (visited.containsKey(id)) return; //Done or circular, which is reported once the versions are selected
+        visited.put(id, false);
+        for (Candidate candidate : candidates.get(id)) {
+            for (ModuleDependency dependency : candidate.dependencies) {
+                if (candidates.containsKey(dependency.getID())) visit(dependency.getID(), visited, order);
+            }
+        }
+        visited.put(id, true);
+        order.add(id);
     }
 
     /**
-     * A local wrapper class that stores dependency references as well as status during sorting
+     * Adds a selected jar to the load order after the selected jars of its dependencies
      */
-    private class IDModuleDescriptor {
-        private ModuleDescriptor descriptor;
-
-        private String id;
-        private Collection<IDModuleDescriptor> dependencies = new ArrayList<>();
-
-        private boolean isSorted;
-
-        /**
-         * Creates a new identifiable module descriptor
-         *
-         * @param descriptor the descriptor
-         */
-        public IDModuleDescriptor(ModuleDescriptor descriptor) {
-            this.descriptor = descriptor;
+    private void load(Candidate candidate, Map<String, Candidate> selected, Map<String, Boolean> loaded, List<ModuleDescriptor> result) {
+        loaded.put(candidate.id, false);
+        for (ModuleDependency dependency : candidate.dependencies) {
+            Candidate selectedDependency = selected.get(dependency.getID());
+            if (selectedDependency == null) {
+                if (dependency.isOptional()) continue;
+                throw new ModuleLoaderException("Could not find dependency " + dependency.getID() + " for module " + candidate.descriptor.getName());
+            }
+            //A dependency selected before this module, which only happens along a cycle between other jars, may not match
+            if (!dependency.isOptional() && !dependency.accepts(selectedDependency.version)) {
+                throw unsatisfied(candidate, dependency, candidates.get(dependency.getID()));
+            }
+
+            Boolean done = loaded.get(dependency.getID());
+            if (done == null) {
+                load(selectedDependency, selected, loaded, result);
+            } else if (!done && !dependency.isOptional()) {
+                throw new ModuleLoaderException("Circular dependency between " + candidate.descriptor.getName() + " and " + dependency.getName());
+            }
         }
+        loaded.put(candidate.id, true);
+        result.add(candidate.descriptor);
+    }
 
-        /**
-         * Returns the id of the descriptor
-         *
-         * @return the id
-         */
-        public String getID() {
-            return id == null ? (id = toID(descriptor.getName())) : id;
+    /**
+     * Selects the newest jar of a module that satisfies all required ranges and, if possible, all optional ones
+     */
+    private Candidate select(String id, List<Requirement> requirements) {
+        List<Candidate> available = candidates.get(id);
+        Candidate fallback = null;
+        for (Candidate candidate : available) {
+            boolean required = true;
+            boolean optional = true;
+            for (Requirement requirement : requirements) {
+                if (requirement.dependency.accepts(candidate.version)) continue;
+                if (requirement.dependency.isOptional()) {
+                    optional = false;
+                } else {
+                    required = false;
+                }
+            }
+            if (required && optional) return candidate;
+            if (required && fallback == null) fallback = candidate;
         }
+        if (fallback != null) return fallback;
+
+        Requirement unsatisfied = requirements.stream()
+                .filter(r -> !r.dependency.isOptional())
+                .filter(r -> available.stream().noneMatch(c -> r.dependency.accepts(c.version)))
+                .findFirst()
+                .orElse(requirements.get(0));
+        throw unsatisfied(unsatisfied.dependent, unsatisfied.dependency, available);
+    }
 
-        /**
-         * Returns the dependencies
-         *
-         * @return the collection
-         */
-        public Collection<IDModuleDescriptor> getDependencies() {
-            return dependencies;
-        }
+    private static ModuleLoaderException unsatisfied(Candidate dependent, ModuleDependency dependency, List<Candidate> available) {
+        return new ModuleLoaderException("Could not find a version of dependency " + dependency.getName() + " matching "
+                + dependency.getRange() + " for module " + dependent.descriptor.getName() + ", available are "
+                + available.stream().map(c -> c.descriptor.getVersion()).collect(Collectors.joining(", ")));
+    }
 
-        /**
-         * Returns if this descriptor has been loaded
-         *
-         * @return the result
-         */
-        public boolean isSorted() {
-            return isSorted;
-        }
+    /**
+     * A jar of a module with its parsed version and dependencies
+     */
+    private static final class Candidate {
 
-        /**
-         * Sets if this descriptor has been sorted
-         *
-         * @param sorted the value
-         * @return the descriptor
-         */
-        public IDModuleDescriptor setSorted(boolean sorted) {
-            isSorted = sorted;
-            return this;
-        }
+        private final ModuleDescriptor descriptor;
+        private final String id;
+        private final Version version;
+        private final List<ModuleDependency> dependencies = new ArrayList<>();
 
-        /**
-         * Looks up the dependencies
-         *
-         * @param allModules the module map
-         * @throws ModuleLoaderException if a module could not be found
-         */
-        public void findDependencies(Map<String, IDModuleDescriptor> allModules) throws ModuleLoaderException {
-            descriptor.getDependencies().forEach(name -> {
-                String moduleID = toID(name);
-
-                IDModuleDescriptor dependency = allModules.get(moduleID);
-                if (dependency == null) throw new ModuleLoaderException("Could not find dependency " + moduleID + " for module " + descriptor.getName());
-
-                this.dependencies.add(dependency);
-            });
+        private Candidate(ModuleDescriptor descriptor) {
+            this.descriptor = descriptor;
+            this.id = ModuleDependency.toID(descriptor.getName());
+            this.version = Version.tryParse(descriptor.getVersion());
+            try {
+                descriptor.getDependencies().forEach(d -> dependencies.add(ModuleDependency.parse(d, false)));
+                descriptor.getSoftDependencies().forEach(d -> dependencies.add(ModuleDependency.parse(d, true)));
+            } catch (IllegalArgumentException e) {
+                throw new ModuleLoaderException("Invalid dependency of module " + descriptor.getName(), e);
+            }
         }
+    }
 
-        /**
-         * Returns the original module descriptor
-         *
-         * @return the module descriptor
-         */
-        public ModuleDescriptor getDescriptor() {
-            return descriptor;
-        }
+    /**
+     * A dependency of a selected module
+     */
+    private static final class Requirement {
+
+        private final Candidate dependent;
+        private final ModuleDependency dependency;
 
-        /**
-         * Transforms a string into an id string
-         *
-         * @param string the string
-         * @return the id string
-         */
-        private String toID(String string) {
-            return string.trim().toLowerCase().replaceAll(" ", "_");
+        private Requirement(Candidate dependent, ModuleDependency dependency) {
+            this.dependent = dependent;
+            this.dependency = dependency;
         }
     }
 }
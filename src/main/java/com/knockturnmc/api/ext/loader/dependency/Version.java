@@ -0,0 +1,219 @@
+package com.knockturnmc.api.ext.loader.dependency;
+
+/**
+ * A semantic version {@code major.minor.patch[-prerelease][+build]}, ordered by semantic versioning precedence.
+ * Parsing is lenient towards module descriptors: missing minor and patch numbers are 0, and surrounding quotes as well as
+ * a leading {@code v} are ignored. The build metadata is kept for {@link #toString()}, but ignored by comparisons.
+ */
+public final class Version implements Comparable<Version> {
+
+    private static final String[] NO_PRE_RELEASE = new String[0];
+
+    private final int major;
+    private final int minor;
+    private final int patch;
+    private final String[] preRelease;
+    private final String build;
+
+    private Version(int major, int minor, int patch, String[] preRelease, String build) {
+        this.major = major;
+        this.minor = minor;
+        this.patch = patch;
+        this.preRelease = preRelease;
+        this.build = build;
+    }
+
+    /**
+     * Creates a release version
+     *
+     * @param major the major version
+     * @param minor the minor version
+     * @param patch the patch version
+     * @return the version
+     */
+    public static Version of(int major, int minor, int patch) {
+        if (major < 0 || minor < 0 || patch < 0) throw new IllegalArgumentException("Version numbers can not be negative");
+        return new Version(major, minor, patch, NO_PRE_RELEASE, null);
+    }
+
+    /**
+     * Parses a version
+     *
+     * @param version the version string
+     * @return the version
+     * @throws IllegalArgumentException if the string is not a version
+     */
+    public static Version parse(String version) {
+        Version parsed = tryParse(version);
+        if (parsed == null) throw new IllegalArgumentException("Invalid version " + version);
+        return parsed;
+    }
+
+    /**
+     * Parses a version
+     *
+     * @param version the version string
+     * @return the version or {@code null} if the string is not a version
+     */
+    public static Version tryParse(String version) {
+        if (version == null) return null;
+        String text = version.trim();
+        if (text.length() >= 2 && text.charAt(0) == '"' && text.charAt(text.length() - 1) == '"') text = text.substring(1, text.length() - 1).trim();
+        if (text.startsWith("v") || text.startsWith("V")) text = text.substring(1);
+
+        String build = null;
+        int buildStart = text.indexOf('+');
+        if (buildStart >= 0) {
+            build = text.substring(buildStart + 1);
+            if (!isIdentifiers(build)) return null;
+            text = text.substring(0, buildStart);
+        }
+        String[] preRelease = NO_PRE_RELEASE;
+        int preReleaseStart = text.indexOf('-');
+        if (preReleaseStart >= 0) {
+            String identifiers = text.substring(preReleaseStart + 1);
+            if (!isIdentifiers(identifiers)) return null;
+            preRelease = identifiers.split("\\.");
+            text = text.substring(0, preReleaseStart);
+        }
+
+        String[] numbers = text.split("\\.", -1);
+        if (numbers.length > 3) return null;
+        int[] parsed = new int[3];
+        for (int i = 0; i < numbers.length; i++) {
+            parsed[i] = parseNumber(numbers[i]);
+            if (parsed[i] < 0) return null;
+        }
+        return new Version(parsed[0], parsed[1], parsed[2], preRelease, build);
+    }
+
+    /**
+     * Parses a version number without sign
+     *
+     * @param number the number
+     * @return the number or -1 if it is invalid
+     */
+    static int parseNumber(String number) {
+        if (number.isEmpty() || number.length() > 9) return -1;
+        int value = 0;
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isIdentifiers(String identifiers) {
+        for (String identifier : identifiers.split("\\.", -1)) {
+            if (identifier.isEmpty()) return false;
+            for (int i = 0; i < identifier.length(); i++) {
+                char c = identifier.charAt(i);
+                if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && c != '-') return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the major version
+     *
+     * @return the major version
+     */
+    public int getMajor() {
+        return major;
+    }
+
+    /**
+     * Returns the minor version
+     *
+     * @return the minor version
+     */
+    public int getMinor() {
+        return minor;
+    }
+
+    /**
+     * Returns the patch version
+     *
+     * @return the patch version
+     */
+    public int getPatch() {
+        return patch;
+    }
+
+    /**
+     * Returns if this is a pre-release, like {@code 1.0.0-beta.2}
+     *
+     * @return true if the version has pre-release identifiers
+     */
+    public boolean isPreRelease() {
+        return preRelease.length > 0;
+    }
+
+    /**
+     * Checks if both versions have the same major, minor and patch version
+     *
+     * @param other the other version
+     * @return true if only the pre-release or build differ
+     */
+    public boolean isSameRelease(Version other) {
+        return major == other.major && minor == other.minor && patch == other.patch;
+    }
+
+    /**
+     * Returns this version without pre-release and build
+     *
+     * @return the release version
+     */
+    public Version toRelease() {
+        return preRelease.length == 0 && build == null ? this : of(major, minor, patch);
+    }
+
+    @Override
+    public int compareTo(Version other) {
+        if (major != other.major) return Integer.compare(major, other.major);
+        if (minor != other.minor) return Integer.compare(minor, other.minor);
+        if (patch != other.patch) return Integer.compare(patch, other.patch);
+
+        //A release has a higher precedence than its pre-releases
+        if (preRelease.length == 0 || other.preRelease.length == 0) return Integer.compare(other.preRelease.length, preRelease.length);
+        for (int i = 0; i < Math.min(preRelease.length, other.preRelease.length); i++) {
+            int compared = compareIdentifier(preRelease[i], other.preRelease[i]);
+            if (compared != 0) return compared;
+        }
+        return Integer.compare(preRelease.length, other.preRelease.length);
+    }
+
+    private static int compareIdentifier(String a, String b) {
+        int numberA = parseNumber(a);
+        int numberB = parseNumber(b);
+        if (numberA >= 0 && numberB >= 0) return Integer.compare(numberA, numberB);
+        if (numberA >= 0) return -1; //Numeric identifiers are lower than alphanumeric ones
+        if (numberB >= 0) return 1;
+        return a.compareTo(b);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Version && compareTo((Version) o) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 31 * (31 * major + minor) + patch;
+        for (String identifier : preRelease) {
+            int number = parseNumber(identifier);
+            hash = 31 * hash + (number >= 0 ? number : identifier.hashCode());
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append(major).append('.').append(minor).append('.').append(patch);
+        if (preRelease.length > 0) builder.append('-').append(String.join(".", preRelease));
+        if (build != null) builder.append('+').append(build);
+        return builder.toString();
+    }
+}
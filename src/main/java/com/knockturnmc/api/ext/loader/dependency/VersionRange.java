@@ -0,0 +1,278 @@
+package com.knockturnmc.api.ext.loader.dependency;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A range of {@link Version versions} in the syntax of npm ranges:
+ * <ul>
+ * <li>comparators {@code >=1.2.0}, {@code <2}, {@code =1.4.1} or just {@code 1.4.1}, separated by spaces to require all of them</li>
+ * <li>x-ranges {@code *}, {@code 1.x} or {@code 1.2}, matching every version with the given prefix</li>
+ * <li>caret ranges {@code ^1.2.3}, allowing changes that do not modify the left-most non-zero number</li>
+ * <li>tilde ranges {@code ~1.2.3}, allowing patch changes</li>
+ * <li>hyphen ranges {@code 1.2 - 2.3.4}, inclusive on both ends</li>
+ * <li>alternatives separated by {@code ||}</li>
+ * </ul>
+ * Like npm, a pre-release version only matches if one of the comparators of the alternative names a pre-release of the same
+ * major, minor and patch version, so {@code ^1.0.0} never resolves to {@code 2.0.0-beta}.
+ */
+public final class VersionRange {
+
+    /**
+     * The range matching every release version
+     */
+    public static final VersionRange ANY = new VersionRange("*", Collections.singletonList(Collections.emptyList()));
+
+    private final String range;
+    private final List<List<Comparator>> alternatives;
+
+    private VersionRange(String range, List<List<Comparator>> alternatives) {
+        this.range = range;
+        this.alternatives = alternatives;
+    }
+
+    /**
+     * Parses a range
+     *
+     * @param range the range
+     * @return the range
+     * @throws IllegalArgumentException if the string is not a valid range
+     */
+    public static VersionRange parse(String range) {
+        if (range == null) throw new IllegalArgumentException("range can not be null");
+        String text = range.trim();
+        if (text.isEmpty() || text.equals("*")) return ANY;
+
+        List<List<Comparator>> alternatives = new ArrayList<>();
+        for (String alternative : text.split("\\|\\|", -1)) {
+            List<Comparator> comparators = new ArrayList<>();
+            try {
+                parseAlternative(alternative.trim(), comparators);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid version range " + range, e);
+            }
+            alternatives.add(comparators);
+        }
+        return new VersionRange(text, alternatives);
+    }
+
+    /**
+     * Checks if the version is in this range
+     *
+     * @param version the version
+     * @return true if the version matches one of the alternatives
+     */
+    public boolean contains(Version version) {
+        for (List<Comparator> comparators : alternatives) {
+            if (matches(comparators, version)) return true;
+        }
+        return false;
+    }
+
+    private static boolean matches(List<Comparator> comparators, Version version) {
+        boolean preReleaseAllowed = !version.isPreRelease();
+        for (Comparator comparator : comparators) {
+            if (!comparator.test(version)) return false;
+            if (comparator.version.isPreRelease() && comparator.version.isSameRelease(version)) preReleaseAllowed = true;
+        }
+        return preReleaseAllowed;
+    }
+
+    private static void parseAlternative(String alternative, List<Comparator> comparators) {
+        if (alternative.isEmpty()) return;
+
+        int hyphen = alternative.indexOf(" - ");
+        if (hyphen >= 0) {
+            Partial from = Partial.parse(alternative.substring(0, hyphen).trim());
+            Partial to = Partial.parse(alternative.substring(hyphen + 3).trim());
+            if (from.major != null) comparators.add(new Comparator(Operator.GE, from.lower()));
+            addUpperBound(to, comparators);
+            return;
+        }
+
+        String pendingOperator = null;
+        for (String token : alternative.split("\\s+")) {
+            if (pendingOperator != null) {
+                token = pendingOperator + token;
+                pendingOperator = null;
+            }
+            if (token.equals(">") || token.equals(">=") || token.equals("<") || token.equals("<=") || token.equals("=")
+                    || token.equals("^") || token.equals("~")) {
+                pendingOperator = token; //Written with a space, like ">= 1.2"
+                continue;
+            }
+            parseComparator(token, comparators);
+        }
+        if (pendingOperator != null) throw new IllegalArgumentException("Missing version after " + pendingOperator);
+    }
+
+    private static void parseComparator(String token, List<Comparator> comparators) {
+        String operator = token.startsWith(">=") || token.startsWith("<=") ? token.substring(0, 2)
+                : token.startsWith(">") || token.startsWith("<") || token.startsWith("=") || token.startsWith("^") || token.startsWith("~") ? token.substring(0, 1)
+                : "";
+        Partial version = Partial.parse(token.substring(operator.length()));
+        if (version.major == null) { //*, x, X
+            if (operator.equals("<") || operator.equals(">")) comparators.add(new Comparator(Operator.LT, Version.of(0, 0, 0)));
+            return;
+        }
+
+        switch (operator) {
+            case "":
+            case "=":
+                if (version.isComplete()) {
+                    comparators.add(new Comparator(Operator.EQ, version.version()));
+                } else {
+                    comparators.add(new Comparator(Operator.GE, version.lower()));
+                    comparators.add(new Comparator(Operator.LT, version.next()));
+                }
+                break;
+            case ">":
+                comparators.add(version.isComplete() ? new Comparator(Operator.GT, version.version()) : new Comparator(Operator.GE, version.next()));
+                break;
+            case ">=":
+                comparators.add(new Comparator(Operator.GE, version.lower()));
+                break;
+            case "<":
+                comparators.add(new Comparator(Operator.LT, version.lower()));
+                break;
+            case "<=":
+                addUpperBound(version, comparators);
+                break;
+            case "~":
+                comparators.add(new Comparator(Operator.GE, version.lower()));
+                comparators.add(new Comparator(Operator.LT, version.minor == null ? Version.of(version.major + 1, 0, 0) : Version.of(version.major, version.minor + 1, 0)));
+                break;
+            case "^":
+                comparators.add(new Comparator(Operator.GE, version.lower()));
+                Version upper;
+                if (version.major > 0 || version.minor == null) {
+                    upper = Version.of(version.major + 1, 0, 0);
+                } else if (version.minor > 0 || version.patch == null) {
+                    upper = Version.of(0, version.minor + 1, 0);
+                } else {
+                    upper = Version.of(0, 0, version.patch + 1);
+                }
+                comparators.add(new Comparator(Operator.LT, upper));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operator " + operator);
+        }
+    }
+
+    private static void addUpperBound(Partial version, List<Comparator> comparators) {
+        if (version.major == null) return;
+        comparators.add(version.isComplete() ? new Comparator(Operator.LE, version.version()) : new Comparator(Operator.LT, version.next()));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof VersionRange && range.equals(((VersionRange) o).range);
+    }
+
+    @Override
+    public int hashCode() {
+        return range.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return range;
+    }
+
+    private enum Operator {
+        LT, LE, GT, GE, EQ
+    }
+
+    private static final class Comparator {
+
+        private final Operator operator;
+        private final Version version;
+
+        private Comparator(Operator operator, Version version) {
+            this.operator = operator;
+            this.version = version;
+        }
+
+        private boolean test(Version other) {
+            int compared = other.compareTo(version);
+            switch (operator) {
+                case LT:
+                    return compared < 0;
+                case LE:
+                    return compared <= 0;
+                case GT:
+                    return compared > 0;
+                case GE:
+                    return compared >= 0;
+                default:
+                    return compared == 0;
+            }
+        }
+    }
+
+    /**
+     * A version that may end in a wildcard or omit its minor and patch number, like {@code 1.x} or {@code 1.2}
+     */
+    private static final class Partial {
+
+        private final Integer major;
+        private final Integer minor;
+        private final Integer patch;
+        private final Version complete;
+
+        private Partial(Integer major, Integer minor, Integer patch, Version complete) {
+            this.major = major;
+            this.minor = minor;
+            this.patch = patch;
+            this.complete = complete;
+        }
+
+        private static Partial parse(String text) {
+            if (text.startsWith("v") || text.startsWith("V")) text = text.substring(1);
+            int suffix = indexOfSuffix(text);
+            String[] numbers = (suffix < 0 ? text : text.substring(0, suffix)).split("\\.", -1);
+            if (numbers.length > 3) throw new IllegalArgumentException("Invalid version " + text);
+
+            Integer[] parsed = new Integer[3];
+            for (int i = 0; i < numbers.length; i++) {
+                String number = numbers[i];
+                if (number.equals("x") || number.equals("X") || number.equals("*")) break;
+                int value = Version.parseNumber(number);
+                if (value < 0) throw new IllegalArgumentException("Invalid version " + text);
+                parsed[i] = value;
+            }
+            if (parsed[2] != null) return new Partial(parsed[0], parsed[1], parsed[2], Version.parse(text));
+            if (suffix >= 0) throw new IllegalArgumentException("Only complete versions can have a pre-release or build " + text);
+            return new Partial(parsed[0], parsed[1], null, null);
+        }
+
+        private static int indexOfSuffix(String text) {
+            int preRelease = text.indexOf('-');
+            int build = text.indexOf('+');
+            return preRelease < 0 ? build : build < 0 ? preRelease : Math.min(preRelease, build);
+        }
+
+        private boolean isComplete() {
+            return complete != null;
+        }
+
+        private Version version() {
+            return complete;
+        }
+
+        /**
+         * Returns the lowest version with this prefix
+         */
+        private Version lower() {
+            return complete != null ? complete : Version.of(major, minor == null ? 0 : minor, 0);
+        }
+
+        /**
+         * Returns the lowest version above this prefix
+         */
+        private Version next() {
+            return minor == null ? Version.of(major + 1, 0, 0) : Version.of(major, minor + 1, 0);
+        }
+    }
+}
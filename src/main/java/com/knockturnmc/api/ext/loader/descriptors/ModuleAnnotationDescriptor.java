@@ -2,17 +2,14 @@ package com.knockturnmc.api.ext.loader.descriptors;
 
 import com.knockturnmc.api.ext.Loadable;
 import com.knockturnmc.api.ext.Module;
+import com.knockturnmc.api.ext.loader.ModuleClassLoader;
 import com.knockturnmc.api.ext.loader.ModuleLoaderException;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.util.*;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.zip.ZipFile;
 
 public class ModuleAnnotationDescriptor implements ModuleDescriptor {
 
@@ -39,38 +36,34 @@ public class ModuleAnnotationDescriptor implements ModuleDescriptor {
      */
     @Override
     public void load() {
-        try (ZipFile zip = new ZipFile(this.sourceFile)) {
-
-            try (URLClassLoader preLoader = new URLClassLoader(new URL[]{this.sourceFile.toPath().toUri().toURL()})) {
-
-                ArrayList<? extends Class<?>> moduleClasses = zip.stream()
-                        .filter(e -> !e.isDirectory())
-                        .filter(e -> e.getName().endsWith(".class"))
-                        .map(e -> e.getName().substring(0, e.getName().length() - 6).replace('/', '.'))
-                        .map(className -> {
-                            try {
-                                return Class.forName(className, true, preLoader);
-                            } catch (Throwable t) {
-                                return null;
-                            }
-                        }).filter(Objects::nonNull)
-                        .peek(this.classObserver)
-                        .filter(c -> c.isAnnotationPresent(Module.class))
-                        .filter(Loadable.class::isAssignableFrom)
-                        .collect(Collectors.toCollection(ArrayList::new));
-
-                if (moduleClasses.size() < 1) {
-                    throw new ModuleLoaderException("Could not load module " + this.sourceFile.getName() + " as it does not contain a class annotated with @Module and extends Loadable");
-                } else if (moduleClasses.size() > 1) {
-                    throw new ModuleLoaderException("Could not load module " + this.sourceFile.getName() + " as it contains multiple classes annotated with @Module and extedning Loadable");
-                } else {
-                    Class<?> moduleClass = moduleClasses.get(0);
-
-                    this.moduleAnnotation = moduleClass.getAnnotation(Module.class);
-                    this.moduleClassName = moduleClass.getName();
-                }
+        try (ModuleClassLoader preLoader = new ModuleClassLoader(this.sourceFile, ClassLoader.getSystemClassLoader())) {
+
+            ArrayList<? extends Class<?>> moduleClasses = preLoader.getJar().getEntryNames().stream()
+                    .filter(e -> !e.endsWith("/"))
+                    .filter(e -> e.endsWith(".class"))
+                    .map(e -> e.substring(0, e.length() - 6).replace('/', '.'))
+                    .map(className -> {
+                        try {
+                            return Class.forName(className, true, preLoader);
+                        } catch (Throwable t) {
+                            return null;
+                        }
+                    }).filter(Objects::nonNull)
+                    .peek(this.classObserver)
+                    .filter(c -> c.isAnnotationPresent(Module.class))
+                    .filter(Loadable.class::isAssignableFrom)
+                    .collect(Collectors.toCollection(ArrayList::new));
+
+            if (moduleClasses.size() < 1) {
+                throw new ModuleLoaderException("Could not load module " + this.sourceFile.getName() + " as it does not contain a class annotated with @Module and extends Loadable");
+            } else if (moduleClasses.size() > 1) {
+                throw new ModuleLoaderException("Could not load module " + this.sourceFile.getName() + " as it contains multiple classes annotated with @Module and extedning Loadable");
+            } else {
+                Class<?> moduleClass = moduleClasses.get(0);
+
+                this.moduleAnnotation = moduleClass.getAnnotation(Module.class);
+                this.moduleClassName = moduleClass.getName();
             }
-
         } catch (IOException e) {
             throw new ModuleLoaderException("Could not load the module " + this.sourceFile.getName() + " as it isn't a zip file");
         }
@@ -116,6 +109,16 @@ public class ModuleAnnotationDescriptor implements ModuleDescriptor {
         return Arrays.asList(getModule().map(Module::dependencies).orElseThrow(() -> new ModuleLoaderException("The module was no initialized yet")));
     }
 
+    /**
+     * Returns the optional dependencies this module has
+     *
+     * @return the optional dependencies
+     */
+    @Override
+    public Collection<String> getSoftDependencies() {
+        return Arrays.asList(getModule().map(Module::softDependencies).orElseThrow(() -> new ModuleLoaderException("The module was no initialized yet")));
+    }
+
     /**
      * Returns the module class that this module contains
      *
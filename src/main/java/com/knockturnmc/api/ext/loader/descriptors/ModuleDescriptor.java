@@ -5,6 +5,7 @@ import org.slf4j.Logger;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Optional;
 
 /**
@@ -54,12 +55,22 @@ public interface ModuleDescriptor {
     String getVersion();
 
     /**
-     * Returns the dependencies this module has
+     * Returns the dependencies this module has, as {@code name} or {@code name@range}
      *
      * @return the dependencies
+     * @see com.knockturnmc.api.ext.loader.dependency.ModuleDependency
      */
     Collection<String> getDependencies();
 
+    /**
+     * Returns the optional dependencies this module has, which are loaded before it if they are present
+     *
+     * @return the optional dependencies
+     */
+    default Collection<String> getSoftDependencies() {
+        return Collections.emptyList();
+    }
+
     /**
      * Returns the module class that this module contains
      *
@@ -1,13 +1,12 @@
 package com.knockturnmc.api.ext.loader.descriptors;
 
+import com.knockturnmc.api.ext.loader.ModuleJar;
 import com.knockturnmc.api.ext.loader.ModuleLoaderException;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 public class ModulePropertyDescriptor implements ModuleDescriptor {
 
@@ -27,12 +26,10 @@ public class ModulePropertyDescriptor implements ModuleDescriptor {
      */
     @Override
     public void load() {
-        try (ZipFile zip = new ZipFile(this.sourceFile)) {
+        try (ModuleJar jar = ModuleJar.open(this.sourceFile)) {
 
-            ZipEntry entry = zip.getEntry("module.properties");
-            if (entry == null) throw new ModuleLoaderException("Could not load module as it is missing a module.properties file");
-
-            try (InputStream propertiesStream = zip.getInputStream(entry)) {
+            try (InputStream propertiesStream = jar.getInputStream("module.properties")) {
+                if (propertiesStream == null) throw new ModuleLoaderException("Could not load module as it is missing a module.properties file");
                 this.properties.load(propertiesStream);
             }
         } catch (IOException e) {
@@ -77,9 +74,31 @@ public class ModulePropertyDescriptor implements ModuleDescriptor {
      */
     @Override
     public Collection<String> getDependencies() {
-        List<String> dependencies = new ArrayList<>(Arrays.asList(properties.getProperty("dependencies", "").split(",")));
-        dependencies.removeIf(String::isEmpty);
-        return dependencies;
+        return getList("dependencies");
+    }
+
+    /**
+     * Returns the optional dependencies this module has
+     *
+     * @return the optional dependencies
+     */
+    @Override
+    public Collection<String> getSoftDependencies() {
+        return getList("softdependencies");
+    }
+
+    /**
+     * Returns a comma separated property as list
+     *
+     * @param key the property key
+     * @return the trimmed, non-empty values
+     */
+    private List<String> getList(String key) {
+        List<String> values = new ArrayList<>();
+        for (String value : properties.getProperty(key, "").split(",")) {
+            if (!value.trim().isEmpty()) values.add(value.trim());
+        }
+        return values;
     }
 
     /**
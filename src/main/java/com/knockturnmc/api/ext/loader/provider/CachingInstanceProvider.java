@@ -0,0 +1,147 @@
+package com.knockturnmc.api.ext.loader.provider;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An instance provider that resolves the constructor of every class once and invokes it through a cached {@link MethodHandle}.
+ * Constructor parameters are injected from a registry of services keyed by their exact type.
+ * <p>
+ * The constructor is chosen in this order:
+ * <ol>
+ * <li>the constructor annotated with {@link Inject}</li>
+ * <li>the only public constructor</li>
+ * <li>the public no-arg constructor</li>
+ * </ol>
+ * This provider is thread-safe.
+ */
+public class CachingInstanceProvider implements InstanceProvider {
+
+    private final Map<Class<?>, Object> services = new ConcurrentHashMap<>();
+    private final ClassValue<Factory> factories = new ClassValue<Factory>() {
+        @Override
+        protected Factory computeValue(Class<?> type) {
+            return new Factory(type);
+        }
+    };
+
+    /**
+     * Registers a service that is injected into constructor parameters of the given type
+     *
+     * @param type    the type of the constructor parameters
+     * @param service the service
+     * @param <S>     the service type
+     * @return this provider
+     */
+    public <S> CachingInstanceProvider register(Class<S> type, S service) {
+        if (type == null) throw new IllegalArgumentException("Type can not be null");
+        if (service == null) throw new IllegalArgumentException("Service can not be null");
+        services.put(type, service);
+        return this;
+    }
+
+    /**
+     * Unregisters the service of the given type
+     *
+     * @param type the type of the service
+     * @return true if a service was registered
+     */
+    public boolean unregister(Class<?> type) {
+        return services.remove(type) != null;
+    }
+
+    /**
+     * Gets the service registered for the given type
+     *
+     * @param type the type of the service
+     * @param <S>  the service type
+     * @return the service or {@code null} if none is registered
+     */
+    public <S> S getService(Class<S> type) {
+        return type.cast(services.get(type));
+    }
+
+    /**
+     * Returns an instance for the given class
+     *
+     * @param clazz the class
+     * @return the instance
+     */
+    @Override
+    public <T> T getInstance(Class<T> clazz) {
+        return clazz.cast(factories.get(clazz).newInstance(this));
+    }
+
+    /**
+     * The resolved constructor of a class
+     */
+    private static final class Factory {
+
+        private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class);
+
+        private final Class<?> type;
+        private final Class<?>[] parameters;
+        private final MethodHandle constructor;
+        private final RuntimeException failure;
+
+        private Factory(Class<?> type) {
+            this.type = type;
+            Class<?>[] parameters = null;
+            MethodHandle constructor = null;
+            RuntimeException failure = null;
+            try {
+                Constructor<?> resolved = resolve(type);
+                resolved.setAccessible(true);
+                parameters = resolved.getParameterTypes();
+                constructor = MethodHandles.lookup().unreflectConstructor(resolved);
+                constructor = parameters.length == 0
+                        ? constructor.asType(FACTORY_TYPE)
+                        : constructor.asSpreader(Object[].class, parameters.length).asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                //Cached as well, so a broken class is not resolved again for every instance
+                failure = new RuntimeException("Could not build new instance for class " + type.getSimpleName(), e);
+            }
+            this.parameters = parameters;
+            this.constructor = constructor;
+            this.failure = failure;
+        }
+
+        private static Constructor<?> resolve(Class<?> type) throws NoSuchMethodException {
+            Constructor<?> injected = null;
+            for (Constructor<?> candidate : type.getDeclaredConstructors()) {
+                if (!candidate.isAnnotationPresent(Inject.class)) continue;
+                if (injected != null) throw new IllegalStateException("Multiple constructors annotated with @Inject");
+                injected = candidate;
+            }
+            if (injected != null) return injected;
+
+            Constructor<?>[] constructors = type.getConstructors();
+            if (constructors.length == 1) return constructors[0];
+            return type.getConstructor();
+        }
+
+        private Object newInstance(CachingInstanceProvider provider) {
+            if (failure != null) throw failure;
+            try {
+                if (parameters.length == 0) return (Object) constructor.invokeExact();
+
+                Object[] arguments = new Object[parameters.length];
+                for (int i = 0; i < parameters.length; i++) {
+                    arguments[i] = provider.services.get(parameters[i]);
+                    if (arguments[i] == null) {
+                        throw new IllegalStateException("No service of type " + parameters[i].getName() + " registered for " + type.getName());
+                    }
+                }
+                return (Object) constructor.invokeExact(arguments);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException("Could not build new instance for class " + type.getSimpleName(), e);
+            }
+        }
+    }
+}
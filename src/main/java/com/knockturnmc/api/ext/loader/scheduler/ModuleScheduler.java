@@ -0,0 +1,206 @@
+package com.knockturnmc.api.ext.loader.scheduler;
+
+import com.knockturnmc.api.ext.loader.ModuleResourceAccounting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The view of a single module on the shared {@link TaskScheduler}. Tracks every task of the module, so they are all cancelled
+ * through {@link #cancelAll()} when the module is disabled, and queues tasks while the module runs its maximum number of tasks.
+ * Exceptions thrown by tasks are logged; repeating tasks keep running.
+ */
+public class ModuleScheduler {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final TaskScheduler service;
+    private final String module;
+    private final int maxConcurrency;
+    private final ModuleResourceAccounting accounting;
+
+    private final Set<ScheduledTask> tasks = ConcurrentHashMap.newKeySet();
+    private final Queue<ScheduledTask> queued = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private volatile boolean shutdown;
+
+    ModuleScheduler(TaskScheduler service, String module, int maxConcurrency, ModuleResourceAccounting accounting) {
+        this.service = service;
+        this.module = module;
+        this.maxConcurrency = maxConcurrency;
+        this.accounting = accounting;
+    }
+
+    /**
+     * Runs a task as soon as possible
+     *
+     * @param task the task
+     * @return the scheduled task
+     * @throws RejectedExecutionException if the scheduler was shut down
+     */
+    public ScheduledTask execute(Runnable task) {
+        return schedule(task, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs a task once after a delay
+     *
+     * @param task  the task
+     * @param delay the delay
+     * @param unit  the unit of the delay
+     * @return the scheduled task
+     * @throws RejectedExecutionException if the scheduler was shut down
+     */
+    public ScheduledTask schedule(Runnable task, long delay, TimeUnit unit) {
+        ScheduledTask scheduled = track(task, 0);
+        if (delay <= 0) {
+            scheduled.fire();
+        } else {
+            scheduled.setTimer(service.getTimer().schedule(scheduled::fire, delay, unit));
+        }
+        return scheduled;
+    }
+
+    /**
+     * Runs a task repeatedly at a fixed rate. A run is skipped while the previous one is still queued or running.
+     *
+     * @param task         the task
+     * @param initialDelay the delay of the first run
+     * @param period       the time between the starts of two runs
+     * @param unit         the unit of the delay and period
+     * @return the scheduled task
+     * @throws RejectedExecutionException if the scheduler was shut down
+     */
+    public ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) throw new IllegalArgumentException("period has to be positive");
+        ScheduledTask scheduled = track(task, period);
+        scheduled.setTimer(service.getTimer().scheduleAtFixedRate(scheduled::fire, initialDelay, period, unit));
+        return scheduled;
+    }
+
+    /**
+     * Cancels all tasks of the module and rejects new ones. Running tasks are interrupted.
+     */
+    public void cancelAll() {
+        shutdown = true;
+        for (ScheduledTask task : new ArrayList<>(tasks)) {
+            task.cancel();
+        }
+        queued.clear();
+    }
+
+    /**
+     * Returns if {@link #cancelAll()} was called
+     *
+     * @return true if new tasks are rejected
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Returns the name of the owning module
+     *
+     * @return the module name
+     */
+    public String getModule() {
+        return module;
+    }
+
+    /**
+     * Returns the number of tasks the module can run at once
+     *
+     * @return the maximum number of running tasks
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Returns the number of tasks that are scheduled and were not completed or cancelled
+     *
+     * @return the task count
+     */
+    public int getTaskCount() {
+        return tasks.size();
+    }
+
+    /**
+     * Returns the number of tasks running right now
+     *
+     * @return the running task count
+     */
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    private ScheduledTask track(Runnable task, long period) {
+        if (task == null) throw new IllegalArgumentException("task can not be null");
+        if (shutdown) throw new RejectedExecutionException("The scheduler of module " + module + " was shut down");
+        ScheduledTask scheduled = new ScheduledTask(this, task, period > 0);
+        tasks.add(scheduled);
+        if (shutdown) { //Raced with cancelAll
+            scheduled.cancel();
+            throw new RejectedExecutionException("The scheduler of module " + module + " was shut down");
+        }
+        return scheduled;
+    }
+
+    void remove(ScheduledTask task) {
+        tasks.remove(task);
+    }
+
+    /**
+     * Queues a task and starts as many queued tasks as the concurrency cap allows
+     */
+    void submit(ScheduledTask task) {
+        queued.add(task);
+        drain();
+    }
+
+    private void drain() {
+        while (!queued.isEmpty()) {
+            int current = running.get();
+            if (current >= maxConcurrency) return;
+            if (!running.compareAndSet(current, current + 1)) continue;
+
+            ScheduledTask next = queued.poll();
+            if (next == null) {
+                running.decrementAndGet();
+                continue;
+            }
+            try {
+                service.getPool().execute(() -> {
+                    try {
+                        next.run();
+                    } finally {
+                        running.decrementAndGet();
+                        drain();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                running.decrementAndGet();
+                next.cancel();
+            }
+        }
+    }
+
+    void invoke(Runnable task) {
+        try {
+            if (accounting == null) {
+                task.run();
+            } else {
+                accounting.run(module, task);
+            }
+        } catch (RuntimeException | Error e) {
+            logger.error("Task of module " + module + " failed", e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.knockturnmc.api.ext.loader.scheduler;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A task of a module scheduled through its {@link ModuleScheduler}
+ */
+public final class ScheduledTask {
+
+    private final ModuleScheduler owner;
+    private final Runnable task;
+    private final boolean repeating;
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private volatile ScheduledFuture<?> timer;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    private Thread runner;
+
+    ScheduledTask(ModuleScheduler owner, Runnable task, boolean repeating) {
+        this.owner = owner;
+        this.task = task;
+        this.repeating = repeating;
+    }
+
+    void setTimer(ScheduledFuture<?> timer) {
+        this.timer = timer;
+        if (cancelled) timer.cancel(false);
+    }
+
+    /**
+     * Hands the task to its module for execution, unless the previous run is still queued or running
+     */
+    void fire() {
+        if (cancelled || !pending.compareAndSet(false, true)) return;
+        owner.submit(this);
+    }
+
+    void run() {
+        try {
+            if (cancelled) return;
+            synchronized (this) {
+                runner = Thread.currentThread();
+            }
+            owner.invoke(task);
+        } finally {
+            synchronized (this) {
+                runner = null;
+                Thread.interrupted(); //Clears an interrupt of cancel, the worker is shared
+            }
+            pending.set(false);
+            if (!repeating) complete();
+        }
+    }
+
+    /**
+     * Cancels the task. A running task is interrupted, a repeating task is not run again.
+     *
+     * @return false if the task was already completed or cancelled
+     */
+    public boolean cancel() {
+        if (cancelled || done) return false;
+        cancelled = true;
+        ScheduledFuture<?> timer = this.timer;
+        if (timer != null) timer.cancel(false);
+        synchronized (this) {
+            if (runner != null) runner.interrupt();
+        }
+        complete();
+        return true;
+    }
+
+    /**
+     * Returns if the task was cancelled
+     *
+     * @return true if cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns if the task will not run again, as it was completed or cancelled
+     *
+     * @return true if done
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Returns if the task runs repeatedly
+     *
+     * @return true if repeating
+     */
+    public boolean isRepeating() {
+        return repeating;
+    }
+
+    private void complete() {
+        done = true;
+        owner.remove(this);
+    }
+}
@@ -0,0 +1,14 @@
+package com.knockturnmc.api.ext.loader.scheduler;
+
+/**
+ * Implemented by modules that run tasks on the {@link TaskScheduler} of their {@link com.knockturnmc.api.ext.loader.ModuleLoader}
+ */
+public interface SchedulerAware {
+
+    /**
+     * Sets the scheduler of the module, called before the module is enabled and with {@code null} once it was disabled or failed to enable
+     *
+     * @param scheduler the scheduler owned by the module or {@code null}
+     */
+    void setScheduler(ModuleScheduler scheduler);
+}
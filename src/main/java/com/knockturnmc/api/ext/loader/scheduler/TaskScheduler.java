@@ -0,0 +1,129 @@
+package com.knockturnmc.api.ext.loader.scheduler;
+
+import com.knockturnmc.api.ext.loader.ModuleResourceAccounting;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The scheduler shared by all modules, see {@link com.knockturnmc.api.ext.loader.ModuleLoader#setTaskScheduler(TaskScheduler)}.
+ * Tasks run on a work-stealing {@link ForkJoinPool}; a single timer thread only hands delayed and repeating tasks to the pool.
+ * Every module schedules through its own {@link ModuleScheduler}, which caps how many of its tasks run at once.
+ * <p>
+ * Tasks should not block for long, as a blocked task occupies one of the workers of all modules.
+ */
+public class TaskScheduler {
+
+    private final ForkJoinPool pool;
+    private final ScheduledThreadPoolExecutor timer;
+    private final int defaultMaxConcurrency;
+    private final Map<String, Integer> maxConcurrency = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a scheduler with a worker per processor, of which a module can use half
+     */
+    public TaskScheduler() {
+        this(Runtime.getRuntime().availableProcessors(), Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * Creates a scheduler
+     *
+     * @param parallelism           the number of workers
+     * @param defaultMaxConcurrency the number of tasks a module can run at once
+     */
+    public TaskScheduler(int parallelism, int defaultMaxConcurrency) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism has to be positive");
+        if (defaultMaxConcurrency < 1) throw new IllegalArgumentException("defaultMaxConcurrency has to be positive");
+        this.defaultMaxConcurrency = defaultMaxConcurrency;
+
+        AtomicInteger workers = new AtomicInteger();
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("module-worker-" + workers.incrementAndGet());
+            return thread;
+        }, null, true);
+
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "module-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Overrides the number of tasks a module can run at once, applied to schedulers created afterwards
+     *
+     * @param module         the module name
+     * @param maxConcurrency the maximum number of running tasks
+     */
+    public void setMaxConcurrency(String module, int maxConcurrency) {
+        if (maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency has to be positive");
+        this.maxConcurrency.put(module, maxConcurrency);
+    }
+
+    /**
+     * Returns the number of tasks a module can run at once
+     *
+     * @param module the module name
+     * @return the maximum number of running tasks
+     */
+    public int getMaxConcurrency(String module) {
+        return maxConcurrency.getOrDefault(module, defaultMaxConcurrency);
+    }
+
+    /**
+     * Creates the scheduler through which a module runs its tasks
+     *
+     * @param module     the module name
+     * @param accounting the accounting the tasks are charged to or {@code null}
+     * @return the scheduler
+     */
+    public ModuleScheduler forModule(String module, ModuleResourceAccounting accounting) {
+        if (isShutdown()) throw new IllegalStateException("The task scheduler was shut down");
+        return new ModuleScheduler(this, module, getMaxConcurrency(module), accounting);
+    }
+
+    /**
+     * Stops the workers and the timer, tasks already running are completed
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+        pool.shutdown();
+    }
+
+    /**
+     * Waits until all workers finished after {@link #shutdown()}
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return true if the workers finished
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Returns if the scheduler was shut down
+     *
+     * @return true if no more tasks are accepted
+     */
+    public boolean isShutdown() {
+        return pool.isShutdown();
+    }
+
+    ForkJoinPool getPool() {
+        return pool;
+    }
+
+    ScheduledThreadPoolExecutor getTimer() {
+        return timer;
+    }
+}
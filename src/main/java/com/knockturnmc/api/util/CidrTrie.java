@@ -0,0 +1,240 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of IPv4 and IPv6 address ranges in CIDR notation, e.g. {@code 10.0.0.0/8} or {@code 2001:db8::/32}.
+ * The ranges are stored in a binary prefix trie over int arrays, so testing an address visits at most one node
+ * per prefix bit regardless of the amount of ranges. Ranges covered by a shorter range are pruned.
+ * <p>
+ * IPv4-mapped IPv6 addresses ({@code ::ffff:a.b.c.d}) are matched against the IPv4 ranges.
+ * This class is not thread-safe, modifications have to be guarded or published by the caller.
+ */
+public class CidrTrie {
+
+    private static final int ROOT_V4 = 0;
+    private static final int ROOT_V6 = 1;
+
+    //Node n has its children at 2n and 2n + 1, 0 means no child as the roots are never children
+    private int[] children = new int[64];
+    private long[] covered = new long[1];
+    private int nodes = 2;
+    private int ranges;
+
+    /**
+     * Adds a range in CIDR notation. An address without prefix length adds the single address.
+     *
+     * @param cidr the range, e.g. {@code 192.168.0.0/16}
+     * @return true if the range was not covered by this set yet
+     * @throws IllegalArgumentException if the range is invalid
+     */
+    public boolean add(String cidr) {
+        if (cidr == null)
+            throw new IllegalArgumentException("CIDR can not be null");
+        int slash = cidr.indexOf('/');
+        int end = slash < 0 ? cidr.length() : slash;
+        long v4 = Utils.parseIPv4(cidr, 0, end);
+        if (v4 >= 0)
+            return addIPv4((int) v4, slash < 0 ? 32 : parsePrefix(cidr, slash + 1, 32));
+        long[] v6 = new long[2];
+        if (Utils.parseIPv6(cidr, 0, end, v6))
+            return addIPv6(v6[0], v6[1], slash < 0 ? 128 : parsePrefix(cidr, slash + 1, 128));
+        throw new IllegalArgumentException("Invalid CIDR: " + cidr);
+    }
+
+    /**
+     * Adds an IPv4 range
+     *
+     * @param address      the address, bits beyond the prefix are ignored
+     * @param prefixLength the amount of significant leading bits, from 0 to 32
+     * @return true if the range was not covered by this set yet
+     */
+    public boolean addIPv4(int address, int prefixLength) {
+        if (prefixLength < 0 || prefixLength > 32)
+            throw new IllegalArgumentException("Invalid IPv4 prefix length: " + prefixLength);
+        return insert(ROOT_V4, (long) address << 32, 0, prefixLength);
+    }
+
+    /**
+     * Adds an IPv6 range
+     *
+     * @param high         the upper 64 bits of the address
+     * @param low          the lower 64 bits of the address
+     * @param prefixLength the amount of significant leading bits, from 0 to 128
+     * @return true if the range was not covered by this set yet
+     */
+    public boolean addIPv6(long high, long low, int prefixLength) {
+        if (prefixLength < 0 || prefixLength > 128)
+            throw new IllegalArgumentException("Invalid IPv6 prefix length: " + prefixLength);
+        return insert(ROOT_V6, high, low, prefixLength);
+    }
+
+    /**
+     * Checks whether an address lies in any range of this set
+     *
+     * @param ip the IPv4 or IPv6 address
+     * @return true if the address is contained, false if it is not or is no valid address
+     */
+    public boolean contains(CharSequence ip) {
+        if (ip == null)
+            throw new IllegalArgumentException("IP can not be null");
+        long v4 = Utils.parseIPv4(ip, 0, ip.length());
+        if (v4 >= 0)
+            return containsIPv4((int) v4);
+        long[] v6 = new long[2];
+        return Utils.parseIPv6(ip, 0, ip.length(), v6) && containsIPv6(v6[0], v6[1]);
+    }
+
+    /**
+     * Checks whether an IPv4 address lies in any range of this set
+     *
+     * @param address the address
+     * @return true if the address is contained
+     */
+    public boolean containsIPv4(int address) {
+        return lookup(ROOT_V4, (long) address << 32, 0, 32);
+    }
+
+    /**
+     * Checks whether an IPv6 address lies in any range of this set
+     *
+     * @param high the upper 64 bits of the address
+     * @param low  the lower 64 bits of the address
+     * @return true if the address is contained
+     */
+    public boolean containsIPv6(long high, long low) {
+        if (high == 0 && (low >>> 32) == 0xFFFFL && lookup(ROOT_V4, low << 32, 0, 32))
+            return true;
+        return lookup(ROOT_V6, high, low, 128);
+    }
+
+    /**
+     * Gets the amount of ranges, not counting ranges that were covered by a shorter range when they were added
+     * or that became covered later
+     *
+     * @return the amount of ranges
+     */
+    public int size() {
+        return ranges;
+    }
+
+    /**
+     * Checks whether this set contains no ranges
+     *
+     * @return true if the set is empty
+     */
+    public boolean isEmpty() {
+        return ranges == 0;
+    }
+
+    /**
+     * Removes all ranges and releases the nodes
+     */
+    public void clear() {
+        children = new int[64];
+        covered = new long[1];
+        nodes = 2;
+        ranges = 0;
+    }
+
+    private boolean lookup(int node, long high, long low, int bits) {
+        for (int i = 0; i < bits; i++) {
+            if (isCovered(node))
+                return true;
+            node = children[(node << 1) + bit(high, low, i)];
+            if (node == 0)
+                return false;
+        }
+        return isCovered(node);
+    }
+
+    private boolean insert(int node, long high, long low, int prefixLength) {
+        for (int i = 0; i < prefixLength; i++) {
+            if (isCovered(node))
+                return false;
+            int index = (node << 1) + bit(high, low, i);
+            if (children[index] == 0) {
+                int child = allocate(); //May grow the array, so it is read after allocating
+                children[index] = child;
+            }
+            node = children[index];
+        }
+        if (isCovered(node))
+            return false;
+        ranges -= countCovered(node);
+        covered[node >>> 6] |= 1L << node;
+        //Everything below is covered now, the detached nodes are reclaimed by clear()
+        children[node << 1] = 0;
+        children[(node << 1) + 1] = 0;
+        ranges++;
+        return true;
+    }
+
+    private int countCovered(int node) {
+        if (isCovered(node))
+            return 1;
+        int count = 0;
+        for (int i = 0; i < 2; i++) {
+            int child = children[(node << 1) + i];
+            if (child != 0)
+                count += countCovered(child);
+        }
+        return count;
+    }
+
+    private int allocate() {
+        if (nodes << 1 >= children.length)
+            children = Arrays.copyOf(children, children.length << 1);
+        if (nodes >>> 6 >= covered.length)
+            covered = Arrays.copyOf(covered, covered.length << 1);
+        return nodes++;
+    }
+
+    private boolean isCovered(int node) {
+        return (covered[node >>> 6] & (1L << node)) != 0;
+    }
+
+    private static int bit(long high, long low, int index) {
+        return (int) (index < 64 ? high >>> (63 - index) : low >>> (127 - index)) & 1;
+    }
+
+    private static int parsePrefix(String cidr, int start, int max) {
+        int end = cidr.length();
+        if (start == end || end - start > 3)
+            throw new IllegalArgumentException("Invalid CIDR: " + cidr);
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = cidr.charAt(i);
+            if (c < '0' || c > '9')
+                throw new IllegalArgumentException("Invalid CIDR: " + cidr);
+            value = value * 10 + c - '0';
+        }
+        if (value > max)
+            throw new IllegalArgumentException("Invalid CIDR: " + cidr);
+        return value;
+    }
+}
@@ -0,0 +1,262 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A thread-safe {@link UUIDMap}. The uuids are spread over independently locked segments,
+ * so threads working on different segments do not contend and readers of the same segment share its lock.
+ * <p>
+ * {@link #size()} and {@link #forEach(BiConsumer)} lock one segment after another,
+ * they do not reflect a single point in time while other threads modify the map.
+ *
+ * @param <V> the type of the values
+ */
+public class ConcurrentUUIDMap<V> {
+
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final UUIDMap<V>[] segments;
+    private final StampedLock[] locks;
+    private final int shift;
+
+    /**
+     * Creates an empty map with 16 segments
+     */
+    public ConcurrentUUIDMap() {
+        this(16, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * Creates an empty map
+     *
+     * @param expectedSize     the expected amount of entries
+     * @param concurrencyLevel the expected amount of concurrently modifying threads, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentUUIDMap(int expectedSize, int concurrencyLevel) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Expected size can not be negative");
+        if (concurrencyLevel < 1 || concurrencyLevel > 1 << 16)
+            throw new IllegalArgumentException("Concurrency level must be between 1 and 65536");
+        int count = concurrencyLevel == 1 ? 1 : Integer.highestOneBit(concurrencyLevel - 1) << 1;
+        segments = (UUIDMap<V>[]) new UUIDMap<?>[count];
+        locks = new StampedLock[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new UUIDMap<>(expectedSize / count);
+            locks[i] = new StampedLock();
+        }
+        //Segments are chosen by the high bits of the hash, the segment maps use the low bits
+        shift = 32 - Integer.numberOfTrailingZeros(count);
+    }
+
+    /**
+     * Gets the value mapped to a uuid
+     *
+     * @param key the uuid
+     * @return the value or {@code null} if the uuid is not mapped
+     */
+    public V get(UUID key) {
+        checkKey(key);
+        return get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    /**
+     * Gets the value mapped to the uuid with the given bits
+     *
+     * @param mostSigBits  the most significant bits of the uuid
+     * @param leastSigBits the least significant bits of the uuid
+     * @return the value or {@code null} if the uuid is not mapped
+     */
+    public V get(long mostSigBits, long leastSigBits) {
+        int segment = segment(mostSigBits, leastSigBits);
+        StampedLock lock = locks[segment];
+        long stamp = lock.readLock();
+        try {
+            return segments[segment].get(mostSigBits, leastSigBits);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Checks whether a uuid is mapped
+     *
+     * @param key the uuid
+     * @return true if the uuid is mapped
+     */
+    public boolean containsKey(UUID key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps a uuid to a value
+     *
+     * @param key   the uuid
+     * @param value the value
+     * @return the previously mapped value or {@code null}
+     */
+    public V put(UUID key, V value) {
+        checkKey(key);
+        int segment = segment(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        StampedLock lock = locks[segment];
+        long stamp = lock.writeLock();
+        try {
+            return segments[segment].put(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Atomically maps a uuid to a value if it is not mapped yet
+     *
+     * @param key   the uuid
+     * @param value the value
+     * @return the already mapped value or {@code null} if the value was added
+     */
+    public V putIfAbsent(UUID key, V value) {
+        checkKey(key);
+        int segment = segment(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        StampedLock lock = locks[segment];
+        long stamp = lock.writeLock();
+        try {
+            return segments[segment].putIfAbsent(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gets the value mapped to a uuid, or atomically computes and maps it if the uuid is not mapped yet.
+     * The function runs while the segment of the uuid is locked, it should be short and may not access this map.
+     *
+     * @param key      the uuid
+     * @param function the function computing the value
+     * @return the mapped value or {@code null} if the function returned {@code null}
+     */
+    public V computeIfAbsent(UUID key, Function<? super UUID, ? extends V> function) {
+        V value = get(key);
+        if (value != null)
+            return value;
+        int segment = segment(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        StampedLock lock = locks[segment];
+        long stamp = lock.writeLock();
+        try {
+            return segments[segment].computeIfAbsent(key, function);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the mapping of a uuid
+     *
+     * @param key the uuid
+     * @return the removed value or {@code null} if the uuid was not mapped
+     */
+    public V remove(UUID key) {
+        checkKey(key);
+        int segment = segment(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        StampedLock lock = locks[segment];
+        long stamp = lock.writeLock();
+        try {
+            return segments[segment].remove(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gets the amount of mapped uuids
+     *
+     * @return the size
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < segments.length; i++) {
+            long stamp = locks[i].readLock();
+            try {
+                size += segments[i].size();
+            } finally {
+                locks[i].unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Checks whether no uuid is mapped
+     *
+     * @return true if the map is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all mappings
+     */
+    public void clear() {
+        for (int i = 0; i < segments.length; i++) {
+            long stamp = locks[i].writeLock();
+            try {
+                segments[i].clear();
+            } finally {
+                locks[i].unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Performs an action for every mapping. Every segment is read locked while its mappings are visited,
+     * the action may not modify this map.
+     *
+     * @param action the action
+     */
+    public void forEach(BiConsumer<? super UUID, ? super V> action) {
+        for (int i = 0; i < segments.length; i++) {
+            long stamp = locks[i].readLock();
+            try {
+                segments[i].forEach(action);
+            } finally {
+                locks[i].unlockRead(stamp);
+            }
+        }
+    }
+
+    private int segment(long mostSigBits, long leastSigBits) {
+        return shift == 32 ? 0 : UUIDMap.hash(mostSigBits, leastSigBits) >>> shift;
+    }
+
+    private static void checkKey(UUID key) {
+        if (key == null)
+            throw new IllegalArgumentException("Key can not be null");
+    }
+}
@@ -45,4 +45,20 @@ public enum ContentType {
     public String getContentType() {
         return contentType;
     }
+
+    /**
+     * Gets the content type of a HTTP header string, ignoring its parameters
+     *
+     * @param header the header string, e.g. {@code application/json; charset=UTF-8}
+     * @return the content type or {@code null} if it is unknown
+     */
+    public static ContentType of(String header) {
+        if (header == null) return null;
+        int end = header.indexOf(';');
+        String mediaType = (end < 0 ? header : header.substring(0, end)).trim();
+        for (ContentType type : values()) {
+            if (type.contentType.equalsIgnoreCase(mediaType)) return type;
+        }
+        return null;
+    }
 }
@@ -0,0 +1,161 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resolves enum constants by name without exceptions. The tables are built once per enum class and
+ * contain the constant names as well as the names declared by {@link EnumAlias}.
+ * Constant names take precedence over aliases, and earlier constants over later ones if names only differ in case.
+ *
+ * @param <E> the enum type
+ */
+public final class EnumLookup<E extends Enum<E>> {
+
+    private static final ClassValue<EnumLookup<?>> LOOKUPS = new ClassValue<EnumLookup<?>>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected EnumLookup<?> computeValue(Class<?> type) {
+            return new EnumLookup(type);
+        }
+    };
+
+    private final Class<E> type;
+    private final Map<String, E> names;
+    private final Map<String, E> foldedNames;
+
+    private EnumLookup(Class<E> type) {
+        E[] constants = type.getEnumConstants();
+        if (constants == null)
+            throw new IllegalArgumentException(type.getName() + " is not an enum");
+        this.type = type;
+
+        Map<String, E> names = new HashMap<>();
+        Map<String, E> foldedNames = new HashMap<>();
+        for (E constant : constants) {
+            names.put(constant.name(), constant);
+            foldedNames.putIfAbsent(fold(constant.name()), constant);
+        }
+        for (E constant : constants) {
+            EnumAlias alias;
+            try {
+                alias = type.getField(constant.name()).getAnnotation(EnumAlias.class);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException("Enum constant without field: " + constant, e);
+            }
+            if (alias == null)
+                continue;
+            for (String name : alias.value()) {
+                names.putIfAbsent(name, constant);
+                foldedNames.putIfAbsent(fold(name), constant);
+            }
+        }
+        this.names = Collections.unmodifiableMap(names);
+        this.foldedNames = Collections.unmodifiableMap(foldedNames);
+    }
+
+    /**
+     * Gets the lookup of an enum class
+     *
+     * @param type the enum class
+     * @param <E>  the enum type
+     * @return the lookup, shared by all callers
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Enum<E>> EnumLookup<E> of(Class<E> type) {
+        if (type == null)
+            throw new IllegalArgumentException("Type can not be null");
+        return (EnumLookup<E>) LOOKUPS.get(type);
+    }
+
+    /**
+     * Gets the lookup of a class that is only known to be an enum at runtime
+     *
+     * @param type the enum class
+     * @return the lookup, shared by all callers
+     * @throws IllegalArgumentException if the class is no enum
+     */
+    public static EnumLookup<?> forType(Class<?> type) {
+        if (type == null)
+            throw new IllegalArgumentException("Type can not be null");
+        return LOOKUPS.get(type);
+    }
+
+    /**
+     * Gets the enum class
+     *
+     * @return the enum class
+     */
+    public Class<E> getType() {
+        return type;
+    }
+
+    /**
+     * Gets a constant by its exact name or alias
+     *
+     * @param name the name
+     * @return the constant or {@code null} if none matches
+     */
+    public E get(String name) {
+        return name == null ? null : names.get(name);
+    }
+
+    /**
+     * Gets a constant by its name or alias
+     *
+     * @param name       the name
+     * @param ignoreCase whether the case of the name is ignored
+     * @return the constant or {@code null} if none matches
+     */
+    public E get(String name, boolean ignoreCase) {
+        if (name == null)
+            return null;
+        if (!ignoreCase)
+            return names.get(name);
+        E constant = names.get(name);
+        return constant != null ? constant : foldedNames.get(fold(name));
+    }
+
+    /**
+     * Gets a constant by its name or alias, or a default constant
+     *
+     * @param name         the name
+     * @param ignoreCase   whether the case of the name is ignored
+     * @param defaultValue the constant to return if none matches
+     * @return the constant
+     */
+    public E getOrDefault(String name, boolean ignoreCase, E defaultValue) {
+        E constant = get(name, ignoreCase);
+        return constant == null ? defaultValue : constant;
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -89,7 +89,13 @@ public abstract class NamedProperties extends Properties {
             }
 
             if (property.type() != Void.class) {
-                field.set(instance, Objects.equals(val, "") ? null : Enum.valueOf(property.type(), val));
+                Object constant = null;
+                if (!Objects.equals(val, "")) {
+                    constant = EnumLookup.forType(property.type()).get(val, property.ignoreCase());
+                    if (constant == null)
+                        throw new RuntimeException("Invalid " + property.type().getSimpleName() + " for field " + property.value() + "=" + val);
+                }
+                field.set(instance, constant);
             } else {
                 switch (name) {
                     case "int":
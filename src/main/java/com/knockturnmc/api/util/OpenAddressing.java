@@ -0,0 +1,89 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util;
+
+/**
+ * The sizing and probing arithmetic shared by {@link UUIDMap} and {@link UUIDSet}. The tables have a power of two capacity,
+ * are filled up to two thirds, probe linearly and delete by shifting the following entries back instead of leaving tombstones.
+ */
+final class OpenAddressing {
+
+    /**
+     * The largest capacity of a table
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 29;
+
+    private OpenAddressing() {
+    }
+
+    /**
+     * Gets the capacity of a table that holds the given amount of entries without resizing
+     *
+     * @param expectedSize the expected amount of entries
+     * @return the capacity, a power of two
+     */
+    static int tableSize(int expectedSize) {
+        long needed = Math.max(4, (long) expectedSize * 3 / 2 + 1);
+        if (needed > MAXIMUM_CAPACITY)
+            throw new IllegalArgumentException("Too many entries: " + expectedSize);
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    /**
+     * Gets the amount of entries after which a table is resized
+     *
+     * @param capacity the capacity of the table
+     * @return the threshold
+     */
+    static int threshold(int capacity) {
+        return capacity / 3 * 2;
+    }
+
+    /**
+     * Gets the capacity a full table is resized to
+     *
+     * @param capacity the current capacity
+     * @return the new capacity
+     */
+    static int grow(int capacity) {
+        if (capacity >= MAXIMUM_CAPACITY)
+            throw new IllegalStateException("Table can not grow beyond " + MAXIMUM_CAPACITY + " slots");
+        return capacity << 1;
+    }
+
+    /**
+     * Checks whether an entry may be moved back into the gap left by a deletion,
+     * which is the case if the gap lies on its probe sequence between its home slot and its slot
+     *
+     * @param gap  the empty slot
+     * @param slot the slot of the entry
+     * @param home the slot the hash of the entry points to
+     * @param mask the capacity minus one
+     * @return true if the entry can fill the gap
+     */
+    static boolean canShift(int gap, int slot, int home, int mask) {
+        return ((slot - home) & mask) >= ((slot - gap) & mask);
+    }
+}
@@ -51,4 +51,10 @@ public @interface Property {
      * @return the mapped type
      */
     Class type() default Void.class;
+
+    /**
+     * Whether the case of the value is ignored when it is mapped to an enum {@link #type()}
+     * @return true if the case is ignored
+     */
+    boolean ignoreCase() default false;
 }
@@ -23,22 +23,86 @@ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
 
 package com.knockturnmc.api.util;
 
-import java.io.BufferedReader;
+import com.knockturnmc.api.util.rest.BufferedResponse;
+import com.knockturnmc.api.util.rest.CircuitBreaker;
+import com.knockturnmc.api.util.rest.CircuitBreakerOpenException;
+import com.knockturnmc.api.util.rest.HostLimiter;
+import com.knockturnmc.api.util.rest.RequestCoalescer;
+import com.knockturnmc.api.util.rest.ResponseHandler;
+import com.knockturnmc.api.util.rest.RestCache;
+import com.knockturnmc.api.util.rest.RestClientSettings;
+import com.knockturnmc.api.util.rest.RestCodec;
+import com.knockturnmc.api.util.rest.RestCodecs;
+import com.knockturnmc.api.util.rest.RestException;
+import com.knockturnmc.api.util.rest.RestResponse;
+import com.knockturnmc.api.util.rest.RetryPolicy;
+import com.knockturnmc.api.util.rest.TypeReference;
+
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 /**
- * This class provides the tools to communicate with a JSON RESTful Service
+ * This class provides the tools to communicate with a JSON RESTful Service.
+ * <p>
+ * Responses are always read completely, including error responses, so the underlying connection
+ * can be kept alive and reused by following requests to the same host. Bodies are encoded and decoded
+ * with the charset of their content type, UTF-8 if none is specified. Large bodies can be consumed
+ * while they are streamed by passing a {@link ResponseHandler}. Objects are converted to and from bodies
+ * by the {@link RestCodec} of the content type while they are streamed, without an intermediate string.
+ * If a {@link RestCache} is configured, GET requests are answered from it while the cached response is fresh
+ * and revalidated with conditional requests afterwards, other requests invalidate the cached response of their URL.
+ * Failed GET requests are retried and slow ones hedged as configured, while the {@link CircuitBreaker} of a failing
+ * host rejects requests immediately. Concurrent GET requests for the same URL can be coalesced into one.
+ *
+ * @see RestClientSettings
  */
 public class RestClient {
 
     private final String contentType;
+    private final RestClientSettings settings;
+    private final HostLimiter hostLimiter;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final RequestCoalescer<BufferedResponse> coalescer;
 
     protected RestClient(String contentType) {
+        this(contentType, RestClientSettings.defaults());
+    }
+
+    protected RestClient(String contentType, RestClientSettings settings) {
+        if (settings == null)
+            throw new IllegalArgumentException("settings can not be null");
         this.contentType = contentType;
+        this.settings = settings;
+        this.hostLimiter = new HostLimiter(settings.getMaxConnectionsPerHost());
+        this.coalescer = settings.isCoalescing() ? new RequestCoalescer<>(settings.getCoalescingWindow()) : null;
     }
 
     protected HttpURLConnection getConnection(String path, String method) throws IOException {
@@ -46,7 +110,11 @@ public class RestClient {
         HttpURLConnection connection = (HttpURLConnection) url.openConnection();
         connection.setDoOutput(method.equals("POST"));
         connection.setRequestMethod(method);
+        connection.setConnectTimeout(settings.getConnectTimeout());
+        connection.setReadTimeout(settings.getReadTimeout());
         connection.setRequestProperty("Accept", contentType);
+        if (settings.isCompression()) connection.setRequestProperty("Accept-Encoding", "gzip");
+        if (!settings.isKeepAlive()) connection.setRequestProperty("Connection", "close");
         return connection;
     }
 
@@ -58,8 +126,20 @@ public class RestClient {
      * @throws IOException if the connection failed
      */
     public String doGet(String path) throws IOException {
-        HttpURLConnection connection = getConnection(path, "GET");
-        return getResponse(connection);
+        return doGet(path, ResponseHandler.STRING);
+    }
+
+    /**
+     * Executes a HTTP GET request to the given URL and streams the response into the handler
+     *
+     * @param path    the path to execute a request
+     * @param handler the handler that consumes the response
+     * @param <R>     the type of the result
+     * @return the result of the handler
+     * @throws IOException if the connection failed
+     */
+    public <R> R doGet(String path, ResponseHandler<R> handler) throws IOException {
+        return execute(path, "GET", null, handler);
     }
 
     /**
@@ -71,24 +151,827 @@ public class RestClient {
      * @throws IOException if the connection failed
      */
     public String doPost(String path, String body) throws IOException {
-        HttpURLConnection connection = getConnection(path, "POST");
-        connection.setRequestProperty("Content-Type", contentType);
-        OutputStream stream = connection.getOutputStream();
-        stream.write(body.getBytes());
-        stream.flush();
+        return doPost(path, body, ResponseHandler.STRING);
+    }
+
+    /**
+     * Executes a HTTP POST request to the given URL and streams the response into the handler
+     *
+     * @param path    the path to execute a request
+     * @param body    the request body
+     * @param handler the handler that consumes the response
+     * @param <R>     the type of the result
+     * @return the result of the handler
+     * @throws IOException if the connection failed
+     */
+    public <R> R doPost(String path, String body, ResponseHandler<R> handler) throws IOException {
+        return execute(path, "POST", encode(body), handler);
+    }
+
+    /**
+     * Executes a HTTP GET request to the given URL and decodes the response into an object
+     *
+     * @param path the path to execute a request
+     * @param type the type of the response
+     * @param <R>  the type of the response
+     * @return the decoded response
+     * @throws IOException if the connection failed or the response could not be decoded
+     */
+    public <R> R doGetObject(String path, Class<R> type) throws IOException {
+        return doGet(path, decode(type));
+    }
+
+    /**
+     * Executes a HTTP GET request to the given URL and decodes the response into an object of a generic type
+     *
+     * @param path the path to execute a request
+     * @param type the type of the response
+     * @param <R>  the type of the response
+     * @return the decoded response
+     * @throws IOException if the connection failed or the response could not be decoded
+     */
+    public <R> R doGetObject(String path, TypeReference<R> type) throws IOException {
+        return doGet(path, decode(type));
+    }
+
+    /**
+     * Executes a HTTP POST request with an encoded object to the given URL and decodes the response into an object
+     *
+     * @param path the path to execute a request
+     * @param body the object to encode as request body
+     * @param type the type of the response
+     * @param <R>  the type of the response
+     * @return the decoded response
+     * @throws IOException if the connection failed or a body could not be converted
+     */
+    public <R> R doPostObject(String path, Object body, Class<R> type) throws IOException {
+        return doPostObject(path, body, decode(type));
+    }
+
+    /**
+     * Executes a HTTP POST request with an encoded object to the given URL and streams the response into the handler.
+     * The body is encoded while it is sent
+     *
+     * @param path    the path to execute a request
+     * @param body    the object to encode as request body
+     * @param handler the handler that consumes the response
+     * @param <R>     the type of the result
+     * @return the result of the handler
+     * @throws IOException if the connection failed or the body could not be encoded
+     */
+    public <R> R doPostObject(String path, Object body, ResponseHandler<R> handler) throws IOException {
+        return execute(path, "POST", encode(body, getCodec()), handler);
+    }
+
+    /**
+     * Executes a HTTP GET request to the given URL on the executor of this client
+     *
+     * @param path the path to execute a request
+     * @return the future response, cancelling it aborts the request
+     * @see RestClientSettings#getExecutor()
+     */
+    public CompletableFuture<String> doGetAsync(String path) {
+        return doGetAsync(path, ResponseHandler.STRING);
+    }
+
+    /**
+     * Executes a HTTP GET request to the given URL on the executor of this client and streams the response into the handler
+     *
+     * @param path    the path to execute a request
+     * @param handler the handler that consumes the response
+     * @param <R>     the type of the result
+     * @return the future result of the handler, cancelling it aborts the request
+     * @see RestClientSettings#getExecutor()
+     */
+    public <R> CompletableFuture<R> doGetAsync(String path, ResponseHandler<R> handler) {
+        return executeAsync(path, "GET", null, handler);
+    }
+
+    /**
+     * Executes a HTTP POST request to the given URL on the executor of this client
+     *
+     * @param path the path to execute a request
+     * @param body the request body
+     * @return the future response, cancelling it aborts the request
+     * @see RestClientSettings#getExecutor()
+     */
+    public CompletableFuture<String> doPostAsync(String path, String body) {
+        return doPostAsync(path, body, ResponseHandler.STRING);
+    }
+
+    /**
+     * Executes a HTTP POST request to the given URL on the executor of this client and streams the response into the handler
+     *
+     * @param path    the path to execute a request
+     * @param body    the request body
+     * @param handler the handler that consumes the response
+     * @param <R>     the type of the result
+     * @return the future result of the handler, cancelling it aborts the request
+     * @see RestClientSettings#getExecutor()
+     */
+    public <R> CompletableFuture<R> doPostAsync(String path, String body, ResponseHandler<R> handler) {
+        return executeAsync(path, "POST", encode(body), handler);
+    }
+
+    /**
+     * Executes a HTTP POST request with an encoded object to the given URL on the executor of this client
+     * and streams the response into the handler
+     *
+     * @param path    the path to execute a request
+     * @param body    the object to encode as request body
+     * @param handler the handler that consumes the response
+     * @param <R>     the type of the result
+     * @return the future result of the handler, cancelling it aborts the request
+     * @see RestClientSettings#getExecutor()
+     */
+    public <R> CompletableFuture<R> doPostObjectAsync(String path, Object body, ResponseHandler<R> handler) {
+        RestCodec codec;
+        try {
+            codec = getCodec();
+        } catch (IllegalStateException e) {
+            CompletableFuture<R> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        return executeAsync(path, "POST", encode(body, codec), handler);
+    }
 
-        return getResponse(connection);
+    /**
+     * Creates a handler that decodes responses into objects with the codec of this client
+     *
+     * @param type the type of the response
+     * @param <R>  the type of the response
+     * @return the handler
+     */
+    public <R> ResponseHandler<R> decode(Class<R> type) {
+        return decode((Type) type);
+    }
+
+    /**
+     * Creates a handler that decodes responses into objects of a generic type with the codec of this client
+     *
+     * @param type the type of the response
+     * @param <R>  the type of the response
+     * @return the handler
+     */
+    public <R> ResponseHandler<R> decode(TypeReference<R> type) {
+        if (type == null)
+            throw new IllegalArgumentException("type can not be null");
+        return decode(type.getType());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> ResponseHandler<R> decode(Type type) {
+        if (type == null)
+            throw new IllegalArgumentException("type can not be null");
+        RestCodec codec = getCodec();
+        return response -> (R) codec.read(response.getBody(), response.getCharset(), type);
+    }
+
+    /**
+     * Returns the codec that converts objects for the content type of this client
+     *
+     * @return the codec
+     * @throws IllegalStateException if no codec is registered for the content type
+     * @see RestCodecs
+     */
+    protected RestCodec getCodec() {
+        ContentType type = ContentType.of(contentType);
+        RestCodec codec = type == null ? null : RestCodecs.get(type);
+        if (codec == null)
+            throw new IllegalStateException("No codec registered for " + contentType);
+        return codec;
+    }
+
+    /**
+     * Returns the circuit breakers of the hosts this client sent requests to
+     *
+     * @return the circuit breakers by host key, empty if circuit breakers are disabled
+     * @see HostLimiter#key(URL)
+     */
+    public Map<String, CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(circuitBreakers);
+    }
+
+    /**
+     * Returns the amount of retries this client executed
+     *
+     * @return the retries
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Returns the amount of hedged attempts this client sent
+     *
+     * @return the hedged attempts
+     */
+    public long getHedges() {
+        return hedges.get();
     }
 
+    /**
+     * Returns the amount of GET requests that shared the response of another request instead of being sent
+     *
+     * @return the saved requests, {@code 0} if coalescing is disabled
+     */
+    public long getCoalescedRequests() {
+        return coalescer == null ? 0 : coalescer.getSaved();
+    }
+
+    /**
+     * Returns the circuit breaker of a host
+     *
+     * @param host the host key
+     * @return the circuit breaker or {@code null} if circuit breakers are disabled
+     */
+    private CircuitBreaker getCircuitBreaker(String host) {
+        int threshold = settings.getCircuitBreakerThreshold();
+        if (threshold == 0) return null;
+        return circuitBreakers.computeIfAbsent(host, h -> new CircuitBreaker(h, threshold,
+                settings.getCircuitBreakerDuration(), settings.getCircuitBreakerListener()));
+    }
+
+    /**
+     * Returns the connection settings of this client
+     *
+     * @return the settings
+     */
+    public RestClientSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Executes a request, answering GET requests from the cache or a coalesced request if possible
+     *
+     * @param path    the path to execute a request
+     * @param method  the request method
+     * @param body    the request body, {@code null} if the request has no body
+     * @param handler the handler that consumes the response
+     * @return the result of the handler
+     * @throws IOException if the connection failed
+     */
+    private <R> R execute(String path, String method, RequestBody body, ResponseHandler<R> handler) throws IOException {
+        URL url = new URL(path);
+        RestResponse cached = getCached(url, method);
+        if (cached != null) {
+            try (RestResponse response = cached) {
+                return handler.handle(response);
+            }
+        }
+
+        if (coalescer != null && method.equals("GET")) {
+            BufferedResponse shared = await(coalescer.join(cacheKey(url), () -> {
+                CompletableFuture<BufferedResponse> future = new CompletableFuture<>();
+                try {
+                    future.complete(send(url, path, method, body, BufferedResponse::read)); //Executed by the calling thread
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+                return future;
+            }));
+            try (RestResponse response = shared.open()) {
+                return handler.handle(response);
+            }
+        }
+        return send(url, path, method, body, handler);
+    }
+
+    /**
+     * Sends a request, hedging and retrying it if it is idempotent
+     *
+     * @param url     the parsed path
+     * @param path    the path to execute a request
+     * @param method  the request method
+     * @param body    the request body, {@code null} if the request has no body
+     * @param handler the handler that consumes the response
+     * @return the result of the handler
+     * @throws IOException if the connection failed
+     */
+    private <R> R send(URL url, String path, String method, RequestBody body, ResponseHandler<R> handler) throws IOException {
+        boolean idempotent = method.equals("GET");
+        if (idempotent && settings.getHedgeDelay() > 0) return await(dispatchAsync(url, path, method, body, handler)); //Needs a second thread
+
+        RetryPolicy retryPolicy = idempotent ? settings.getRetryPolicy() : RetryPolicy.NONE;
+        for (int retries = 0; ; retries++) {
+            try {
+                return attempt(url, path, method, body, handler);
+            } catch (IOException e) {
+                if (!retryPolicy.shouldRetry(e, retries)) throw e;
+            }
+
+            this.retries.incrementAndGet();
+            try {
+                Thread.sleep(retryPolicy.getBackoff(retries));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry " + path);
+            }
+        }
+    }
+
+    /**
+     * Executes a single attempt of a request once the circuit breaker allows it and a connection to the host is available
+     *
+     * @param url     the parsed path
+     * @param path    the path to execute a request
+     * @param method  the request method
+     * @param body    the request body, {@code null} if the request has no body
+     * @param handler the handler that consumes the response
+     * @return the result of the handler
+     * @throws IOException if the connection failed
+     */
+    private <R> R attempt(URL url, String path, String method, RequestBody body, ResponseHandler<R> handler) throws IOException {
+        String host = HostLimiter.key(url);
+        CircuitBreaker breaker = getCircuitBreaker(host);
+        if (breaker != null && !breaker.tryAcquire()) throw new CircuitBreakerOpenException(host);
+
+        try {
+            hostLimiter.acquire(host);
+        } catch (InterruptedException e) {
+            if (breaker != null) breaker.release();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + host);
+        }
+
+        try {
+            R response = perform(getConnection(path, method), body, handler);
+            record(breaker, null);
+            return response;
+        } catch (Throwable t) {
+            record(breaker, t);
+            throw t;
+        } finally {
+            hostLimiter.release(host);
+        }
+    }
+
+    /**
+     * Executes a request on the executor of this client
+     *
+     * @param path    the path to execute a request
+     * @param method  the request method
+     * @param body    the request body, {@code null} if the request has no body
+     * @param handler the handler that consumes the response
+     * @return the future result of the handler
+     */
+    private <R> CompletableFuture<R> executeAsync(String path, String method, RequestBody body, ResponseHandler<R> handler) {
+        URL url;
+        try {
+            url = new URL(path);
+        } catch (MalformedURLException e) {
+            CompletableFuture<R> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        RestResponse cached = getCached(url, method);
+        if (cached != null) { //Handled by the caller, a cached response is read from memory
+            CompletableFuture<R> future = new CompletableFuture<>();
+            try (RestResponse response = cached) {
+                future.complete(handler.handle(response));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+            return future;
+        }
+
+        if (coalescer != null && method.equals("GET")) {
+            return coalescer.join(cacheKey(url), () -> dispatchAsync(url, path, method, body, BufferedResponse::read)).thenApply(shared -> {
+                try (RestResponse response = shared.open()) {
+                    return handler.handle(response);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            });
+        }
+        return dispatchAsync(url, path, method, body, handler);
+    }
+
+    /**
+     * Executes the attempts of a request on the executor, hedging and retrying them if the request is idempotent.
+     * Completing the returned future exceptionally aborts all running attempts
+     *
+     * @param url     the parsed path
+     * @param path    the path to execute a request
+     * @param method  the request method
+     * @param body    the request body, {@code null} if the request has no body
+     * @param handler the handler that consumes the response
+     * @return the future result of the handler
+     */
+    private <R> CompletableFuture<R> dispatchAsync(URL url, String path, String method, RequestBody body, ResponseHandler<R> handler) {
+        boolean idempotent = method.equals("GET");
+        Supplier<CompletableFuture<R>> attempt = () -> attemptAsync(url, path, method, body, handler);
+        long hedgeDelay = idempotent ? settings.getHedgeDelay() : 0;
+        Supplier<CompletableFuture<R>> hedged = hedgeDelay > 0 ? () -> hedge(attempt, hedgeDelay) : attempt;
+        CompletableFuture<R> future = idempotent && settings.getRetryPolicy().getMaxRetries() > 0 ? retry(hedged) : hedged.get();
+
+        long timeout = settings.getRequestTimeout();
+        if (timeout > 0 && !future.isDone()) {
+            ScheduledFuture<?> timeoutTask = Defaults.TIMER.schedule(() -> future.completeExceptionally(
+                    new TimeoutException("Request to " + path + " timed out after " + timeout + "ms")), timeout, TimeUnit.MILLISECONDS);
+            future.whenComplete((r, t) -> timeoutTask.cancel(false));
+        }
+        return future;
+    }
+
+    /**
+     * Queues a single attempt of a request until the circuit breaker allows it and a connection to the host is available
+     *
+     * @param url     the parsed path
+     * @param path    the path to execute a request
+     * @param method  the request method
+     * @param body    the request body, {@code null} if the request has no body
+     * @param handler the handler that consumes the response
+     * @return the future result of the handler, completing it exceptionally aborts the attempt
+     */
+    private <R> CompletableFuture<R> attemptAsync(URL url, String path, String method, RequestBody body, ResponseHandler<R> handler) {
+        String host = HostLimiter.key(url);
+        CircuitBreaker breaker = getCircuitBreaker(host);
+        if (breaker != null && !breaker.tryAcquire()) {
+            CompletableFuture<R> future = new CompletableFuture<>();
+            future.completeExceptionally(new CircuitBreakerOpenException(host));
+            return future;
+        }
+
+        AsyncRequest<R> request = new AsyncRequest<>(path, method, body, handler, host, breaker);
+        request.future.whenComplete((r, t) -> {
+            if (t != null) request.abort(); //Cancelled or timed out
+        });
+        hostLimiter.acquireAsync(host, request::dispatch);
+        return request.future;
+    }
+
+    /**
+     * Retries the attempts of an idempotent request according to the retry policy, waiting for the backoff on the timer
+     *
+     * @param attempt starts an attempt
+     * @return the future result of the first successful attempt
+     */
+    private <R> CompletableFuture<R> retry(Supplier<CompletableFuture<R>> attempt) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<R>> current = new AtomicReference<>();
+        result.whenComplete((r, t) -> {
+            CompletableFuture<R> running = current.get();
+            if (t != null && running != null) running.cancel(true);
+        });
+        retry(attempt, result, current, 0);
+        return result;
+    }
+
+    private <R> void retry(Supplier<CompletableFuture<R>> attempt, CompletableFuture<R> result, AtomicReference<CompletableFuture<R>> current, int retries) {
+        if (result.isDone()) return;
+        CompletableFuture<R> future = attempt.get();
+        current.set(future);
+        if (result.isDone()) { //Cancelled while the attempt was started
+            future.cancel(true);
+            return;
+        }
+
+        future.whenComplete((response, t) -> {
+            if (t == null) {
+                result.complete(response);
+                return;
+            }
+            Throwable failure = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            RetryPolicy retryPolicy = settings.getRetryPolicy();
+            if (result.isDone() || !retryPolicy.shouldRetry(failure, retries)) {
+                result.completeExceptionally(failure);
+                return;
+            }
+
+            this.retries.incrementAndGet();
+            try {
+                Defaults.TIMER.schedule(() -> retry(attempt, result, current, retries + 1), retryPolicy.getBackoff(retries), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(failure);
+            }
+        });
+    }
+
+    /**
+     * Sends a second attempt of an idempotent request if the first one did not complete after the delay.
+     * The first successful attempt wins and the other one is aborted
+     *
+     * @param attempt starts an attempt
+     * @param delay   the delay in milliseconds
+     * @return the future result of the first successful attempt
+     */
+    private <R> CompletableFuture<R> hedge(Supplier<CompletableFuture<R>> attempt, long delay) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        List<CompletableFuture<R>> attempts = new ArrayList<>();
+        int[] running = new int[1];
+        Runnable launch = () -> {
+            CompletableFuture<R> future;
+            synchronized (attempts) {
+                if (result.isDone()) return;
+                running[0]++;
+                future = attempt.get();
+                attempts.add(future);
+            }
+            future.whenComplete((response, t) -> {
+                if (t == null) {
+                    result.complete(response);
+                    return;
+                }
+                synchronized (attempts) {
+                    if (--running[0] > 0) return; //Wait for the other attempt
+                }
+                result.completeExceptionally(t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+            });
+        };
+
+        launch.run();
+        ScheduledFuture<?> hedgeTask = Defaults.TIMER.schedule(() -> {
+            synchronized (attempts) {
+                if (result.isDone() || running[0] == 0) return;
+            }
+            hedges.incrementAndGet();
+            launch.run();
+        }, delay, TimeUnit.MILLISECONDS);
+        result.whenComplete((r, t) -> {
+            hedgeTask.cancel(false);
+            synchronized (attempts) {
+                for (CompletableFuture<R> future : attempts) {
+                    future.cancel(true); //Aborts the losing attempt
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Waits for the result of a request that is executed asynchronously
+     *
+     * @param future the future result
+     * @return the result
+     * @throws IOException if the request failed
+     */
+    private static <R> R await(CompletableFuture<R> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a response");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Records the outcome of a request in the circuit breaker of its host.
+     * Responses with client errors prove the host is healthy, server errors and connection failures do not
+     *
+     * @param breaker the circuit breaker, {@code null} if circuit breakers are disabled
+     * @param failure the failure of the request, {@code null} if it succeeded
+     */
+    private static void record(CircuitBreaker breaker, Throwable failure) {
+        if (breaker == null) return;
+        if (failure instanceof RestException ? ((RestException) failure).getStatus() >= 500 : failure instanceof IOException) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+
+    /**
+     * Sends the request body and reads the response
+     *
+     * @param connection the connection
+     * @param body       the request body, {@code null} if the request has no body
+     * @param handler    the handler that consumes the response
+     * @return the result of the handler
+     * @throws IOException if the connection failed
+     */
+    private <R> R perform(HttpURLConnection connection, RequestBody body, ResponseHandler<R> handler) throws IOException {
+        RestCache cache = settings.getCache();
+        boolean cacheable = cache != null && connection.getRequestMethod().equals("GET");
+        String key = cache != null ? cacheKey(connection.getURL()) : null;
+        RestCache.Entry revalidating = cacheable ? cache.prepare(key, connection) : null;
+        try {
+            if (body != null) {
+                connection.setRequestProperty("Content-Type", contentType);
+                body.writeTo(connection);
+            }
+
+            R response = read(connection, handler, cacheable ? cache : null, key, revalidating);
+            if (!settings.isKeepAlive()) connection.disconnect();
+            return response;
+        } catch (RestException e) {
+            throw e; //The error response was read completely, the connection can be reused
+        } catch (IOException e) {
+            connection.disconnect();
+            throw e;
+        } finally {
+            if (cache != null && !cacheable) cache.invalidate(key); //The request may have modified the resource
+        }
+    }
+
+    /**
+     * Reads the complete response of the connection
+     *
+     * @param connection the connection
+     * @return the response body
+     * @throws IOException if the connection failed
+     * @throws RestException if the server answered with an error status code
+     */
     protected String getResponse(HttpURLConnection connection) throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+        return getResponse(connection, ResponseHandler.STRING);
+    }
+
+    /**
+     * Streams the response of the connection into the handler and reads the rest of it afterwards
+     *
+     * @param connection the connection
+     * @param handler    the handler that consumes the response
+     * @param <R>        the type of the result
+     * @return the result of the handler
+     * @throws IOException if the connection failed
+     * @throws RestException if the server answered with an error status code
+     */
+    protected <R> R getResponse(HttpURLConnection connection, ResponseHandler<R> handler) throws IOException {
+        return read(connection, handler, null, null, null);
+    }
+
+    /**
+     * Streams the response of the connection into the handler, passing it through the cache first
+     *
+     * @param connection   the connection
+     * @param handler      the handler that consumes the response
+     * @param cache        the cache that is updated with the response, {@code null} if it is not cacheable
+     * @param key          the cache key of the request
+     * @param revalidating the cached response that was revalidated by the request, {@code null} if it was unconditional
+     * @return the result of the handler
+     * @throws IOException if the connection failed
+     * @throws RestException if the server answered with an error status code
+     */
+    private <R> R read(HttpURLConnection connection, ResponseHandler<R> handler, RestCache cache, String key, RestCache.Entry revalidating) throws IOException {
+        RestResponse opened = RestResponse.open(connection);
+        try (RestResponse response = cache != null ? cache.update(key, opened, revalidating) : opened) {
+            if (response.getStatus() >= 400) throw new RestException(connection.getURL(), response.getStatus(), response.asString());
+            return handler.handle(response);
+        }
+    }
+
+    /**
+     * Returns the fresh cached response of a request
+     *
+     * @param url    the URL of the request
+     * @param method the request method
+     * @return the response or {@code null} if the request has to be sent
+     */
+    private RestResponse getCached(URL url, String method) {
+        RestCache cache = settings.getCache();
+        return cache != null && method.equals("GET") ? cache.get(cacheKey(url)) : null;
+    }
+
+    /**
+     * Returns the key of a request in the cache, responses depend on the accepted content type
+     *
+     * @param url the URL of the request
+     * @return the key
+     */
+    private String cacheKey(URL url) {
+        return contentType + " " + url.toExternalForm();
+    }
+
+    /**
+     * Encodes a request body with the charset of the content type of this client
+     *
+     * @param body the body
+     * @return the encoded body
+     */
+    private RequestBody encode(String body) {
+        if (body == null)
+            throw new IllegalArgumentException("body can not be null");
+        byte[] bytes = body.getBytes(RestResponse.charsetOf(contentType));
+        return connection -> {
+            connection.setFixedLengthStreamingMode(bytes.length); //Streams the body instead of buffering a copy
+            try (OutputStream stream = connection.getOutputStream()) {
+                stream.write(bytes);
+            }
+        };
+    }
+
+    /**
+     * Creates a request body that is encoded by the codec while it is sent
+     *
+     * @param body  the object to encode
+     * @param codec the codec
+     * @return the request body
+     */
+    private RequestBody encode(Object body, RestCodec codec) {
+        return connection -> {
+            connection.setChunkedStreamingMode(0); //The length is unknown until the object is encoded
+            try (OutputStream stream = connection.getOutputStream()) {
+                codec.write(body, stream, RestResponse.charsetOf(contentType));
+            }
+        };
+    }
+
+    /**
+     * Writes a request body to a connection
+     */
+    @FunctionalInterface
+    private interface RequestBody {
+        void writeTo(HttpURLConnection connection) throws IOException;
+    }
+
+    /**
+     * A request that is executed asynchronously once it obtained a connection slot of its host
+     */
+    private class AsyncRequest<R> implements Runnable {
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        private final String path;
+        private final String method;
+        private final RequestBody body;
+        private final ResponseHandler<R> handler;
+        private final String host;
+        private final CircuitBreaker breaker;
+        private volatile HttpURLConnection connection;
+
+        private AsyncRequest(String path, String method, RequestBody body, ResponseHandler<R> handler, String host, CircuitBreaker breaker) {
+            this.path = path;
+            this.method = method;
+            this.body = body;
+            this.handler = handler;
+            this.host = host;
+            this.breaker = breaker;
+        }
+
+        /**
+         * Hands the request to the executor after it obtained its connection slot
+         */
+        private void dispatch() {
+            Executor executor = settings.getExecutor() != null ? settings.getExecutor() : Defaults.EXECUTOR;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                hostLimiter.release(host);
+                if (breaker != null) breaker.release();
+                future.completeExceptionally(e);
+            }
+        }
 
-        String output;
-        StringBuilder sb = new StringBuilder();
+        @Override
+        public void run() {
+            try {
+                if (future.isDone()) { //Cancelled or timed out while queued
+                    if (breaker != null) breaker.release();
+                    return;
+                }
+
+                HttpURLConnection connection = getConnection(path, method);
+                this.connection = connection;
+                if (future.isDone()) {
+                    connection.disconnect();
+                    if (breaker != null) breaker.release();
+                    return;
+                }
+                R response = perform(connection, body, handler);
+                record(breaker, null);
+                future.complete(response);
+            } catch (Throwable t) {
+                if (future.isDone()) { //Aborted, the failure is not caused by the host
+                    if (breaker != null) breaker.release();
+                } else {
+                    record(breaker, t);
+                }
+                future.completeExceptionally(t);
+            } finally {
+                hostLimiter.release(host);
+            }
+        }
+
+        /**
+         * Aborts the request by closing its connection, a blocked read fails immediately
+         */
+        private void abort() {
+            HttpURLConnection connection = this.connection;
+            if (connection != null) connection.disconnect();
+        }
+    }
+
+    /**
+     * The shared executors used by clients that do not configure their own
+     */
+    private static final class Defaults {
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(daemonThreads("RestClient-"));
+        private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(daemonThreads("RestClient-timeout-"));
 
-        while ((output = reader.readLine()) != null) {
-            sb.append(output);
+        private static ThreadFactory daemonThreads(String prefix) {
+            AtomicInteger counter = new AtomicInteger();
+            return runnable -> {
+                Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
         }
-        return sb.toString();
     }
 }
@@ -0,0 +1,129 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util;
+
+import java.util.UUID;
+
+/**
+ * Canonicalizes {@link UUID} instances, so state indexed by the same uuid shares a single instance
+ * instead of one copy per parsed string or database row. Uuids read from their bits are only allocated on first sight.
+ * <p>
+ * Interned uuids are held strongly until they are {@link #release(UUID) released}. This class is thread-safe.
+ */
+public class UUIDInterner {
+
+    private final ConcurrentUUIDMap<UUID> uuids;
+
+    /**
+     * Creates an empty interner
+     */
+    public UUIDInterner() {
+        this.uuids = new ConcurrentUUIDMap<>();
+    }
+
+    /**
+     * Creates an empty interner
+     *
+     * @param expectedSize the expected amount of interned uuids
+     */
+    public UUIDInterner(int expectedSize) {
+        this.uuids = new ConcurrentUUIDMap<>(expectedSize, 16);
+    }
+
+    /**
+     * Gets the canonical instance of a uuid
+     *
+     * @param uuid the uuid
+     * @return the canonical instance, the given uuid if it was not interned yet
+     */
+    public UUID intern(UUID uuid) {
+        UUID existing = uuids.get(uuid);
+        if (existing != null)
+            return existing;
+        existing = uuids.putIfAbsent(uuid, uuid);
+        return existing == null ? uuid : existing;
+    }
+
+    /**
+     * Gets the canonical instance of the uuid with the given bits
+     *
+     * @param mostSigBits  the most significant bits of the uuid
+     * @param leastSigBits the least significant bits of the uuid
+     * @return the canonical instance
+     */
+    public UUID intern(long mostSigBits, long leastSigBits) {
+        UUID existing = uuids.get(mostSigBits, leastSigBits);
+        return existing != null ? existing : intern(new UUID(mostSigBits, leastSigBits));
+    }
+
+    /**
+     * Gets the canonical instance of the uuid stored in 16 big-endian bytes of a buffer, see {@link Utils#getUUID(byte[], int)}
+     *
+     * @param raw    the buffer
+     * @param offset the index of the first byte
+     * @return the canonical instance
+     */
+    public UUID intern(byte[] raw, int offset) {
+        if (offset < 0 || raw.length - offset < 16)
+            throw new IndexOutOfBoundsException("The buffer does not contain 16 bytes at " + offset);
+        return intern(Utils.readLong(raw, offset), Utils.readLong(raw, offset + 8));
+    }
+
+    /**
+     * Gets the canonical instance of the uuid in a string, see {@link Utils#formatUUID(String)}
+     *
+     * @param uuid the uuid string
+     * @return the canonical instance
+     */
+    public UUID intern(String uuid) {
+        return intern(Utils.formatUUID(uuid));
+    }
+
+    /**
+     * Releases the canonical instance of a uuid
+     *
+     * @param uuid the uuid
+     * @return true if the uuid was interned
+     */
+    public boolean release(UUID uuid) {
+        return uuids.remove(uuid) != null;
+    }
+
+    /**
+     * Gets the amount of interned uuids
+     *
+     * @return the size
+     */
+    public int size() {
+        return uuids.size();
+    }
+
+    /**
+     * Releases all canonical instances
+     */
+    public void clear() {
+        uuids.clear();
+    }
+}
@@ -0,0 +1,399 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A map keyed by {@link UUID}s that stores both halves of every key inline in a {@code long[]}.
+ * Entries need no node objects and no boxed keys: a lookup through {@link #get(long, long)} does not allocate at all.
+ * Uses open addressing with linear probing and backward-shift deletion.
+ * <p>
+ * Null keys and null values are not permitted. This class is not thread-safe, see {@link ConcurrentUUIDMap}.
+ *
+ * @param <V> the type of the values
+ */
+public class UUIDMap<V> {
+
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+
+    //The nil uuid marks empty slots, its entry is kept aside
+    private boolean containsNil;
+    private V nilValue;
+
+    /**
+     * Creates an empty map
+     */
+    public UUIDMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates an empty map that can hold the given amount of entries without resizing
+     *
+     * @param expectedSize the expected amount of entries
+     */
+    public UUIDMap(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Expected size can not be negative");
+        allocate(OpenAddressing.tableSize(expectedSize));
+    }
+
+    /**
+     * Gets the value mapped to a uuid
+     *
+     * @param key the uuid
+     * @return the value or {@code null} if the uuid is not mapped
+     */
+    public V get(UUID key) {
+        checkKey(key);
+        return get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    /**
+     * Gets the value mapped to the uuid with the given bits
+     *
+     * @param mostSigBits  the most significant bits of the uuid
+     * @param leastSigBits the least significant bits of the uuid
+     * @return the value or {@code null} if the uuid is not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long mostSigBits, long leastSigBits) {
+        if (mostSigBits == 0 && leastSigBits == 0)
+            return nilValue;
+        int slot = find(mostSigBits, leastSigBits);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * Gets the value mapped to a uuid, or a default value
+     *
+     * @param key          the uuid
+     * @param defaultValue the value to return if the uuid is not mapped
+     * @return the value
+     */
+    public V getOrDefault(UUID key, V defaultValue) {
+        V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Checks whether a uuid is mapped
+     *
+     * @param key the uuid
+     * @return true if the uuid is mapped
+     */
+    public boolean containsKey(UUID key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Checks whether the uuid with the given bits is mapped
+     *
+     * @param mostSigBits  the most significant bits of the uuid
+     * @param leastSigBits the least significant bits of the uuid
+     * @return true if the uuid is mapped
+     */
+    public boolean containsKey(long mostSigBits, long leastSigBits) {
+        return get(mostSigBits, leastSigBits) != null;
+    }
+
+    /**
+     * Maps a uuid to a value
+     *
+     * @param key   the uuid
+     * @param value the value
+     * @return the previously mapped value or {@code null}
+     */
+    public V put(UUID key, V value) {
+        checkKey(key);
+        return put(key.getMostSignificantBits(), key.getLeastSignificantBits(), value);
+    }
+
+    /**
+     * Maps the uuid with the given bits to a value
+     *
+     * @param mostSigBits  the most significant bits of the uuid
+     * @param leastSigBits the least significant bits of the uuid
+     * @param value        the value
+     * @return the previously mapped value or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long mostSigBits, long leastSigBits, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("Value can not be null");
+        if (mostSigBits == 0 && leastSigBits == 0) {
+            V previous = nilValue;
+            nilValue = value;
+            containsNil = true;
+            return previous;
+        }
+        int slot = find(mostSigBits, leastSigBits);
+        if (slot >= 0) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        insert(~slot, mostSigBits, leastSigBits, value);
+        return null;
+    }
+
+    /**
+     * Maps a uuid to a value if it is not mapped yet
+     *
+     * @param key   the uuid
+     * @param value the value
+     * @return the already mapped value or {@code null} if the value was added
+     */
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(UUID key, V value) {
+        checkKey(key);
+        if (value == null)
+            throw new IllegalArgumentException("Value can not be null");
+        long mostSigBits = key.getMostSignificantBits();
+        long leastSigBits = key.getLeastSignificantBits();
+        if (mostSigBits == 0 && leastSigBits == 0) {
+            if (containsNil)
+                return nilValue;
+            return put(mostSigBits, leastSigBits, value);
+        }
+        int slot = find(mostSigBits, leastSigBits);
+        if (slot >= 0)
+            return (V) values[slot];
+        insert(~slot, mostSigBits, leastSigBits, value);
+        return null;
+    }
+
+    /**
+     * Gets the value mapped to a uuid, or computes and maps it if the uuid is not mapped yet
+     *
+     * @param key      the uuid
+     * @param function the function computing the value, it may not modify this map
+     * @return the mapped value or {@code null} if the function returned {@code null}
+     */
+    public V computeIfAbsent(UUID key, Function<? super UUID, ? extends V> function) {
+        V value = get(key);
+        if (value == null) {
+            value = function.apply(key);
+            if (value != null)
+                put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes the mapping of a uuid
+     *
+     * @param key the uuid
+     * @return the removed value or {@code null} if the uuid was not mapped
+     */
+    public V remove(UUID key) {
+        checkKey(key);
+        return remove(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    /**
+     * Removes the mapping of the uuid with the given bits
+     *
+     * @param mostSigBits  the most significant bits of the uuid
+     * @param leastSigBits the least significant bits of the uuid
+     * @return the removed value or {@code null} if the uuid was not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long mostSigBits, long leastSigBits) {
+        if (mostSigBits == 0 && leastSigBits == 0) {
+            V previous = nilValue;
+            nilValue = null;
+            containsNil = false;
+            return previous;
+        }
+        int slot = find(mostSigBits, leastSigBits);
+        if (slot < 0)
+            return null;
+        V previous = (V) values[slot];
+        delete(slot);
+        return previous;
+    }
+
+    /**
+     * Gets the amount of mapped uuids
+     *
+     * @return the size
+     */
+    public int size() {
+        return containsNil ? size + 1 : size;
+    }
+
+    /**
+     * Checks whether no uuid is mapped
+     *
+     * @return true if the map is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all mappings, keeping the allocated capacity
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        size = 0;
+        containsNil = false;
+        nilValue = null;
+    }
+
+    /**
+     * Performs an action for every mapping. The uuids are allocated while iterating.
+     * The action may not modify this map.
+     *
+     * @param action the action
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super UUID, ? super V> action) {
+        if (containsNil)
+            action.accept(new UUID(0, 0), nilValue);
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null)
+                action.accept(new UUID(keys[slot << 1], keys[(slot << 1) + 1]), (V) values[slot]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (builder.length() > 1)
+                builder.append(", ");
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Spreads the bits of a uuid, random and name based uuids are well distributed already
+     * but time based and hand made ones are not
+     *
+     * @param mostSigBits  the most significant bits of the uuid
+     * @param leastSigBits the least significant bits of the uuid
+     * @return the hash
+     */
+    static int hash(long mostSigBits, long leastSigBits) {
+        long hash = mostSigBits * 0x9E3779B97F4A7C15L + leastSigBits;
+        hash = (hash ^ (hash >>> 32)) * 0xD6E8FEB86659FD93L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static void checkKey(UUID key) {
+        if (key == null)
+            throw new IllegalArgumentException("Key can not be null");
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity << 1];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = OpenAddressing.threshold(capacity);
+    }
+
+    /**
+     * Finds the slot of a non-nil uuid
+     *
+     * @return the slot or the bitwise complement of the empty slot it would be inserted at
+     */
+    private int find(long mostSigBits, long leastSigBits) {
+        int slot = hash(mostSigBits, leastSigBits) & mask;
+        while (true) {
+            long most = keys[slot << 1];
+            long least = keys[(slot << 1) + 1];
+            if (most == mostSigBits && least == leastSigBits)
+                return slot;
+            if (most == 0 && least == 0)
+                return ~slot;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void insert(int slot, long mostSigBits, long leastSigBits, Object value) {
+        if (size >= threshold) {
+            resize();
+            slot = ~find(mostSigBits, leastSigBits);
+        }
+        keys[slot << 1] = mostSigBits;
+        keys[(slot << 1) + 1] = leastSigBits;
+        values[slot] = value;
+        size++;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(OpenAddressing.grow(oldValues.length));
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] == null)
+                continue;
+            long most = oldKeys[slot << 1];
+            long least = oldKeys[(slot << 1) + 1];
+            int target = ~find(most, least);
+            keys[target << 1] = most;
+            keys[(target << 1) + 1] = least;
+            values[target] = oldValues[slot];
+        }
+    }
+
+    /**
+     * Empties a slot and moves back following entries of the same probe sequence, so no tombstones are needed
+     */
+    private void delete(int slot) {
+        int gap = slot;
+        int next = (slot + 1) & mask;
+        while (values[next] != null) {
+            long most = keys[next << 1];
+            long least = keys[(next << 1) + 1];
+            int home = hash(most, least) & mask;
+            if (OpenAddressing.canShift(gap, next, home, mask)) {
+                keys[gap << 1] = most;
+                keys[(gap << 1) + 1] = least;
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap << 1] = 0;
+        keys[(gap << 1) + 1] = 0;
+        values[gap] = null;
+        size--;
+    }
+}
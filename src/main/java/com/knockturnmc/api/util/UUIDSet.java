@@ -0,0 +1,274 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A set of {@link UUID}s that stores both halves of every uuid inline in a {@code long[]}, 16 bytes per slot.
+ * Uses open addressing with linear probing and backward-shift deletion, see {@link UUIDMap}.
+ * <p>
+ * Null elements are not permitted. This class is not thread-safe.
+ */
+public class UUIDSet {
+
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    private long[] keys;
+    private int mask;
+    private int threshold;
+    private int size;
+
+    //The nil uuid marks empty slots, whether it is contained is kept aside
+    private boolean containsNil;
+
+    /**
+     * Creates an empty set
+     */
+    public UUIDSet() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates an empty set that can hold the given amount of uuids without resizing
+     *
+     * @param expectedSize the expected amount of uuids
+     */
+    public UUIDSet(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Expected size can not be negative");
+        allocate(OpenAddressing.tableSize(expectedSize));
+    }
+
+    /**
+     * Adds a uuid to this set
+     *
+     * @param uuid the uuid
+     * @return true if the uuid was not contained yet
+     */
+    public boolean add(UUID uuid) {
+        checkElement(uuid);
+        return add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Adds the uuid with the given bits to this set
+     *
+     * @param mostSigBits  the most significant bits of the uuid
+     * @param leastSigBits the least significant bits of the uuid
+     * @return true if the uuid was not contained yet
+     */
+    public boolean add(long mostSigBits, long leastSigBits) {
+        if (mostSigBits == 0 && leastSigBits == 0) {
+            boolean added = !containsNil;
+            containsNil = true;
+            return added;
+        }
+        int slot = find(mostSigBits, leastSigBits);
+        if (slot >= 0)
+            return false;
+        if (size >= threshold) {
+            resize();
+            slot = find(mostSigBits, leastSigBits);
+        }
+        slot = ~slot;
+        keys[slot << 1] = mostSigBits;
+        keys[(slot << 1) + 1] = leastSigBits;
+        size++;
+        return true;
+    }
+
+    /**
+     * Checks whether a uuid is contained in this set
+     *
+     * @param uuid the uuid
+     * @return true if the uuid is contained
+     */
+    public boolean contains(UUID uuid) {
+        checkElement(uuid);
+        return contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Checks whether the uuid with the given bits is contained in this set
+     *
+     * @param mostSigBits  the most significant bits of the uuid
+     * @param leastSigBits the least significant bits of the uuid
+     * @return true if the uuid is contained
+     */
+    public boolean contains(long mostSigBits, long leastSigBits) {
+        if (mostSigBits == 0 && leastSigBits == 0)
+            return containsNil;
+        return find(mostSigBits, leastSigBits) >= 0;
+    }
+
+    /**
+     * Removes a uuid from this set
+     *
+     * @param uuid the uuid
+     * @return true if the uuid was contained
+     */
+    public boolean remove(UUID uuid) {
+        checkElement(uuid);
+        return remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Removes the uuid with the given bits from this set
+     *
+     * @param mostSigBits  the most significant bits of the uuid
+     * @param leastSigBits the least significant bits of the uuid
+     * @return true if the uuid was contained
+     */
+    public boolean remove(long mostSigBits, long leastSigBits) {
+        if (mostSigBits == 0 && leastSigBits == 0) {
+            boolean removed = containsNil;
+            containsNil = false;
+            return removed;
+        }
+        int slot = find(mostSigBits, leastSigBits);
+        if (slot < 0)
+            return false;
+        delete(slot);
+        return true;
+    }
+
+    /**
+     * Gets the amount of contained uuids
+     *
+     * @return the size
+     */
+    public int size() {
+        return containsNil ? size + 1 : size;
+    }
+
+    /**
+     * Checks whether this set contains no uuids
+     *
+     * @return true if the set is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all uuids, keeping the allocated capacity
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        containsNil = false;
+    }
+
+    /**
+     * Performs an action for every contained uuid. The uuids are allocated while iterating.
+     * The action may not modify this set.
+     *
+     * @param action the action
+     */
+    public void forEach(Consumer<? super UUID> action) {
+        if (containsNil)
+            action.accept(new UUID(0, 0));
+        for (int slot = 0; slot <= mask; slot++) {
+            if (isOccupied(slot))
+                action.accept(new UUID(keys[slot << 1], keys[(slot << 1) + 1]));
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        forEach(uuid -> {
+            if (builder.length() > 1)
+                builder.append(", ");
+            builder.append(uuid);
+        });
+        return builder.append(']').toString();
+    }
+
+    private static void checkElement(UUID uuid) {
+        if (uuid == null)
+            throw new IllegalArgumentException("UUID can not be null");
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity << 1];
+        mask = capacity - 1;
+        threshold = OpenAddressing.threshold(capacity);
+    }
+
+    private boolean isOccupied(int slot) {
+        return keys[slot << 1] != 0 || keys[(slot << 1) + 1] != 0;
+    }
+
+    private int find(long mostSigBits, long leastSigBits) {
+        int slot = UUIDMap.hash(mostSigBits, leastSigBits) & mask;
+        while (true) {
+            long most = keys[slot << 1];
+            long least = keys[(slot << 1) + 1];
+            if (most == mostSigBits && least == leastSigBits)
+                return slot;
+            if (most == 0 && least == 0)
+                return ~slot;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int oldCapacity = mask + 1;
+        allocate(OpenAddressing.grow(oldCapacity));
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            long most = oldKeys[slot << 1];
+            long least = oldKeys[(slot << 1) + 1];
+            if (most == 0 && least == 0)
+                continue;
+            int target = ~find(most, least);
+            keys[target << 1] = most;
+            keys[(target << 1) + 1] = least;
+        }
+    }
+
+    private void delete(int slot) {
+        int gap = slot;
+        int next = (slot + 1) & mask;
+        while (isOccupied(next)) {
+            long most = keys[next << 1];
+            long least = keys[(next << 1) + 1];
+            int home = UUIDMap.hash(most, least) & mask;
+            if (OpenAddressing.canShift(gap, next, home, mask)) {
+                keys[gap << 1] = most;
+                keys[(gap << 1) + 1] = least;
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap << 1] = 0;
+        keys[(gap << 1) + 1] = 0;
+        size--;
+    }
+}
@@ -23,21 +23,24 @@ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
 
 package com.knockturnmc.api.util;
 
-import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Provides some utilities
  */
 public final class Utils {
 
-    private static Pattern IP_PATTERN = Pattern.compile(
-            "^([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\." +
-                    "([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\." +
-                    "([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\." +
-                    "([01]?\\d\\d?|2[0-4]\\d|25[0-5])$");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            HEX_VALUES[HEX_DIGITS[i]] = (byte) i;
+            HEX_VALUES[Character.toUpperCase(HEX_DIGITS[i])] = (byte) i;
+        }
+    }
 
     private Utils() {
     }
@@ -50,23 +53,119 @@ public final class Utils {
      * Returns {@code null} if string is invalid.
      */
     public static UUID formatUUID(String uuid) {
+        if (uuid == null)
+            throw new IllegalArgumentException("Invalid UUID", new NullPointerException("UUID can not be null"));
+        UUID parsed = parseCanonicalUUID(uuid);
+        if (parsed != null)
+            return parsed;
         try {
-            if (uuid == null)
-                throw new IllegalArgumentException("UUID can not be null");
-            try {
-                return UUID.fromString(uuid);
-            } catch (Exception e) {
-                StringBuilder sb = new StringBuilder(uuid);
-                for (int i = 0; i <= 3; i++) {
-                    sb.insert(8 + (i * 5), "-");
-                }
-                return UUID.fromString(sb.toString());
-            }
-        } catch (Exception e) {
+            return UUID.fromString(uuid); //Lenient forms such as 1-2-3-4-5
+        } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid UUID", e);
         }
     }
 
+    /**
+     * Parses a UUID in its canonical form, either with hyphens (36 characters) or without (32 characters).
+     * Hex digits may be upper or lower case.
+     *
+     * @param uuid the characters to parse
+     * @return the uuid
+     * @throws IllegalArgumentException if the characters are not a canonical UUID
+     */
+    public static UUID parseUUID(CharSequence uuid) {
+        if (uuid == null)
+            throw new IllegalArgumentException("UUID can not be null");
+        UUID parsed = parseCanonicalUUID(uuid);
+        if (parsed == null)
+            throw new IllegalArgumentException("Invalid UUID: " + uuid);
+        return parsed;
+    }
+
+    private static UUID parseCanonicalUUID(CharSequence uuid) {
+        long high, mid, low, node, rest;
+        if (uuid.length() == 36) {
+            if (uuid.charAt(8) != '-' || uuid.charAt(13) != '-' || uuid.charAt(18) != '-' || uuid.charAt(23) != '-')
+                return null;
+            long midHigh = parseHex(uuid, 9, 4);
+            long midLow = parseHex(uuid, 14, 4);
+            high = parseHex(uuid, 0, 8);
+            low = parseHex(uuid, 19, 4);
+            node = parseHex(uuid, 24, 4);
+            rest = parseHex(uuid, 28, 8);
+            if ((high | midHigh | midLow | low | node | rest) < 0)
+                return null;
+            mid = midHigh << 16 | midLow;
+        } else if (uuid.length() == 32) {
+            high = parseHex(uuid, 0, 8);
+            mid = parseHex(uuid, 8, 8);
+            low = parseHex(uuid, 16, 4);
+            node = parseHex(uuid, 20, 4);
+            rest = parseHex(uuid, 24, 8);
+            if ((high | mid | low | node | rest) < 0)
+                return null;
+        } else {
+            return null;
+        }
+        return new UUID(high << 32 | mid, low << 48 | node << 32 | rest);
+    }
+
+    /**
+     * Parses at most 8 hex digits
+     *
+     * @return the value or -1 if a character is not a hex digit
+     */
+    private static long parseHex(CharSequence chars, int offset, int length) {
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = chars.charAt(i);
+            int digit = c < 128 ? HEX_VALUES[c] : -1;
+            if (digit < 0)
+                return -1;
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    /**
+     * Formats a uuid in its canonical lower case form
+     *
+     * @param uuid   the uuid
+     * @param dashes whether the groups are separated by hyphens, Mojang uses the form without hyphens
+     * @return the formatted uuid
+     */
+    public static String uuidToString(UUID uuid, boolean dashes) {
+        char[] chars = new char[dashes ? 36 : 32];
+        writeUUID(uuid, chars, 0, dashes);
+        return new String(chars);
+    }
+
+    /**
+     * Writes a uuid in its canonical lower case form into a buffer
+     *
+     * @param uuid        the uuid
+     * @param destination the buffer
+     * @param offset      the index of the first character in the buffer
+     * @param dashes      whether the groups are separated by hyphens
+     * @return the amount of written characters, 36 with hyphens and 32 without
+     */
+    public static int writeUUID(UUID uuid, char[] destination, int offset, boolean dashes) {
+        int length = dashes ? 36 : 32;
+        if (offset < 0 || destination.length - offset < length)
+            throw new IndexOutOfBoundsException("The buffer can not hold " + length + " characters at " + offset);
+
+        long mostSigBits = uuid.getMostSignificantBits();
+        long leastSigBits = uuid.getLeastSignificantBits();
+        int position = offset;
+        for (int digit = 0; digit < 32; digit++) {
+            if (dashes && (digit == 8 || digit == 12 || digit == 16 || digit == 20))
+                destination[position++] = '-';
+            long bits = digit < 16 ? mostSigBits : leastSigBits;
+            destination[position++] = HEX_DIGITS[(int) (bits >>> ((15 - (digit & 15)) << 2)) & 0xF];
+        }
+        return length;
+    }
+
     /**
      * Gets the uuid from a from bytes
      *
@@ -74,8 +173,20 @@ public final class Utils {
      * @return the uuid
      */
     public static UUID getUUID(byte[] raw) {
-        ByteBuffer buffer = ByteBuffer.wrap(raw);
-        return new UUID(buffer.getLong(0), buffer.getLong(8));
+        return getUUID(raw, 0);
+    }
+
+    /**
+     * Gets the uuid from 16 big-endian bytes of a buffer
+     *
+     * @param raw    the buffer
+     * @param offset the index of the first byte
+     * @return the uuid
+     */
+    public static UUID getUUID(byte[] raw, int offset) {
+        if (offset < 0 || raw.length - offset < 16)
+            throw new IndexOutOfBoundsException("The buffer does not contain 16 bytes at " + offset);
+        return new UUID(readLong(raw, offset), readLong(raw, offset + 8));
     }
 
     /**
@@ -85,10 +196,44 @@ public final class Utils {
      * @return the bytes
      */
     public static byte[] getBytes(UUID uuid) {
-        ByteBuffer buffer = ByteBuffer.wrap(new byte[16]);
-        buffer.putLong(uuid.getMostSignificantBits());
-        buffer.putLong(uuid.getLeastSignificantBits());
-        return buffer.array();
+        byte[] bytes = new byte[16];
+        putBytes(uuid, bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Writes the 16 big-endian bytes of a uuid into a buffer
+     *
+     * @param uuid        the uuid
+     * @param destination the buffer
+     * @param offset      the index of the first byte
+     */
+    public static void putBytes(UUID uuid, byte[] destination, int offset) {
+        if (offset < 0 || destination.length - offset < 16)
+            throw new IndexOutOfBoundsException("The buffer can not hold 16 bytes at " + offset);
+        writeLong(uuid.getMostSignificantBits(), destination, offset);
+        writeLong(uuid.getLeastSignificantBits(), destination, offset + 8);
+    }
+
+    /**
+     * Reads a big-endian long, the caller checks the bounds
+     *
+     * @param raw    the buffer
+     * @param offset the index of the first byte
+     * @return the long
+     */
+    static long readLong(byte[] raw, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++)
+            value = (value << 8) | (raw[offset + i] & 0xFF);
+        return value;
+    }
+
+    private static void writeLong(long value, byte[] destination, int offset) {
+        for (int i = 7; i >= 0; i--) {
+            destination[offset + i] = (byte) value;
+            value >>>= 8;
+        }
     }
 
     /**
@@ -109,19 +254,27 @@ public final class Utils {
      * Gets the enum object from a string
      *
      * @param clazz the enum type
-     * @param name  the enum name
+     * @param name  the enum name or an {@link EnumAlias alias}
      * @param <T>   the enum type
      * @return the enum or null if not found
      */
     public static <T extends Enum<T>> T evaluateEnum(Class<T> clazz, String name) {
+        return evaluateEnum(clazz, name, false);
+    }
+
+    /**
+     * Gets the enum object from a string
+     *
+     * @param clazz      the enum type
+     * @param name       the enum name or an {@link EnumAlias alias}
+     * @param ignoreCase whether the case of the name is ignored
+     * @param <T>        the enum type
+     * @return the enum or null if not found
+     */
+    public static <T extends Enum<T>> T evaluateEnum(Class<T> clazz, String name, boolean ignoreCase) {
         if (name == null || name.length() < 1)
             return null;
-        try {
-            return Enum.valueOf(clazz, name);
-        } catch (IllegalArgumentException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return EnumLookup.of(clazz).get(name, ignoreCase);
     }
 
     /**
@@ -147,12 +300,163 @@ public final class Utils {
     }
 
     /**
-     * Validate ip address with regular expression
+     * Validates a dotted IPv4 address. Octets may have leading zeros, e.g. {@code 010.0.0.001}
      * @param ip ip address for validation
      * @return true valid ip address, false invalid ip address
      */
     public static boolean validateIP(final String ip){
-        Matcher matcher = IP_PATTERN.matcher(ip);
-        return matcher.matches();
+        return parseIPv4(ip) >= 0;
+    }
+
+    /**
+     * Parses a dotted IPv4 address. Octets may have up to three digits including leading zeros.
+     *
+     * @param ip the address
+     * @return the address as unsigned 32 bit value, or -1 if the address is invalid
+     */
+    public static long parseIPv4(CharSequence ip) {
+        if (ip == null)
+            throw new IllegalArgumentException("IP can not be null");
+        return parseIPv4(ip, 0, ip.length());
+    }
+
+    static long parseIPv4(CharSequence ip, int start, int end) {
+        long address = 0;
+        int octets = 0;
+        int i = start;
+        while (true) {
+            int value = 0;
+            int digits = 0;
+            while (i < end && digits <= 3) {
+                char c = ip.charAt(i);
+                if (c < '0' || c > '9')
+                    break;
+                value = value * 10 + c - '0';
+                digits++;
+                i++;
+            }
+            if (digits == 0 || digits > 3 || value > 255)
+                return -1;
+            address = address << 8 | value;
+            if (++octets == 4)
+                return i == end ? address : -1;
+            if (i == end || ip.charAt(i) != '.')
+                return -1;
+            i++;
+        }
+    }
+
+    /**
+     * Formats an IPv4 address in dotted form
+     *
+     * @param address the address as unsigned 32 bit value, as returned by {@link #parseIPv4(CharSequence)}
+     * @return the formatted address
+     */
+    public static String formatIPv4(long address) {
+        return ((address >>> 24) & 0xFF) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+
+    /**
+     * Parses an IPv6 address in the notation of RFC 4291, including {@code ::} compression and trailing dotted IPv4.
+     * Zone identifiers and brackets are not accepted.
+     *
+     * @param ip          the address
+     * @param destination the array receiving the upper 64 bits at index 0 and the lower 64 bits at index 1
+     * @return true if the address is valid, the destination is unchanged otherwise
+     */
+    public static boolean parseIPv6(CharSequence ip, long[] destination) {
+        if (ip == null)
+            throw new IllegalArgumentException("IP can not be null");
+        return parseIPv6(ip, 0, ip.length(), destination);
+    }
+
+    static boolean parseIPv6(CharSequence ip, int start, int end, long[] destination) {
+        int i = start;
+        int compression = -1;
+        if (end - start >= 2 && ip.charAt(i) == ':') {
+            if (ip.charAt(i + 1) != ':')
+                return false;
+            compression = 0;
+            i += 2;
+        }
+
+        //Groups before the compression and after it are gathered separately, then the zeros are inserted between them
+        long headHigh = 0, headLow = 0, tailHigh = 0, tailLow = 0;
+        int groups = 0;
+        while (i < end) {
+            int groupStart = i;
+            int value = 0;
+            int digits = 0;
+            while (i < end && digits <= 4) {
+                char c = ip.charAt(i);
+                int digit = c < 128 ? HEX_VALUES[c] : -1;
+                if (digit < 0)
+                    break;
+                value = value << 4 | digit;
+                digits++;
+                i++;
+            }
+
+            int added;
+            long bits;
+            if (i < end && ip.charAt(i) == '.') {
+                bits = parseIPv4(ip, groupStart, end);
+                if (bits < 0)
+                    return false;
+                added = 2;
+                i = end;
+            } else if (digits == 0 || digits > 4) {
+                return false;
+            } else {
+                bits = value;
+                added = 1;
+            }
+            if (groups + added > 8)
+                return false;
+            groups += added;
+            int shift = added << 4;
+            if (compression < 0) {
+                headHigh = headHigh << shift | headLow >>> (64 - shift);
+                headLow = headLow << shift | bits;
+            } else {
+                tailHigh = tailHigh << shift | tailLow >>> (64 - shift);
+                tailLow = tailLow << shift | bits;
+            }
+
+            if (i == end)
+                break;
+            if (ip.charAt(i) != ':' || ++i == end)
+                return false;
+            if (ip.charAt(i) == ':') {
+                if (compression >= 0)
+                    return false;
+                compression = groups;
+                i++;
+            }
+        }
+
+        if (compression < 0) {
+            if (groups != 8)
+                return false;
+            destination[0] = headHigh;
+            destination[1] = headLow;
+            return true;
+        }
+        if (groups == 8)
+            return false;
+        int shift = (8 - compression) << 4;
+        if (shift >= 128) {
+            headHigh = 0;
+            headLow = 0;
+        } else if (shift >= 64) {
+            headHigh = headLow << (shift - 64);
+            headLow = 0;
+        } else {
+            headHigh = headHigh << shift | headLow >>> (64 - shift);
+            headLow <<= shift;
+        }
+        destination[0] = headHigh | tailHigh;
+        destination[1] = headLow | tailLow;
+        return true;
     }
 }
@@ -0,0 +1,94 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+/**
+ * A response whose body was read into memory, so it can be handled multiple times
+ */
+public final class BufferedResponse {
+
+    private final int status;
+    private final Map<String, String> headers;
+    private final Charset charset;
+    private final byte[] body;
+    private final int offset;
+    private final int length;
+
+    private BufferedResponse(int status, Map<String, String> headers, Charset charset, byte[] body, int offset, int length) {
+        this.status = status;
+        this.headers = headers;
+        this.charset = charset;
+        this.body = body;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Reads the remaining body of a response
+     *
+     * @param response the response
+     * @return the buffered response
+     * @throws IOException if the body could not be read
+     */
+    public static BufferedResponse read(RestResponse response) throws IOException {
+        ByteBuffer body = response.asByteBuffer();
+        return new BufferedResponse(response.getStatus(), response.getHeaders(), response.getCharset(),
+                body.array(), body.arrayOffset() + body.position(), body.remaining());
+    }
+
+    /**
+     * Opens a new response that streams the buffered body
+     *
+     * @return the response
+     */
+    public RestResponse open() {
+        InputStream stream = new ByteArrayInputStream(body, offset, length);
+        return new RestResponse(status, headers, stream, stream, charset, length);
+    }
+
+    /**
+     * Returns the status code
+     *
+     * @return the status code
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the length of the body
+     *
+     * @return the length in bytes
+     */
+    public int getLength() {
+        return length;
+    }
+}
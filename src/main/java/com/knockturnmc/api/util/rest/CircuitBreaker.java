@@ -0,0 +1,226 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Stops sending requests to a failing host for a while, so callers fail fast instead of waiting for timeouts.
+ * <p>
+ * The breaker starts {@link State#CLOSED} and opens after a number of consecutive failures. While it is
+ * {@link State#OPEN} every request is rejected. After the open duration it becomes {@link State#HALF_OPEN} and lets
+ * a single trial request through, which closes the breaker if it succeeds and opens it again otherwise.
+ * Connection failures, timeouts and server errors count as failures, client errors do not.
+ */
+public class CircuitBreaker {
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDuration;
+    private final Listener listener;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialRunning;
+
+    private final Map<State, Long> transitions = new EnumMap<>(State.class);
+    private long successes;
+    private long failures;
+    private long rejected;
+
+    /**
+     * Creates a new closed circuit breaker
+     *
+     * @param name             the name of the breaker, usually the host it protects
+     * @param failureThreshold the amount of consecutive failures that open the breaker
+     * @param openDuration     the time in milliseconds the breaker stays open
+     * @param listener         the listener that is notified about state transitions, may be null
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openDuration, Listener listener) {
+        if (failureThreshold < 1)
+            throw new IllegalArgumentException("failureThreshold has to be positive");
+        if (openDuration < 0)
+            throw new IllegalArgumentException("openDuration can not be negative");
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.listener = listener;
+    }
+
+    /**
+     * Asks for permission to send a request. Every granted permission has to be followed by a call to
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #release()}
+     *
+     * @return true if the request may be sent
+     */
+    public boolean tryAcquire() {
+        State from;
+        synchronized (this) {
+            if (state == State.CLOSED) return true;
+            if (state == State.HALF_OPEN || System.currentTimeMillis() - openedAt < openDuration || trialRunning) {
+                rejected++;
+                return false;
+            }
+            from = transition(State.HALF_OPEN);
+            trialRunning = true;
+        }
+        notify(from, State.HALF_OPEN);
+        return true;
+    }
+
+    /**
+     * Records a successful request
+     */
+    public void onSuccess() {
+        State from;
+        synchronized (this) {
+            successes++;
+            consecutiveFailures = 0;
+            if (state != State.HALF_OPEN) return;
+            trialRunning = false;
+            from = transition(State.CLOSED);
+        }
+        notify(from, State.CLOSED);
+    }
+
+    /**
+     * Records a failed request
+     */
+    public void onFailure() {
+        State from;
+        synchronized (this) {
+            failures++;
+            consecutiveFailures++;
+            if (state == State.OPEN || (state == State.CLOSED && consecutiveFailures < failureThreshold)) return;
+            trialRunning = false;
+            openedAt = System.currentTimeMillis();
+            from = transition(State.OPEN);
+        }
+        notify(from, State.OPEN);
+    }
+
+    /**
+     * Returns a permission of a request that was not sent, e.g. because it was cancelled
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && trialRunning) {
+            trialRunning = false;
+            state = State.OPEN; //Wait for the next trial without counting a transition
+            openedAt = System.currentTimeMillis() - openDuration;
+        }
+    }
+
+    /**
+     * Returns the name of the breaker
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the current state
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Returns how often the breaker transitioned into a state
+     *
+     * @param state the target state
+     * @return the amount of transitions
+     */
+    public synchronized long getTransitions(State state) {
+        return transitions.getOrDefault(state, 0L);
+    }
+
+    /**
+     * Returns the amount of successful requests
+     *
+     * @return the successes
+     */
+    public synchronized long getSuccesses() {
+        return successes;
+    }
+
+    /**
+     * Returns the amount of failed requests
+     *
+     * @return the failures
+     */
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns the amount of requests that were rejected while the breaker was open
+     *
+     * @return the rejected requests
+     */
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    private State transition(State to) {
+        State from = state;
+        state = to;
+        transitions.merge(to, 1L, Long::sum);
+        return from;
+    }
+
+    private void notify(State from, State to) {
+        if (listener != null) listener.onStateChange(this, from, to);
+    }
+
+    /**
+     * The states of a circuit breaker
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Listens to the state transitions of circuit breakers
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called after a breaker transitioned into another state
+         *
+         * @param breaker the breaker
+         * @param from    the previous state
+         * @param to      the new state
+         */
+        void onStateChange(CircuitBreaker breaker, State from, State to);
+    }
+}
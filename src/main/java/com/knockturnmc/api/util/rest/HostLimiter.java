@@ -0,0 +1,141 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest;
+
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Limits the amount of concurrent requests per host
+ */
+public class HostLimiter {
+
+    private final Map<String, Host> hosts = new HashMap<>();
+    private final int maxPerHost;
+
+    /**
+     * Creates a new host limiter
+     *
+     * @param maxPerHost the maximum amount of concurrent requests per host
+     */
+    public HostLimiter(int maxPerHost) {
+        if (maxPerHost < 1)
+            throw new IllegalArgumentException("maxPerHost has to be positive");
+        this.maxPerHost = maxPerHost;
+    }
+
+    /**
+     * Returns the key of the host that serves the given url
+     *
+     * @param url the url
+     * @return the host key
+     */
+    public static String key(URL url) {
+        int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        return url.getProtocol() + "://" + url.getHost().toLowerCase() + ":" + port;
+    }
+
+    /**
+     * Waits until a request to the host can be executed
+     *
+     * @param host the host key
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public synchronized void acquire(String host) throws InterruptedException {
+        Host state = hosts.computeIfAbsent(host, h -> new Host());
+        state.waiting++;
+        try {
+            while (state.active >= maxPerHost) wait();
+        } finally {
+            state.waiting--;
+        }
+        state.active++;
+    }
+
+    /**
+     * Obtains a request slot of the host without blocking. The callback is invoked as soon as a slot is available,
+     * either immediately by the calling thread or later by the thread that releases a slot, so it should only hand
+     * the request off to an executor.
+     *
+     * @param host       the host key
+     * @param onAcquired the callback that is invoked once the slot was obtained
+     */
+    public void acquireAsync(String host, Runnable onAcquired) {
+        synchronized (this) {
+            Host state = hosts.computeIfAbsent(host, h -> new Host());
+            if (state.active >= maxPerHost) {
+                state.queued.add(onAcquired);
+                return;
+            }
+            state.active++;
+        }
+        onAcquired.run();
+    }
+
+    /**
+     * Releases a request slot of the host that was obtained by {@link #acquire(String)} or {@link #acquireAsync(String, Runnable)}.
+     * Queued asynchronous requests take precedence over blocked threads
+     *
+     * @param host the host key
+     */
+    public void release(String host) {
+        Runnable next;
+        synchronized (this) {
+            Host state = hosts.get(host);
+            if (state == null || state.active == 0)
+                throw new IllegalStateException("No request to " + host + " was active");
+
+            next = state.queued.poll();
+            if (next == null) {
+                state.active--;
+                if (state.active == 0 && state.waiting == 0) hosts.remove(host);
+                notifyAll();
+            }
+        }
+        if (next != null) next.run(); //The slot is handed over directly
+    }
+
+    /**
+     * Returns the amount of requests that are currently executed for the host
+     *
+     * @param host the host key
+     * @return the amount of active requests
+     */
+    public synchronized int getActive(String host) {
+        Host state = hosts.get(host);
+        return state == null ? 0 : state.active;
+    }
+
+    /**
+     * The request state of a single host
+     */
+    private static class Host {
+        private final Queue<Runnable> queued = new ArrayDeque<>();
+        private int active;
+        private int waiting;
+    }
+}
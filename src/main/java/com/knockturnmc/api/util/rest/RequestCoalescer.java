@@ -0,0 +1,153 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Lets identical concurrent requests share a single execution.
+ * <p>
+ * The first request for a key starts the execution, every request for the same key that arrives while it is in flight
+ * receives its result instead of starting another one. After a successful execution the result is shared for
+ * a configurable window, a failure is only shared with the requests that were waiting for it.
+ * Cancelling a returned future does not abort the shared execution.
+ *
+ * @param <V> the type of the shared results
+ */
+public class RequestCoalescer<V> {
+
+    private static final int PURGE_INTERVAL = 64;
+
+    private final long window;
+    private final Map<String, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final AtomicInteger untilPurge = new AtomicInteger(PURGE_INTERVAL);
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong saved = new AtomicLong();
+
+    /**
+     * Creates a new coalescer
+     *
+     * @param window the time in milliseconds a successful result is shared after it completed, {@code 0} to only share in-flight executions
+     */
+    public RequestCoalescer(long window) {
+        if (window < 0)
+            throw new IllegalArgumentException("window can not be negative");
+        this.window = window;
+    }
+
+    /**
+     * Joins the execution of a key or starts it if there is none. The execution is started by the calling thread
+     *
+     * @param key     the key of the request
+     * @param execute starts the execution
+     * @return the future result of the shared execution
+     */
+    public CompletableFuture<V> join(String key, Supplier<CompletableFuture<V>> execute) {
+        if (untilPurge.decrementAndGet() <= 0) {
+            untilPurge.set(PURGE_INTERVAL);
+            purge();
+        }
+
+        while (true) {
+            long now = System.currentTimeMillis();
+            Flight<V> flight = flights.get(key);
+            if (flight != null) {
+                if (!flight.isExpired(now, window)) {
+                    saved.incrementAndGet();
+                    return flight.result.thenApply(value -> value); //Cancelling a follower must not affect the others
+                }
+                flights.remove(key, flight);
+                continue;
+            }
+
+            Flight<V> started = new Flight<>();
+            if (flights.putIfAbsent(key, started) != null) continue; //Lost the race, join the winner
+
+            executed.incrementAndGet();
+            started.result.whenComplete((value, t) -> {
+                if (t != null || window == 0) {
+                    flights.remove(key, started);
+                } else {
+                    started.completedAt = System.currentTimeMillis();
+                }
+            });
+            CompletableFuture<V> execution;
+            try {
+                execution = execute.get();
+            } catch (RuntimeException | Error e) {
+                started.result.completeExceptionally(e);
+                throw e;
+            }
+            execution.whenComplete((value, t) -> {
+                if (t != null) started.result.completeExceptionally(t);
+                else started.result.complete(value);
+            });
+            return started.result.thenApply(value -> value);
+        }
+    }
+
+    /**
+     * Returns the amount of executions that were started
+     *
+     * @return the executions
+     */
+    public long getExecuted() {
+        return executed.get();
+    }
+
+    /**
+     * Returns the amount of requests that joined another execution instead of starting their own
+     *
+     * @return the saved requests
+     */
+    public long getSaved() {
+        return saved.get();
+    }
+
+    /**
+     * Removes results whose window expired
+     */
+    public void purge() {
+        long now = System.currentTimeMillis();
+        flights.entrySet().removeIf(entry -> entry.getValue().isExpired(now, window));
+    }
+
+    /**
+     * An execution shared by the requests of a key
+     */
+    private static final class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private volatile long completedAt = -1;
+
+        private boolean isExpired(long now, long window) {
+            long completedAt = this.completedAt;
+            return completedAt >= 0 && now - completedAt >= window;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Consumes the body of a successful response while it is streamed from the connection.
+ * The body does not have to be read completely, the client drains and closes it after the handler returned.
+ *
+ * @param <R> the type of the result
+ */
+@FunctionalInterface
+public interface ResponseHandler<R> {
+
+    /**
+     * A handler that decodes the body into a string
+     */
+    ResponseHandler<String> STRING = RestResponse::asString;
+
+    /**
+     * A handler that reads the body into a byte buffer
+     */
+    ResponseHandler<ByteBuffer> BYTES = RestResponse::asByteBuffer;
+
+    /**
+     * Handles the response
+     *
+     * @param response the response
+     * @return the result
+     * @throws IOException if the body could not be read
+     */
+    R handle(RestResponse response) throws IOException;
+}
@@ -0,0 +1,550 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A private HTTP cache for the GET requests of {@link com.knockturnmc.api.util.RestClient}s.
+ * <p>
+ * Successful responses are kept in memory, bounded by their size in bytes and evicted least recently used first.
+ * If a directory is configured, evicted responses are moved to a second tier on disk. Responses are served from the
+ * cache while they are fresh according to their {@code Cache-Control: max-age} or {@code Expires} header,
+ * responses without an explicit lifetime are revalidated on every request. Stale responses with an {@code ETag}
+ * or {@code Last-Modified} header are revalidated with a conditional request, so the server can answer with
+ * {@code 304 Not Modified} instead of sending the body again. Responses marked {@code no-store} are never cached.
+ * <p>
+ * Responses larger than an eighth of the memory limit are not cached. A cache is thread-safe and can be shared
+ * between clients.
+ */
+public class RestCache {
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+    private static final String SUFFIX = ".cache";
+    private static final int FORMAT_VERSION = 1;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final long maxMemory;
+    private final long maxEntrySize;
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memorySize;
+    private final DiskTier disk;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+
+    /**
+     * Creates a new cache that keeps responses in memory only
+     *
+     * @param maxMemory the maximum size of the cached responses in bytes
+     */
+    public RestCache(long maxMemory) {
+        if (maxMemory <= 0)
+            throw new IllegalArgumentException("maxMemory has to be positive");
+        this.maxMemory = maxMemory;
+        this.maxEntrySize = maxMemory / 8;
+        this.disk = null;
+    }
+
+    /**
+     * Creates a new cache that moves responses evicted from memory to a directory.
+     * Responses stored in the directory by a previous cache are reused
+     *
+     * @param maxMemory the maximum size of the responses cached in memory in bytes
+     * @param directory the directory of the disk tier, created if it does not exist
+     * @param maxDisk   the maximum size of the responses cached on disk in bytes
+     */
+    public RestCache(long maxMemory, File directory, long maxDisk) {
+        if (maxMemory <= 0)
+            throw new IllegalArgumentException("maxMemory has to be positive");
+        if (directory == null)
+            throw new IllegalArgumentException("directory can not be null");
+        if (maxDisk <= 0)
+            throw new IllegalArgumentException("maxDisk has to be positive");
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IllegalArgumentException("Could not create the cache directory " + directory);
+        this.maxMemory = maxMemory;
+        this.maxEntrySize = maxMemory / 8;
+        this.disk = new DiskTier(directory, maxDisk);
+    }
+
+    /**
+     * Returns a fresh cached response
+     *
+     * @param key the key of the request
+     * @return the response or {@code null} if none is cached or it has to be revalidated
+     */
+    public RestResponse get(String key) {
+        Entry entry = lookup(key);
+        if (entry != null && entry.isFresh(System.currentTimeMillis())) {
+            hits.incrementAndGet();
+            return entry.open();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Adds the conditional headers of a stale cached response to a request, so the server can confirm it is unchanged
+     *
+     * @param key        the key of the request
+     * @param connection the unconnected request
+     * @return the cached response that is revalidated or {@code null} if there is none
+     */
+    public Entry prepare(String key, HttpURLConnection connection) {
+        Entry entry = lookup(key);
+        if (entry == null) return null;
+
+        String etag = entry.headers.get("ETag");
+        String lastModified = entry.headers.get("Last-Modified");
+        if (etag == null && lastModified == null) return null;
+        if (etag != null) connection.setRequestProperty("If-None-Match", etag);
+        if (lastModified != null) connection.setRequestProperty("If-Modified-Since", lastModified);
+        return entry;
+    }
+
+    /**
+     * Updates the cache with a response received from the server.
+     * A {@code 304 Not Modified} response is replaced by the revalidated cached response, a cacheable response is
+     * read completely and stored
+     *
+     * @param key          the key of the request
+     * @param response     the response of the server
+     * @param revalidating the cached response that was revalidated by the request, {@code null} if it was unconditional
+     * @return the response that should be handled in place of the response of the server
+     * @throws IOException if the response could not be read
+     */
+    public RestResponse update(String key, RestResponse response, Entry revalidating) throws IOException {
+        long now = System.currentTimeMillis();
+        if (response.getStatus() == HttpURLConnection.HTTP_NOT_MODIFIED && revalidating != null) {
+            response.close();
+            revalidations.incrementAndGet();
+            Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            headers.putAll(revalidating.headers);
+            for (Map.Entry<String, String> header : response.getHeaders().entrySet()) {
+                if (!header.getKey().equalsIgnoreCase("Content-Length") && !header.getKey().equalsIgnoreCase("Content-Encoding"))
+                    headers.put(header.getKey(), header.getValue());
+            }
+            Entry entry = new Entry(key, revalidating.status, headers, revalidating.body, expiresAt(headers, now));
+            store(entry);
+            return entry.open();
+        }
+
+        Map<String, String> headers = response.getHeaders();
+        if (response.getStatus() != HttpURLConnection.HTTP_OK || !isStorable(headers)) return response;
+        long expiresAt = expiresAt(headers, now);
+        if (expiresAt <= now && !headers.containsKey("ETag") && !headers.containsKey("Last-Modified")) return response; //Never reusable
+        long contentLength = response.getContentLength();
+        if (contentLength > maxEntrySize) return response;
+
+        //Buffer the body up to the size limit, a larger body is passed on with the buffered part in front of it
+        InputStream body = response.getBody();
+        byte[] buffer = new byte[(int) (contentLength >= 0 ? contentLength : Math.min(8192, maxEntrySize + 1))];
+        int length = 0;
+        while (true) {
+            if (length == buffer.length) {
+                if (length == contentLength) break; //Read exactly the announced length
+                if (length > maxEntrySize) {
+                    InputStream rest = new SequenceInputStream(new ByteArrayInputStream(buffer, 0, length), body);
+                    return new RestResponse(response.getStatus(), headers, response.getRaw(), rest, response.getCharset(), -1);
+                }
+                buffer = Arrays.copyOf(buffer, (int) Math.min(maxEntrySize + 1, buffer.length * 2L));
+            }
+            int read = body.read(buffer, length, buffer.length - length);
+            if (read == -1) break;
+            length += read;
+        }
+        response.close();
+
+        Map<String, String> stored = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        stored.putAll(headers);
+        stored.remove("Content-Encoding"); //The body is stored decoded
+        stored.put("Content-Length", Integer.toString(length));
+        Entry entry = new Entry(key, response.getStatus(), stored, length == buffer.length ? buffer : Arrays.copyOf(buffer, length), expiresAt);
+        store(entry);
+        return entry.open();
+    }
+
+    /**
+     * Removes the cached response of a request, e.g. after the resource was modified
+     *
+     * @param key the key of the request
+     */
+    public void invalidate(String key) {
+        synchronized (memory) {
+            Entry entry = memory.remove(key);
+            if (entry != null) memorySize -= entry.size;
+        }
+        if (disk != null) disk.remove(key);
+    }
+
+    /**
+     * Removes all cached responses
+     */
+    public void clear() {
+        synchronized (memory) {
+            memory.clear();
+            memorySize = 0;
+        }
+        if (disk != null) disk.clear();
+    }
+
+    /**
+     * Returns the amount of requests that were answered by a fresh cached response
+     *
+     * @return the hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the amount of requests that had to be sent to the server
+     *
+     * @return the misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the amount of requests the server answered with {@code 304 Not Modified}
+     *
+     * @return the revalidations
+     */
+    public long getRevalidations() {
+        return revalidations.get();
+    }
+
+    /**
+     * Returns the size of the responses cached in memory
+     *
+     * @return the size in bytes
+     */
+    public long getMemorySize() {
+        synchronized (memory) {
+            return memorySize;
+        }
+    }
+
+    /**
+     * Returns the size of the responses cached on disk
+     *
+     * @return the size in bytes, {@code 0} if there is no disk tier
+     */
+    public long getDiskSize() {
+        return disk == null ? 0 : disk.getSize();
+    }
+
+    private Entry lookup(String key) {
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry != null) return entry;
+        }
+        if (disk == null) return null;
+
+        Entry entry = disk.get(key);
+        if (entry != null) store(entry); //Promote to memory
+        return entry;
+    }
+
+    private void store(Entry entry) {
+        if (entry.size > maxEntrySize) return;
+        List<Entry> evicted = new ArrayList<>();
+        synchronized (memory) {
+            Entry previous = memory.put(entry.key, entry);
+            if (previous != null) memorySize -= previous.size;
+            memorySize += entry.size;
+
+            Iterator<Entry> iterator = memory.values().iterator();
+            while (memorySize > maxMemory && iterator.hasNext()) {
+                Entry eldest = iterator.next();
+                iterator.remove();
+                memorySize -= eldest.size;
+                evicted.add(eldest);
+            }
+        }
+        if (disk == null) return;
+        disk.remove(entry.key); //The memory tier holds the current version
+        for (Entry eldest : evicted) {
+            disk.put(eldest);
+        }
+    }
+
+    private static boolean isStorable(Map<String, String> headers) {
+        String cacheControl = headers.get("Cache-Control");
+        if (cacheControl != null && directive(cacheControl, "no-store") != null) return false;
+        String vary = headers.get("Vary");
+        if (vary != null) {
+            for (String header : vary.split(",")) {
+                header = header.trim();
+                if (!header.equalsIgnoreCase("Accept") && !header.equalsIgnoreCase("Accept-Encoding")) return false; //Part of the key
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calculates until when a response is fresh
+     *
+     * @param headers the headers of the response
+     * @param now     the time the response was received
+     * @return the end of the freshness lifetime in milliseconds since the epoch
+     */
+    private static long expiresAt(Map<String, String> headers, long now) {
+        long age = parseSeconds(headers.get("Age"));
+        String cacheControl = headers.get("Cache-Control");
+        if (cacheControl != null) {
+            if (directive(cacheControl, "no-cache") != null) return now;
+            String maxAge = directive(cacheControl, "max-age");
+            if (maxAge != null) return now + (parseSeconds(maxAge) - Math.max(0, age)) * 1000;
+        }
+
+        String expires = headers.get("Expires");
+        if (expires != null) {
+            long expiry = parseDate(expires);
+            if (expiry < 0) return now; //Invalid dates mean the response is already expired
+            long date = parseDate(headers.get("Date"));
+            return now + expiry - (date < 0 ? now : date) - Math.max(0, age) * 1000;
+        }
+        return now; //No explicit lifetime, always revalidate
+    }
+
+    /**
+     * Returns the value of a Cache-Control directive
+     *
+     * @return the value, an empty string if the directive has none, {@code null} if it is absent
+     */
+    private static String directive(String cacheControl, String name) {
+        for (String directive : cacheControl.split(",")) {
+            directive = directive.trim();
+            if (directive.equalsIgnoreCase(name)) return "";
+            if (directive.regionMatches(true, 0, name + "=", 0, name.length() + 1))
+                return directive.substring(name.length() + 1).replace("\"", "").trim();
+        }
+        return null;
+    }
+
+    private static long parseSeconds(String seconds) {
+        if (seconds == null) return -1;
+        try {
+            return Long.parseLong(seconds.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long parseDate(String date) {
+        if (date == null) return -1;
+        try {
+            return ZonedDateTime.parse(date.trim(), HTTP_DATE).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * A cached response
+     */
+    public static final class Entry {
+        private final String key;
+        private final int status;
+        private final Map<String, String> headers;
+        private final byte[] body;
+        private final long expiresAt;
+        private final long size;
+
+        private Entry(String key, int status, Map<String, String> headers, byte[] body, long expiresAt) {
+            this.key = key;
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+            this.expiresAt = expiresAt;
+
+            long size = body.length + key.length() * 2L + 64;
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                size += (header.getKey().length() + header.getValue().length()) * 2L + 32;
+            }
+            this.size = size;
+        }
+
+        private boolean isFresh(long now) {
+            return now < expiresAt;
+        }
+
+        private RestResponse open() {
+            InputStream stream = new ByteArrayInputStream(body);
+            return new RestResponse(status, headers, stream, stream, RestResponse.charsetOf(headers.get("Content-Type")), body.length);
+        }
+    }
+
+    /**
+     * The responses evicted from memory, stored as one file per response
+     */
+    private final class DiskTier {
+        private final File directory;
+        private final long maxSize;
+        private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(16, 0.75f, true);
+        private long size;
+
+        private DiskTier(File directory, long maxSize) {
+            this.directory = directory;
+            this.maxSize = maxSize;
+
+            File[] existing = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+            if (existing != null) {
+                Arrays.sort(existing, Comparator.comparingLong(File::lastModified));
+                for (File file : existing) {
+                    files.put(file.getName(), file.length());
+                    size += file.length();
+                }
+                trim();
+            }
+        }
+
+        private synchronized Entry get(String key) {
+            String name = fileName(key);
+            if (!files.containsKey(name)) return null;
+
+            File file = new File(directory, name);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != FORMAT_VERSION || !in.readUTF().equals(key)) return null; //Outdated or a hash collision
+                int status = in.readInt();
+                long expiresAt = in.readLong();
+                Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                for (int i = in.readInt(); i > 0; i--) {
+                    headers.put(in.readUTF(), in.readUTF());
+                }
+                byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                return new Entry(key, status, headers, body, expiresAt);
+            } catch (IOException e) {
+                logger.warn("Could not read cached response {}", file, e);
+                delete(name);
+                return null;
+            }
+        }
+
+        private synchronized void put(Entry entry) {
+            String name = fileName(entry.key);
+            File file = new File(directory, name);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(entry.key);
+                out.writeInt(entry.status);
+                out.writeLong(entry.expiresAt);
+                out.writeInt(entry.headers.size());
+                for (Map.Entry<String, String> header : entry.headers.entrySet()) {
+                    out.writeUTF(header.getKey());
+                    out.writeUTF(header.getValue());
+                }
+                out.writeInt(entry.body.length);
+                out.write(entry.body);
+            } catch (IOException e) {
+                logger.warn("Could not write cached response {}", file, e);
+                delete(name);
+                return;
+            }
+
+            Long previous = files.put(name, file.length());
+            if (previous != null) size -= previous;
+            size += file.length();
+            trim();
+        }
+
+        private synchronized void remove(String key) {
+            String name = fileName(key);
+            if (files.containsKey(name)) delete(name);
+        }
+
+        private synchronized void clear() {
+            for (String name : new ArrayList<>(files.keySet())) {
+                delete(name);
+            }
+        }
+
+        private synchronized long getSize() {
+            return size;
+        }
+
+        private void trim() {
+            Iterator<Map.Entry<String, Long>> iterator = files.entrySet().iterator();
+            while (size > maxSize && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                iterator.remove();
+                size -= eldest.getValue();
+                new File(directory, eldest.getKey()).delete();
+            }
+        }
+
+        private void delete(String name) {
+            Long length = files.remove(name);
+            if (length != null) size -= length;
+            new File(directory, name).delete();
+        }
+
+        private String fileName(String key) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+                StringBuilder name = new StringBuilder(hash.length * 2 + SUFFIX.length());
+                for (byte b : hash) {
+                    name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+                }
+                return name.append(SUFFIX).toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException(e); //Every JVM supports SHA-256
+            }
+        }
+    }
+}
@@ -0,0 +1,447 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The connection settings of a {@link com.knockturnmc.api.util.RestClient}.
+ * <p>
+ * Connections are reused through the keep-alive cache of {@link java.net.HttpURLConnection}, which keeps
+ * up to {@code http.maxConnections} (5 by default) idle connections per host and closes them after the
+ * idle timeout advertised by the server. To be reusable, a response has to be read completely, which the
+ * client does for successful and failed requests.
+ * <p>
+ * By default connections time out after 10 seconds and reads after 30 seconds. GET requests, the only idempotent
+ * requests of the client, can be retried by a {@link RetryPolicy} and hedged by a second request if the first one
+ * is slow. A {@link CircuitBreaker} per host rejects requests while the host keeps failing.
+ */
+public final class RestClientSettings {
+
+    private static final RestClientSettings DEFAULTS = builder().build();
+
+    private final int maxConnectionsPerHost;
+    private final boolean keepAlive;
+    private final Executor executor;
+    private final long requestTimeout;
+    private final boolean compression;
+    private final RestCache cache;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final RetryPolicy retryPolicy;
+    private final int circuitBreakerThreshold;
+    private final long circuitBreakerDuration;
+    private final CircuitBreaker.Listener circuitBreakerListener;
+    private final long hedgeDelay;
+    private final boolean coalescing;
+    private final long coalescingWindow;
+
+    private RestClientSettings(Builder builder) {
+        this.maxConnectionsPerHost = builder.maxConnectionsPerHost;
+        this.keepAlive = builder.keepAlive;
+        this.executor = builder.executor;
+        this.requestTimeout = builder.requestTimeout;
+        this.compression = builder.compression;
+        this.cache = builder.cache;
+        this.connectTimeout = builder.connectTimeout;
+        this.readTimeout = builder.readTimeout;
+        this.retryPolicy = builder.retryPolicy;
+        this.circuitBreakerThreshold = builder.circuitBreakerThreshold;
+        this.circuitBreakerDuration = builder.circuitBreakerDuration;
+        this.circuitBreakerListener = builder.circuitBreakerListener;
+        this.hedgeDelay = builder.hedgeDelay;
+        this.coalescing = builder.coalescing;
+        this.coalescingWindow = builder.coalescingWindow;
+    }
+
+    /**
+     * Returns the default settings
+     *
+     * @return the settings
+     */
+    public static RestClientSettings defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Creates a new builder initialized with the default settings
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the maximum amount of requests that are executed concurrently per host,
+     * further requests wait until a connection is available
+     *
+     * @return the limit
+     */
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * Returns if connections are kept alive to be reused by following requests
+     *
+     * @return the keep-alive state
+     */
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Returns the executor that runs asynchronous requests
+     *
+     * @return the executor or {@code null} if the shared default executor is used
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the time in milliseconds after which an asynchronous request is aborted
+     *
+     * @return the timeout, {@code 0} if requests never time out
+     */
+    public long getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * Returns if the client asks for gzip compressed responses
+     *
+     * @return the compression state
+     */
+    public boolean isCompression() {
+        return compression;
+    }
+
+    /**
+     * Returns the cache that stores the responses of GET requests
+     *
+     * @return the cache or {@code null} if responses are not cached
+     */
+    public RestCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Returns the time in milliseconds after which connecting to a host fails
+     *
+     * @return the timeout, {@code 0} if connecting never times out
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Returns the time in milliseconds after which waiting for data of the response fails
+     *
+     * @return the timeout, {@code 0} if reads never time out
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Returns the policy that retries failed GET requests
+     *
+     * @return the policy
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Returns the amount of consecutive failures that open the circuit breaker of a host
+     *
+     * @return the threshold, {@code 0} if circuit breakers are disabled
+     */
+    public int getCircuitBreakerThreshold() {
+        return circuitBreakerThreshold;
+    }
+
+    /**
+     * Returns the time in milliseconds an opened circuit breaker rejects requests
+     *
+     * @return the duration
+     */
+    public long getCircuitBreakerDuration() {
+        return circuitBreakerDuration;
+    }
+
+    /**
+     * Returns the listener that is notified about state transitions of circuit breakers
+     *
+     * @return the listener or {@code null}
+     */
+    public CircuitBreaker.Listener getCircuitBreakerListener() {
+        return circuitBreakerListener;
+    }
+
+    /**
+     * Returns the time in milliseconds after which a second attempt of a slow GET request is sent
+     *
+     * @return the delay, {@code 0} if requests are not hedged
+     */
+    public long getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    /**
+     * Returns if concurrent GET requests for the same URL share a single request
+     *
+     * @return the coalescing state
+     */
+    public boolean isCoalescing() {
+        return coalescing;
+    }
+
+    /**
+     * Returns the time in milliseconds the response of a coalesced GET request is shared after it completed
+     *
+     * @return the window, {@code 0} if only requests in flight are shared
+     */
+    public long getCoalescingWindow() {
+        return coalescingWindow;
+    }
+
+    /**
+     * Builds {@link RestClientSettings}
+     */
+    public static final class Builder {
+        private int maxConnectionsPerHost = 5;
+        private boolean keepAlive = true;
+        private Executor executor;
+        private long requestTimeout;
+        private boolean compression = true;
+        private RestCache cache;
+        private int connectTimeout = 10000;
+        private int readTimeout = 30000;
+        private RetryPolicy retryPolicy = RetryPolicy.NONE;
+        private int circuitBreakerThreshold;
+        private long circuitBreakerDuration;
+        private CircuitBreaker.Listener circuitBreakerListener;
+        private long hedgeDelay;
+        private boolean coalescing;
+        private long coalescingWindow;
+
+        private Builder() {
+        }
+
+        /**
+         * Enables coalescing of GET requests: requests for the same URL share the request that is in flight and its
+         * response, which is read into memory once and handled by every caller. A successful response is shared for
+         * the window after it completed, so requests that arrive shortly after each other are coalesced as well.
+         * Cancelling a coalesced asynchronous request does not abort the shared request
+         *
+         * @param window the time a response is shared after it completed, {@code 0} to only share requests in flight
+         * @param unit   the unit of the window
+         * @return this builder
+         */
+        public Builder coalescing(long window, TimeUnit unit) {
+            if (window < 0)
+                throw new IllegalArgumentException("window can not be negative");
+            this.coalescing = true;
+            this.coalescingWindow = unit.toMillis(window);
+            return this;
+        }
+
+        /**
+         * Sets the time after which connecting to a host fails
+         *
+         * @param timeout the timeout, {@code 0} to never time out
+         * @param unit    the unit of the timeout
+         * @return this builder
+         */
+        public Builder connectTimeout(long timeout, TimeUnit unit) {
+            this.connectTimeout = toIntMillis(timeout, unit);
+            return this;
+        }
+
+        /**
+         * Sets the time after which waiting for data of the response fails. The timeout applies to every single read,
+         * not to the whole response
+         *
+         * @param timeout the timeout, {@code 0} to never time out
+         * @param unit    the unit of the timeout
+         * @return this builder
+         */
+        public Builder readTimeout(long timeout, TimeUnit unit) {
+            this.readTimeout = toIntMillis(timeout, unit);
+            return this;
+        }
+
+        /**
+         * Sets the policy that retries failed GET requests. Other requests are never retried, since they are not idempotent
+         *
+         * @param retryPolicy the policy
+         * @return this builder
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            if (retryPolicy == null)
+                throw new IllegalArgumentException("retryPolicy can not be null");
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Enables a circuit breaker per host
+         *
+         * @param failureThreshold the amount of consecutive failures that open the breaker
+         * @param openDuration     the time an opened breaker rejects requests before it lets a trial request through
+         * @param unit             the unit of the duration
+         * @return this builder
+         */
+        public Builder circuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+            if (failureThreshold < 1)
+                throw new IllegalArgumentException("failureThreshold has to be positive");
+            if (openDuration < 0)
+                throw new IllegalArgumentException("openDuration can not be negative");
+            this.circuitBreakerThreshold = failureThreshold;
+            this.circuitBreakerDuration = unit.toMillis(openDuration);
+            return this;
+        }
+
+        /**
+         * Sets the listener that is notified about state transitions of circuit breakers
+         *
+         * @param listener the listener, may be null
+         * @return this builder
+         */
+        public Builder circuitBreakerListener(CircuitBreaker.Listener listener) {
+            this.circuitBreakerListener = listener;
+            return this;
+        }
+
+        /**
+         * Enables hedged GET requests: if a request did not complete after the delay, a second attempt is sent and the
+         * first response wins, the other attempt is aborted. Hedged requests are executed on the executor of the client
+         * and are subject to the request timeout, even if they are sent synchronously. Handlers may be invoked for both attempts
+         *
+         * @param delay the delay, usually a high percentile of the latency of the service, {@code 0} to disable hedging
+         * @param unit  the unit of the delay
+         * @return this builder
+         */
+        public Builder hedgeDelay(long delay, TimeUnit unit) {
+            if (delay < 0)
+                throw new IllegalArgumentException("delay can not be negative");
+            this.hedgeDelay = unit.toMillis(delay);
+            return this;
+        }
+
+        private static int toIntMillis(long timeout, TimeUnit unit) {
+            if (timeout < 0)
+                throw new IllegalArgumentException("timeout can not be negative");
+            long millis = unit.toMillis(timeout);
+            if (timeout > 0 && millis == 0) return 1; //0 would disable the timeout
+            return (int) Math.min(Integer.MAX_VALUE, millis);
+        }
+
+        /**
+         * Sets the cache that stores the responses of GET requests, a cache can be shared between clients
+         *
+         * @param cache the cache, {@code null} to disable caching
+         * @return this builder
+         */
+        public Builder cache(RestCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * Sets if the client asks for gzip compressed responses, compressed responses are decompressed while they are read
+         *
+         * @param compression the compression state
+         * @return this builder
+         */
+        public Builder compression(boolean compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        /**
+         * Sets the executor that runs asynchronous requests. Every request occupies a thread of the executor while it is executed,
+         * requests that exceed the per-host limit are queued without occupying a thread
+         *
+         * @param executor the executor, {@code null} to use a shared pool of daemon threads
+         * @return this builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the time after which an asynchronous request is aborted, including the time it waited for a connection
+         *
+         * @param timeout the timeout, {@code 0} to never time out
+         * @param unit    the unit of the timeout
+         * @return this builder
+         */
+        public Builder requestTimeout(long timeout, TimeUnit unit) {
+            if (timeout < 0)
+                throw new IllegalArgumentException("timeout can not be negative");
+            this.requestTimeout = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Sets the maximum amount of requests that are executed concurrently per host.
+         * Limits above {@code http.maxConnections} still work, but the excess connections can not be kept alive
+         *
+         * @param maxConnectionsPerHost the limit
+         * @return this builder
+         */
+        public Builder maxConnectionsPerHost(int maxConnectionsPerHost) {
+            if (maxConnectionsPerHost < 1)
+                throw new IllegalArgumentException("maxConnectionsPerHost has to be positive");
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+            return this;
+        }
+
+        /**
+         * Sets if connections should be kept alive, if disabled every connection is closed after its request
+         *
+         * @param keepAlive the keep-alive state
+         * @return this builder
+         */
+        public Builder keepAlive(boolean keepAlive) {
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        /**
+         * Builds the settings
+         *
+         * @return the settings
+         */
+        public RestClientSettings build() {
+            return new RestClientSettings(this);
+        }
+    }
+}
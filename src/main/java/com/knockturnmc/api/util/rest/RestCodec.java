@@ -0,0 +1,70 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest;
+
+import com.knockturnmc.api.util.ContentType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+
+/**
+ * Converts between objects and the bodies of a {@link ContentType}.
+ * <p>
+ * Codecs work on the streams of the connection, request bodies are written while they are sent and
+ * responses are decoded while they are received. Implementations have to be thread-safe, they are
+ * registered in {@link RestCodecs} or discovered through a {@link java.util.ServiceLoader}.
+ */
+public interface RestCodec {
+
+    /**
+     * Returns the content type this codec handles
+     *
+     * @return the content type
+     */
+    ContentType getContentType();
+
+    /**
+     * Encodes a value into the stream. The stream is flushed, but not closed
+     *
+     * @param value   the value
+     * @param out     the stream
+     * @param charset the charset of the body
+     * @throws IOException if the value could not be encoded or written
+     */
+    void write(Object value, OutputStream out, Charset charset) throws IOException;
+
+    /**
+     * Decodes a value of the given type from the stream
+     *
+     * @param in      the stream
+     * @param charset the charset of the body
+     * @param type    the type of the value, including its generic parameters
+     * @return the value
+     * @throws IOException if the body could not be read or does not match the type
+     */
+    Object read(InputStream in, Charset charset, Type type) throws IOException;
+}
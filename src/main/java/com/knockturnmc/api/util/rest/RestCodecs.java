@@ -0,0 +1,73 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest;
+
+import com.knockturnmc.api.util.ContentType;
+import com.knockturnmc.api.util.rest.json.JsonCodec;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of the {@link RestCodec}s used by {@link com.knockturnmc.api.util.RestClient}.
+ * <p>
+ * A {@link JsonCodec} is registered by default. Codecs listed in
+ * {@code META-INF/services/com.knockturnmc.api.util.rest.RestCodec} replace the built-in ones.
+ */
+public final class RestCodecs {
+
+    private static final Map<ContentType, RestCodec> CODECS = new ConcurrentHashMap<>();
+
+    static {
+        register(new JsonCodec());
+        for (RestCodec codec : ServiceLoader.load(RestCodec.class, RestCodecs.class.getClassLoader())) {
+            register(codec);
+        }
+    }
+
+    private RestCodecs() {
+    }
+
+    /**
+     * Registers a codec, replacing the codec previously registered for its content type
+     *
+     * @param codec the codec
+     */
+    public static void register(RestCodec codec) {
+        if (codec == null)
+            throw new IllegalArgumentException("codec can not be null");
+        CODECS.put(codec.getContentType(), codec);
+    }
+
+    /**
+     * Returns the codec of a content type
+     *
+     * @param contentType the content type
+     * @return the codec or {@code null} if none is registered
+     */
+    public static RestCodec get(ContentType contentType) {
+        return CODECS.get(contentType);
+    }
+}
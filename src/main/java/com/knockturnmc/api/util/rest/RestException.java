@@ -0,0 +1,69 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Thrown if a REST service answered with an error status code
+ */
+public class RestException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+    private final String body;
+
+    /**
+     * Creates a new exception for an error response
+     *
+     * @param url    the requested url
+     * @param status the status code
+     * @param body   the response body
+     */
+    public RestException(URL url, int status, String body) {
+        super("Server returned HTTP response code " + status + " for URL: " + url);
+        this.status = status;
+        this.body = body;
+    }
+
+    /**
+     * Returns the status code of the response
+     *
+     * @return the status code
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the body of the error response
+     *
+     * @return the body
+     */
+    public String getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The response of a REST service whose body is streamed from the connection.
+ * <p>
+ * The body is decompressed on the fly if the server sent it gzip encoded and decoded with the charset
+ * of its {@code Content-Type} header, or UTF-8 if the header does not specify one.
+ * {@link #asString()} reads the body into a buffer that is reused by the thread, so decoding it
+ * only copies the bytes once.
+ */
+public class RestResponse implements Closeable {
+
+    private static final int MAX_RETAINED_BUFFER = 4 * 1024 * 1024;
+    private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<>();
+
+    private final int status;
+    private final Map<String, String> headers;
+    private final InputStream raw;
+    private final InputStream body;
+    private final Charset charset;
+    private final long contentLength;
+
+    /**
+     * Creates a new response
+     *
+     * @param status        the status code
+     * @param headers       the response headers
+     * @param raw           the stream as it is sent by the server
+     * @param body          the decoded body stream, usually the raw stream or a decompressing wrapper of it
+     * @param charset       the charset of the body
+     * @param contentLength the length of the decoded body or {@code -1} if it is unknown
+     */
+    public RestResponse(int status, Map<String, String> headers, InputStream raw, InputStream body, Charset charset, long contentLength) {
+        this.status = status;
+        this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        this.headers.putAll(headers);
+        this.raw = raw;
+        this.body = body;
+        this.charset = charset;
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * Opens the response of a connection, reading the error stream if the server answered with an error status code
+     *
+     * @param connection the connection
+     * @return the response
+     * @throws IOException if the connection failed
+     */
+    public static RestResponse open(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        InputStream raw = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (raw == null) raw = new ByteArrayInputStream(new byte[0]);
+
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> entry : connection.getHeaderFields().entrySet()) {
+            if (entry.getKey() == null || entry.getValue().isEmpty()) continue; //Status line
+            headers.put(entry.getKey(), entry.getValue().get(entry.getValue().size() - 1));
+        }
+
+        InputStream body = raw;
+        long contentLength = connection.getContentLengthLong();
+        if ("gzip".equalsIgnoreCase(headers.get("Content-Encoding"))) {
+            body = new GZIPInputStream(raw, 8192);
+            contentLength = -1;
+        }
+        return new RestResponse(status, headers, raw, body, charsetOf(headers.get("Content-Type")), contentLength);
+    }
+
+    /**
+     * Resolves the charset of a content type header
+     *
+     * @param contentType the content type header
+     * @return the charset, UTF-8 if the header is {@code null}, does not specify a charset or names an unsupported one
+     */
+    public static Charset charsetOf(String contentType) {
+        if (contentType == null) return StandardCharsets.UTF_8;
+        for (String parameter : contentType.split(";")) {
+            parameter = parameter.trim();
+            if (!parameter.regionMatches(true, 0, "charset=", 0, 8)) continue;
+
+            String name = parameter.substring(8).replace("\"", "").trim();
+            try {
+                return Charset.forName(name);
+            } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                return StandardCharsets.UTF_8;
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Returns the status code
+     *
+     * @return the status code
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the value of a header, header names are case insensitive
+     *
+     * @param name the name of the header
+     * @return the value or {@code null} if the header is absent
+     */
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * Returns all headers of the response
+     *
+     * @return the headers
+     */
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * Returns the decoded body stream
+     *
+     * @return the body
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * Returns the stream as it is sent by the server
+     *
+     * @return the raw stream
+     */
+    InputStream getRaw() {
+        return raw;
+    }
+
+    /**
+     * Returns the charset of the body
+     *
+     * @return the charset
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Returns the length of the decoded body
+     *
+     * @return the length or {@code -1} if it is unknown
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Reads the remaining body and decodes it with the charset of the response
+     *
+     * @return the body
+     * @throws IOException if the body could not be read
+     */
+    public String asString() throws IOException {
+        byte[] buffer = BUFFERS.get();
+        BUFFERS.set(null); //Claim the buffer, a nested read allocates its own
+        if (buffer == null) buffer = new byte[8192];
+
+        int length = 0;
+        try {
+            int read;
+            while ((read = body.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+                if (length == buffer.length) buffer = grow(buffer);
+            }
+            return new String(buffer, 0, length, charset);
+        } finally {
+            if (buffer.length <= MAX_RETAINED_BUFFER) BUFFERS.set(buffer);
+        }
+    }
+
+    /**
+     * Reads the remaining body into a heap buffer.
+     * If the length of the body is known it is read directly into a buffer of that size
+     *
+     * @return the buffer, positioned at the start of the body
+     * @throws IOException if the body could not be read
+     */
+    public ByteBuffer asByteBuffer() throws IOException {
+        if (contentLength >= 0 && contentLength <= Integer.MAX_VALUE - 8) {
+            byte[] bytes = new byte[(int) contentLength];
+            int length = 0;
+            while (length < bytes.length) {
+                int read = body.read(bytes, length, bytes.length - length);
+                if (read == -1) throw new EOFException("Response ended after " + length + " of " + contentLength + " bytes");
+                length += read;
+            }
+            return ByteBuffer.wrap(bytes);
+        }
+
+        byte[] bytes = new byte[8192];
+        int length = 0;
+        int read;
+        while ((read = body.read(bytes, length, bytes.length - length)) != -1) {
+            length += read;
+            if (length == bytes.length) bytes = grow(bytes);
+        }
+        return ByteBuffer.wrap(bytes, 0, length).slice();
+    }
+
+    /**
+     * Reads the rest of the response from the connection and closes it, so the connection can be reused.
+     * The decoded body is closed as well, which releases the native inflater of a gzip encoded body
+     *
+     * @throws IOException if the connection failed
+     */
+    @Override
+    public void close() throws IOException {
+        try (InputStream remaining = raw) {
+            byte[] skip = new byte[4096];
+            while (remaining.read(skip) != -1) {
+                //Discard the remaining bytes
+            }
+        } finally {
+            if (body != raw) body.close();
+        }
+    }
+
+    private static byte[] grow(byte[] buffer) {
+        if (buffer.length >= Integer.MAX_VALUE - 8)
+            throw new OutOfMemoryError("Response body is too large");
+        byte[] grown = new byte[(int) Math.min(Integer.MAX_VALUE - 8, buffer.length * 2L)];
+        System.arraycopy(buffer, 0, grown, 0, buffer.length);
+        return grown;
+    }
+}
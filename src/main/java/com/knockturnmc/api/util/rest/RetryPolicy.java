@@ -0,0 +1,193 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides if and when a failed idempotent request is retried.
+ * <p>
+ * Requests are retried after connection failures, timeouts and the configured status codes, waiting an exponentially
+ * growing backoff between the attempts. Half of every backoff is randomized, so clients that failed at the same time
+ * do not retry at the same time.
+ */
+public final class RetryPolicy {
+
+    /**
+     * A policy that never retries
+     */
+    public static final RetryPolicy NONE = builder().maxRetries(0).build();
+
+    private final int maxRetries;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final double multiplier;
+    private final int[] retryStatuses;
+
+    private RetryPolicy(Builder builder) {
+        this.maxRetries = builder.maxRetries;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.multiplier = builder.multiplier;
+        this.retryStatuses = builder.retryStatuses.clone();
+        Arrays.sort(this.retryStatuses);
+    }
+
+    /**
+     * Creates a new builder that retries three times, starting with a backoff of 100 milliseconds
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the maximum amount of retries after the first attempt
+     *
+     * @return the amount of retries
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Returns if a failed attempt should be retried
+     *
+     * @param failure the failure of the attempt
+     * @param retries the amount of retries that were already executed
+     * @return true if the request should be retried
+     */
+    public boolean shouldRetry(Throwable failure, int retries) {
+        if (retries >= maxRetries) return false;
+        if (failure instanceof CircuitBreakerOpenException) return false; //Fail fast
+        if (failure instanceof RestException) return Arrays.binarySearch(retryStatuses, ((RestException) failure).getStatus()) >= 0;
+        if (failure.getClass() == InterruptedIOException.class) return false; //The thread was interrupted, timeouts are subclasses
+        return failure instanceof IOException;
+    }
+
+    /**
+     * Returns the time to wait before the next retry
+     *
+     * @param retries the amount of retries that were already executed
+     * @return the backoff in milliseconds
+     */
+    public long getBackoff(int retries) {
+        double backoff = Math.min(maxBackoff, initialBackoff * Math.pow(multiplier, retries));
+        long half = (long) (backoff / 2);
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    /**
+     * Builds {@link RetryPolicy}s
+     */
+    public static final class Builder {
+        private int maxRetries = 3;
+        private long initialBackoff = 100;
+        private long maxBackoff = 10000;
+        private double multiplier = 2;
+        private int[] retryStatuses = {429, 502, 503, 504};
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum amount of retries after the first attempt
+         *
+         * @param maxRetries the amount of retries
+         * @return this builder
+         */
+        public Builder maxRetries(int maxRetries) {
+            if (maxRetries < 0)
+                throw new IllegalArgumentException("maxRetries can not be negative");
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Sets the backoff before the first retry
+         *
+         * @param backoff the backoff
+         * @param unit    the unit of the backoff
+         * @return this builder
+         */
+        public Builder backoff(long backoff, TimeUnit unit) {
+            if (backoff < 0)
+                throw new IllegalArgumentException("backoff can not be negative");
+            this.initialBackoff = unit.toMillis(backoff);
+            return this;
+        }
+
+        /**
+         * Sets the upper bound of the backoff
+         *
+         * @param maxBackoff the maximum backoff
+         * @param unit       the unit of the backoff
+         * @return this builder
+         */
+        public Builder maxBackoff(long maxBackoff, TimeUnit unit) {
+            if (maxBackoff < 0)
+                throw new IllegalArgumentException("maxBackoff can not be negative");
+            this.maxBackoff = unit.toMillis(maxBackoff);
+            return this;
+        }
+
+        /**
+         * Sets the factor the backoff grows by after every retry
+         *
+         * @param multiplier the factor
+         * @return this builder
+         */
+        public Builder multiplier(double multiplier) {
+            if (multiplier < 1)
+                throw new IllegalArgumentException("multiplier can not be less than 1");
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * Sets the status codes of error responses that are retried
+         *
+         * @param statuses the status codes
+         * @return this builder
+         */
+        public Builder retryOn(int... statuses) {
+            this.retryStatuses = statuses.clone();
+            return this;
+        }
+
+        /**
+         * Builds the policy
+         *
+         * @return the policy
+         */
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,431 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest.json;
+
+import com.knockturnmc.api.util.ContentType;
+import com.knockturnmc.api.util.Utils;
+import com.knockturnmc.api.util.rest.RestCodec;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link RestCodec} that maps JSON documents to objects while they are streamed.
+ * <p>
+ * Supported are strings, numbers, booleans, characters, enums (by name), {@link UUID}s, arrays,
+ * collections, maps and plain objects. Plain objects are mapped by their non-static, non-transient fields
+ * and need a no-argument constructor, unknown properties are skipped. Values declared as {@link Object}
+ * are read as {@link Map}, {@link List}, {@link String}, {@link Long}, {@link Double}, {@link BigInteger}
+ * or {@link Boolean}. Cyclic object graphs can not be written.
+ */
+public class JsonCodec implements RestCodec {
+
+    private static final ClassValue<Binding> BINDINGS = new ClassValue<Binding>() {
+        @Override
+        protected Binding computeValue(Class<?> type) {
+            return new Binding(type);
+        }
+    };
+
+    @Override
+    public ContentType getContentType() {
+        return ContentType.JSON;
+    }
+
+    @Override
+    public void write(Object value, OutputStream out, Charset charset) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, charset));
+        write(new JsonWriter(writer), value);
+        writer.flush();
+    }
+
+    @Override
+    public Object read(InputStream in, Charset charset, Type type) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(in, charset));
+        Object value = read(reader, type);
+        reader.peek(); //Fails on trailing data
+        return value;
+    }
+
+    /**
+     * Writes a value to a JSON writer
+     *
+     * @param writer the writer
+     * @param value  the value, may be null
+     * @throws IOException if the value could not be written
+     */
+    public void write(JsonWriter writer, Object value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+        } else if (value instanceof CharSequence || value instanceof Character || value instanceof UUID) {
+            writer.value(value.toString());
+        } else if (value instanceof Boolean) {
+            writer.value((boolean) value);
+        } else if (value instanceof Number) {
+            writer.value((Number) value);
+        } else if (value instanceof Enum) {
+            writer.value(((Enum<?>) value).name());
+        } else if (value instanceof Map) {
+            writer.beginObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                Object key = entry.getKey();
+                writer.name(key instanceof Enum ? ((Enum<?>) key).name() : String.valueOf(key));
+                write(writer, entry.getValue());
+            }
+            writer.endObject();
+        } else if (value instanceof Iterable) {
+            writer.beginArray();
+            for (Object element : (Iterable<?>) value) {
+                write(writer, element);
+            }
+            writer.endArray();
+        } else if (value.getClass().isArray()) {
+            writer.beginArray();
+            for (int i = 0, length = Array.getLength(value); i < length; i++) {
+                write(writer, Array.get(value, i));
+            }
+            writer.endArray();
+        } else {
+            Binding binding = binding(value.getClass());
+            writer.beginObject();
+            for (Map.Entry<String, Field> entry : binding.fields.entrySet()) {
+                writer.name(entry.getKey());
+                write(writer, binding.get(entry.getValue(), value));
+            }
+            writer.endObject();
+        }
+    }
+
+    /**
+     * Reads a value of the given type from a JSON reader
+     *
+     * @param reader the reader
+     * @param type   the type of the value, including its generic parameters
+     * @return the value
+     * @throws IOException if the value could not be read or does not match the type
+     */
+    public Object read(JsonReader reader, Type type) throws IOException {
+        Class<?> raw = rawType(type);
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return raw.isPrimitive() ? Array.get(Array.newInstance(raw, 1), 0) : null;
+        }
+
+        if (raw == Object.class) return readNatural(reader);
+        if (raw == String.class || raw == CharSequence.class)
+            return token == JsonToken.BOOLEAN ? String.valueOf(reader.nextBoolean()) : reader.nextString();
+        if (raw == boolean.class || raw == Boolean.class) return reader.nextBoolean();
+        if (raw == int.class || raw == Integer.class) return reader.nextInt();
+        if (raw == long.class || raw == Long.class) return reader.nextLong();
+        if (raw == double.class || raw == Double.class) return reader.nextDouble();
+        if (raw == float.class || raw == Float.class) return (float) reader.nextDouble();
+        if (raw == short.class || raw == Short.class) return (short) checkRange(reader.nextInt(), Short.MIN_VALUE, Short.MAX_VALUE);
+        if (raw == byte.class || raw == Byte.class) return (byte) checkRange(reader.nextInt(), Byte.MIN_VALUE, Byte.MAX_VALUE);
+        if (raw == char.class || raw == Character.class) {
+            String value = reader.nextString();
+            if (value.length() != 1) throw new JsonException("Expected a single character but was \"" + value + "\"");
+            return value.charAt(0);
+        }
+        if (raw == Number.class) return parseNumber(reader.nextString());
+        if (raw == BigDecimal.class || raw == BigInteger.class || raw == UUID.class || raw.isEnum())
+            return convert(reader.nextString(), raw);
+        if (raw.isArray()) return readArray(reader, type, raw);
+        if (Collection.class.isAssignableFrom(raw)) return readCollection(reader, type, raw);
+        if (Map.class.isAssignableFrom(raw)) return readMap(reader, type, raw);
+        return readObject(reader, raw);
+    }
+
+    private Object readArray(JsonReader reader, Type type, Class<?> raw) throws IOException {
+        Type componentType = type instanceof GenericArrayType ? ((GenericArrayType) type).getGenericComponentType() : raw.getComponentType();
+        List<Object> elements = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            elements.add(read(reader, componentType));
+        }
+        reader.endArray();
+
+        Object array = Array.newInstance(raw.getComponentType(), elements.size());
+        for (int i = 0; i < elements.size(); i++) {
+            Array.set(array, i, elements.get(i));
+        }
+        return array;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readCollection(JsonReader reader, Type type, Class<?> raw) throws IOException {
+        Collection<Object> collection;
+        if (!isAbstract(raw)) {
+            collection = (Collection<Object>) instantiate(raw);
+        } else if (raw.isAssignableFrom(ArrayList.class)) {
+            collection = new ArrayList<>();
+        } else if (raw.isAssignableFrom(LinkedHashSet.class)) {
+            collection = new LinkedHashSet<>();
+        } else if (raw.isAssignableFrom(TreeSet.class)) {
+            collection = new TreeSet<>();
+        } else if (raw.isAssignableFrom(ArrayDeque.class)) {
+            collection = new ArrayDeque<>();
+        } else {
+            throw new JsonException("Unsupported collection type " + raw.getName());
+        }
+
+        Type elementType = typeArgument(type, 0);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            collection.add(read(reader, elementType));
+        }
+        reader.endArray();
+        return collection;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readMap(JsonReader reader, Type type, Class<?> raw) throws IOException {
+        Map<Object, Object> map;
+        if (!isAbstract(raw)) {
+            map = (Map<Object, Object>) instantiate(raw);
+        } else if (raw.isAssignableFrom(LinkedHashMap.class)) {
+            map = new LinkedHashMap<>();
+        } else if (raw.isAssignableFrom(TreeMap.class)) {
+            map = new TreeMap<>();
+        } else if (raw.isAssignableFrom(ConcurrentHashMap.class)) {
+            map = new ConcurrentHashMap<>();
+        } else {
+            throw new JsonException("Unsupported map type " + raw.getName());
+        }
+
+        Class<?> keyType = rawType(typeArgument(type, 0));
+        Type valueType = typeArgument(type, 1);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            Object key = convert(reader.nextName(), keyType);
+            map.put(key, read(reader, valueType));
+        }
+        reader.endObject();
+        return map;
+    }
+
+    private Object readObject(JsonReader reader, Class<?> raw) throws IOException {
+        Binding binding = binding(raw);
+        Object instance = instantiate(raw);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            Field field = binding.fields.get(reader.nextName());
+            if (field == null) {
+                reader.skipValue();
+            } else {
+                binding.set(field, instance, read(reader, field.getGenericType()));
+            }
+        }
+        reader.endObject();
+        return instance;
+    }
+
+    private Object readNatural(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    map.put(reader.nextName(), readNatural(reader));
+                }
+                reader.endObject();
+                return map;
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    list.add(readNatural(reader));
+                }
+                reader.endArray();
+                return list;
+            case NUMBER:
+                return parseNumber(reader.nextString());
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                return reader.nextString();
+        }
+    }
+
+    private static Number parseNumber(String number) throws JsonException {
+        try {
+            if (number.indexOf('.') >= 0 || number.indexOf('e') >= 0 || number.indexOf('E') >= 0)
+                return Double.parseDouble(number);
+            try {
+                return Long.parseLong(number);
+            } catch (NumberFormatException e) {
+                return new BigInteger(number);
+            }
+        } catch (NumberFormatException e) {
+            throw new JsonException("Expected a number but was " + number, e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object convert(String value, Class<?> type) throws JsonException {
+        try {
+            if (type == String.class || type == Object.class || type == CharSequence.class) return value;
+            if (type.isEnum()) return Enum.valueOf((Class) type, value);
+            if (type == UUID.class) return Utils.formatUUID(value);
+            if (type == BigDecimal.class) return new BigDecimal(value);
+            if (type == BigInteger.class) return new BigInteger(value);
+            if (type == Integer.class) return Integer.valueOf(value);
+            if (type == Long.class) return Long.valueOf(value);
+            if (type == Double.class) return Double.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new JsonException("Can not convert \"" + value + "\" to " + type.getName(), e);
+        }
+        throw new JsonException("Unsupported key type " + type.getName());
+    }
+
+    private static int checkRange(int value, int min, int max) throws JsonException {
+        if (value < min || value > max) throw new JsonException("Value " + value + " is out of range");
+        return value;
+    }
+
+    private static boolean isAbstract(Class<?> type) {
+        return type.isInterface() || Modifier.isAbstract(type.getModifiers());
+    }
+
+    private static Object instantiate(Class<?> type) throws JsonException {
+        Constructor<?> constructor = type.isInterface() ? null : binding(type).constructor;
+        if (constructor == null) throw new JsonException("Can not instantiate " + type.getName() + " without a no-argument constructor");
+        try {
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new JsonException("Can not instantiate " + type.getName(), e);
+        }
+    }
+
+    private static Binding binding(Class<?> type) throws JsonException {
+        Binding binding = BINDINGS.get(type);
+        if (binding.error != null) throw new JsonException("Can not bind " + type.getName(), binding.error);
+        return binding;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) return (Class<?>) type;
+        if (type instanceof ParameterizedType) return rawType(((ParameterizedType) type).getRawType());
+        if (type instanceof GenericArrayType)
+            return Array.newInstance(rawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        if (type instanceof WildcardType) return rawType(((WildcardType) type).getUpperBounds()[0]);
+        if (type instanceof TypeVariable) return rawType(((TypeVariable<?>) type).getBounds()[0]);
+        return Object.class;
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            if (index < arguments.length) return arguments[index];
+        }
+        return Object.class;
+    }
+
+    /**
+     * The cached reflective view of a class
+     */
+    private static final class Binding {
+        private final Map<String, Field> fields;
+        private final Constructor<?> constructor;
+        private final RuntimeException error;
+
+        private Binding(Class<?> type) {
+            Map<String, Field> fields = new LinkedHashMap<>();
+            Constructor<?> constructor = null;
+            RuntimeException error = null;
+            try {
+                for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                    for (Field field : current.getDeclaredFields()) {
+                        int modifiers = field.getModifiers();
+                        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) continue;
+                        if (fields.containsKey(field.getName())) continue; //Shadowed by a subclass
+                        field.setAccessible(true);
+                        fields.put(field.getName(), field);
+                    }
+                }
+                if (!isAbstract(type)) {
+                    try {
+                        constructor = type.getDeclaredConstructor();
+                        constructor.setAccessible(true);
+                    } catch (NoSuchMethodException e) {
+                        constructor = null;
+                    }
+                }
+            } catch (RuntimeException e) { //Inaccessible classes of other modules
+                error = e;
+            }
+            this.fields = Collections.unmodifiableMap(fields);
+            this.constructor = constructor;
+            this.error = error;
+        }
+
+        private Object get(Field field, Object instance) throws JsonException {
+            try {
+                return field.get(instance);
+            } catch (IllegalAccessException e) {
+                throw new JsonException("Can not read " + field, e);
+            }
+        }
+
+        private void set(Field field, Object instance, Object value) throws JsonException {
+            try {
+                field.set(instance, value);
+            } catch (IllegalAccessException | IllegalArgumentException e) {
+                throw new JsonException("Can not write " + field, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,491 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * A pull parser that reads a JSON document (RFC 8259) token by token from a {@link Reader}.
+ * <p>
+ * Only the current token is held in memory, so documents of any size can be consumed while they are streamed.
+ * The reader is not thread-safe.
+ */
+public class JsonReader implements Closeable {
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder builder = new StringBuilder();
+    private int pos;
+    private int limit;
+    private long offset;
+
+    private int[] stack = new int[32];
+    private int depth;
+
+    private JsonToken peeked;
+    private String value;
+
+    /**
+     * Creates a new reader
+     *
+     * @param in the source of the document
+     */
+    public JsonReader(Reader in) {
+        if (in == null)
+            throw new IllegalArgumentException("in can not be null");
+        this.in = in;
+        this.stack[depth++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Returns the type of the next token without consuming it
+     *
+     * @return the next token
+     * @throws IOException if the document is malformed or can not be read
+     */
+    public JsonToken peek() throws IOException {
+        if (peeked != null) return peeked;
+
+        int scope = stack[depth - 1];
+        switch (scope) {
+            case EMPTY_ARRAY:
+            case NONEMPTY_ARRAY: {
+                int c = nextNonWhitespace(true);
+                if (c == ']') return peeked = JsonToken.END_ARRAY;
+                if (scope == NONEMPTY_ARRAY) {
+                    if (c != ',') throw syntaxError("Expected ',' or ']'");
+                } else {
+                    pos--;
+                }
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                break;
+            }
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT: {
+                int c = nextNonWhitespace(true);
+                if (c == '}') return peeked = JsonToken.END_OBJECT;
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') throw syntaxError("Expected ',' or '}'");
+                    c = nextNonWhitespace(true);
+                }
+                if (c != '"') throw syntaxError("Expected a name");
+                value = readString();
+                stack[depth - 1] = DANGLING_NAME;
+                return peeked = JsonToken.NAME;
+            }
+            case DANGLING_NAME:
+                if (nextNonWhitespace(true) != ':') throw syntaxError("Expected ':'");
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                break;
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                break;
+            default:
+                if (nextNonWhitespace(false) != -1) throw syntaxError("Expected the end of the document");
+                return peeked = JsonToken.END_DOCUMENT;
+        }
+
+        int c = nextNonWhitespace(true);
+        switch (c) {
+            case '{':
+                return peeked = JsonToken.BEGIN_OBJECT;
+            case '[':
+                return peeked = JsonToken.BEGIN_ARRAY;
+            case '"':
+                value = readString();
+                return peeked = JsonToken.STRING;
+            case 't':
+                readLiteral("rue");
+                value = "true";
+                return peeked = JsonToken.BOOLEAN;
+            case 'f':
+                readLiteral("alse");
+                value = "false";
+                return peeked = JsonToken.BOOLEAN;
+            case 'n':
+                readLiteral("ull");
+                value = null;
+                return peeked = JsonToken.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    value = readNumber(c);
+                    return peeked = JsonToken.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * Returns if the current array or object has another element
+     *
+     * @return true if there is another element
+     * @throws IOException if the document is malformed or can not be read
+     */
+    public boolean hasNext() throws IOException {
+        JsonToken token = peek();
+        return token != JsonToken.END_ARRAY && token != JsonToken.END_OBJECT && token != JsonToken.END_DOCUMENT;
+    }
+
+    /**
+     * Consumes the beginning of an array
+     *
+     * @throws IOException if the next token is not the beginning of an array
+     */
+    public void beginArray() throws IOException {
+        expect(JsonToken.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    /**
+     * Consumes the end of the current array
+     *
+     * @throws IOException if the next token is not the end of an array
+     */
+    public void endArray() throws IOException {
+        expect(JsonToken.END_ARRAY);
+        depth--;
+    }
+
+    /**
+     * Consumes the beginning of an object
+     *
+     * @throws IOException if the next token is not the beginning of an object
+     */
+    public void beginObject() throws IOException {
+        expect(JsonToken.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    /**
+     * Consumes the end of the current object
+     *
+     * @throws IOException if the next token is not the end of an object
+     */
+    public void endObject() throws IOException {
+        expect(JsonToken.END_OBJECT);
+        depth--;
+    }
+
+    /**
+     * Consumes the next property name
+     *
+     * @return the name
+     * @throws IOException if the next token is not a name
+     */
+    public String nextName() throws IOException {
+        expect(JsonToken.NAME);
+        return value;
+    }
+
+    /**
+     * Consumes the next string. Numbers are returned as their literal text
+     *
+     * @return the string
+     * @throws IOException if the next token is neither a string nor a number
+     */
+    public String nextString() throws IOException {
+        JsonToken token = peek();
+        if (token != JsonToken.STRING && token != JsonToken.NUMBER)
+            throw unexpected(JsonToken.STRING, token);
+        peeked = null;
+        return value;
+    }
+
+    /**
+     * Consumes the next boolean
+     *
+     * @return the boolean
+     * @throws IOException if the next token is not a boolean
+     */
+    public boolean nextBoolean() throws IOException {
+        expect(JsonToken.BOOLEAN);
+        return value.equals("true");
+    }
+
+    /**
+     * Consumes the next null literal
+     *
+     * @throws IOException if the next token is not null
+     */
+    public void nextNull() throws IOException {
+        expect(JsonToken.NULL);
+    }
+
+    /**
+     * Consumes the next number as a long
+     *
+     * @return the number
+     * @throws IOException if the next token is not a number or does not fit into a long
+     */
+    public long nextLong() throws IOException {
+        String number = nextNumber();
+        try {
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            double asDouble = parseDouble(number);
+            if ((long) asDouble != asDouble) throw syntaxError("Expected a long but was " + number);
+            return (long) asDouble;
+        }
+    }
+
+    /**
+     * Consumes the next number as an int
+     *
+     * @return the number
+     * @throws IOException if the next token is not a number or does not fit into an int
+     */
+    public int nextInt() throws IOException {
+        long number = nextLong();
+        if ((int) number != number) throw syntaxError("Expected an int but was " + number);
+        return (int) number;
+    }
+
+    /**
+     * Consumes the next number as a double
+     *
+     * @return the number
+     * @throws IOException if the next token is not a number
+     */
+    public double nextDouble() throws IOException {
+        return parseDouble(nextNumber());
+    }
+
+    /**
+     * Skips the next value, including all nested values of arrays and objects
+     *
+     * @throws IOException if the document is malformed or can not be read
+     */
+    public void skipValue() throws IOException {
+        int nesting = 0;
+        do {
+            JsonToken token = peek();
+            switch (token) {
+                case BEGIN_ARRAY:
+                    beginArray();
+                    nesting++;
+                    break;
+                case BEGIN_OBJECT:
+                    beginObject();
+                    nesting++;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    nesting--;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    nesting--;
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("Expected a value");
+                default:
+                    peeked = null;
+                    break;
+            }
+        } while (nesting > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = null;
+        depth = 0;
+        in.close();
+    }
+
+    private String nextNumber() throws IOException {
+        JsonToken token = peek();
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING) //Quoted numbers are common for 64 bit ids
+            throw unexpected(JsonToken.NUMBER, token);
+        peeked = null;
+        return value;
+    }
+
+    private double parseDouble(String number) throws JsonException {
+        try {
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Expected a number but was " + number);
+        }
+    }
+
+    private void expect(JsonToken expected) throws IOException {
+        JsonToken token = peek();
+        if (token != expected) throw unexpected(expected, token);
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+        stack[depth++] = scope;
+    }
+
+    private boolean fill() throws IOException {
+        offset += limit;
+        pos = 0;
+        limit = 0;
+        int read;
+        while ((read = in.read(buffer)) == 0) ;
+        if (read < 0) return false;
+        limit = read;
+        return true;
+    }
+
+    private int nextNonWhitespace(boolean required) throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                if (required) throw syntaxError("Unexpected end of the document");
+                return -1;
+            }
+            char c = buffer[pos++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c;
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) throw syntaxError("Unexpected end of the document");
+        return buffer[pos++];
+    }
+
+    private void readLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (read() != rest.charAt(i)) throw syntaxError("Unexpected literal");
+        }
+    }
+
+    private String readString() throws IOException {
+        builder.setLength(0);
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos++];
+                if (c == '"') {
+                    if (builder.length() == 0) return new String(buffer, start, pos - start - 1);
+                    builder.append(buffer, start, pos - start - 1);
+                    return builder.toString();
+                } else if (c == '\\') {
+                    builder.append(buffer, start, pos - start - 1);
+                    builder.append(readEscape());
+                    start = pos;
+                } else if (c < 0x20) {
+                    throw syntaxError("Unescaped control character in string");
+                }
+            }
+            builder.append(buffer, start, pos - start);
+            if (!fill()) throw syntaxError("Unterminated string");
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int result = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) throw syntaxError("Invalid unicode escape");
+                    result = (result << 4) | digit;
+                }
+                return (char) result;
+            default:
+                throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    private String readNumber(int first) throws IOException {
+        builder.setLength(0);
+        builder.append((char) first);
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                builder.append(c);
+                pos++;
+            } else {
+                break;
+            }
+        }
+        String number = builder.toString();
+        if (!isValidNumber(number)) throw syntaxError("Malformed number " + number);
+        return number;
+    }
+
+    private static boolean isValidNumber(String number) {
+        int i = 0;
+        int length = number.length();
+        if (number.charAt(i) == '-') i++;
+        if (i == length) return false;
+        if (number.charAt(i) == '0') {
+            i++;
+        } else {
+            int start = i;
+            while (i < length && Character.isDigit(number.charAt(i))) i++;
+            if (i == start) return false;
+        }
+        if (i < length && number.charAt(i) == '.') {
+            int start = ++i;
+            while (i < length && Character.isDigit(number.charAt(i))) i++;
+            if (i == start) return false;
+        }
+        if (i < length && (number.charAt(i) == 'e' || number.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (number.charAt(i) == '+' || number.charAt(i) == '-')) i++;
+            int start = i;
+            while (i < length && Character.isDigit(number.charAt(i))) i++;
+            if (i == start) return false;
+        }
+        return i == length;
+    }
+
+    private JsonException unexpected(JsonToken expected, JsonToken actual) {
+        return syntaxError("Expected " + expected + " but was " + actual);
+    }
+
+    private JsonException syntaxError(String message) {
+        return new JsonException(message + " at offset " + (offset + pos));
+    }
+}
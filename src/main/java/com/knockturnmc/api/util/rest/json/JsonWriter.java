@@ -0,0 +1,311 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest.json;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Writes a JSON document (RFC 8259) token by token to a {@link Writer}.
+ * <p>
+ * Values are written as soon as they are passed, nothing but the nesting of the document is held in memory.
+ * The writer is not thread-safe.
+ */
+public class JsonWriter implements Closeable, Flushable {
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private static final String[] REPLACEMENTS = new String[128];
+
+    static {
+        for (int i = 0; i < 0x20; i++) {
+            REPLACEMENTS[i] = String.format("\\u%04x", i);
+        }
+        REPLACEMENTS['"'] = "\\\"";
+        REPLACEMENTS['\\'] = "\\\\";
+        REPLACEMENTS['\t'] = "\\t";
+        REPLACEMENTS['\b'] = "\\b";
+        REPLACEMENTS['\n'] = "\\n";
+        REPLACEMENTS['\r'] = "\\r";
+        REPLACEMENTS['\f'] = "\\f";
+    }
+
+    private final Writer out;
+    private int[] stack = new int[32];
+    private int depth;
+
+    /**
+     * Creates a new writer
+     *
+     * @param out the target of the document
+     */
+    public JsonWriter(Writer out) {
+        if (out == null)
+            throw new IllegalArgumentException("out can not be null");
+        this.out = out;
+        this.stack[depth++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Begins a new array
+     *
+     * @return this writer
+     * @throws IOException if the document could not be written
+     */
+    public JsonWriter beginArray() throws IOException {
+        beforeValue();
+        push(EMPTY_ARRAY);
+        out.write('[');
+        return this;
+    }
+
+    /**
+     * Ends the current array
+     *
+     * @return this writer
+     * @throws IOException if the document could not be written
+     */
+    public JsonWriter endArray() throws IOException {
+        return close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+    }
+
+    /**
+     * Begins a new object
+     *
+     * @return this writer
+     * @throws IOException if the document could not be written
+     */
+    public JsonWriter beginObject() throws IOException {
+        beforeValue();
+        push(EMPTY_OBJECT);
+        out.write('{');
+        return this;
+    }
+
+    /**
+     * Ends the current object
+     *
+     * @return this writer
+     * @throws IOException if the document could not be written
+     */
+    public JsonWriter endObject() throws IOException {
+        return close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+    }
+
+    /**
+     * Writes the name of the next property of the current object
+     *
+     * @param name the name
+     * @return this writer
+     * @throws IOException if the document could not be written
+     */
+    public JsonWriter name(String name) throws IOException {
+        if (name == null)
+            throw new IllegalArgumentException("name can not be null");
+        int scope = stack[depth - 1];
+        if (scope == NONEMPTY_OBJECT) {
+            out.write(',');
+        } else if (scope != EMPTY_OBJECT) {
+            throw new IllegalStateException("A name can only be written inside of an object");
+        }
+        stack[depth - 1] = DANGLING_NAME;
+        string(name);
+        return this;
+    }
+
+    /**
+     * Writes a string value
+     *
+     * @param value the value, may be null
+     * @return this writer
+     * @throws IOException if the document could not be written
+     */
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) return nullValue();
+        beforeValue();
+        string(value);
+        return this;
+    }
+
+    /**
+     * Writes a boolean value
+     *
+     * @param value the value
+     * @return this writer
+     * @throws IOException if the document could not be written
+     */
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes a long value
+     *
+     * @param value the value
+     * @return this writer
+     * @throws IOException if the document could not be written
+     */
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a double value
+     *
+     * @param value the value
+     * @return this writer
+     * @throws IOException if the document could not be written
+     * @throws IllegalArgumentException if the value is NaN or infinite
+     */
+    public JsonWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value))
+            throw new IllegalArgumentException("JSON does not support " + value);
+        beforeValue();
+        out.write(Double.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a number value
+     *
+     * @param value the value, may be null
+     * @return this writer
+     * @throws IOException if the document could not be written
+     * @throws IllegalArgumentException if the value is NaN or infinite
+     */
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null) return nullValue();
+        if (value instanceof Double || value instanceof Float) return value(value.doubleValue());
+        String literal = value.toString();
+        if (literal.equals("NaN") || literal.endsWith("Infinity"))
+            throw new IllegalArgumentException("JSON does not support " + literal);
+        beforeValue();
+        out.write(literal);
+        return this;
+    }
+
+    /**
+     * Writes a null value
+     *
+     * @return this writer
+     * @throws IOException if the document could not be written
+     */
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Closes the underlying writer
+     *
+     * @throws IOException if the writer could not be closed
+     * @throws IllegalStateException if the document is incomplete
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+        if (depth > 1 || stack[0] != NONEMPTY_DOCUMENT)
+            throw new IllegalStateException("Incomplete document");
+    }
+
+    private void beforeValue() throws IOException {
+        switch (stack[depth - 1]) {
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                break;
+            case EMPTY_ARRAY:
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                break;
+            case NONEMPTY_ARRAY:
+                out.write(',');
+                break;
+            case DANGLING_NAME:
+                out.write(':');
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                break;
+            case NONEMPTY_DOCUMENT:
+                throw new IllegalStateException("A document can only contain a single value");
+            default:
+                throw new IllegalStateException("Expected a name");
+        }
+    }
+
+    private JsonWriter close(int empty, int nonempty, char bracket) throws IOException {
+        int scope = stack[depth - 1];
+        if (scope != empty && scope != nonempty)
+            throw new IllegalStateException("Nesting problem");
+        depth--;
+        out.write(bracket);
+        return this;
+    }
+
+    private void push(int scope) {
+        if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+        stack[depth++] = scope;
+    }
+
+    private void string(String value) throws IOException {
+        out.write('"');
+        int last = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c < 128) {
+                replacement = REPLACEMENTS[c];
+                if (replacement == null) continue;
+            } else if (c == '\u2028') {
+                replacement = "\\u2028";
+            } else if (c == '\u2029') {
+                replacement = "\\u2029";
+            } else {
+                continue;
+            }
+            if (last < i) out.write(value, last, i - last);
+            out.write(replacement);
+            last = i + 1;
+        }
+        if (last < length) out.write(value, last, length - last);
+        out.write('"');
+    }
+}
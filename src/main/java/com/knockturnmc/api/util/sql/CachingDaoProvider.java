@@ -0,0 +1,290 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.sql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link DaoProvider} decorator that places a read-through cache in front of the daos of another provider.
+ * <p>
+ * Each dao type gets its own bounded cache. Methods annotated with {@link Cached} are served from that cache,
+ * keyed by the method and its arguments. Methods annotated with {@link InvalidatesCache} invalidate the cache
+ * of their dao after they returned, either completely or only the results whose first argument is the key of the
+ * modified entity. Only daos that are requested by their interface can be cached, other daos
+ * are returned as they are.
+ */
+public class CachingDaoProvider implements DaoProvider {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final Map<Class<?>, EntityCache<CacheKey, Object>> caches = new ConcurrentHashMap<>();
+    private final DaoProvider provider;
+    private final int maximumSize;
+    private final long ttl;
+
+    /**
+     * Creates a new caching dao provider
+     *
+     * @param provider    the provider that creates the actual daos
+     * @param maximumSize the maximum amount of cached results per dao type
+     * @param ttl         the default time in milliseconds a result stays cached
+     */
+    public CachingDaoProvider(DaoProvider provider, int maximumSize, long ttl) {
+        if (provider == null)
+            throw new IllegalArgumentException("provider can not be null");
+        if (maximumSize < 1)
+            throw new IllegalArgumentException("maximumSize has to be positive");
+        if (ttl < 0)
+            throw new IllegalArgumentException("ttl can not be negative");
+        this.provider = provider;
+        this.maximumSize = maximumSize;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Gets a dao whose {@link Cached} methods are served from the cache of its type
+     *
+     * @param target the dao to create
+     * @param <T>    the type of the dao
+     * @return the dao
+     * @throws IllegalArgumentException if an {@link InvalidatesCache} annotation of the dao is invalid
+     */
+    @Override
+    public <T extends Dao> T getDao(Class<T> target) {
+        T dao = provider.getDao(target);
+        if (!target.isInterface()) {
+            logger.debug("Dao " + target.getName() + " is not an interface and can not be cached");
+            return dao;
+        }
+
+        Object proxy = Proxy.newProxyInstance(target.getClassLoader(), new Class<?>[]{target}, new CachingHandler(target, dao, cacheOf(target)));
+        return target.cast(proxy);
+    }
+
+    /**
+     * Returns the cache of the given dao type, for example to read its statistics
+     *
+     * @param target the dao type
+     * @return the cache
+     */
+    public EntityCache<?, ?> getCache(Class<? extends Dao> target) {
+        return cacheOf(target);
+    }
+
+    private EntityCache<CacheKey, Object> cacheOf(Class<?> target) {
+        return caches.computeIfAbsent(target, t -> new EntityCache<>(maximumSize, ttl));
+    }
+
+    /**
+     * Invalidates the cached results of the dao type whose first argument equals the given key
+     *
+     * @param target the dao type
+     * @param key    the key of the entity
+     */
+    public void invalidate(Class<? extends Dao> target, Object key) {
+        EntityCache<CacheKey, Object> cache = caches.get(target);
+        if (cache != null) cache.invalidateIf(k -> k.hasKey(key));
+    }
+
+    /**
+     * Invalidates all cached results of the dao type
+     *
+     * @param target the dao type
+     */
+    public void invalidateAll(Class<? extends Dao> target) {
+        EntityCache<CacheKey, Object> cache = caches.get(target);
+        if (cache != null) cache.invalidateAll();
+    }
+
+    /**
+     * Invalidates all cached results of all dao types
+     */
+    public void invalidateAll() {
+        caches.values().forEach(EntityCache::invalidateAll);
+    }
+
+    /**
+     * Serves the cached methods of a dao from its cache
+     */
+    private class CachingHandler implements InvocationHandler {
+        private final Object dao;
+        private final EntityCache<CacheKey, Object> cache;
+        private final Map<Method, CachingMethod> methods = new HashMap<>();
+
+        private CachingHandler(Class<?> target, Object dao, EntityCache<CacheKey, Object> cache) {
+            this.dao = dao;
+            this.cache = cache;
+            for (Method method : target.getMethods()) {
+                Cached cached = method.getAnnotation(Cached.class);
+                InvalidatesCache invalidates = method.getAnnotation(InvalidatesCache.class);
+                if (cached != null || invalidates != null)
+                    methods.put(method, new CachingMethod(method, cached, invalidates));
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            CachingMethod caching = methods.get(method);
+            if (caching == null) return unwrap(method, args);
+
+            if (caching.cached) {
+                CacheKey key = new CacheKey(method, args);
+                try {
+                    return cache.get(key, caching.ttl, () -> call(method, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+
+            try {
+                return unwrap(method, args);
+            } finally {
+                if (caching.invalidates) {
+                    int index = caching.keyArgument;
+                    if (index < 0 || args == null || index >= args.length) {
+                        cache.invalidateAll();
+                    } else {
+                        invalidate(caching.keyMethod, args[index]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Invalidates the cached results of the entity modified by a method
+         *
+         * @param keyMethod the method that gets the key of the entity, may be {@code null} if the entity is the key
+         * @param entity    the key argument
+         */
+        private void invalidate(Method keyMethod, Object entity) {
+            if (keyMethod == null) {
+                cache.invalidateIf(k -> k.hasKey(entity));
+                return;
+            }
+            if (entity == null) {
+                cache.invalidateAll();
+                return;
+            }
+
+            try {
+                Object key = keyMethod.invoke(entity);
+                cache.invalidateIf(k -> k.hasKey(key));
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                logger.warn("Could not get the key of " + entity + " through " + keyMethod.getName() + ", invalidating all results", e);
+                cache.invalidateAll();
+            }
+        }
+
+        private Object unwrap(Method method, Object[] args) throws Throwable {
+            try {
+                return call(method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Exception {
+            return method.invoke(dao, args);
+        }
+    }
+
+    /**
+     * The caching annotations of a dao method, resolved once when its dao is created
+     */
+    private class CachingMethod {
+        private final boolean cached;
+        private final long ttl;
+        private final boolean invalidates;
+        private final int keyArgument;
+        private final Method keyMethod;
+
+        private CachingMethod(Method method, Cached cached, InvalidatesCache invalidates) {
+            this.cached = cached != null;
+            this.ttl = cached == null || cached.ttl() < 0 ? CachingDaoProvider.this.ttl : cached.ttl();
+            this.invalidates = invalidates != null;
+            this.keyArgument = invalidates == null ? -1 : invalidates.keyArgument();
+            this.keyMethod = invalidates == null || invalidates.keyMethod().isEmpty() ? null : keyMethod(method, invalidates);
+        }
+
+        private Method keyMethod(Method method, InvalidatesCache invalidates) {
+            int index = invalidates.keyArgument();
+            if (index < 0 || index >= method.getParameterCount())
+                throw new IllegalArgumentException("Method " + method + " has no key argument " + index + " to call " + invalidates.keyMethod() + " on");
+            try {
+                return method.getParameterTypes()[index].getMethod(invalidates.keyMethod());
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("Key method " + invalidates.keyMethod() + " of " + method + " does not exist or is not public", e);
+            }
+        }
+    }
+
+    /**
+     * The key of a cached result, consisting of the method and the arguments it was invoked with
+     */
+    private static class CacheKey {
+        private final Method method;
+        private final Object[] args;
+        private final int hash;
+
+        private CacheKey(Method method, Object[] args) {
+            this.method = method;
+            this.args = args == null ? new Object[0] : args.clone();
+            this.hash = 31 * method.hashCode() + Arrays.deepHashCode(this.args);
+        }
+
+        /**
+         * Returns if the first argument of the cached invocation equals the given key
+         *
+         * @param key the key
+         * @return the result
+         */
+        private boolean hasKey(Object key) {
+            return args.length > 0 && Objects.deepEquals(args[0], key);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            CacheKey cacheKey = (CacheKey) o;
+            return hash == cacheKey.hash && method.equals(cacheKey.method) && Arrays.deepEquals(args, cacheKey.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,405 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.sql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link SqlDatasource} wrapper that caches {@link PreparedStatement}s per physical connection.
+ * <p>
+ * Every connection handed out by this datasource intercepts {@link Connection#prepareStatement(String)}.
+ * Statements are kept in a least recently used cache keyed by their SQL text. Closing a cached statement
+ * clears its parameters and returns it to the cache instead of closing it, statements that are evicted from
+ * the cache are closed. Statements that are still open when their connection is closed are returned as well.
+ * <p>
+ * If the delegate is a connection pool, the cache is bound to the pooled connection that is obtained through
+ * {@link Connection#unwrap(Class)}, so statements survive the logical connection being returned to the pool.
+ */
+public class CachingSqlDatasource implements SqlDatasource {
+
+    private static final int DEFAULT_CACHE_SIZE = 64;
+    private static final int PURGE_INTERVAL = 64;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final Map<Connection, StatementCache> caches = new IdentityHashMap<>();
+    private final SqlDatasource datasource;
+    private final int cacheSize;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private int connectionsSincePurge;
+
+    /**
+     * Creates a new caching datasource that keeps up to 64 statements per connection
+     *
+     * @param datasource the datasource to wrap
+     */
+    public CachingSqlDatasource(SqlDatasource datasource) {
+        this(datasource, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a new caching datasource
+     *
+     * @param datasource the datasource to wrap
+     * @param cacheSize  the maximum amount of statements cached per connection
+     */
+    public CachingSqlDatasource(SqlDatasource datasource, int cacheSize) {
+        if (datasource == null)
+            throw new IllegalArgumentException("datasource can not be null");
+        if (cacheSize < 1)
+            throw new IllegalArgumentException("cacheSize has to be positive");
+        this.datasource = datasource;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Returns an open connection to the database that caches its prepared statements
+     *
+     * @return an open connection
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = datasource.getConnection();
+        Connection physical = unwrap(connection);
+
+        StatementCache cache;
+        synchronized (caches) {
+            if (++connectionsSincePurge >= PURGE_INTERVAL) {
+                connectionsSincePurge = 0;
+                purgeClosedConnections();
+            }
+            cache = caches.computeIfAbsent(physical, c -> new StatementCache(c));
+        }
+
+        return (Connection) Proxy.newProxyInstance(CachingSqlDatasource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection, cache));
+    }
+
+    /**
+     * Closes all cached statements. Connections that are currently in use can still be used afterwards
+     */
+    public void clear() {
+        List<StatementCache> current;
+        synchronized (caches) {
+            current = new ArrayList<>(caches.values());
+            caches.clear();
+        }
+        current.forEach(StatementCache::close);
+    }
+
+    /**
+     * Returns the amount of prepared statements that were served from the cache
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the amount of prepared statements that had to be prepared by the driver
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the amount of statements that were closed because the cache was full
+     *
+     * @return the eviction count
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Removes the caches of connections that were closed by the driver or pool
+     */
+    private void purgeClosedConnections() {
+        Iterator<Map.Entry<Connection, StatementCache>> iterator = caches.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Connection, StatementCache> entry = iterator.next();
+            try {
+                if (!entry.getKey().isClosed()) continue;
+            } catch (SQLException e) {
+                logger.debug("Could not check connection state, dropping its statement cache", e);
+            }
+            iterator.remove();
+            entry.getValue().close();
+        }
+    }
+
+    /**
+     * Resolves the connection the statements should be bound to
+     *
+     * @param connection the connection returned by the delegate
+     * @return the physical connection if the connection is a wrapper, otherwise the connection itself
+     */
+    private static Connection unwrap(Connection connection) {
+        try {
+            if (connection.isWrapperFor(Connection.class)) {
+                Connection physical = connection.unwrap(Connection.class);
+                if (physical != null) return physical;
+            }
+        } catch (SQLException | AbstractMethodError ignored) {
+            //Driver does not support unwrapping, fall back to the logical connection
+        }
+        return connection;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * The statement cache of a single physical connection
+     */
+    private class StatementCache {
+        private final Connection connection;
+        private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<String, CachedStatement>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= cacheSize) return false;
+                evictions.incrementAndGet();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+
+        private StatementCache(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Borrows the statement for the given sql, preparing it if it is not cached or already in use
+         *
+         * @param sql the sql text
+         * @return the borrowed statement
+         * @throws SQLException if the statement could not be prepared
+         */
+        private synchronized CachedStatement borrow(String sql) throws SQLException {
+            CachedStatement cached = statements.get(sql);
+            if (cached != null && !cached.inUse && !cached.statement.isClosed()) {
+                hits.incrementAndGet();
+                cached.inUse = true;
+                return cached;
+            }
+
+            misses.incrementAndGet();
+            CachedStatement created = new CachedStatement(connection.prepareStatement(sql));
+            created.inUse = true;
+            if (cached == null || cached.statement.isClosed()) {
+                statements.put(sql, created);
+            } else {
+                created.evicted = true; //The cached one is in use, this one will be closed when it is returned
+            }
+            return created;
+        }
+
+        /**
+         * Returns a statement to the cache
+         *
+         * @param cached the statement
+         * @throws SQLException if the statement could not be reset
+         */
+        private synchronized void giveBack(CachedStatement cached) throws SQLException {
+            cached.inUse = false;
+            if (cached.evicted) {
+                cached.statement.close();
+                return;
+            }
+            try {
+                cached.statement.clearParameters();
+            } catch (SQLException e) {
+                cached.evict();
+                statements.values().remove(cached);
+                throw e;
+            }
+        }
+
+        private synchronized void close() {
+            statements.values().forEach(CachedStatement::evict);
+            statements.clear();
+        }
+    }
+
+    /**
+     * A prepared statement and its borrowing state
+     */
+    private class CachedStatement {
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        /**
+         * Closes the statement, or marks it to be closed when it is returned if it is still in use
+         */
+        private void evict() {
+            evicted = true;
+            if (inUse) return;
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                logger.debug("Could not close evicted statement", e);
+            }
+        }
+    }
+
+    /**
+     * Intercepts the statement preparation of a handed out connection
+     */
+    private class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private final StatementCache cache;
+        private final Set<StatementHandler> borrowed = new HashSet<>();
+
+        private ConnectionHandler(Connection connection, StatementCache cache) {
+            this.connection = connection;
+            this.cache = cache;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    if (args.length == 1) {
+                        CachedStatement cached = cache.borrow((String) args[0]);
+                        StatementHandler handler = new StatementHandler(cached, cache, (Connection) proxy, borrowed);
+                        borrowed.add(handler);
+                        return Proxy.newProxyInstance(CachingSqlDatasource.class.getClassLoader(),
+                                new Class<?>[]{PreparedStatement.class}, handler);
+                    }
+                    break;
+                case "close":
+                    try {
+                        giveBackBorrowed();
+                    } finally {
+                        connection.close();
+                    }
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachingConnection[" + connection + "]";
+            }
+            return CachingSqlDatasource.invoke(connection, method, args);
+        }
+
+        /**
+         * Returns the statements that were not closed by the user, they would otherwise stay borrowed forever
+         *
+         * @throws SQLException if a statement could not be reset
+         */
+        private void giveBackBorrowed() throws SQLException {
+            SQLException failure = null;
+            for (StatementHandler handler : new ArrayList<>(borrowed)) {
+                try {
+                    handler.close();
+                } catch (SQLException e) {
+                    if (failure == null) failure = e;
+                    else failure.addSuppressed(e);
+                }
+            }
+            if (failure != null) throw failure;
+        }
+    }
+
+    /**
+     * Returns the statement to the cache instead of closing it
+     */
+    private static class StatementHandler implements InvocationHandler {
+        private final CachedStatement cached;
+        private final StatementCache cache;
+        private final Connection connection;
+        private final Set<StatementHandler> borrowed;
+        private boolean closed;
+
+        private StatementHandler(CachedStatement cached, StatementCache cache, Connection connection, Set<StatementHandler> borrowed) {
+            this.cached = cached;
+            this.cache = cache;
+            this.connection = connection;
+            this.borrowed = borrowed;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return connection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.statement + "]";
+            }
+            if (closed) throw new SQLException("Statement is closed");
+            return CachingSqlDatasource.invoke(cached.statement, method, args);
+        }
+
+        private void close() throws SQLException {
+            if (closed) return;
+            closed = true;
+            borrowed.remove(this);
+            cache.giveBack(cached);
+        }
+    }
+}
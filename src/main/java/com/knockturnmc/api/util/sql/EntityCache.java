@@ -0,0 +1,280 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.sql;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * A bounded read-through cache that evicts entries by size and by age.
+ * <p>
+ * Concurrent misses for the same key share a single load: the first thread invokes the loader,
+ * all other threads wait for its result. Entries that are invalidated while they are being loaded
+ * are handed to the waiting threads but not stored, later misses start a new load instead of waiting for them.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class EntityCache<K, V> {
+
+    private final int maximumSize;
+    private final long ttl;
+
+    private final Map<K, Entry<V>> entries;
+    private final Map<K, Load<V>> loading = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong sharedLoads = new AtomicLong();
+
+    /**
+     * Creates a new cache
+     *
+     * @param maximumSize the maximum amount of entries
+     * @param ttl         the default time in milliseconds an entry stays cached
+     */
+    public EntityCache(int maximumSize, long ttl) {
+        if (maximumSize < 1)
+            throw new IllegalArgumentException("maximumSize has to be positive");
+        if (ttl < 0)
+            throw new IllegalArgumentException("ttl can not be negative");
+        this.maximumSize = maximumSize;
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > EntityCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached value for the key, loading it with the default time to live if it is absent
+     *
+     * @param key    the key
+     * @param loader the loader that is invoked on a miss
+     * @return the value
+     * @throws Exception if the loader failed
+     */
+    public V get(K key, Callable<? extends V> loader) throws Exception {
+        return get(key, ttl, loader);
+    }
+
+    /**
+     * Gets the cached value for the key, loading it if it is absent
+     *
+     * @param key    the key
+     * @param ttl    the time in milliseconds a loaded value stays cached
+     * @param loader the loader that is invoked on a miss
+     * @return the value
+     * @throws Exception if the loader failed
+     */
+    public V get(K key, long ttl, Callable<? extends V> loader) throws Exception {
+        Entry<V> entry = getEntry(key);
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.value;
+        }
+
+        Load<V> load = new Load<>();
+        while (true) {
+            Load<V> running = loading.putIfAbsent(key, load);
+            if (running == null) break;
+            if (!running.invalidated) {
+                sharedLoads.incrementAndGet();
+                return running.await();
+            }
+            //The running load may have read the value before it was modified, so it is not joined
+            if (loading.replace(key, running, load)) break;
+        }
+
+        try {
+            entry = getEntry(key); //Another load could have finished in the mean time
+            if (entry != null) {
+                hits.incrementAndGet();
+                load.complete(entry.value, null);
+                return entry.value;
+            }
+
+            misses.incrementAndGet();
+            V value;
+            try {
+                value = loader.call();
+            } catch (Throwable t) {
+                load.complete(null, t);
+                throw t;
+            }
+
+            synchronized (this) {
+                if (!load.invalidated) entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttl));
+            }
+            load.complete(value, null);
+            return value;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    /**
+     * Returns the cached value without loading it
+     *
+     * @param key the key
+     * @return the value or {@code null} if it is not cached
+     */
+    public V getIfPresent(K key) {
+        Entry<V> entry = getEntry(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Invalidates the cached value of the key
+     *
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        synchronized (this) {
+            entries.remove(key);
+            Load<V> load = loading.get(key);
+            if (load != null) load.invalidated = true;
+        }
+    }
+
+    /**
+     * Invalidates all cached values whose key matches the predicate
+     *
+     * @param predicate the predicate
+     */
+    public synchronized void invalidateIf(Predicate<? super K> predicate) {
+        entries.keySet().removeIf(predicate);
+        loading.forEach((key, load) -> {
+            if (predicate.test(key)) load.invalidated = true;
+        });
+    }
+
+    /**
+     * Invalidates all cached values
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        loading.values().forEach(load -> load.invalidated = true);
+    }
+
+    /**
+     * Removes all entries that exceeded their time to live
+     */
+    public synchronized void cleanUp() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiry <= now) iterator.remove();
+        }
+    }
+
+    /**
+     * Returns the amount of cached entries, including expired entries that were not cleaned up yet
+     *
+     * @return the size
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the amount of lookups that were served from the cache
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the amount of lookups that invoked the loader
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the amount of lookups that waited for a load started by another thread
+     *
+     * @return the shared load count
+     */
+    public long getSharedLoads() {
+        return sharedLoads.get();
+    }
+
+    private synchronized Entry<V> getEntry(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return null;
+        if (entry.expiry > System.currentTimeMillis()) return entry;
+
+        entries.remove(key);
+        return null;
+    }
+
+    /**
+     * A cached value and the time it expires
+     */
+    private static class Entry<V> {
+        private final V value;
+        private final long expiry;
+
+        private Entry(V value, long expiry) {
+            this.value = value;
+            this.expiry = expiry;
+        }
+    }
+
+    /**
+     * A load that is in progress and can be awaited by other threads
+     */
+    private static class Load<V> {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile boolean invalidated;
+        private V value;
+        private Throwable failure;
+
+        private void complete(V value, Throwable failure) {
+            this.value = value;
+            this.failure = failure;
+            latch.countDown();
+        }
+
+        private V await() throws Exception {
+            latch.await();
+            if (failure instanceof Exception) throw (Exception) failure;
+            if (failure instanceof Error) throw (Error) failure;
+            return value;
+        }
+    }
+}
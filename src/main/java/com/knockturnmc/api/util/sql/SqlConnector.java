@@ -26,6 +26,9 @@ package com.knockturnmc.api.util.sql;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.SQLException;
+import java.util.stream.Stream;
+
 /**
  * Represents a connector that manages its own sql connection
  */
@@ -37,4 +40,20 @@ public abstract class SqlConnector {
     protected SqlConnector(SqlDatasource datasource) {
         this.datasource = datasource;
     }
+
+    /**
+     * Executes a query whose rows are pulled lazily instead of being read into memory at once.
+     * The returned stream holds a connection until it is closed
+     *
+     * @param sql        the sql query
+     * @param mapper     the row mapper
+     * @param parameters the parameters of the query
+     * @param <T>        the type of the mapped rows
+     * @return the stream of rows
+     * @throws SQLException if the query could not be executed
+     * @see StreamingQuery
+     */
+    protected <T> Stream<T> stream(String sql, RowMapper<T> mapper, Object... parameters) throws SQLException {
+        return new StreamingQuery(datasource, sql).parameters(parameters).stream(mapper);
+    }
 }
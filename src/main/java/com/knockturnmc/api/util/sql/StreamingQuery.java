@@ -0,0 +1,267 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A query whose rows are pulled lazily from a forward-only, read-only cursor.
+ * <p>
+ * The query borrows its own connection from the datasource and holds it until the rows are exhausted
+ * or the returned stream or iterator is closed, so callers should always close it, for example with
+ * try-with-resources. Only the rows of the current fetch are kept in memory.
+ * <pre>
+ * <code>try (Stream&lt;UUID&gt; players = new StreamingQuery(datasource, "SELECT uuid FROM players").stream(rs -&gt; Utils.getUUID(rs.getBytes(1)))) {
+ *     players.forEach(...);
+ * }</code></pre>
+ * The fetch size is passed to the driver as a hint, some drivers need additional configuration to stream:
+ * MySQL Connector/J streams with a fetch size of {@link Integer#MIN_VALUE} or with {@code useCursorFetch=true},
+ * PostgreSQL only uses cursors outside of auto-commit mode, which this query disables while it is open.
+ */
+public class StreamingQuery {
+
+    /**
+     * The fetch size used if none was specified
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private final SqlDatasource datasource;
+    private final String sql;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private Object[] parameters = new Object[0];
+
+    /**
+     * Creates a new streaming query
+     *
+     * @param datasource the datasource to borrow the connection from
+     * @param sql        the sql query
+     */
+    public StreamingQuery(SqlDatasource datasource, String sql) {
+        if (datasource == null)
+            throw new IllegalArgumentException("datasource can not be null");
+        if (sql == null)
+            throw new IllegalArgumentException("sql can not be null");
+        this.datasource = datasource;
+        this.sql = sql;
+    }
+
+    /**
+     * Sets the amount of rows the driver should fetch per round trip
+     *
+     * @param fetchSize the fetch size
+     * @return this query
+     */
+    public StreamingQuery fetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * Sets the parameters of the query, they are bound in the given order with {@link PreparedStatement#setObject}
+     *
+     * @param parameters the parameters
+     * @return this query
+     */
+    public StreamingQuery parameters(Object... parameters) {
+        this.parameters = parameters == null ? new Object[0] : parameters.clone();
+        return this;
+    }
+
+    /**
+     * Executes the query and returns its rows as a lazily populated stream.
+     * Closing the stream releases the connection
+     *
+     * @param mapper the row mapper
+     * @param <T>    the type of the mapped rows
+     * @return the stream
+     * @throws SQLException if the query could not be executed
+     */
+    public <T> Stream<T> stream(RowMapper<T> mapper) throws SQLException {
+        RowIterator<T> iterator = iterator(mapper);
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED);
+        return StreamSupport.stream(spliterator, false).onClose(iterator::close);
+    }
+
+    /**
+     * Executes the query and returns an iterator over its rows.
+     * The connection is released once the iterator is exhausted or closed
+     *
+     * @param mapper the row mapper
+     * @param <T>    the type of the mapped rows
+     * @return the iterator
+     * @throws SQLException if the query could not be executed
+     */
+    public <T> RowIterator<T> iterator(RowMapper<T> mapper) throws SQLException {
+        if (mapper == null)
+            throw new IllegalArgumentException("mapper can not be null");
+
+        Connection connection = datasource.getConnection();
+        boolean autoCommit = false;
+        PreparedStatement statement = null;
+        try {
+            autoCommit = connection.getAutoCommit();
+            if (autoCommit) connection.setAutoCommit(false);
+
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+
+            ResultSet resultSet = statement.executeQuery();
+            resultSet.setFetchSize(fetchSize);
+            return new RowIterator<>(connection, statement, resultSet, mapper, autoCommit);
+        } catch (SQLException | RuntimeException e) {
+            release(connection, statement, null, autoCommit, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the cursor and hands the connection back
+     *
+     * @param connection the connection
+     * @param statement  the statement, may be {@code null}
+     * @param resultSet  the result set, may be {@code null}
+     * @param autoCommit the auto-commit mode to restore
+     * @param failure    the exception the close failures are added to, may be {@code null}
+     * @return the first exception that occurred while closing, or the given failure
+     */
+    private static Exception release(Connection connection, PreparedStatement statement, ResultSet resultSet, boolean autoCommit, Exception failure) {
+        try {
+            if (resultSet != null) resultSet.close();
+        } catch (SQLException e) {
+            failure = addFailure(failure, e);
+        }
+        try {
+            if (statement != null) statement.close();
+        } catch (SQLException e) {
+            failure = addFailure(failure, e);
+        }
+        if (autoCommit) { //Committing while a streaming result set is open fails on some drivers, so it is closed first
+            try {
+                connection.commit(); //Nothing was written, this just ends the read transaction
+            } catch (SQLException e) {
+                failure = addFailure(failure, e);
+            } finally {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException e) {
+                    failure = addFailure(failure, e);
+                }
+            }
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            failure = addFailure(failure, e);
+        }
+        return failure;
+    }
+
+    private static Exception addFailure(Exception failure, SQLException e) {
+        if (failure == null) return e;
+        failure.addSuppressed(e);
+        return failure;
+    }
+
+    /**
+     * An iterator over the rows of a streaming query that holds the connection until it is exhausted or closed
+     *
+     * @param <T> the type of the mapped rows
+     */
+    public static class RowIterator<T> implements Iterator<T>, AutoCloseable {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final RowMapper<T> mapper;
+        private final boolean autoCommit;
+
+        private boolean advanced;
+        private boolean hasNext;
+        private boolean closed;
+
+        private RowIterator(Connection connection, PreparedStatement statement, ResultSet resultSet, RowMapper<T> mapper, boolean autoCommit) {
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+            this.mapper = mapper;
+            this.autoCommit = autoCommit;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) return false;
+            if (!advanced) {
+                try {
+                    hasNext = resultSet.next();
+                } catch (SQLException e) {
+                    throw fail(e);
+                }
+                advanced = true;
+                if (!hasNext) close();
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            advanced = false;
+            try {
+                return mapper.map(resultSet);
+            } catch (SQLException e) {
+                throw fail(e);
+            }
+        }
+
+        /**
+         * Closes the cursor and releases the connection, this can be called multiple times
+         */
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            Exception failure = release(connection, statement, resultSet, autoCommit, null);
+            if (failure != null) throw new UncheckedSqlException("Could not release streaming query", (SQLException) failure);
+        }
+
+        private UncheckedSqlException fail(SQLException e) {
+            if (!closed) {
+                closed = true;
+                release(connection, statement, resultSet, autoCommit, e);
+            }
+            return new UncheckedSqlException("Could not read next row", e);
+        }
+    }
+}
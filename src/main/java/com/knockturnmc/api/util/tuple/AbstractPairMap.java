@@ -0,0 +1,219 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util.tuple;
+
+import java.util.Arrays;
+
+/**
+ * The storage of the pair maps: the keys are stored inline as one or two longs per slot next to the values.
+ * Uses open addressing with linear probing and backward-shift deletion, a {@code null} value marks an empty slot.
+ *
+ * @param <V> the type of the values
+ */
+abstract class AbstractPairMap<V> {
+
+    static final int DEFAULT_EXPECTED_SIZE = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 29;
+
+    private final int width;
+    long[] keys;
+    Object[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+
+    /**
+     * Creates an empty map
+     *
+     * @param width        the amount of longs per key, one or two
+     * @param expectedSize the expected amount of entries
+     */
+    AbstractPairMap(int width, int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Expected size can not be negative");
+        this.width = width;
+        allocate(tableSize(expectedSize));
+    }
+
+    /**
+     * Hashes a stored key
+     *
+     * @param keys  the key array
+     * @param index the index of the first long of the key
+     * @return the hash
+     */
+    abstract int hash(long[] keys, int index);
+
+    /**
+     * Gets the amount of mapped keys
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether no key is mapped
+     *
+     * @return true if the map is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all mappings, keeping the allocated capacity
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V getValue(int hash, long first, long second) {
+        int slot = find(hash, first, second);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    V putValue(int hash, long first, long second, V value, boolean onlyIfAbsent) {
+        if (value == null)
+            throw new IllegalArgumentException("Value can not be null");
+        int slot = find(hash, first, second);
+        if (slot < 0) {
+            insert(~slot, hash, first, second, value);
+            return null;
+        }
+        V previous = (V) values[slot];
+        if (!onlyIfAbsent)
+            values[slot] = value;
+        return previous;
+    }
+
+    @SuppressWarnings("unchecked")
+    V removeValue(int hash, long first, long second) {
+        int slot = find(hash, first, second);
+        if (slot < 0)
+            return null;
+        V previous = (V) values[slot];
+        delete(slot);
+        return previous;
+    }
+
+    /**
+     * Finds the slot of a key
+     *
+     * @return the slot or the bitwise complement of the empty slot it would be inserted at
+     */
+    int find(int hash, long first, long second) {
+        int slot = hash & mask;
+        while (values[slot] != null) {
+            int index = slot * width;
+            if (keys[index] == first && (width == 1 || keys[index + 1] == second))
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    /**
+     * Inserts a key that is not mapped yet
+     *
+     * @param slot the empty slot returned by {@link #find}
+     */
+    void insert(int slot, int hash, long first, long second, Object value) {
+        if (size >= threshold) {
+            resize();
+            slot = emptySlot(hash);
+        }
+        int index = slot * width;
+        keys[index] = first;
+        if (width == 2)
+            keys[index + 1] = second;
+        values[slot] = value;
+        size++;
+    }
+
+    private int emptySlot(int hash) {
+        int slot = hash & mask;
+        while (values[slot] != null)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity * width];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = capacity / 3 * 2;
+    }
+
+    private static int tableSize(int expectedSize) {
+        long needed = Math.max(4, (long) expectedSize * 3 / 2 + 1);
+        if (needed > MAXIMUM_CAPACITY)
+            throw new IllegalArgumentException("Too many entries: " + expectedSize);
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    private static int grow(int capacity) {
+        if (capacity >= MAXIMUM_CAPACITY)
+            throw new IllegalStateException("Table can not grow beyond " + MAXIMUM_CAPACITY + " slots");
+        return capacity << 1;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(grow(oldValues.length));
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] != null) {
+                int target = emptySlot(hash(oldKeys, slot * width));
+                System.arraycopy(oldKeys, slot * width, keys, target * width, width);
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+
+    /**
+     * Empties a slot and moves back following entries of the same probe sequence, so no tombstones are needed
+     */
+    private void delete(int slot) {
+        int gap = slot;
+        int next = (slot + 1) & mask;
+        while (values[next] != null) {
+            int home = hash(keys, next * width) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) { //The gap lies on the probe sequence of the entry
+                System.arraycopy(keys, next * width, keys, gap * width, width);
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+        size--;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util.tuple;
+
+/**
+ * An immutable pair of two ints, e.g. a chunk coordinate.
+ * Both ints fit into a single long, see {@link #pack()}.
+ */
+public final class IntIntPair implements Comparable<IntIntPair> {
+
+    private final int _0;
+    private final int _1;
+
+    private IntIntPair(int _0, int _1) {
+        this._0 = _0;
+        this._1 = _1;
+    }
+
+    /**
+     * Creates a new pair
+     *
+     * @param _0 the first int
+     * @param _1 the second int
+     * @return the pair
+     */
+    public static IntIntPair of(int _0, int _1) {
+        return new IntIntPair(_0, _1);
+    }
+
+    /**
+     * Creates a pair from its packed form
+     *
+     * @param packed the packed pair, see {@link #pack()}
+     * @return the pair
+     */
+    public static IntIntPair unpack(long packed) {
+        return new IntIntPair(first(packed), second(packed));
+    }
+
+    /**
+     * Packs two ints into a long, the first int in the upper and the second int in the lower half
+     *
+     * @param _0 the first int
+     * @param _1 the second int
+     * @return the packed ints
+     */
+    public static long pack(int _0, int _1) {
+        return (long) _0 << 32 | _1 & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Gets the first int of packed ints
+     *
+     * @param packed the packed ints
+     * @return the first int
+     */
+    public static int first(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    /**
+     * Gets the second int of packed ints
+     *
+     * @param packed the packed ints
+     * @return the second int
+     */
+    public static int second(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Gets the first int
+     *
+     * @return first int
+     */
+    public int get_0() {
+        return _0;
+    }
+
+    /**
+     * Gets the second int
+     *
+     * @return second int
+     */
+    public int get_1() {
+        return _1;
+    }
+
+    /**
+     * Packs this pair into a long
+     *
+     * @return the packed pair
+     */
+    public long pack() {
+        return pack(_0, _1);
+    }
+
+    @Override
+    public int compareTo(IntIntPair o) {
+        int result = Integer.compare(_0, o._0);
+        return result != 0 ? result : Integer.compare(_1, o._1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IntIntPair)) return false;
+
+        IntIntPair pair = (IntIntPair) o;
+        return _0 == pair._0 && _1 == pair._1;
+    }
+
+    @Override
+    public int hashCode() {
+        return Hashing.hash(pack());
+    }
+
+    @Override
+    public String toString() {
+        return "(" + _0 + ',' + _1 + ')';
+    }
+}
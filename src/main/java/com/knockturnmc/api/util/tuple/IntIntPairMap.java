@@ -0,0 +1,234 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util.tuple;
+
+/**
+ * A map keyed by pairs of ints that stores the keys inline in a {@code long[]} instead of boxing them into {@link IntIntPair}s.
+ * Uses open addressing with linear probing and backward-shift deletion.
+ * <p>
+ * Null values are not permitted. This class is not thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+public class IntIntPairMap<V> extends AbstractPairMap<V> {
+
+    /**
+     * Creates an empty map
+     */
+    public IntIntPairMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates an empty map that can hold the given amount of entries without resizing
+     *
+     * @param expectedSize the expected amount of entries
+     */
+    public IntIntPairMap(int expectedSize) {
+        super(1, expectedSize);
+    }
+
+    /**
+     * Gets the value mapped to a key
+     *
+     * @param first  the first part of the key
+     * @param second the second part of the key
+     * @return the value or {@code null} if the key is not mapped
+     */
+    public V get(int first, int second) {
+        long key = IntIntPair.pack(first, second);
+        return getValue(Hashing.hash(key), key, 0);
+    }
+
+    /**
+     * Gets the value mapped to a key
+     *
+     * @param key the key
+     * @return the value or {@code null} if the key is not mapped
+     */
+    public V get(IntIntPair key) {
+        return get(key.get_0(), key.get_1());
+    }
+
+    /**
+     * Gets the value mapped to a key, or a default value
+     *
+     * @param first        the first part of the key
+     * @param second       the second part of the key
+     * @param defaultValue the value to return if the key is not mapped
+     * @return the value
+     */
+    public V getOrDefault(int first, int second, V defaultValue) {
+        V value = get(first, second);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Checks whether a key is mapped
+     *
+     * @param first  the first part of the key
+     * @param second the second part of the key
+     * @return true if the key is mapped
+     */
+    public boolean containsKey(int first, int second) {
+        long key = IntIntPair.pack(first, second);
+        return find(Hashing.hash(key), key, 0) >= 0;
+    }
+
+    /**
+     * Maps a key to a value
+     *
+     * @param first  the first part of the key
+     * @param second the second part of the key
+     * @param value  the value
+     * @return the previously mapped value or {@code null}
+     */
+    public V put(int first, int second, V value) {
+        long key = IntIntPair.pack(first, second);
+        return putValue(Hashing.hash(key), key, 0, value, false);
+    }
+
+    /**
+     * Maps a key to a value
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the previously mapped value or {@code null}
+     */
+    public V put(IntIntPair key, V value) {
+        return put(key.get_0(), key.get_1(), value);
+    }
+
+    /**
+     * Maps a key to a value if it is not mapped yet
+     *
+     * @param first  the first part of the key
+     * @param second the second part of the key
+     * @param value  the value
+     * @return the already mapped value or {@code null} if the value was added
+     */
+    public V putIfAbsent(int first, int second, V value) {
+        long key = IntIntPair.pack(first, second);
+        return putValue(Hashing.hash(key), key, 0, value, true);
+    }
+
+    /**
+     * Gets the value mapped to a key, or computes and maps it if the key is not mapped yet
+     *
+     * @param first    the first part of the key
+     * @param second   the second part of the key
+     * @param function the function computing the value, it may not modify this map
+     * @return the mapped value or {@code null} if the function returned {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(int first, int second, EntryFunction<? extends V> function) {
+        long key = IntIntPair.pack(first, second);
+        int hash = Hashing.hash(key);
+        int slot = find(hash, key, 0);
+        if (slot >= 0)
+            return (V) values[slot];
+        V value = function.apply(first, second);
+        if (value != null)
+            insert(~slot, hash, key, 0, value);
+        return value;
+    }
+
+    /**
+     * Removes the mapping of a key
+     *
+     * @param first  the first part of the key
+     * @param second the second part of the key
+     * @return the removed value or {@code null} if the key was not mapped
+     */
+    public V remove(int first, int second) {
+        long key = IntIntPair.pack(first, second);
+        return removeValue(Hashing.hash(key), key, 0);
+    }
+
+    /**
+     * Performs an action for every mapping without allocating. The action may not modify this map.
+     *
+     * @param action the action
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null)
+                action.accept(IntIntPair.first(keys[slot]), IntIntPair.second(keys[slot]), (V) values[slot]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((first, second, value) -> {
+            if (builder.length() > 1)
+                builder.append(", ");
+            builder.append('(').append(first).append(',').append(second).append(")=").append(value);
+        });
+        return builder.append('}').toString();
+    }
+
+    @Override
+    int hash(long[] keys, int index) {
+        return Hashing.hash(keys[index]);
+    }
+
+    /**
+     * Computes a value for a key
+     *
+     * @param <V> the type of the value
+     */
+    @FunctionalInterface
+    public interface EntryFunction<V> {
+
+        /**
+         * Computes the value
+         *
+         * @param first  the first part of the key
+         * @param second the second part of the key
+         * @return the value or {@code null}
+         */
+        V apply(int first, int second);
+    }
+
+    /**
+     * Receives the mappings of a map
+     *
+     * @param <V> the type of the values
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+
+        /**
+         * Receives a mapping
+         *
+         * @param first  the first part of the key
+         * @param second the second part of the key
+         * @param value  the value
+         */
+        void accept(int first, int second, V value);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util.tuple;
+
+/**
+ * An immutable pair of two longs
+ */
+public final class LongLongPair implements Comparable<LongLongPair> {
+
+    private final long _0;
+    private final long _1;
+
+    private LongLongPair(long _0, long _1) {
+        this._0 = _0;
+        this._1 = _1;
+    }
+
+    /**
+     * Creates a new pair
+     *
+     * @param _0 the first long
+     * @param _1 the second long
+     * @return the pair
+     */
+    public static LongLongPair of(long _0, long _1) {
+        return new LongLongPair(_0, _1);
+    }
+
+    /**
+     * Gets the first long
+     *
+     * @return first long
+     */
+    public long get_0() {
+        return _0;
+    }
+
+    /**
+     * Gets the second long
+     *
+     * @return second long
+     */
+    public long get_1() {
+        return _1;
+    }
+
+    @Override
+    public int compareTo(LongLongPair o) {
+        int result = Long.compare(_0, o._0);
+        return result != 0 ? result : Long.compare(_1, o._1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LongLongPair)) return false;
+
+        LongLongPair pair = (LongLongPair) o;
+        return _0 == pair._0 && _1 == pair._1;
+    }
+
+    @Override
+    public int hashCode() {
+        return Hashing.hash(_0, _1);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + _0 + ',' + _1 + ')';
+    }
+}
@@ -0,0 +1,103 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util.tuple;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * An immutable pair of an object and a long, e.g. a scored result
+ *
+ * @param <T> the type of the object
+ */
+public final class ObjectLongPair<T> {
+
+    private final T _0;
+    private final long _1;
+
+    private ObjectLongPair(T _0, long _1) {
+        this._0 = _0;
+        this._1 = _1;
+    }
+
+    /**
+     * Creates a new pair
+     *
+     * @param _0  the object, may be null
+     * @param _1  the long
+     * @param <T> the type of the object
+     * @return the pair
+     */
+    public static <T> ObjectLongPair<T> of(T _0, long _1) {
+        return new ObjectLongPair<>(_0, _1);
+    }
+
+    /**
+     * Gets a comparator ordering pairs by their long ascending
+     *
+     * @param <T> the type of the object
+     * @return the comparator
+     */
+    public static <T> Comparator<ObjectLongPair<T>> byLong() {
+        return (a, b) -> Long.compare(a._1, b._1);
+    }
+
+    /**
+     * Gets the object
+     *
+     * @return the object
+     */
+    public T get_0() {
+        return _0;
+    }
+
+    /**
+     * Gets the long
+     *
+     * @return the long
+     */
+    public long get_1() {
+        return _1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ObjectLongPair)) return false;
+
+        ObjectLongPair<?> pair = (ObjectLongPair<?>) o;
+        return _1 == pair._1 && Objects.equals(_0, pair._0);
+    }
+
+    @Override
+    public int hashCode() {
+        return Hashing.hash(Objects.hashCode(_0), _1);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + _0 + ',' + _1 + ')';
+    }
+}
@@ -0,0 +1,86 @@
+package com.knockturnmc.api.ext.event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the dispatch of an event to four listeners: direct calls, reflective calls as done by annotation based buses,
+ * the {@link EventBus} with generated executors (registered with a lookup) and with method handle executors.
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark=EventBusBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBusBenchmark {
+
+    private static final int LISTENERS = 4;
+
+    private final Listener[] listeners = new Listener[LISTENERS];
+    private final EventBus generated = new EventBus();
+    private final EventBus handles = new EventBus();
+    private final Event event = new Event();
+    private Method method;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        for (int i = 0; i < LISTENERS; i++) {
+            listeners[i] = new Listener();
+            generated.register(listeners[i], MethodHandles.lookup());
+            handles.register(listeners[i]);
+        }
+        method = Listener.class.getMethod("onEvent", Event.class);
+    }
+
+    @Benchmark
+    public Event direct() {
+        for (Listener listener : listeners) {
+            listener.onEvent(event);
+        }
+        return event;
+    }
+
+    @Benchmark
+    public Event reflective() throws ReflectiveOperationException {
+        for (Listener listener : listeners) {
+            method.invoke(listener, event);
+        }
+        return event;
+    }
+
+    @Benchmark
+    public Event generated() {
+        return generated.post(event);
+    }
+
+    @Benchmark
+    public Event methodHandles() {
+        return handles.post(event);
+    }
+
+    public static class Event {
+        long count;
+    }
+
+    public static class Listener {
+
+        @Subscribe
+        public void onEvent(Event event) {
+            event.count++;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.knockturnmc.api.ext.event;
+
+import org.junit.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class EventBusTest {
+
+    @Test
+    public void testOrderAndHierarchy() {
+        EventBus bus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        bus.register(new PublicListener(calls));
+        new PrivateListener(calls).register(bus);
+        bus.subscribe(Object.class, EventPriority.LOWEST, e -> calls.add("object"));
+
+        bus.post(new ChildEvent());
+        assertEquals(4, calls.size());
+        assertEquals("object", calls.get(0));
+        assertEquals("private", calls.get(1));
+        assertEquals("child", calls.get(2));
+        assertEquals("monitor", calls.get(3));
+
+        calls.clear();
+        bus.post("text");
+        assertEquals(1, calls.size());
+        assertTrue(bus.hasSubscribers(ChildEvent.class));
+        assertTrue(bus.hasSubscribers(Integer.class)); //Through the Object listener
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPrivateWithoutLookup() {
+        new EventBus().register(new PrivateListener(new ArrayList<>()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoMethods() {
+        new EventBus().register(new Object());
+    }
+
+    @Test
+    public void testFailingListener() {
+        EventBus bus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        bus.subscribe(Event.class, EventPriority.LOW, e -> {
+            throw new IllegalStateException("Expected by the test");
+        });
+        bus.register(new PublicListener(calls));
+
+        bus.post(new Event());
+        assertEquals(1, calls.size());
+    }
+
+    @Test
+    public void testUnregister() {
+        EventBus bus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        PublicListener listener = new PublicListener(calls);
+        bus.register(listener);
+        new PrivateListener(calls).register(bus);
+        assertEquals(3, bus.getSubscriberCount());
+
+        bus.unregister(listener);
+        bus.post(new ChildEvent());
+        assertEquals(1, calls.size());
+
+        bus.unregisterAll(getClass().getClassLoader());
+        assertEquals(0, bus.getSubscriberCount());
+        assertFalse(bus.hasSubscribers(ChildEvent.class));
+    }
+
+    @Test
+    public void testOverriddenMethod() {
+        EventBus bus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        bus.register(new OverridingListener(calls));
+        assertEquals(2, bus.getSubscriberCount());
+
+        bus.post(new ChildEvent());
+        assertEquals(2, calls.size());
+        assertEquals("override", calls.get(0));
+        assertEquals("child", calls.get(1));
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        EventBus bus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        bus.register(new PublicListener(calls));
+        ChildEvent event = new ChildEvent();
+        assertSame(event, bus.postAsync(event).get(5, TimeUnit.SECONDS));
+        assertEquals(2, calls.size());
+    }
+
+    public static class Event {
+    }
+
+    public static class ChildEvent extends Event {
+    }
+
+    public static class PublicListener {
+
+        private final List<String> calls;
+
+        public PublicListener(List<String> calls) {
+            this.calls = calls;
+        }
+
+        @Subscribe
+        public void onChild(ChildEvent event) {
+            calls.add("child");
+        }
+
+        @Subscribe(priority = EventPriority.MONITOR)
+        public void onEvent(Event event) {
+            calls.add("monitor");
+        }
+    }
+
+    public static class OverridingListener extends PublicListener {
+
+        private final List<String> calls;
+
+        public OverridingListener(List<String> calls) {
+            super(calls);
+            this.calls = calls;
+        }
+
+        @Override
+        @Subscribe(priority = EventPriority.LOW)
+        public void onEvent(Event event) {
+            calls.add("override");
+        }
+    }
+
+    private static class PrivateListener {
+
+        private final List<String> calls;
+
+        private PrivateListener(List<String> calls) {
+            this.calls = calls;
+        }
+
+        private void register(EventBus bus) {
+            bus.register(this, MethodHandles.lookup());
+        }
+
+        @Subscribe(priority = EventPriority.LOW)
+        private void onEvent(Event event) {
+            calls.add("private");
+        }
+    }
+}
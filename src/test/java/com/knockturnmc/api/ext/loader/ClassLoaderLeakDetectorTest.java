@@ -0,0 +1,83 @@
+package com.knockturnmc.api.ext.loader;
+
+import com.knockturnmc.api.ext.Loadable;
+import com.knockturnmc.api.ext.loader.descriptors.ModulePropertyDescriptor;
+import com.knockturnmc.api.ext.loader.provider.ReflectiveInstanceProvider;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class ClassLoaderLeakDetectorTest {
+
+    @Test
+    public void testCollected() throws InterruptedException {
+        ClassLoaderLeakDetector detector = new ClassLoaderLeakDetector(0, TimeUnit.MILLISECONDS);
+        PropertyLoader loader = new PropertyLoader(detector);
+        loader.loadModules();
+        loader.enableModules(new AtomicBoolean());
+        loader.disableModules(new AtomicBoolean());
+        loader.unloadModules();
+        assertTrue(loader.getLoadedModules().isEmpty());
+
+        //System.gc() is only a hint, the test is skipped if the collector does not get to the loader in time
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (detector.getTrackedCount() > 0 && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Assume.assumeTrue("Class loader was not collected in time", detector.getTrackedCount() == 0);
+        assertTrue(detector.check().isEmpty());
+    }
+
+    @Test
+    public void testLeak() throws InterruptedException {
+        ClassLoaderLeakDetector detector = new ClassLoaderLeakDetector(0, TimeUnit.MILLISECONDS);
+        PropertyLoader loader = new PropertyLoader(detector);
+        loader.loadModules();
+        Loadable<AtomicBoolean> module = loader.getModule("base-module").get();
+
+        CountDownLatch stop = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                stop.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "leaking-thread");
+        thread.setContextClassLoader(module.getClass().getClassLoader());
+        thread.start();
+        module = null;
+
+        try {
+            loader.setLeakDetector(null);
+            loader.unloadModules();
+            detector.track("base-module", thread.getContextClassLoader());
+            System.gc();
+
+            List<ClassLoaderLeakDetector.Leak> leaks = detector.check();
+            assertEquals(1, leaks.size());
+            assertEquals("base-module", leaks.get(0).getModule());
+            assertTrue(leaks.get(0).getClassCount() > 0);
+            assertTrue(leaks.get(0).getHints().stream().anyMatch(h -> h.contains("leaking-thread")));
+            assertTrue(detector.check().isEmpty()); //Reported once
+        } finally {
+            stop.countDown();
+            thread.join();
+        }
+    }
+
+    private static class PropertyLoader extends ModuleLoader<AtomicBoolean> {
+
+        public PropertyLoader(ClassLoaderLeakDetector detector) {
+            super(new File(System.getProperty("user.dir") + "/src/test/resources"), ".jar", new ReflectiveInstanceProvider(), ModulePropertyDescriptor::new);
+            setLeakDetector(detector);
+        }
+    }
+}
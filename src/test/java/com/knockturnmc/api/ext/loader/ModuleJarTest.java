@@ -0,0 +1,114 @@
+package com.knockturnmc.api.ext.loader;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ModuleJarTest {
+
+    private static final File BASE_MODULE = new File(System.getProperty("user.dir") + "/src/test/resources/base-test-module-1.0-SNAPSHOT.jar");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEntriesMatchZipFile() throws IOException {
+        try (ModuleJar jar = ModuleJar.open(BASE_MODULE); ZipFile zip = new ZipFile(BASE_MODULE)) {
+            assertEquals(zip.size(), jar.getEntryNames().size());
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                assertTrue(jar.contains(entry.getName()));
+                ByteBuffer bytes = jar.getBytes(entry.getName());
+                byte[] actual = new byte[bytes.remaining()];
+                bytes.get(actual);
+                try (InputStream in = zip.getInputStream(entry)) {
+                    assertArrayEquals(entry.getName(), readFully(in), actual);
+                }
+            }
+            assertNull(jar.getBytes("missing.txt"));
+        }
+    }
+
+    @Test
+    public void testSharedView() throws IOException {
+        ModuleJar first = ModuleJar.open(BASE_MODULE);
+        ModuleJar second = ModuleJar.open(new File(BASE_MODULE.getParentFile(), "./" + BASE_MODULE.getName()));
+        assertSame(first, second);
+        first.close();
+        second.close();
+
+        ModuleJar reopened = ModuleJar.open(BASE_MODULE);
+        assertNotSame(first, reopened);
+        reopened.close();
+    }
+
+    @Test
+    public void testReplacedJar() throws IOException {
+        File file = folder.newFile("module.jar");
+        Files.copy(BASE_MODULE.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        ModuleJar stale = ModuleJar.open(file);
+
+        File replacement = folder.newFile("replacement.jar");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(replacement))) {
+            out.putNextEntry(new ZipEntry("replaced.txt"));
+            out.write(1);
+        }
+        Files.move(replacement.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        try (ModuleJar jar = ModuleJar.open(file)) {
+            assertNotSame(stale, jar);
+            assertTrue(jar.contains("replaced.txt"));
+            stale.close();
+            try (ModuleJar shared = ModuleJar.open(file)) {
+                assertSame(jar, shared);
+            }
+        }
+    }
+
+    @Test
+    public void testClassLoader() throws Exception {
+        try (ModuleClassLoader classLoader = new ModuleClassLoader(BASE_MODULE, getClass().getClassLoader())) {
+            Class<?> moduleClass = classLoader.loadClass("com.knockturnmc.test.basemodule.BaseModule");
+            assertSame(classLoader, moduleClass.getClassLoader());
+            assertNotNull(moduleClass.getPackage());
+            assertEquals(BASE_MODULE.toURI().toURL(), moduleClass.getProtectionDomain().getCodeSource().getLocation());
+
+            try (InputStream in = classLoader.getResourceAsStream("module.properties")) {
+                assertTrue(new String(readFully(in), "UTF-8").contains("name=base-module"));
+            }
+            assertNotNull(classLoader.getResource("module.properties"));
+            assertNull(classLoader.findResource("missing.txt"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotAZip() throws IOException {
+        File file = folder.newFile("broken.jar");
+        Files.write(file.toPath(), new byte[64]);
+        ModuleJar.open(file);
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,208 @@
+package com.knockturnmc.api.ext.loader;
+
+import com.knockturnmc.api.ext.loader.descriptors.ModulePropertyDescriptor;
+import com.knockturnmc.api.ext.loader.provider.ReflectiveInstanceProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Measures cold boots of a {@link ModuleLoader} with synthetic modules, with and without the class data sharing archive
+ * dumped from a training boot, see {@link ModuleClassList}. Every invocation starts a new JVM, as archives are mapped at startup.
+ * On runtimes without support for archiving module classes both benchmarks boot without an archive.
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark=ModuleLoaderBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ModuleLoaderBenchmark {
+
+    private static final int MODULES = 20;
+    private static final int CLASSES = 50;
+
+    private Path directory;
+    private File modules;
+    private File archive;
+    private String classPath;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("module-benchmark");
+        modules = directory.resolve("modules").toFile();
+        archive = directory.resolve("modules.jsa").toFile();
+        createModules();
+        classPath = createClassPath();
+        boot(Collections.emptyList(), directory.resolve("modules.classlist").toString(), archive.getPath());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public void boot() throws Exception {
+        boot(Collections.emptyList());
+    }
+
+    @Benchmark
+    public void bootArchived() throws Exception {
+        boot(ModuleClassList.getArchiveArguments(archive));
+    }
+
+    private void boot(List<String> jvmArguments, String... arguments) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(jvmArguments);
+        command.addAll(Arrays.asList("-cp", classPath, Boot.class.getName(), modules.getPath()));
+        command.addAll(Arrays.asList(arguments));
+
+        File log = directory.resolve("boot.log").toFile();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Boot failed: " + new String(Files.readAllBytes(log.toPath()), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Compiles the synthetic modules, each a chain of classes that the main class loads on enable
+     */
+    private void createModules() throws IOException {
+        Path sources = directory.resolve("sources");
+        Path classes = directory.resolve("classes");
+        Files.createDirectories(classes);
+        modules.mkdirs();
+
+        List<String> files = new ArrayList<>();
+        for (int module = 0; module < MODULES; module++) {
+            String pkg = "synthetic.module" + module;
+            Path packageDirectory = sources.resolve(pkg.replace('.', '/'));
+            Files.createDirectories(packageDirectory);
+            for (int type = 0; type < CLASSES; type++) {
+                StringBuilder source = new StringBuilder("package ").append(pkg).append(";\n")
+                        .append("public class Type").append(type).append(" {\n");
+                for (int method = 0; method < 10; method++) {
+                    source.append("    public int value").append(method).append("(int x) { return ")
+                            .append(type == 0 ? "x" : "new Type" + (type - 1) + "().value" + method + "(x)")
+                            .append(" * ").append(method + 31).append(" + \"").append(pkg).append(method).append("\".length(); }\n");
+                }
+                files.add(write(packageDirectory.resolve("Type" + type + ".java"), source.append("}\n").toString()));
+            }
+            files.add(write(packageDirectory.resolve("Main.java"), "package " + pkg + ";\n"
+                    + "public class Main implements com.knockturnmc.api.ext.Loadable<Object> {\n"
+                    + "    public void onEnable(Object parent) { new Type" + (CLASSES - 1) + "().value0(1); }\n"
+                    + "    public void onDisable(Object parent) { }\n"
+                    + "}\n"));
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> arguments = new ArrayList<>(Arrays.asList("-cp", System.getProperty("java.class.path"), "-d", classes.toString()));
+        arguments.addAll(files);
+        if (compiler.run(null, null, null, arguments.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("Could not compile the synthetic modules");
+        }
+
+        for (int module = 0; module < MODULES; module++) {
+            String pkg = "synthetic.module" + module;
+            try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(new File(modules, "module" + module + ".jar").toPath()))) {
+                jar.putNextEntry(new JarEntry("module.properties"));
+                jar.write(("name=synthetic-module-" + module + "\nversion=1.0\nauthor=benchmark\nmain=" + pkg + ".Main\n").getBytes(StandardCharsets.UTF_8));
+                addDirectory(jar, classes, classes.resolve(pkg.replace('.', '/')));
+            }
+        }
+    }
+
+    /**
+     * Returns the current class path with every directory packed into a jar, as archives can only be dumped for jars
+     */
+    private String createClassPath() throws IOException {
+        List<String> entries = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            Path path = new File(entry).toPath();
+            if (Files.isDirectory(path)) {
+                Path jarPath = directory.resolve("classpath" + entries.size() + ".jar");
+                try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(jarPath))) {
+                    addDirectory(jar, path, path);
+                }
+                entries.add(jarPath.toString());
+            } else if (Files.exists(path)) {
+                entries.add(entry);
+            }
+        }
+        return entries.stream().collect(Collectors.joining(File.pathSeparator));
+    }
+
+    private static String write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file.toString();
+    }
+
+    private static void addDirectory(JarOutputStream jar, Path root, Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            jar.putNextEntry(new JarEntry(root.relativize(file).toString().replace(File.separatorChar, '/')));
+            Files.copy(file, (OutputStream) jar);
+        }
+    }
+
+    /**
+     * The booted JVM, which loads and enables the modules of the given directory.
+     * Given a class list and archive file it runs as training boot and dumps the archive.
+     */
+    public static class Boot extends ModuleLoader<Object> {
+
+        public Boot(File moduleDirectory) {
+            super(moduleDirectory, ".jar", new ReflectiveInstanceProvider(), ModulePropertyDescriptor::new);
+        }
+
+        public static void main(String[] args) throws IOException {
+            Boot loader = new Boot(new File(args[0]));
+            ModuleClassList classList = args.length > 1 ? new ModuleClassList() : null;
+            loader.setTrainingClassList(classList);
+            loader.loadModules();
+            loader.enableModules(new Object());
+            if (loader.getLoadedModules().size() != MODULES) {
+                throw new IllegalStateException("Only " + loader.getLoadedModules().size() + " modules were loaded");
+            }
+            if (classList != null) {
+                classList.dumpArchive(new File(args[1]), new File(args[2]), TimeUnit.MINUTES.toMillis(5));
+            }
+        }
+    }
+}
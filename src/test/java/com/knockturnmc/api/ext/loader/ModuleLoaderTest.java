@@ -1,10 +1,33 @@
 package com.knockturnmc.api.ext.loader;
 
+import com.knockturnmc.api.ext.Loadable;
+import com.knockturnmc.api.ext.event.EventBus;
+import com.knockturnmc.api.ext.event.EventPriority;
 import com.knockturnmc.api.ext.loader.descriptors.ModulePropertyDescriptor;
 import com.knockturnmc.api.ext.loader.provider.ReflectiveInstanceProvider;
+import com.knockturnmc.api.ext.loader.scheduler.ModuleScheduler;
+import com.knockturnmc.api.ext.loader.scheduler.ScheduledTask;
+import com.knockturnmc.api.ext.loader.scheduler.SchedulerAware;
+import com.knockturnmc.api.ext.loader.scheduler.TaskScheduler;
+import com.knockturnmc.api.util.rest.json.JsonReader;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.*;
@@ -27,6 +50,203 @@ public class ModuleLoaderTest {
         test(loader);
     }
 
+    @Test
+    public void testLazyActivation() {
+        File moduleFile = new File(System.getProperty("user.dir") + "/src/test/resources");
+        PropertyLoader loader = new PropertyLoader(moduleFile);
+        loader.setLazyActivation(true);
+        AtomicBoolean atomicBoolean = new AtomicBoolean(false);
+
+        loader.loadModules();
+        loader.enableModules(atomicBoolean);
+        assertTrue(loader.getLoadedModules().isEmpty());
+        assertFalse(atomicBoolean.get());
+
+        //The dependency is activated and enabled first
+        assertTrue(loader.getModule("Depending-Module").isPresent());
+        assertEquals(2, loader.getLoadedModules().size());
+        assertTrue(atomicBoolean.get());
+        assertSame(loader.getModule("depending-module").get(), loader.getModule("depending-module").get());
+        assertFalse(loader.getModule("missing-module").isPresent());
+
+        loader.disableModules(atomicBoolean);
+        assertFalse(atomicBoolean.get());
+        loader.unloadModules();
+    }
+
+    @Test
+    public void testConcurrentActivation() throws Exception {
+        File moduleFile = new File(System.getProperty("user.dir") + "/src/test/resources");
+        PropertyLoader loader = new PropertyLoader(moduleFile);
+        loader.setLazyActivation(true);
+        AtomicBoolean atomicBoolean = new AtomicBoolean(false);
+        loader.loadModules();
+        loader.enableModules(atomicBoolean);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Loadable<AtomicBoolean>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String name = i % 2 == 0 ? "depending-module" : "base-module";
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return loader.getModule(name).get();
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < results.size(); i++) {
+                assertSame(results.get(i % 2).get(10, TimeUnit.SECONDS), results.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(2, loader.getLoadedModules().size());
+        assertTrue(atomicBoolean.get());
+
+        loader.disableModules(atomicBoolean);
+        loader.unloadModules();
+    }
+
+    @Test
+    public void testFailedEnableStopsScheduler() throws InterruptedException {
+        PropertyLoader loader = new PropertyLoader(new File(System.getProperty("user.dir") + "/src/test/resources"));
+        TaskScheduler taskScheduler = new TaskScheduler(1, 1);
+        loader.setTaskScheduler(taskScheduler);
+        FailingModule module = new FailingModule();
+        ModuleWrapper<AtomicBoolean> wrapper = new ModuleWrapper<>(new ModulePropertyDescriptor(new File("failing.jar")), module);
+
+        try {
+            loader.enableModule(new AtomicBoolean(), wrapper);
+            fail();
+        } catch (IllegalStateException e) {
+            assertFalse(wrapper.isEnabled());
+        }
+        assertNull(wrapper.getScheduler());
+        assertNull(module.scheduler);
+        assertTrue(module.task.isCancelled());
+
+        taskScheduler.shutdown();
+        assertTrue(taskScheduler.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testHostListenersKept() {
+        PropertyLoader loader = new PropertyLoader(new File(System.getProperty("user.dir") + "/src/test/resources"));
+        EventBus eventBus = new EventBus();
+        loader.setEventBus(eventBus);
+        eventBus.subscribe(String.class, EventPriority.NORMAL, s -> {
+        });
+
+        //The module class is loaded by the same class loader as the host listener
+        ModuleWrapper<AtomicBoolean> wrapper = new ModuleWrapper<>(new ModulePropertyDescriptor(new File("host.jar")), new HostModule());
+        loader.enableModule(new AtomicBoolean(), wrapper);
+        loader.disableModule(new AtomicBoolean(), wrapper);
+        assertEquals(1, eventBus.getSubscriberCount());
+    }
+
+    @Test
+    public void testTrainingClassList() throws IOException {
+        File moduleFile = new File(System.getProperty("user.dir") + "/src/test/resources");
+        PropertyLoader loader = new PropertyLoader(moduleFile);
+        ModuleClassList classList = new ModuleClassList();
+        loader.setTrainingClassList(classList);
+
+        loader.loadModules();
+        loader.enableModules(new AtomicBoolean(false));
+        assertEquals(2, classList.getModules().size());
+        for (String module : classList.getModules()) {
+            assertFalse(classList.getClasses(module).isEmpty());
+            classList.getClasses(module).forEach(c -> assertTrue(c.getClassLoader() instanceof ModuleClassLoader));
+        }
+
+        File file = File.createTempFile("modules", ".classlist");
+        try {
+            classList.write(file);
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            assertTrue(lines.contains("java/lang/Object id: 0"));
+            assertTrue(lines.stream().anyMatch(l -> l.matches("\\S+ id: \\d+ super: \\d+( interfaces:( \\d+)+)? source: .+\\.jar")));
+        } finally {
+            file.delete();
+        }
+
+        loader.disableModules(new AtomicBoolean(false));
+        loader.unloadModules();
+    }
+
+    @Test
+    public void testTimings() throws IOException {
+        File moduleFile = new File(System.getProperty("user.dir") + "/src/test/resources");
+        PropertyLoader loader = new PropertyLoader(moduleFile);
+        AtomicBoolean atomicBoolean = new AtomicBoolean(false);
+
+        loader.loadModules();
+        loader.enableModules(atomicBoolean);
+        loader.disableModules(atomicBoolean);
+
+        ModuleTimings timings = loader.getTimings();
+        assertEquals(2, timings.getModules().size());
+        assertTrue(timings.getDurations(null).containsKey(ModuleTimings.Phase.SORT));
+        for (String module : timings.getModules()) {
+            assertEquals(EnumSet.complementOf(EnumSet.of(ModuleTimings.Phase.SORT)), timings.getDurations(module).keySet());
+            assertTrue(timings.getClassCount(module) > 0);
+        }
+
+        StringWriter trace = new StringWriter();
+        timings.writeTrace(trace);
+        JsonReader reader = new JsonReader(new StringReader(trace.toString()));
+        reader.beginObject();
+        int events = 0;
+        while (reader.hasNext()) {
+            if (!reader.nextName().equals("traceEvents")) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                reader.skipValue();
+                events++;
+            }
+            reader.endArray();
+        }
+        reader.endObject();
+        assertEquals(timings.getSpans().size(), events);
+        assertEquals(11, events);
+
+        loader.unloadModules();
+    }
+
+    @Test
+    public void testFailedInstantiationClosesJar() throws IOException {
+        File moduleFile = new File(System.getProperty("user.dir") + "/src/test/resources");
+        File jarFile = File.createTempFile("module", ".jar");
+        jarFile.deleteOnExit();
+        Files.copy(new File(moduleFile, "base-test-module-1.0-SNAPSHOT.jar").toPath(), jarFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        PropertyLoader loader = new PropertyLoader(moduleFile);
+        ModulePropertyDescriptor descriptor = new ModulePropertyDescriptor(jarFile) {
+            @Override
+            public Optional<String> getModuleClassName() {
+                return Optional.of("com.knockturnmc.test.basemodule.Missing");
+            }
+        };
+        descriptor.load();
+
+        ModuleJar held = ModuleJar.open(jarFile);
+        try {
+            loader.loadModule(descriptor);
+            fail();
+        } catch (ModuleLoaderException e) {
+            assertTrue(loader.getLoadedModules().isEmpty());
+        }
+        held.close();
+
+        //The view is only shared while open, so the failed class loader must have released it
+        try (ModuleJar reopened = ModuleJar.open(jarFile)) {
+            assertNotSame(held, reopened);
+        }
+    }
+
     /**
      * Tests a specific loader implementation
      *
@@ -47,6 +267,39 @@ public class ModuleLoaderTest {
         loader.unloadModules();
     }
 
+    private static class HostModule implements Loadable<AtomicBoolean> {
+
+        @Override
+        public void onEnable(AtomicBoolean parent) {
+        }
+
+        @Override
+        public void onDisable(AtomicBoolean parent) {
+        }
+    }
+
+    private static class FailingModule implements Loadable<AtomicBoolean>, SchedulerAware {
+
+        private ModuleScheduler scheduler;
+        private ScheduledTask task;
+
+        @Override
+        public void setScheduler(ModuleScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public void onEnable(AtomicBoolean parent) {
+            task = scheduler.scheduleAtFixedRate(() -> {
+            }, 0, 1, TimeUnit.HOURS);
+            throw new IllegalStateException("Failed to enable");
+        }
+
+        @Override
+        public void onDisable(AtomicBoolean parent) {
+        }
+    }
+
     private static class AnnotationLoader extends ModuleLoader<AtomicBoolean> {
 
         public AnnotationLoader(File moduleDirectory) {
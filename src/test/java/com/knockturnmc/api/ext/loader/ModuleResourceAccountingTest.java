@@ -0,0 +1,83 @@
+package com.knockturnmc.api.ext.loader;
+
+import com.knockturnmc.api.ext.loader.descriptors.ModulePropertyDescriptor;
+import com.knockturnmc.api.ext.loader.provider.ReflectiveInstanceProvider;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class ModuleResourceAccountingTest {
+
+    private static volatile Object sink;
+
+    @Test
+    public void testNestedScopes() {
+        ModuleResourceAccounting accounting = new ModuleResourceAccounting();
+        Assume.assumeTrue(accounting.isAllocationSupported());
+
+        ModuleResourceAccounting.Scope outer = accounting.enter("outer");
+        try {
+            accounting.run("inner", () -> sink = new byte[1 << 20]);
+        } finally {
+            outer.close();
+        }
+
+        assertTrue(accounting.getUsage("inner").getAllocatedBytes() >= 1 << 20);
+        assertTrue(accounting.getUsage("outer").getAllocatedBytes() < 1 << 20);
+        assertEquals(1, accounting.getUsage("outer").getInvocations());
+        assertEquals(0, accounting.getUsage("missing").getInvocations());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCloseOrder() {
+        ModuleResourceAccounting accounting = new ModuleResourceAccounting();
+        ModuleResourceAccounting.Scope outer = accounting.enter("outer");
+        accounting.enter("inner");
+        outer.close();
+    }
+
+    @Test
+    public void testAlerts() {
+        ModuleResourceAccounting accounting = new ModuleResourceAccounting();
+        Assume.assumeTrue(accounting.isAllocationSupported());
+        List<ModuleResourceAccounting.Alert> alerts = new ArrayList<>();
+        accounting.addAlertListener(alerts::add);
+        accounting.setAllocationThreshold(1);
+
+        accounting.sample();
+        accounting.run("module", () -> sink = new byte[1 << 16]);
+        accounting.sample();
+        assertEquals(1, alerts.size());
+        assertEquals("module", alerts.get(0).getModule());
+        assertEquals(ModuleResourceAccounting.Resource.ALLOCATION, alerts.get(0).getResource());
+        assertTrue(accounting.getUsage("module").getAllocationRate() > 1);
+
+        accounting.sample(); //Nothing allocated since the last sample
+        assertEquals(1, alerts.size());
+    }
+
+    @Test
+    public void testLoader() {
+        ModuleResourceAccounting accounting = new ModuleResourceAccounting();
+        ModuleLoader<AtomicBoolean> loader = new ModuleLoader<>(new File(System.getProperty("user.dir") + "/src/test/resources"),
+                ".jar", new ReflectiveInstanceProvider(), ModulePropertyDescriptor::new);
+        loader.setResourceAccounting(accounting);
+
+        loader.loadModules();
+        loader.enableModules(new AtomicBoolean());
+        loader.disableModules(new AtomicBoolean());
+        loader.unloadModules();
+
+        assertEquals(2, accounting.getUsages().size());
+        for (ModuleResourceAccounting.Usage usage : accounting.getUsages().values()) {
+            assertEquals(3, usage.getInvocations()); //Loading, enabling and disabling
+            if (accounting.isCpuTimeSupported()) assertTrue(usage.getCpuNanos() > 0);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.knockturnmc.api.ext.loader.dependency;
+
+import com.knockturnmc.api.ext.loader.ModuleLoaderException;
+import com.knockturnmc.api.ext.loader.descriptors.ModuleDescriptor;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ModuleDependenySorterTest {
+
+    @Test
+    public void testVersionSelection() {
+        ModuleDependenySorter sorter = new ModuleDependenySorter(Arrays.asList(
+                new Descriptor("Plugin", "1.0.0", Collections.singletonList("Library@^1.2")),
+                new Descriptor("Library", "1.1.0"),
+                new Descriptor("Library", "1.4.0"),
+                new Descriptor("Library", "2.0.0")));
+
+        assertEquals(Arrays.asList("library-1.4.0", "plugin-1.0.0"), names(sorter.sort()));
+        assertEquals(Arrays.asList("library-1.1.0", "library-2.0.0"), names(sorter.getUnselected()).stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testSoftDependencies() {
+        Descriptor plugin = new Descriptor("Plugin", "1.0.0");
+        plugin.softDependencies = Arrays.asList("Library@<2", "Missing");
+        ModuleDependenySorter sorter = new ModuleDependenySorter(Arrays.asList(plugin, new Descriptor("Library", "1.0.0"), new Descriptor("Library", "2.0.0")));
+
+        //The newest version satisfying the optional range is preferred, a missing optional dependency is ignored
+        assertEquals(Arrays.asList("library-1.0.0", "plugin-1.0.0"), names(sorter.sort()));
+    }
+
+    @Test
+    public void testSoftDependencyFallback() {
+        Descriptor plugin = new Descriptor("Plugin", "1.0.0", Collections.singletonList("Library@>=2"));
+        plugin.softDependencies = Collections.singletonList("Library@<2");
+        ModuleDependenySorter sorter = new ModuleDependenySorter(Arrays.asList(plugin, new Descriptor("Library", "1.0.0"), new Descriptor("Library", "2.0.0")));
+
+        assertEquals(Arrays.asList("library-2.0.0", "plugin-1.0.0"), names(sorter.sort()));
+    }
+
+    @Test(expected = ModuleLoaderException.class)
+    public void testMissingDependency() {
+        new ModuleDependenySorter(Collections.singletonList(new Descriptor("Plugin", "1.0.0", Collections.singletonList("Library")))).sort();
+    }
+
+    @Test
+    public void testUnsatisfiedRange() {
+        try {
+            new ModuleDependenySorter(Arrays.asList(
+                    new Descriptor("Plugin", "1.0.0", Collections.singletonList("Library@~1.2.0")),
+                    new Descriptor("Library", "1.3.0"))).sort();
+            fail();
+        } catch (ModuleLoaderException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("1.3.0"));
+        }
+    }
+
+    @Test(expected = ModuleLoaderException.class)
+    public void testCircularDependency() {
+        new ModuleDependenySorter(Arrays.asList(
+                new Descriptor("A", "1.0.0", Collections.singletonList("B")),
+                new Descriptor("B", "1.0.0", Collections.singletonList("A")))).sort();
+    }
+
+    @Test
+    public void testUnselectedCycle() {
+        //Only the older jar of A depends on B, which depends on A
+        ModuleDependenySorter sorter = new ModuleDependenySorter(Arrays.asList(
+                new Descriptor("A", "1.0.0", Collections.singletonList("B")),
+                new Descriptor("A", "2.0.0"),
+                new Descriptor("B", "1.0.0", Collections.singletonList("A"))));
+
+        assertEquals(Arrays.asList("a-2.0.0", "b-1.0.0"), names(sorter.sort()));
+        assertEquals(Collections.singletonList("a-1.0.0"), names(sorter.getUnselected()));
+    }
+
+    private static List<String> names(List<ModuleDescriptor> descriptors) {
+        return descriptors.stream().map(d -> d.getFile().getName()).collect(Collectors.toList());
+    }
+
+    private static class Descriptor implements ModuleDescriptor {
+
+        private final String name;
+        private final String version;
+        private final Collection<String> dependencies;
+        private Collection<String> softDependencies = Collections.emptyList();
+
+        private Descriptor(String name, String version) {
+            this(name, version, Collections.emptyList());
+        }
+
+        private Descriptor(String name, String version, Collection<String> dependencies) {
+            this.name = name;
+            this.version = version;
+            this.dependencies = dependencies;
+        }
+
+        @Override
+        public void load() {
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getAuthor() {
+            return "test";
+        }
+
+        @Override
+        public String getVersion() {
+            return version;
+        }
+
+        @Override
+        public Collection<String> getDependencies() {
+            return dependencies;
+        }
+
+        @Override
+        public Collection<String> getSoftDependencies() {
+            return softDependencies;
+        }
+
+        @Override
+        public Optional<String> getModuleClassName() {
+            return Optional.empty();
+        }
+
+        @Override
+        public File getFile() {
+            return new File(name.toLowerCase() + "-" + version);
+        }
+
+        @Override
+        public boolean isReloadable() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.knockturnmc.api.ext.loader.dependency;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class VersionTest {
+
+    @Test
+    public void testParse() {
+        assertEquals("1.2.3", Version.parse("1.2.3").toString());
+        assertEquals("0.1.0", Version.parse("\"0.1\"").toString());
+        assertEquals("2.0.0", Version.parse("v2").toString());
+        assertEquals("1.0.0-rc.1+build.5", Version.parse("1.0.0-rc.1+build.5").toString());
+        assertEquals(Version.parse("1.0.0+a"), Version.parse("1.0.0+b"));
+
+        for (String invalid : new String[]{"", "1.2.3.4", "1..2", "a.b", "1.0.0-", "1.0.0-be$ta", "-1.0"}) {
+            assertNull(invalid, Version.tryParse(invalid));
+        }
+    }
+
+    @Test
+    public void testPrecedence() {
+        List<String> ordered = Arrays.asList("1.0.0-alpha", "1.0.0-alpha.1", "1.0.0-alpha.beta", "1.0.0-beta", "1.0.0-beta.2",
+                "1.0.0-beta.11", "1.0.0-rc.1", "1.0.0", "1.0.1", "1.2.0", "1.10.0", "2.0.0");
+        for (int i = 1; i < ordered.size(); i++) {
+            assertTrue(ordered.get(i), Version.parse(ordered.get(i - 1)).compareTo(Version.parse(ordered.get(i))) < 0);
+        }
+        assertEquals(Version.parse("1.0.0-beta.02").hashCode(), Version.parse("1.0.0-beta.2").hashCode());
+    }
+
+    @Test
+    public void testRanges() {
+        assertRange("*", "0.0.1", "0.0.3", "0.2.3", "0.2.9", "1.2.0", "1.2.3", "1.2.9", "1.5.0", "1.9.9", "2.0.0", "2.0.5", "2.9.0", "99.0.0");
+        assertRange("1.2.3", "1.2.3");
+        assertRange(">=1.2.0 <2", "1.2.0", "1.2.3", "1.2.9", "1.5.0", "1.9.9");
+        assertRange(">= 1.2", "1.2.0", "1.2.3", "1.2.9", "1.5.0", "1.9.9", "2.0.0", "2.0.5", "2.9.0", "99.0.0");
+        assertRange(">1.2", "1.5.0", "1.9.9", "2.0.0", "2.0.5", "2.9.0", "99.0.0");
+        assertRange("<=1.2", "0.0.1", "0.0.3", "0.2.3", "0.2.9", "1.2.0", "1.2.3", "1.2.9");
+        assertRange("1.x", "1.2.0", "1.2.3", "1.2.9", "1.5.0", "1.9.9");
+        assertRange("1.2", "1.2.0", "1.2.3", "1.2.9");
+        assertRange("^1.2", "1.2.0", "1.2.3", "1.2.9", "1.5.0", "1.9.9");
+        assertRange("^0.2.3", "0.2.3", "0.2.9");
+        assertRange("^0.0.3", "0.0.3");
+        assertRange("~1.2.3", "1.2.3", "1.2.9");
+        assertRange("~1", "1.2.0", "1.2.3", "1.2.9", "1.5.0", "1.9.9");
+        assertRange("1.2 - 1.5.0", "1.2.0", "1.2.3", "1.2.9", "1.5.0");
+        assertRange("1.2.9 - 2", "1.2.9", "1.5.0", "1.9.9", "2.0.0", "2.0.5", "2.9.0");
+        assertRange("<1 || >=2.0.0 <3", "0.0.1", "0.0.3", "0.2.3", "0.2.9", "2.0.0", "2.0.5", "2.9.0");
+        assertRange(">=2.0.0-beta <2.1", "2.0.0-beta", "2.0.0-rc.1", "2.0.0", "2.0.5");
+
+        assertFalse(VersionRange.parse("^1.0.0").contains(Version.parse("2.0.0-beta")));
+        assertFalse(VersionRange.parse("<2").contains(Version.parse("2.0.0-beta")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+        VersionRange.parse(">= ");
+    }
+
+    @Test
+    public void testDependency() {
+        ModuleDependency dependency = ModuleDependency.parse("Economy Module@^2.1", false);
+        assertEquals("economy_module", dependency.getID());
+        assertTrue(dependency.accepts(Version.parse("2.3.0")));
+        assertFalse(dependency.accepts(Version.parse("3.0.0")));
+        assertFalse(dependency.accepts(null));
+        assertTrue(ModuleDependency.parse("economy", true).accepts(null));
+    }
+
+    /**
+     * Checks that the range contains exactly the given versions of a fixed sample
+     */
+    private static void assertRange(String range, String... contained) {
+        List<String> sample = Arrays.asList("0.0.1", "0.0.3", "0.2.3", "0.2.9", "1.2.0", "1.2.3", "1.2.9", "1.5.0", "1.9.9", "2.0.0-beta",
+                "2.0.0-rc.1", "2.0.0", "2.0.5", "2.9.0", "99.0.0");
+        VersionRange parsed = VersionRange.parse(range);
+        List<String> expected = Arrays.asList(contained);
+        for (String version : sample) {
+            assertEquals(range + " contains " + version, expected.contains(version), parsed.contains(Version.parse(version)));
+        }
+    }
+}
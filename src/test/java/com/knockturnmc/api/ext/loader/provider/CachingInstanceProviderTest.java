@@ -0,0 +1,103 @@
+package com.knockturnmc.api.ext.loader.provider;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class CachingInstanceProviderTest {
+
+    @Test
+    public void testNoArgConstructor() {
+        CachingInstanceProvider provider = new CachingInstanceProvider();
+        Plain first = provider.getInstance(Plain.class);
+        Plain second = provider.getInstance(Plain.class);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void testConstructorInjection() {
+        Service service = new Service();
+        CachingInstanceProvider provider = new CachingInstanceProvider().register(Service.class, service).register(String.class, "name");
+        assertSame(service, provider.getService(Service.class));
+
+        Injected single = provider.getInstance(Injected.class);
+        assertSame(service, single.service);
+        assertEquals("name", single.name);
+
+        Annotated annotated = provider.getInstance(Annotated.class);
+        assertSame(service, annotated.service);
+    }
+
+    @Test
+    public void testMissingService() {
+        CachingInstanceProvider provider = new CachingInstanceProvider();
+        try {
+            provider.getInstance(Injected.class);
+            fail("Instantiated without services");
+        } catch (RuntimeException e) {
+            assertEquals(IllegalStateException.class, e.getCause().getClass());
+        }
+        provider.register(Service.class, new Service()).register(String.class, "late");
+        assertEquals("late", provider.getInstance(Injected.class).name);
+    }
+
+    @Test
+    public void testConstructorFailure() {
+        try {
+            new CachingInstanceProvider().getInstance(Failing.class);
+            fail("Constructor did not fail");
+        } catch (RuntimeException e) {
+            assertEquals("broken", e.getCause().getMessage());
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testAmbiguousConstructors() {
+        new CachingInstanceProvider().getInstance(Ambiguous.class);
+    }
+
+    public static class Service {
+    }
+
+    public static class Plain {
+    }
+
+    public static class Injected {
+        final Service service;
+        final String name;
+
+        public Injected(Service service, String name) {
+            this.service = service;
+            this.name = name;
+        }
+    }
+
+    public static class Annotated {
+        Service service;
+
+        public Annotated() {
+        }
+
+        @Inject
+        Annotated(Service service) {
+            this.service = service;
+        }
+    }
+
+    public static class Failing {
+        public Failing() {
+            throw new IllegalArgumentException("broken");
+        }
+    }
+
+    public static class Ambiguous {
+        public Ambiguous(Service service) {
+        }
+
+        public Ambiguous(String name) {
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.knockturnmc.api.ext.loader.provider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares instantiating through {@link ReflectiveInstanceProvider} and {@link CachingInstanceProvider}.
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark=InstanceProviderBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstanceProviderBenchmark {
+
+    private final ReflectiveInstanceProvider reflective = new ReflectiveInstanceProvider();
+    private final CachingInstanceProvider caching = new CachingInstanceProvider().register(Service.class, new Service());
+
+    @Benchmark
+    public Object reflective() {
+        return reflective.getInstance(Plain.class);
+    }
+
+    @Benchmark
+    public Object caching() {
+        return caching.getInstance(Plain.class);
+    }
+
+    @Benchmark
+    public Object cachingInjected() {
+        return caching.getInstance(Injected.class);
+    }
+
+    public static class Service {
+    }
+
+    public static class Plain {
+    }
+
+    public static class Injected {
+        final Service service;
+
+        public Injected(Service service) {
+            this.service = service;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.knockturnmc.api.ext.loader.scheduler;
+
+import com.knockturnmc.api.ext.loader.ModuleResourceAccounting;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ModuleSchedulerTest {
+
+    private final TaskScheduler service = new TaskScheduler(4, 2);
+
+    @After
+    public void tearDown() throws InterruptedException {
+        service.shutdown();
+        assertTrue(service.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExecuteAndDelay() throws InterruptedException {
+        ModuleScheduler scheduler = service.forModule("module", null);
+        CountDownLatch latch = new CountDownLatch(2);
+        ScheduledTask task = scheduler.execute(latch::countDown);
+        long start = System.nanoTime();
+        scheduler.schedule(latch::countDown, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(task.isDone());
+        assertFalse(task.isCancelled());
+    }
+
+    @Test
+    public void testRepeatingAndCancelAll() throws InterruptedException {
+        ModuleScheduler scheduler = service.forModule("module", null);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(3);
+        ScheduledTask task = scheduler.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            latch.countDown();
+        }, 0, 10, TimeUnit.MILLISECONDS);
+        ScheduledTask delayed = scheduler.schedule(runs::incrementAndGet, 1, TimeUnit.HOURS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(2, scheduler.getTaskCount());
+
+        scheduler.cancelAll();
+        assertTrue(task.isCancelled());
+        assertTrue(delayed.isCancelled());
+        assertEquals(0, scheduler.getTaskCount());
+        int cancelledRuns = runs.get();
+        Thread.sleep(50);
+        assertEquals(cancelledRuns, runs.get());
+
+        try {
+            scheduler.execute(runs::incrementAndGet);
+            fail("Tasks are rejected after cancelAll");
+        } catch (RejectedExecutionException e) {
+            assertTrue(scheduler.isShutdown());
+        }
+    }
+
+    @Test
+    public void testConcurrencyCap() throws InterruptedException {
+        ModuleScheduler scheduler = service.forModule("module", null);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(20);
+        for (int i = 0; i < 20; i++) {
+            scheduler.execute(() -> {
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                concurrent.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, scheduler.getMaxConcurrency());
+        assertTrue(maxConcurrent.get() <= 2);
+    }
+
+    @Test
+    public void testCancelInterruptsAndFailuresAreContained() throws InterruptedException {
+        service.setMaxConcurrency("module", 1);
+        ModuleScheduler scheduler = service.forModule("module", null);
+        assertEquals(1, scheduler.getMaxConcurrency());
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        scheduler.execute(() -> {
+            throw new IllegalStateException("Expected by the test");
+        });
+        ScheduledTask task = scheduler.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(task.cancel());
+        assertFalse(task.cancel());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAccounting() throws InterruptedException {
+        ModuleResourceAccounting accounting = new ModuleResourceAccounting();
+        ModuleScheduler scheduler = service.forModule("module", accounting);
+        CountDownLatch latch = new CountDownLatch(1);
+        scheduler.execute(latch::countDown);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 100 && accounting.getUsage("module").getInvocations() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, accounting.getUsage("module").getInvocations());
+    }
+}
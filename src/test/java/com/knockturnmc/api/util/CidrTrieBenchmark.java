@@ -0,0 +1,123 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares checking addresses against ban ranges with {@link CidrTrie} to a regex validation followed by a linear scan.
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark=CidrTrieBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CidrTrieBenchmark {
+
+    //The pattern Utils.validateIP used before
+    private static final Pattern IP_PATTERN = Pattern.compile(
+            "^([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\." +
+                    "([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\." +
+                    "([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\." +
+                    "([01]?\\d\\d?|2[0-4]\\d|25[0-5])$");
+
+    @Param({"100", "5000"})
+    public int ranges;
+
+    private final CidrTrie trie = new CidrTrie();
+    private int[] networks;
+    private int[] masks;
+    private String[] addresses;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        networks = new int[ranges];
+        masks = new int[ranges];
+        for (int i = 0; i < ranges; i++) {
+            int prefix = 16 + random.nextInt(17);
+            masks[i] = -1 << (32 - prefix);
+            networks[i] = random.nextInt() & masks[i];
+            trie.addIPv4(networks[i], prefix);
+        }
+        addresses = new String[1024];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = Utils.formatIPv4(random.nextInt() & 0xFFFFFFFFL);
+        }
+    }
+
+    @Benchmark
+    public boolean validateRegex() {
+        return IP_PATTERN.matcher(nextAddress()).matches();
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return Utils.validateIP(nextAddress());
+    }
+
+    @Benchmark
+    public boolean containsLinear() {
+        String address = nextAddress();
+        if (!IP_PATTERN.matcher(address).matches())
+            return false;
+        String[] octets = address.split("\\.");
+        int ip = 0;
+        for (String octet : octets) {
+            ip = ip << 8 | Integer.parseInt(octet);
+        }
+        for (int i = 0; i < networks.length; i++) {
+            if ((ip & masks[i]) == networks[i])
+                return true;
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean containsTrie() {
+        return trie.contains(nextAddress());
+    }
+
+    private String nextAddress() {
+        return addresses[next++ & (addresses.length - 1)];
+    }
+}
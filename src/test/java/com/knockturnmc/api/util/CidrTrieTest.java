@@ -0,0 +1,107 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CidrTrieTest {
+
+    @Test
+    public void testIPv4() {
+        CidrTrie trie = new CidrTrie();
+        assertTrue(trie.add("10.0.0.0/8"));
+        assertTrue(trie.add("192.168.1.0/24"));
+        assertTrue(trie.add("203.0.113.7"));
+        assertFalse(trie.add("10.20.0.0/16"));
+
+        assertTrue(trie.contains("10.255.0.1"));
+        assertTrue(trie.contains("192.168.1.200"));
+        assertFalse(trie.contains("192.168.2.1"));
+        assertTrue(trie.contains("203.0.113.7"));
+        assertFalse(trie.contains("203.0.113.8"));
+        assertFalse(trie.contains("not an ip"));
+        assertTrue(trie.contains("::ffff:10.1.2.3"));
+        assertEquals(3, trie.size());
+
+        //A shorter range replaces the ranges it covers
+        assertTrue(trie.add("192.0.0.0/2"));
+        assertEquals(2, trie.size());
+        assertTrue(trie.contains("255.255.255.255"));
+
+        assertTrue(trie.add("0.0.0.0/0"));
+        assertEquals(1, trie.size());
+        assertTrue(trie.contains("1.2.3.4"));
+        assertFalse(trie.contains("::1"));
+
+        trie.clear();
+        assertTrue(trie.isEmpty());
+        assertFalse(trie.contains("1.2.3.4"));
+    }
+
+    @Test
+    public void testIPv6() {
+        CidrTrie trie = new CidrTrie();
+        trie.add("2001:db8::/32");
+        trie.add("fe80::1");
+        assertTrue(trie.contains("2001:db8:ffff::1"));
+        assertFalse(trie.contains("2001:db9::1"));
+        assertTrue(trie.contains("fe80::1"));
+        assertFalse(trie.contains("fe80::2"));
+        assertFalse(trie.contains("32.1.13.184"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPrefix() {
+        new CidrTrie().add("10.0.0.0/33");
+    }
+
+    @Test
+    public void testAgainstLinearScan() {
+        Random random = new Random(1);
+        int[] networks = new int[2000];
+        int[] masks = new int[networks.length];
+        CidrTrie trie = new CidrTrie();
+        for (int i = 0; i < networks.length; i++) {
+            int prefix = 8 + random.nextInt(25);
+            masks[i] = -1 << (32 - prefix);
+            networks[i] = random.nextInt() & masks[i];
+            trie.addIPv4(networks[i], prefix);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            int address = i % 2 == 0 ? random.nextInt() : networks[random.nextInt(networks.length)] | random.nextInt(256);
+            boolean expected = false;
+            for (int range = 0; range < networks.length && !expected; range++) {
+                expected = (address & masks[range]) == networks[range];
+            }
+            assertEquals(expected, trie.containsIPv4(address));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ConcurrentUUIDMapTest {
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        ConcurrentUUIDMap<AtomicInteger> map = new ConcurrentUUIDMap<>(0, 8);
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            uuids.add(new UUID(i % 7, i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int round = 0; round < 10; round++) {
+                        for (UUID uuid : uuids) {
+                            map.computeIfAbsent(uuid, key -> new AtomicInteger()).incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(uuids.size(), map.size());
+        map.forEach((uuid, count) -> assertEquals(80, count.get()));
+        assertEquals(80, map.remove(uuids.get(0)).get());
+        assertEquals(uuids.size() - 1, map.size());
+        map.clear();
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testInterner() {
+        UUIDInterner interner = new UUIDInterner();
+        UUID uuid = UUID.randomUUID();
+        UUID interned = interner.intern(uuid);
+        assertSame(uuid, interned);
+        assertSame(uuid, interner.intern(new UUID(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits())));
+        assertSame(uuid, interner.intern(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+        assertSame(uuid, interner.intern(Utils.getBytes(uuid), 0));
+        assertSame(uuid, interner.intern(Utils.uuidToString(uuid, false)));
+        assertEquals(1, interner.size());
+
+        assertEquals(true, interner.release(uuid));
+        assertNotSame(uuid, interner.intern(uuid.toString()));
+    }
+
+    @Test
+    public void testInternBytes() {
+        UUIDInterner interner = new UUIDInterner();
+        UUID uuid = UUID.randomUUID();
+        byte[] raw = new byte[20];
+        Utils.putBytes(uuid, raw, 4);
+        assertSame(interner.intern(uuid), interner.intern(raw, 4));
+
+        try {
+            interner.intern(raw, 5);
+            fail();
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+    }
+}
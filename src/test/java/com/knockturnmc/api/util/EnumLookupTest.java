@@ -0,0 +1,94 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class EnumLookupTest {
+
+    private enum GameMode {
+        @EnumAlias({"s", "0"})
+        SURVIVAL,
+        @EnumAlias({"c", "1", "SURVIVAL"})
+        CREATIVE,
+        @EnumAlias("sp")
+        SPECTATOR {
+            @Override
+            public String toString() {
+                return "spectating";
+            }
+        }
+    }
+
+    @Test
+    public void testLookup() {
+        EnumLookup<GameMode> lookup = EnumLookup.of(GameMode.class);
+        assertSame(lookup, EnumLookup.of(GameMode.class));
+        assertEquals(GameMode.SURVIVAL, lookup.get("SURVIVAL"));
+        assertEquals(GameMode.SURVIVAL, lookup.get("0"));
+        assertEquals(GameMode.CREATIVE, lookup.get("c"));
+        assertEquals(GameMode.SPECTATOR, lookup.get("sp"));
+        assertNull(lookup.get("survival"));
+        assertNull(lookup.get(null));
+
+        assertEquals(GameMode.SURVIVAL, lookup.get("survival", true));
+        assertEquals(GameMode.CREATIVE, lookup.get("C", true));
+        assertEquals(GameMode.SPECTATOR, lookup.get("SpEcTaToR", true));
+        assertNull(lookup.get("adventure", true));
+        assertEquals(GameMode.CREATIVE, lookup.getOrDefault("adventure", true, GameMode.CREATIVE));
+    }
+
+    @Test
+    public void testEvaluateEnum() {
+        assertEquals(TimeUnit.DAYS, Utils.evaluateEnum(TimeUnit.class, "DAYS"));
+        assertNull(Utils.evaluateEnum(TimeUnit.class, "days"));
+        assertEquals(TimeUnit.DAYS, Utils.evaluateEnum(TimeUnit.class, "days", true));
+        assertNull(Utils.evaluateEnum(TimeUnit.class, ""));
+        assertNull(Utils.evaluateEnum(TimeUnit.class, "weeks"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testNotAnEnum() {
+        EnumLookup.of((Class) String.class);
+    }
+
+    @Test
+    public void testForType() {
+        assertSame(EnumLookup.of(GameMode.class), EnumLookup.forType(GameMode.class));
+        assertEquals(GameMode.CREATIVE, EnumLookup.forType(GameMode.class).get("1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForTypeNotAnEnum() {
+        EnumLookup.forType(String.class);
+    }
+}
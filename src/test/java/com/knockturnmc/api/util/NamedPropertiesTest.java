@@ -51,6 +51,36 @@ public class NamedPropertiesTest {
         assertEquals(31231232L, properties.someLong);
     }
 
+    @Test
+    public void testEnumMapping() throws Exception {
+        EnumProperties properties = new EnumProperties();
+        properties.load(new ByteArrayInputStream("time.unit=days".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(TimeUnit.DAYS, properties.timeUnit);
+        assertNull(properties.unset);
+    }
+
+    @Test
+    public void testInvalidEnum() throws Exception {
+        try {
+            new TestProperties().load(new ByteArrayInputStream("time.unit=weeks".getBytes(StandardCharsets.UTF_8)));
+            fail();
+        } catch (RuntimeException e) {
+            Throwable cause = e;
+            while (cause.getCause() != null) cause = cause.getCause();
+            assertEquals("Invalid TimeUnit for field time.unit=weeks", cause.getMessage());
+        }
+    }
+
+    private static class EnumProperties extends NamedProperties {
+        private static final long serialVersionUID = 1L;
+
+        @Property(value = "time.unit", type = TimeUnit.class, ignoreCase = true)
+        TimeUnit timeUnit;
+
+        @Property(value = "unset", type = TimeUnit.class)
+        TimeUnit unset;
+    }
+
     private static class TestProperties extends NamedProperties {
         @Property(value = "test")
         int test;
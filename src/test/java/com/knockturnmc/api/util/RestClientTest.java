@@ -0,0 +1,418 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util;
+
+import com.knockturnmc.api.util.rest.CircuitBreaker;
+import com.knockturnmc.api.util.rest.CircuitBreakerOpenException;
+import com.knockturnmc.api.util.rest.ResponseHandler;
+import com.knockturnmc.api.util.rest.RestClientSettings;
+import com.knockturnmc.api.util.rest.RestException;
+import com.knockturnmc.api.util.rest.RetryPolicy;
+import com.knockturnmc.api.util.rest.TypeReference;
+import com.knockturnmc.api.util.rest.json.JsonException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class RestClientTest {
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private final AtomicInteger flaky = new AtomicInteger();
+    private final AtomicInteger hedged = new AtomicInteger();
+    private final AtomicInteger counted = new AtomicInteger();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String base;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ok", exchange -> respond(exchange, 200, "hello"));
+        server.createContext("/error", exchange -> respond(exchange, 500, "broken"));
+        server.createContext("/slow", exchange -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            active.decrementAndGet();
+            respond(exchange, 200, "slow");
+        });
+        server.createContext("/gzip", exchange -> {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write("{\n  \"compressed\": true\n}".getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressed.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                compressed.writeTo(out);
+            }
+        });
+        server.createContext("/latin", exchange -> {
+            byte[] bytes = "café".getBytes(StandardCharsets.ISO_8859_1);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=ISO-8859-1");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.createContext("/echo", exchange -> {
+            byte[] bytes = IOUtils.toByteArray(exchange.getRequestBody());
+            exchange.getResponseHeaders().set("Content-Type", exchange.getRequestHeaders().getFirst("Content-Type"));
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.createContext("/flaky", exchange -> respond(exchange, flaky.incrementAndGet() % 3 == 0 ? 200 : 503, "flaky"));
+        server.createContext("/hedge", exchange -> {
+            if (hedged.getAndIncrement() == 0) {
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            respond(exchange, 200, "hedge");
+        });
+        server.createContext("/count", exchange -> {
+            counted.incrementAndGet();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "count");
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testConnectionReuse() throws IOException {
+        RestClient client = new RestClient(ContentType.JSON.getContentType()) {
+        };
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("hello", client.doGet(base + "/ok"));
+            try {
+                client.doGet(base + "/error");
+                fail("Error response did not throw");
+            } catch (RestException e) {
+                assertEquals(500, e.getStatus());
+                assertEquals("broken", e.getBody());
+            }
+        }
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void testWithoutKeepAlive() throws IOException {
+        RestClient client = new RestClient(ContentType.JSON.getContentType(), RestClientSettings.builder().keepAlive(false).build()) {
+        };
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("hello", client.doGet(base + "/ok"));
+        }
+        assertEquals(3, clientPorts.size());
+    }
+
+    @Test
+    public void testConnectionLimit() throws Exception {
+        RestClient client = new RestClient(ContentType.JSON.getContentType(), RestClientSettings.builder().maxConnectionsPerHost(2).build()) {
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                results.add(executor.submit(() -> client.doGet(base + "/slow")));
+            }
+            for (Future<String> result : results) {
+                assertEquals("slow", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(maxActive.get() <= 2);
+    }
+
+    @Test
+    public void testAsyncConnectionLimit() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            RestClient client = new RestClient(ContentType.JSON.getContentType(), RestClientSettings.builder()
+                    .maxConnectionsPerHost(2)
+                    .executor(executor)
+                    .build()) {
+            };
+
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                results.add(client.doGetAsync(base + "/slow"));
+            }
+            for (CompletableFuture<String> result : results) {
+                assertEquals("slow", result.get(5, TimeUnit.SECONDS));
+            }
+            assertTrue(maxActive.get() <= 2);
+            assertEquals("hello", client.doPostAsync(base + "/ok", "{}").get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsyncTimeoutAndCancellation() throws Exception {
+        RestClient client = new RestClient(ContentType.JSON.getContentType(), RestClientSettings.builder()
+                .maxConnectionsPerHost(1)
+                .requestTimeout(10, TimeUnit.MILLISECONDS)
+                .build()) {
+        };
+
+        try {
+            client.doGetAsync(base + "/slow").get(5, TimeUnit.SECONDS);
+            fail("Request did not time out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        RestClient unlimited = new RestClient(ContentType.JSON.getContentType()) {
+        };
+        CompletableFuture<String> cancelled = unlimited.doGetAsync(base + "/slow");
+        assertTrue(cancelled.cancel(true));
+        assertEquals("hello", unlimited.doGetAsync(base + "/ok").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testEncodings() throws IOException {
+        RestClient client = new RestClient(ContentType.JSON.getContentType()) {
+        };
+
+        assertEquals("{\n  \"compressed\": true\n}", client.doGet(base + "/gzip"));
+        assertEquals("café", client.doGet(base + "/latin"));
+        assertEquals("über ☃", client.doPost(base + "/echo", "über ☃"));
+
+        ByteBuffer bytes = client.doGet(base + "/ok", ResponseHandler.BYTES);
+        assertEquals(5, bytes.remaining());
+        assertEquals('h', bytes.get(0));
+
+        int first = client.doGet(base + "/gzip", response -> response.getBody().read()); //The rest is drained by the client
+        assertEquals('{', first);
+        assertEquals("hello", client.doGet(base + "/ok"));
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void testCodec() throws Exception {
+        RestClient client = new RestClient(ContentType.JSON.getContentType()) {
+        };
+
+        Message message = new Message();
+        message.text = "über ☃";
+        message.recipients = Arrays.asList(1L, 2L);
+
+        Message echoed = client.doPostObject(base + "/echo", message, Message.class);
+        assertEquals(message.text, echoed.text);
+        assertEquals(message.recipients, echoed.recipients);
+
+        Map<String, Boolean> compressed = client.doGetObject(base + "/gzip", new TypeReference<Map<String, Boolean>>() {
+        });
+        assertEquals(Collections.singletonMap("compressed", true), compressed);
+        assertEquals(message.text, client.doPostObjectAsync(base + "/echo", message, client.decode(Message.class)).get(5, TimeUnit.SECONDS).text);
+
+        try {
+            client.doGetObject(base + "/ok", Message.class);
+            fail("Malformed response was accepted");
+        } catch (JsonException e) {
+            assertEquals("hello", client.doGet(base + "/ok"));
+        }
+    }
+
+    @Test
+    public void testRetry() throws Exception {
+        RestClient client = new RestClient(ContentType.JSON.getContentType(), RestClientSettings.builder()
+                .retryPolicy(RetryPolicy.builder().maxRetries(2).backoff(1, TimeUnit.MILLISECONDS).build())
+                .build()) {
+        };
+
+        assertEquals("flaky", client.doGet(base + "/flaky"));
+        assertEquals("flaky", client.doGetAsync(base + "/flaky").get(5, TimeUnit.SECONDS));
+        assertEquals(4, client.getRetries());
+
+        try {
+            client.doPost(base + "/flaky", "{}"); //Not idempotent
+            fail("POST was retried");
+        } catch (RestException e) {
+            assertEquals(503, e.getStatus());
+        }
+    }
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        List<CircuitBreaker.State> transitions = Collections.synchronizedList(new ArrayList<>());
+        RestClient client = new RestClient(ContentType.JSON.getContentType(), RestClientSettings.builder()
+                .circuitBreaker(2, 100, TimeUnit.MILLISECONDS)
+                .circuitBreakerListener((breaker, from, to) -> transitions.add(to))
+                .build()) {
+        };
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                client.doGet(base + "/error");
+                fail("Error response did not throw");
+            } catch (CircuitBreakerOpenException e) {
+                assertEquals(2, i);
+            } catch (RestException e) {
+                assertTrue(i < 2);
+            }
+        }
+        try {
+            client.doGetAsync(base + "/ok").get(5, TimeUnit.SECONDS);
+            fail("Open circuit breaker did not reject the request");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CircuitBreakerOpenException);
+        }
+
+        Thread.sleep(150);
+        assertEquals("hello", client.doGet(base + "/ok"));
+        CircuitBreaker breaker = client.getCircuitBreakers().values().iterator().next();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(2, breaker.getRejected());
+        assertEquals(Arrays.asList(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED), transitions);
+    }
+
+    @Test
+    public void testHedging() throws IOException {
+        RestClient client = new RestClient(ContentType.JSON.getContentType(), RestClientSettings.builder()
+                .hedgeDelay(20, TimeUnit.MILLISECONDS)
+                .build()) {
+        };
+
+        long start = System.nanoTime();
+        assertEquals("hedge", client.doGet(base + "/hedge"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 900);
+        assertEquals(1, client.getHedges());
+    }
+
+    @Test
+    public void testReadTimeout() throws IOException {
+        RestClient client = new RestClient(ContentType.JSON.getContentType(), RestClientSettings.builder()
+                .readTimeout(10, TimeUnit.MILLISECONDS)
+                .build()) {
+        };
+
+        try {
+            client.doGet(base + "/slow");
+            fail("Slow response did not time out");
+        } catch (SocketTimeoutException e) {
+            assertEquals("hello", client.doGet(base + "/ok"));
+        }
+    }
+
+    @Test
+    public void testCoalescing() throws Exception {
+        RestClient client = new RestClient(ContentType.JSON.getContentType(), RestClientSettings.builder()
+                .coalescing(1, TimeUnit.SECONDS)
+                .build()) {
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return client.doGet(base + "/count");
+                }));
+            }
+            start.countDown();
+            results.add(CompletableFuture.supplyAsync(() -> client.doGetAsync(base + "/count").join(), executor));
+            for (Future<String> result : results) {
+                assertEquals("count", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("count", client.doGet(base + "/count")); //Shared within the window
+        assertEquals(10, counted.get() + client.getCoalescedRequests());
+        assertTrue(counted.get() < 5);
+    }
+
+    private static class Message {
+        private String text;
+        private List<Long> recipients;
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
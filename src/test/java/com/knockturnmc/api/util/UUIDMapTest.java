@@ -0,0 +1,125 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class UUIDMapTest {
+
+    private static final UUID NIL = new UUID(0, 0);
+
+    @Test
+    public void testMap() {
+        UUIDMap<String> map = new UUIDMap<>();
+        UUID uuid = UUID.randomUUID();
+        assertNull(map.put(uuid, "a"));
+        assertEquals("a", map.put(uuid, "b"));
+        assertEquals("b", map.get(uuid));
+        assertEquals("b", map.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+        assertEquals("b", map.putIfAbsent(uuid, "c"));
+        assertEquals("d", map.computeIfAbsent(UUID.randomUUID(), key -> "d"));
+        assertEquals(2, map.size());
+
+        assertNull(map.get(NIL));
+        assertNull(map.put(NIL, "nil"));
+        assertEquals("nil", map.get(0, 0));
+        assertEquals(3, map.size());
+        assertEquals("nil", map.remove(NIL));
+        assertFalse(map.containsKey(NIL));
+
+        assertEquals("b", map.remove(uuid));
+        assertNull(map.remove(uuid));
+        assertEquals(1, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullValue() {
+        new UUIDMap<>().put(UUID.randomUUID(), null);
+    }
+
+    @Test
+    public void testMapAgainstHashMap() {
+        Random random = new Random(42);
+        UUIDMap<Integer> map = new UUIDMap<>(4);
+        Map<UUID, Integer> expected = new HashMap<>();
+        //Few distinct high bits and clustered low bits provoke long probe sequences and shifting removals
+        for (int i = 0; i < 200_000; i++) {
+            UUID uuid = new UUID(random.nextInt(4), random.nextInt(5000));
+            switch (random.nextInt(3)) {
+                case 0:
+                case 1:
+                    assertEquals(expected.put(uuid, i), map.put(uuid, i));
+                    break;
+                default:
+                    assertEquals(expected.remove(uuid), map.remove(uuid));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        Map<UUID, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testSetAgainstHashSet() {
+        Random random = new Random(7);
+        UUIDSet set = new UUIDSet(0);
+        Set<UUID> expected = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            UUID uuid = new UUID(random.nextInt(4), random.nextInt(5000));
+            if (random.nextInt(3) < 2)
+                assertEquals(expected.add(uuid), set.add(uuid));
+            else
+                assertEquals(expected.remove(uuid), set.remove(uuid));
+            assertEquals(expected.contains(uuid), set.contains(uuid));
+        }
+        assertEquals(expected.size(), set.size());
+        Set<UUID> actual = new HashSet<>();
+        set.forEach(actual::add);
+        assertEquals(expected, actual);
+
+        assertEquals(expected.add(NIL), set.add(NIL));
+        assertFalse(set.add(0, 0));
+        assertTrue(set.contains(NIL));
+        assertEquals(expected.size(), set.size());
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(NIL));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the UUID conversions of {@link Utils} with the ByteBuffer and exception based implementations they replaced.
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark=UtilsBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilsBenchmark {
+
+    private UUID uuid;
+    private String dashed;
+    private String undashed;
+    private byte[] raw;
+    private final byte[] row = new byte[32];
+
+    @Setup
+    public void setup() {
+        uuid = UUID.randomUUID();
+        dashed = uuid.toString();
+        undashed = dashed.replace("-", "");
+        raw = Utils.getBytes(uuid);
+    }
+
+    @Benchmark
+    public UUID parseDashedLegacy() {
+        return legacyFormatUUID(dashed);
+    }
+
+    @Benchmark
+    public UUID parseDashed() {
+        return Utils.formatUUID(dashed);
+    }
+
+    @Benchmark
+    public UUID parseUndashedLegacy() {
+        return legacyFormatUUID(undashed);
+    }
+
+    @Benchmark
+    public UUID parseUndashed() {
+        return Utils.formatUUID(undashed);
+    }
+
+    @Benchmark
+    public String formatUndashedLegacy() {
+        return uuid.toString().replace("-", "");
+    }
+
+    @Benchmark
+    public String formatUndashed() {
+        return Utils.uuidToString(uuid, false);
+    }
+
+    @Benchmark
+    public UUID readBytesLegacy() {
+        ByteBuffer buffer = ByteBuffer.wrap(raw);
+        return new UUID(buffer.getLong(0), buffer.getLong(8));
+    }
+
+    @Benchmark
+    public UUID readBytes() {
+        return Utils.getUUID(raw, 0);
+    }
+
+    @Benchmark
+    public byte[] writeBytesLegacy() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[16]);
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+        return buffer.array();
+    }
+
+    @Benchmark
+    public byte[] writeBytes() {
+        return Utils.getBytes(uuid);
+    }
+
+    @Benchmark
+    public byte[] writeBytesInto() {
+        Utils.putBytes(uuid, row, 8);
+        return row;
+    }
+
+    private static UUID legacyFormatUUID(String uuid) {
+        try {
+            return UUID.fromString(uuid);
+        } catch (Exception e) {
+            StringBuilder sb = new StringBuilder(uuid);
+            for (int i = 0; i <= 3; i++) {
+                sb.insert(8 + (i * 5), "-");
+            }
+            return UUID.fromString(sb.toString());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class UtilsTest {
+
+    private static final UUID UUID_VALUE = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+
+    @Test
+    public void testFormatUUID() {
+        assertEquals(UUID_VALUE, Utils.formatUUID("069a79f4-44e9-4726-a5be-fca90e38aaf5"));
+        assertEquals(UUID_VALUE, Utils.formatUUID("069a79f444e94726a5befca90e38aaf5"));
+        assertEquals(UUID_VALUE, Utils.formatUUID("069A79F444E94726A5BEFCA90E38AAF5"));
+        assertEquals(new UUID(0x0000000100020003L, 0x0004000000000005L), Utils.formatUUID("1-2-3-4-5"));
+    }
+
+    @Test
+    public void testInvalidUUID() {
+        String[] invalid = {null, "", "069a79f444e94726a5befca90e38aafg",
+                "069a79f4+44e9-4726-a5be-fca90e38aaf5", "069a79f444e94726a5befca90e38aa\u00e9f"};
+        for (String uuid : invalid) {
+            try {
+                Utils.formatUUID(uuid);
+                throw new AssertionError("Parsed " + uuid);
+            } catch (IllegalArgumentException expected) {
+                assertEquals("Invalid UUID", expected.getMessage());
+            }
+            try {
+                Utils.parseUUID(uuid);
+                throw new AssertionError("Parsed " + uuid);
+            } catch (IllegalArgumentException expected) {
+                //expected
+            }
+        }
+        for (String uuid : new String[]{"1-2-3-4-5", "069a79f4-44e9-4726-a5be-fca90e38aaf"}) {
+            try {
+                Utils.parseUUID(uuid);
+                throw new AssertionError("Parsed non-canonical " + uuid);
+            } catch (IllegalArgumentException expected) {
+                //expected
+            }
+        }
+    }
+
+    @Test
+    public void testUUIDToString() {
+        assertEquals("069a79f4-44e9-4726-a5be-fca90e38aaf5", Utils.uuidToString(UUID_VALUE, true));
+        assertEquals("069a79f444e94726a5befca90e38aaf5", Utils.uuidToString(UUID_VALUE, false));
+
+        char[] buffer = new char[40];
+        Arrays.fill(buffer, '#');
+        assertEquals(36, Utils.writeUUID(UUID_VALUE, buffer, 2, true));
+        assertEquals("##069a79f4-44e9-4726-a5be-fca90e38aaf5##", new String(buffer));
+
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = UUID.randomUUID();
+            assertEquals(uuid.toString(), Utils.uuidToString(uuid, true));
+            assertEquals(uuid, Utils.parseUUID(Utils.uuidToString(uuid, false)));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testWriteUUIDOverflow() {
+        Utils.writeUUID(UUID_VALUE, new char[40], 5, true);
+    }
+
+    @Test
+    public void testBytes() {
+        byte[] expected = {0x06, (byte) 0x9a, 0x79, (byte) 0xf4, 0x44, (byte) 0xe9, 0x47, 0x26,
+                (byte) 0xa5, (byte) 0xbe, (byte) 0xfc, (byte) 0xa9, 0x0e, 0x38, (byte) 0xaa, (byte) 0xf5};
+        assertArrayEquals(expected, Utils.getBytes(UUID_VALUE));
+        assertEquals(UUID_VALUE, Utils.getUUID(expected));
+
+        byte[] row = new byte[20];
+        Utils.putBytes(UUID_VALUE, row, 4);
+        assertArrayEquals(expected, Arrays.copyOfRange(row, 4, 20));
+        assertEquals(UUID_VALUE, Utils.getUUID(row, 4));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testBytesUnderflow() {
+        Utils.getUUID(new byte[20], 5);
+    }
+
+    @Test
+    public void testBytesOverflow() {
+        byte[] row = new byte[20];
+        try {
+            Utils.putBytes(UUID_VALUE, row, 5);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            assertArrayEquals(new byte[20], row); //Nothing is written partially
+        }
+    }
+
+    @Test
+    public void testIPv4() {
+        assertTrue(Utils.validateIP("127.0.0.1"));
+        assertTrue(Utils.validateIP("010.000.0.001"));
+        assertTrue(Utils.validateIP("255.255.255.255"));
+        for (String ip : new String[]{"", "1.2.3", "1.2.3.4.", "1.2.3.4.5", "256.0.0.1", "1.2.3.0001", "1..3.4", "a.b.c.d", " 1.2.3.4"}) {
+            assertFalse(ip, Utils.validateIP(ip));
+        }
+        assertEquals(0xC0A80A01L, Utils.parseIPv4("192.168.10.1"));
+        assertEquals(0xFFFFFFFFL, Utils.parseIPv4("255.255.255.255"));
+        assertEquals(-1, Utils.parseIPv4("192.168.10"));
+        assertEquals("192.168.10.1", Utils.formatIPv4(0xC0A80A01L));
+    }
+
+    @Test
+    public void testIPv6() {
+        assertIPv6(0x20010db800000000L, 0x0000000000000001L, "2001:db8::1");
+        assertIPv6(0x20010db800000000L, 0x0000000000000001L, "2001:0DB8:0000:0000:0000:0000:0000:0001");
+        assertIPv6(0, 0, "::");
+        assertIPv6(0, 1, "::1");
+        assertIPv6(0x0001000000000000L, 0, "1::");
+        assertIPv6(0x0001000200030004L, 0x0005000600070008L, "1:2:3:4:5:6:7:8");
+        assertIPv6(0x0001000200030004L, 0x0005000600000008L, "1:2:3:4:5:6::8");
+        assertIPv6(0x0001000000000000L, 0x0000000000070008L, "1::7:8");
+        assertIPv6(0, 0x0000ffffc0a80001L, "::ffff:192.168.0.1");
+        assertIPv6(0x0001000200030004L, 0x00050006c0a80001L, "1:2:3:4:5:6:192.168.0.1");
+
+        long[] destination = new long[2];
+        for (String ip : new String[]{"", ":", ":1", "1:", "1:::2", "1::2::3", "1:2:3:4:5:6:7", "1:2:3:4:5:6:7:8:9",
+                "1:2:3:4:5:6:7:8::", "12345::", "g::", "::1.2.3", "1:2:3:4:5:6:7:1.2.3.4", "::1.2.3.4:5", "fe80::1%eth0"}) {
+            assertFalse(ip, Utils.parseIPv6(ip, destination));
+        }
+    }
+
+    private static void assertIPv6(long high, long low, String ip) {
+        long[] destination = new long[2];
+        assertTrue(ip, Utils.parseIPv6(ip, destination));
+        assertEquals(ip, high, destination[0]);
+        assertEquals(ip, low, destination[1]);
+    }
+}
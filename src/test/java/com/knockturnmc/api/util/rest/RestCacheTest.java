@@ -0,0 +1,157 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest;
+
+import com.knockturnmc.api.util.ContentType;
+import com.knockturnmc.api.util.RestClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RestCacheTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Map<String, AtomicInteger> bodiesSent = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private String base;
+
+    @Before
+    public void startServer() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/fresh", exchange -> respond(exchange, "max-age=60", "fresh"));
+        server.createContext("/nostore", exchange -> respond(exchange, "no-store", "nostore"));
+        server.createContext("/etag", exchange -> {
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            respond(exchange, "no-cache", "tagged");
+        });
+        server.createContext("/large", exchange -> {
+            char[] body = new char[600];
+            Arrays.fill(body, exchange.getRequestURI().getQuery().charAt(0));
+            respond(exchange, "max-age=60", new String(body));
+        });
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testFreshness() throws IOException {
+        RestCache cache = new RestCache(1024 * 1024);
+        RestClient client = client(cache);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("fresh", client.doGet(base + "/fresh"));
+            assertEquals("nostore", client.doGet(base + "/nostore"));
+        }
+        assertEquals(1, sent("/fresh"));
+        assertEquals(3, sent("/nostore"));
+        assertEquals(2, cache.getHits());
+
+        client.doPost(base + "/fresh", "{}"); //Invalidates the cached response
+        assertEquals("fresh", client.doGet(base + "/fresh"));
+        assertEquals(3, sent("/fresh"));
+    }
+
+    @Test
+    public void testRevalidation() throws IOException {
+        RestCache cache = new RestCache(1024 * 1024);
+        RestClient client = client(cache);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("tagged", client.doGet(base + "/etag"));
+        }
+        assertEquals(1, sent("/etag"));
+        assertEquals(2, cache.getRevalidations());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void testDiskTier() throws IOException {
+        RestCache cache = new RestCache(8 * 1024, folder.getRoot(), 1024 * 1024);
+        RestClient client = client(cache);
+
+        for (char c = 'a'; c <= 'z'; c++) {
+            client.doGet(base + "/large?" + c);
+        }
+        assertTrue(cache.getMemorySize() <= 8 * 1024);
+        assertTrue(cache.getDiskSize() > 0);
+
+        for (char c = 'a'; c <= 'z'; c++) {
+            assertEquals(c, client.doGet(base + "/large?" + c).charAt(599));
+        }
+        assertEquals(26, sent("/large"));
+
+        RestCache reopened = new RestCache(8 * 1024, folder.getRoot(), 1024 * 1024);
+        assertEquals('a', client(reopened).doGet(base + "/large?a").charAt(0));
+        assertEquals(26, sent("/large"));
+    }
+
+    private RestClient client(RestCache cache) {
+        return new RestClient(ContentType.JSON.getContentType(), RestClientSettings.builder().cache(cache).build()) {
+        };
+    }
+
+    private int sent(String path) {
+        AtomicInteger count = bodiesSent.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    private void respond(HttpExchange exchange, String cacheControl, String body) throws IOException {
+        bodiesSent.computeIfAbsent(exchange.getRequestURI().getPath(), path -> new AtomicInteger()).incrementAndGet();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.rest.json;
+
+import com.knockturnmc.api.util.rest.TypeReference;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class JsonCodecTest {
+
+    private final JsonCodec codec = new JsonCodec();
+
+    @Test
+    public void testReader() throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(" {\"a\": [1, -2.5e3, \"x\\n\\u00e9\"], \"b\": {\"c\": null}, \"d\": true} "));
+        reader.beginObject();
+        assertEquals("a", reader.nextName());
+        reader.beginArray();
+        assertEquals(JsonToken.NUMBER, reader.peek());
+        assertEquals(1, reader.nextInt());
+        assertEquals(-2500.0, reader.nextDouble(), 0);
+        assertEquals("x\né", reader.nextString());
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        assertEquals("b", reader.nextName());
+        reader.skipValue();
+        assertEquals("d", reader.nextName());
+        assertTrue(reader.nextBoolean());
+        reader.endObject();
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void testMalformed() {
+        for (String json : new String[]{"{\"a\" 1}", "[1,]", "[01]", "{\"a\":1} x", "\"unterminated", "[tru]", "{a:1}"}) {
+            try {
+                codec.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, Object.class);
+                fail("Accepted " + json);
+            } catch (IOException e) {
+                assertTrue(e instanceof JsonException);
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Profile profile = new Profile();
+        profile.id = UUID.randomUUID();
+        profile.name = "Quote \" and \\ and \t\u0001\u2028";
+        profile.level = 42;
+        profile.rank = Rank.ADMIN;
+        profile.tags = Arrays.asList("a", "b");
+        profile.scores = new HashMap<>();
+        profile.scores.put(Rank.USER, 1.5);
+        profile.friends = new Profile[]{new Profile()};
+        profile.cache = "ignored";
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(profile, out, StandardCharsets.UTF_8);
+        Profile read = (Profile) codec.read(new ByteArrayInputStream(out.toByteArray()), StandardCharsets.UTF_8, Profile.class);
+
+        assertEquals(profile.id, read.id);
+        assertEquals(profile.name, read.name);
+        assertEquals(42, read.level);
+        assertEquals(Rank.ADMIN, read.rank);
+        assertEquals(profile.tags, read.tags);
+        assertEquals(profile.scores, read.scores);
+        assertEquals(1, read.friends.length);
+        assertNull(read.friends[0].name);
+        assertNull(read.cache);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGenericTypes() throws IOException {
+        String json = "{\"ignored\": [{\"x\": 1}], \"values\": [3, 1, 3], \"level\": 7}";
+        Profile profile = (Profile) read(json, Profile.class);
+        assertEquals(7, profile.level);
+
+        Set<Integer> values = (Set<Integer>) ((Map<String, Object>) read("{\"v\":[3,1,3]}", new TypeReference<Map<String, Set<Integer>>>() {
+        }.getType())).get("v");
+        assertEquals(2, values.size());
+        assertTrue(values.contains(3));
+
+        List<Object> natural = (List<Object>) read("[1, 1.5, 12345678901234567890, \"s\", false, null, {}]", Object.class);
+        assertEquals(1L, natural.get(0));
+        assertEquals(1.5, natural.get(1));
+        assertEquals("12345678901234567890", natural.get(2).toString());
+        assertEquals(Boolean.FALSE, natural.get(4));
+        assertNull(natural.get(5));
+        assertTrue(natural.get(6) instanceof Map);
+    }
+
+    private Object read(String json, Type type) throws IOException {
+        return codec.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, type);
+    }
+
+    private enum Rank {
+        USER, ADMIN
+    }
+
+    private static class Profile {
+        private UUID id;
+        private String name;
+        private int level;
+        private Rank rank;
+        private List<String> tags;
+        private Map<Rank, Double> scores;
+        private Profile[] friends;
+        private transient String cache;
+    }
+}
@@ -0,0 +1,240 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.sql;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CachingDaoProviderTest {
+
+    @Test
+    public void testReadThroughAndInvalidation() {
+        TestProfileDao dao = new TestProfileDao();
+        CachingDaoProvider provider = new CachingDaoProvider(provider(dao), 16, 60000);
+        ProfileDao cached = provider.getDao(ProfileDao.class);
+
+        assertEquals("a:0", cached.getProfile("a"));
+        assertEquals("a:0", cached.getProfile("a"));
+        assertEquals("b:0", cached.getProfile("b"));
+        assertEquals(2, dao.queries.get());
+
+        cached.updateProfile("a", 5); //Only invalidates a
+        assertEquals("a:5", cached.getProfile("a"));
+        assertEquals("b:0", cached.getProfile("b"));
+        assertEquals(3, dao.queries.get());
+
+        provider.invalidate(ProfileDao.class, "b");
+        cached.getProfile("b");
+        assertEquals(4, dao.queries.get());
+
+        provider.invalidateAll();
+        cached.getProfile("a");
+        assertEquals(5, dao.queries.get());
+    }
+
+    @Test
+    public void testKeyMethod() {
+        TestProfileDao dao = new TestProfileDao();
+        ProfileDao cached = new CachingDaoProvider(provider(dao), 16, 60000).getDao(ProfileDao.class);
+
+        cached.getProfile("a");
+        cached.getProfile("b");
+        cached.saveProfile(new Profile("a", 3)); //Invalidates the results cached under its name
+        assertEquals("a:3", cached.getProfile("a"));
+        assertEquals("b:0", cached.getProfile("b"));
+        assertEquals(3, dao.queries.get());
+    }
+
+    @Test
+    public void testInvalidKeyMethod() {
+        try {
+            new CachingDaoProvider(provider(new InvalidDao() {
+                @Override
+                public void save(Profile profile) {
+                }
+            }), 16, 60000).getDao(InvalidDao.class);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("getId"));
+        }
+    }
+
+    @Test
+    public void testSizeAndTimeEviction() throws Exception {
+        TestProfileDao dao = new TestProfileDao();
+        ProfileDao cached = new CachingDaoProvider(provider(dao), 1, 60000).getDao(ProfileDao.class);
+
+        cached.getProfile("a");
+        cached.getProfile("b"); //Evicts a
+        cached.getProfile("a");
+        assertEquals(3, dao.queries.get());
+
+        cached.getShortLived("a");
+        Thread.sleep(20);
+        cached.getShortLived("a");
+        assertEquals(5, dao.queries.get());
+    }
+
+    @Test
+    public void testSharedLoads() throws Exception {
+        TestProfileDao dao = new TestProfileDao();
+        dao.latch = new CountDownLatch(1);
+        CachingDaoProvider provider = new CachingDaoProvider(provider(dao), 16, 60000);
+        ProfileDao cached = provider.getDao(ProfileDao.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cached.getProfile("a")));
+            }
+            while (provider.getCache(ProfileDao.class).getSharedLoads() < 7) Thread.sleep(1);
+            dao.latch.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("a:0", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, dao.queries.get());
+    }
+
+    @Test(timeout = 5000)
+    public void testInvalidatedLoadNotShared() throws Exception {
+        EntityCache<String, String> cache = new EntityCache<>(16, 60000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = executor.submit(() -> cache.get("a", () -> {
+                started.countDown();
+                release.await();
+                return "old";
+            }));
+            started.await();
+
+            cache.invalidate("a"); //Written after the running load read the row
+            assertEquals("new", cache.get("a", () -> "new"));
+
+            release.countDown();
+            assertEquals("old", stale.get(5, TimeUnit.SECONDS));
+            assertEquals("new", cache.getIfPresent("a"));
+            assertEquals(0, cache.getSharedLoads());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static DaoProvider provider(Dao dao) {
+        return new DaoProvider() {
+            @Override
+            public <T extends Dao> T getDao(Class<T> target) {
+                return target.cast(dao);
+            }
+        };
+    }
+
+    public interface ProfileDao extends Dao {
+
+        @Cached
+        String getProfile(String name);
+
+        @Cached(ttl = 10)
+        String getShortLived(String name);
+
+        @InvalidatesCache(keyArgument = 0)
+        void updateProfile(String name, int value);
+
+        @InvalidatesCache(keyArgument = 0, keyMethod = "getName")
+        void saveProfile(Profile profile);
+    }
+
+    public interface InvalidDao extends Dao {
+
+        @InvalidatesCache(keyArgument = 0, keyMethod = "getId")
+        void save(Profile profile);
+    }
+
+    public static class Profile {
+        private final String name;
+        private final int value;
+
+        public Profile(String name, int value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static class TestProfileDao implements ProfileDao {
+        private final AtomicInteger queries = new AtomicInteger();
+        private final Map<String, Integer> values = new ConcurrentHashMap<>();
+        private CountDownLatch latch;
+
+        @Override
+        public String getProfile(String name) {
+            queries.incrementAndGet();
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return name + ":" + values.getOrDefault(name, 0);
+        }
+
+        @Override
+        public String getShortLived(String name) {
+            return getProfile(name);
+        }
+
+        @Override
+        public void updateProfile(String name, int value) {
+            values.put(name, value);
+        }
+
+        @Override
+        public void saveProfile(Profile profile) {
+            values.put(profile.name, profile.value);
+        }
+    }
+}
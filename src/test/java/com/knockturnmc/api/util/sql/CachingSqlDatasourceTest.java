@@ -0,0 +1,147 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.sql;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CachingSqlDatasourceTest {
+
+    @Test
+    public void testStatementReuse() throws Exception {
+        FakeDatabase database = new FakeDatabase();
+        CachingSqlDatasource datasource = new CachingSqlDatasource(database::connect, 2);
+
+        try (Connection connection = datasource.getConnection()) {
+            PreparedStatement first = connection.prepareStatement("SELECT 1");
+            first.setInt(1, 5);
+            first.close();
+            assertTrue(first.isClosed());
+
+            PreparedStatement second = connection.prepareStatement("SELECT 1");
+            second.close();
+        }
+
+        assertEquals(1, database.prepared.get());
+        assertEquals(2, database.clearedParameters.get());
+        assertEquals(1, datasource.getHits());
+        assertEquals(1, datasource.getMisses());
+    }
+
+    @Test
+    public void testConcurrentUseAndEviction() throws Exception {
+        FakeDatabase database = new FakeDatabase();
+        CachingSqlDatasource datasource = new CachingSqlDatasource(database::connect, 2);
+
+        try (Connection connection = datasource.getConnection()) {
+            PreparedStatement first = connection.prepareStatement("SELECT 1");
+            PreparedStatement second = connection.prepareStatement("SELECT 1"); //Cached one is borrowed
+            second.close();
+            first.close();
+            assertEquals(2, database.prepared.get());
+            assertEquals(1, database.closed.get());
+
+            connection.prepareStatement("SELECT 2").close();
+            connection.prepareStatement("SELECT 3").close(); //Evicts SELECT 1
+            assertEquals(1, datasource.getEvictions());
+            assertEquals(2, database.closed.get());
+        }
+
+        datasource.clear();
+        assertEquals(4, database.closed.get());
+    }
+
+    @Test
+    public void testUnclosedStatementReturned() throws Exception {
+        FakeDatabase database = new FakeDatabase();
+        CachingSqlDatasource datasource = new CachingSqlDatasource(database::connect, 2);
+
+        PreparedStatement leaked;
+        try (Connection connection = datasource.getConnection()) {
+            leaked = connection.prepareStatement("SELECT 1");
+        }
+        assertTrue(leaked.isClosed());
+
+        try (Connection connection = datasource.getConnection()) {
+            connection.prepareStatement("SELECT 1").close();
+        }
+
+        assertEquals(1, database.prepared.get());
+        assertEquals(1, datasource.getHits());
+        assertEquals(0, database.closed.get());
+    }
+
+    /**
+     * A stub database that counts the calls to its statements
+     */
+    private static class FakeDatabase {
+        private final AtomicInteger prepared = new AtomicInteger();
+        private final AtomicInteger clearedParameters = new AtomicInteger();
+        private final AtomicInteger closed = new AtomicInteger();
+        private final List<Connection> connections = new ArrayList<>();
+
+        private Connection connect() {
+            if (!connections.isEmpty()) return connections.get(0);
+            Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "prepareStatement":
+                        prepared.incrementAndGet();
+                        return statement();
+                    case "isWrapperFor":
+                    case "isClosed":
+                        return false;
+                    default:
+                        return null;
+                }
+            });
+            connections.add(connection);
+            return connection;
+        }
+
+        private PreparedStatement statement() {
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "clearParameters":
+                        clearedParameters.incrementAndGet();
+                        return null;
+                    case "close":
+                        closed.incrementAndGet();
+                        return null;
+                    case "isClosed":
+                        return false;
+                    default:
+                        return null;
+                }
+            });
+        }
+    }
+}
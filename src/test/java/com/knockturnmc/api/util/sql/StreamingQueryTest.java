@@ -0,0 +1,164 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+package com.knockturnmc.api.util.sql;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class StreamingQueryTest {
+
+    @Test
+    public void testExhaustionReleasesConnection() throws Exception {
+        FakeTable table = new FakeTable(5);
+        List<Integer> rows = new StreamingQuery(table::connect, "SELECT id FROM test")
+                .fetchSize(2)
+                .stream(rs -> rs.getInt(1))
+                .collect(Collectors.toList());
+
+        assertEquals(5, rows.size());
+        assertEquals(2, table.fetchSize.get());
+        assertTrue(table.connectionClosed.get());
+        assertTrue(table.autoCommit.get());
+    }
+
+    @Test
+    public void testCloseReleasesConnection() throws Exception {
+        FakeTable table = new FakeTable(1000);
+        try (Stream<Integer> rows = new StreamingQuery(table::connect, "SELECT id FROM test").stream(rs -> rs.getInt(1))) {
+            assertEquals(Integer.valueOf(1), rows.findFirst().orElse(null));
+            assertFalse(table.autoCommit.get());
+        }
+
+        assertEquals(1, table.cursor.get());
+        assertTrue(table.connectionClosed.get());
+        assertTrue(table.autoCommit.get());
+    }
+
+    @Test
+    public void testIterator() throws Exception {
+        FakeTable table = new FakeTable(2);
+        Iterator<Integer> iterator = new StreamingQuery(table::connect, "SELECT id FROM test").iterator(rs -> rs.getInt(1));
+        assertTrue(iterator.hasNext());
+        assertEquals(Integer.valueOf(1), iterator.next());
+        assertEquals(Integer.valueOf(2), iterator.next());
+        assertFalse(table.connectionClosed.get());
+        assertFalse(iterator.hasNext());
+        assertTrue(table.connectionClosed.get());
+    }
+
+    @Test
+    public void testFailedCommitRestoresAutoCommit() throws Exception {
+        FakeTable table = new FakeTable(1000);
+        table.failCommit = true;
+        Stream<Integer> rows = new StreamingQuery(table::connect, "SELECT id FROM test").stream(rs -> rs.getInt(1));
+        assertEquals(Integer.valueOf(1), rows.findFirst().orElse(null));
+
+        try {
+            rows.close();
+            fail();
+        } catch (UncheckedSqlException e) {
+            assertEquals("Commit failed", e.getCause().getMessage());
+        }
+        assertTrue(table.resultSetClosed.get());
+        assertTrue(table.autoCommit.get());
+        assertTrue(table.connectionClosed.get());
+    }
+
+    /**
+     * A stub table with a single integer column
+     */
+    private static class FakeTable {
+        private final int rows;
+        private final AtomicInteger cursor = new AtomicInteger();
+        private final AtomicInteger fetchSize = new AtomicInteger();
+        private final AtomicBoolean autoCommit = new AtomicBoolean(true);
+        private final AtomicBoolean connectionClosed = new AtomicBoolean();
+        private final AtomicBoolean resultSetClosed = new AtomicBoolean();
+        private boolean failCommit;
+
+        private FakeTable(int rows) {
+            this.rows = rows;
+        }
+
+        private Connection connect() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getAutoCommit":
+                        return autoCommit.get();
+                    case "setAutoCommit":
+                        autoCommit.set((Boolean) args[0]);
+                        return null;
+                    case "commit":
+                        if (failCommit && !resultSetClosed.get()) throw new SQLException("Streaming result set is still open");
+                        if (failCommit) throw new SQLException("Commit failed");
+                        return null;
+                    case "prepareStatement":
+                        return statement();
+                    case "close":
+                        connectionClosed.set(true);
+                        return null;
+                    default:
+                        return null;
+                }
+            });
+        }
+
+        private PreparedStatement statement() {
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                if (method.getName().equals("setFetchSize")) fetchSize.set((Integer) args[0]);
+                if (method.getName().equals("executeQuery")) return resultSet();
+                return null;
+            });
+        }
+
+        private ResultSet resultSet() {
+            return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "next":
+                        return cursor.incrementAndGet() <= rows;
+                    case "getInt":
+                        return cursor.get();
+                    case "close":
+                        resultSetClosed.set(true);
+                        return null;
+                    default:
+                        return null;
+                }
+            });
+        }
+    }
+}
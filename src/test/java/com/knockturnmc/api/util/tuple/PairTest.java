@@ -0,0 +1,132 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2016 Sven Olderaan, http://knockturnmc.com/
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ */
+
+
+package com.knockturnmc.api.util.tuple;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PairTest {
+
+    @Test
+    public void testPairs() {
+        assertEquals(IntIntPair.of(1, 2), IntIntPair.of(1, 2));
+        assertEquals(IntIntPair.of(1, 2).hashCode(), IntIntPair.of(1, 2).hashCode());
+        assertNotEquals(IntIntPair.of(1, 2), IntIntPair.of(2, 1));
+        assertEquals(IntLongPair.of(1, 2L), IntLongPair.of(1, 2L));
+        assertEquals(LongLongPair.of(1L, 2L), LongLongPair.of(1L, 2L));
+        assertEquals(ObjectIntPair.of("a", 1), ObjectIntPair.of("a", 1));
+        assertEquals(ObjectLongPair.of(null, 1L), ObjectLongPair.of(null, 1L));
+        assertNotEquals(ObjectIntPair.of("a", 1), ObjectIntPair.of("b", 1));
+        assertEquals("(1,2)", IntIntPair.of(1, 2).toString());
+        assertTrue(LongLongPair.of(1, 5).compareTo(LongLongPair.of(2, 0)) < 0);
+
+        List<ObjectIntPair<String>> scores = new ArrayList<>(Arrays.asList(ObjectIntPair.of("b", 3), ObjectIntPair.of("a", 1)));
+        scores.sort(ObjectIntPair.byInt());
+        assertEquals("a", scores.get(0).get_0());
+    }
+
+    @Test
+    public void testPacking() {
+        int[] values = {0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        for (int first : values) {
+            for (int second : values) {
+                long packed = IntIntPair.pack(first, second);
+                assertEquals(first, IntIntPair.first(packed));
+                assertEquals(second, IntIntPair.second(packed));
+                assertEquals(IntIntPair.of(first, second), IntIntPair.unpack(packed));
+                assertEquals(packed, IntIntPair.of(first, second).pack());
+            }
+        }
+    }
+
+    @Test
+    public void testHashSpread() {
+        //Neighbouring coordinates have to land in different slots of small power of two tables
+        Set<Integer> slots = new HashSet<>();
+        for (int x = 0; x < 32; x++) {
+            for (int z = 0; z < 32; z++) {
+                slots.add(IntIntPair.of(x, z).hashCode() & 1023);
+            }
+        }
+        assertTrue(slots.size() > 600);
+    }
+
+    @Test
+    public void testIntIntPairMap() {
+        Random random = new Random(3);
+        IntIntPairMap<Integer> map = new IntIntPairMap<>(0);
+        Map<IntIntPair, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            int first = random.nextInt(50) - 25;
+            int second = random.nextInt(50) - 25;
+            if (random.nextInt(3) < 2)
+                assertEquals(expected.put(IntIntPair.of(first, second), i), map.put(first, second, i));
+            else
+                assertEquals(expected.remove(IntIntPair.of(first, second)), map.remove(first, second));
+        }
+        assertEquals(expected.size(), map.size());
+        Map<IntIntPair, Integer> actual = new HashMap<>();
+        map.forEach((first, second, value) -> actual.put(IntIntPair.of(first, second), value));
+        assertEquals(expected, actual);
+
+        assertEquals("x", new IntIntPairMap<String>().computeIfAbsent(0, 0, (first, second) -> "x"));
+        map.clear();
+        assertNull(map.get(IntIntPair.of(0, 0)));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testLongLongPairMap() {
+        Random random = new Random(4);
+        LongLongPairMap<Integer> map = new LongLongPairMap<>();
+        Map<LongLongPair, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            long first = random.nextInt(40) * 1_000_000_007L;
+            long second = random.nextInt(40);
+            if (random.nextInt(3) < 2)
+                assertEquals(expected.put(LongLongPair.of(first, second), i), map.put(first, second, i));
+            else
+                assertEquals(expected.remove(LongLongPair.of(first, second)), map.remove(first, second));
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<LongLongPair, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(Integer.valueOf(-1), map.getOrDefault(-1, -1, -1));
+    }
+}